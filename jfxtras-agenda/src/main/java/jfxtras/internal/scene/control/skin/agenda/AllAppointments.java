@@ -27,8 +27,13 @@
 package jfxtras.internal.scene.control.skin.agenda;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -38,6 +43,10 @@ import jfxtras.scene.control.agenda.Agenda.Appointment;
 
 /**
  * Capture the logic to extract the different types of appointments in one place.
+ *
+ * The appointments are indexed per date, so collecting the appointments for a day only visits the appointments of that day.
+ * The index follows the changes of the appointments list, but it cannot see appointments being modified in place (e.g. dragged to another day);
+ * after that invalidate() must be called.
  * 
  * @author Tom Eugelink
  */
@@ -56,6 +65,7 @@ public class AllAppointments {
 	final private ListChangeListener<Appointment> listChangeListener = new ListChangeListener<Appointment>() {
 		@Override
 		public void onChanged(javafx.collections.ListChangeListener.Change<? extends Appointment> changes) {
+			updateIndex(changes);
 			fireOnChangeListener();
 		}
 	};
@@ -81,63 +91,256 @@ public class AllAppointments {
 	 * 
 	 */
 	public List<Appointment> collectWholedayFor(LocalDate localDate) {
-		List<Appointment> collectedAppointments = new ArrayList<>();
-		
-		// scan all appointments and filter the ones for this day
-		for (Agenda.Appointment lAppointment : appointments) {
-			if (lAppointment.isWholeDay()) {
-				
-				LocalDate startLocalDate = lAppointment.getStartLocalDateTime().toLocalDate();
-				LocalDate endLocalDate = (lAppointment.getEndLocalDateTime() == null ? startLocalDate : lAppointment.getEndLocalDateTime().minusNanos(1).toLocalDate());  // end is exclusive, so subtract one nano
-				if ( (startLocalDate.isEqual(localDate) || startLocalDate.isBefore(localDate))
-				  && (endLocalDate.isEqual(localDate) || endLocalDate.isAfter(localDate)) 
-				) {
-					collectedAppointments.add(lAppointment);
-				}
-			}
-		}
-		return collectedAppointments;
+		return collectFor(localDate, Kind.WHOLEDAY);
 	}
 	
 	/**
 	 * 
 	 */
 	public List<Appointment> collectTaskFor(LocalDate localDate) {
-		List<Appointment> collectedAppointments = new ArrayList<>();
-		
-		// scan all appointments and filter the ones for this day
-		for (Agenda.Appointment lAppointment : appointments) {
-			// an not-wholeday appointment WITHOUT an end is a task
-			if (!lAppointment.isWholeDay() && lAppointment.getEndLocalDateTime() == null) {
-				
-				if (lAppointment.getStartLocalDateTime().toLocalDate().isEqual(localDate)) {
-					collectedAppointments.add(lAppointment);
-				}
-			}
-		}
-		return collectedAppointments;
+		return collectFor(localDate, Kind.TASK);
 	}
 	
 	/**
 	 * 
 	 */
 	public List<Appointment> collectRegularFor(LocalDate localDate) {
-		List<Appointment> collectedAppointments = new ArrayList<>();
-		
-		// scan all appointments and filter the ones for this day
-		for (Agenda.Appointment lAppointment : appointments) {
+		return collectFor(localDate, Kind.REGULAR);
+	}
+
+	/**
+	 * Discard the index, it is rebuilt on the next collect.
+	 * This must be called when appointments have been modified in place.
+	 */
+	public void invalidate() {
+		isIndexValid = false;
+	}
+
+	// =====================================================================================================
+	// INDEX
+
+	/**
+	 * Appointments spanning more days than this are not put in the per date buckets, but are scanned on each collect
+	 */
+	final static int MAX_BUCKET_DAYS = 62;
+
+	/**
+	 * The type of an appointment determines which collect method returns it
+	 */
+	static enum Kind {
+		WHOLEDAY, TASK, REGULAR;
+
+		static Kind of(Appointment appointment) {
+			if (appointment.isWholeDay()) {
+				return WHOLEDAY;
+			}
+			// an not-wholeday appointment WITHOUT an end is a task
+			if (appointment.getEndLocalDateTime() == null) {
+				return TASK;
+			}
 			// an not-wholeday appointment WITH a set enddate is a regular appointment
-			if (!lAppointment.isWholeDay() && lAppointment.getEndLocalDateTime() != null) {
-				
-				LocalDate startLocalDate = lAppointment.getStartLocalDateTime().toLocalDate();
-				LocalDate endLocalDate = lAppointment.getEndLocalDateTime().minusNanos(1).toLocalDate();  // end is exclusive, so subtract one nano
-				if ( (startLocalDate.isEqual(localDate) || startLocalDate.isBefore(localDate))
-				  && (endLocalDate.isEqual(localDate) || endLocalDate.isAfter(localDate)) 
-				) {
-					collectedAppointments.add(lAppointment);
-				}
+			return REGULAR;
+		}
+
+		/**
+		 * the last date the appointment is shown on
+		 */
+		LocalDate lastLocalDate(Appointment appointment) {
+			LocalDate startLocalDate = appointment.getStartLocalDateTime().toLocalDate();
+			if (this == TASK || appointment.getEndLocalDateTime() == null) {
+				return startLocalDate;
+			}
+			return appointment.getEndLocalDateTime().minusNanos(1).toLocalDate(); // end is exclusive, so subtract one nano
+		}
+
+		/**
+		 * the check the index is based on, done against the current state of the appointment
+		 */
+		boolean matches(Appointment appointment, LocalDate localDate) {
+			if (of(appointment) != this) {
+				return false;
+			}
+			LocalDate startLocalDate = appointment.getStartLocalDateTime().toLocalDate();
+			LocalDate endLocalDate = lastLocalDate(appointment);
+			return !startLocalDate.isAfter(localDate) && !endLocalDate.isBefore(localDate);
+		}
+	}
+
+	/**
+	 * An appointment as it was indexed
+	 */
+	static class Entry {
+		Entry(Appointment appointment, long sequence) {
+			this.appointment = appointment;
+			this.sequence = sequence;
+			this.kind = Kind.of(appointment);
+			this.startLocalDate = appointment.getStartLocalDateTime().toLocalDate();
+			this.endLocalDate = kind.lastLocalDate(appointment);
+		}
+		final Appointment appointment;
+		final long sequence; // the position in the appointments list, so results can be returned in list order
+		final Kind kind;
+		final LocalDate startLocalDate;
+		final LocalDate endLocalDate;
+
+		boolean isSpanning() {
+			return ChronoUnit.DAYS.between(startLocalDate, endLocalDate) >= MAX_BUCKET_DAYS;
+		}
+
+		boolean covers(LocalDate localDate) {
+			return !startLocalDate.isAfter(localDate) && !endLocalDate.isBefore(localDate);
+		}
+	}
+
+	/**
+	 * The entries of one date, per kind
+	 */
+	static class Bucket {
+		final List<Entry> wholedayEntries = new ArrayList<>();
+		final List<Entry> taskEntries = new ArrayList<>();
+		final List<Entry> regularEntries = new ArrayList<>();
+
+		List<Entry> entries(Kind kind) {
+			switch (kind) {
+				case WHOLEDAY: return wholedayEntries;
+				case TASK: return taskEntries;
+				default: return regularEntries;
+			}
+		}
+
+		boolean isEmpty() {
+			return wholedayEntries.isEmpty() && taskEntries.isEmpty() && regularEntries.isEmpty();
+		}
+	}
+	final private Map<LocalDate, Bucket> buckets = new HashMap<>();
+	final private List<Entry> spanningEntries = new ArrayList<>();
+	final private Map<Appointment, List<Entry>> appointmentToEntries = new IdentityHashMap<>(); // an appointment may be present in the list more than once
+	private long sequence = 0;
+	private boolean isIndexValid = false;
+
+	/*
+	 *
+	 */
+	private List<Appointment> collectFor(LocalDate localDate, Kind kind) {
+		validateIndex();
+
+		// the entries in the bucket of this date are in list order
+		List<Entry> lEntries = new ArrayList<>();
+		Bucket lBucket = buckets.get(localDate);
+		if (lBucket != null) {
+			lEntries.addAll(lBucket.entries(kind));
+		}
+
+		// long spanning entries need to be merged in
+		boolean lSpanningAdded = false;
+		for (Entry lEntry : spanningEntries) {
+			if (lEntry.kind == kind && lEntry.covers(localDate)) {
+				lEntries.add(lEntry);
+				lSpanningAdded = true;
+			}
+		}
+		if (lSpanningAdded) {
+			lEntries.sort(Comparator.comparingLong(entry -> entry.sequence));
+		}
+
+		// recheck against the current state of the appointment, in case it was modified without calling invalidate
+		List<Appointment> collectedAppointments = new ArrayList<>();
+		for (Entry lEntry : lEntries) {
+			if (kind.matches(lEntry.appointment, localDate)) {
+				collectedAppointments.add(lEntry.appointment);
 			}
 		}
 		return collectedAppointments;
 	}
+
+	/*
+	 *
+	 */
+	private void validateIndex() {
+		if (isIndexValid) {
+			return;
+		}
+		buckets.clear();
+		spanningEntries.clear();
+		appointmentToEntries.clear();
+		sequence = 0;
+		for (Appointment lAppointment : appointments) {
+			addToIndex(lAppointment);
+		}
+		isIndexValid = true;
+	}
+
+	/*
+	 * Removals can always be processed, additions only if they are appended; anything else results in a rebuild of the index
+	 */
+	private void updateIndex(ListChangeListener.Change<? extends Appointment> changes) {
+		while (isIndexValid && changes.next()) {
+			if (changes.wasPermutated()) {
+				invalidate();
+				break;
+			}
+			if (changes.wasRemoved()) {
+				for (Appointment lAppointment : changes.getRemoved()) {
+					removeFromIndex(lAppointment);
+				}
+			}
+			if (changes.wasAdded()) {
+				if (changes.getTo() != changes.getList().size()) {
+					invalidate();
+					break;
+				}
+				for (Appointment lAppointment : changes.getAddedSubList()) {
+					addToIndex(lAppointment);
+				}
+			}
+		}
+	}
+
+	/*
+	 *
+	 */
+	private void addToIndex(Appointment appointment) {
+		if (appointment.getStartLocalDateTime() == null) {
+			return;
+		}
+		Entry lEntry = new Entry(appointment, sequence++);
+		appointmentToEntries.computeIfAbsent(appointment, a -> new ArrayList<>(1)).add(lEntry);
+		if (lEntry.isSpanning()) {
+			spanningEntries.add(lEntry);
+			return;
+		}
+		for (LocalDate lLocalDate = lEntry.startLocalDate; !lLocalDate.isAfter(lEntry.endLocalDate); lLocalDate = lLocalDate.plusDays(1)) {
+			buckets.computeIfAbsent(lLocalDate, d -> new Bucket()).entries(lEntry.kind).add(lEntry);
+		}
+	}
+
+	/*
+	 *
+	 */
+	private void removeFromIndex(Appointment appointment) {
+		List<Entry> lEntries = appointmentToEntries.get(appointment);
+		if (lEntries == null) {
+			return;
+		}
+		// if the appointment is in the list more than once, it is unknown which occurrence was removed
+		if (lEntries.size() > 1) {
+			invalidate();
+			return;
+		}
+		Entry lEntry = lEntries.get(0);
+		appointmentToEntries.remove(appointment);
+		if (lEntry.isSpanning()) {
+			spanningEntries.remove(lEntry);
+			return;
+		}
+		for (LocalDate lLocalDate = lEntry.startLocalDate; !lLocalDate.isAfter(lEntry.endLocalDate); lLocalDate = lLocalDate.plusDays(1)) {
+			Bucket lBucket = buckets.get(lLocalDate);
+			if (lBucket != null) {
+				lBucket.entries(lEntry.kind).remove(lEntry);
+				if (lBucket.isEmpty()) {
+					buckets.remove(lLocalDate);
+				}
+			}
+		}
+	}
 }
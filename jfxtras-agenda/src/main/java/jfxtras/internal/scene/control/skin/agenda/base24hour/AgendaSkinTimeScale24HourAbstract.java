@@ -46,7 +46,9 @@ import javafx.beans.value.ChangeListener;
 import javafx.collections.ListChangeListener;
 import javafx.css.CssMetaData;
 import javafx.css.SimpleStyleableObjectProperty;
+import javafx.css.StyleConverter;
 import javafx.css.Styleable;
+import javafx.geometry.Bounds;
 import javafx.print.PageLayout;
 import javafx.print.PrinterJob;
 import javafx.scene.Node;
@@ -138,7 +140,8 @@ implements AgendaSkin
 		setupAppointments();
 	};
 	private ListChangeListener<Agenda.Appointment> appointmentsListChangeListener = (changes) -> {
-		setupAppointments();
+		this.appointmentsChangeCount++; // qualified, because the field is declared further down
+		requestSetupAppointments();
 	};
     private ListChangeListener<Agenda.Appointment> appointmentNodeMapCleanUpListChangeListener = (changes) -> {
         while (changes.next()) {
@@ -229,9 +232,50 @@ implements AgendaSkin
 	}
 
 	/**
-	 * Have all days reconstruct the appointments
+	 * Have all days reconstruct the appointments in the next layout pass.
+	 * This coalesces a burst of changes, like many appointments added one by one, into a single reconstruction per pulse.
+	 */
+	void requestSetupAppointments() {
+		isSetupAppointmentsRequested = true;
+		getSkinnable().requestLayout();
+	}
+	private boolean isSetupAppointmentsRequested = false;
+	
+	@Override
+	protected void layoutChildren(double contentX, double contentY, double contentWidth, double contentHeight) {
+		if (isSetupAppointmentsRequested && !getSkinnable().isBatchUpdating()) {
+			reconstructAppointments();
+		}
+		super.layoutChildren(contentX, contentY, contentWidth, contentHeight);
+	}
+	
+	/**
+	 * @return the number of times the days reconstructed the appointments, together with getAppointmentsChangeCount() this shows how well changes are coalesced
+	 */
+	public long getSetupAppointmentsCount() { return setupAppointmentsCount; }
+	private long setupAppointmentsCount = 0;
+	
+	/**
+	 * @return the number of changes to the appointments list
+	 */
+	public long getAppointmentsChangeCount() { return appointmentsChangeCount; }
+	private long appointmentsChangeCount = 0;
+
+	/**
+	 * Have all days reconstruct the appointments.
+	 * This is called after appointments were modified in place, so the date index is rebuilt as well.
 	 */
 	public void setupAppointments() {
+		appointments.invalidate();
+		reconstructAppointments();
+	}
+
+	/*
+	 * List changes already are processed by the date index, so this only reconstructs the days
+	 */
+	private void reconstructAppointments() {
+		isSetupAppointmentsRequested = false;
+		setupAppointmentsCount++;
 		for (DayHeaderPane lDay : weekHeaderPane.dayHeaderPanes) {
 			lDay.setupAppointments();
 		}
@@ -248,6 +292,7 @@ implements AgendaSkin
 	public void refresh() {
 		assignDateToDayAndHeaderPanes();
 		refreshLocale();
+		appointmentPanePool.clear(); // a refresh renders all appointment panes anew, for example because the locale has changed
 		setupAppointments();
 		nowUpdateRunnable.run(); 
 	}
@@ -256,9 +301,31 @@ implements AgendaSkin
 	 * 
 	 */
 	@Override
-    public Pane getNodeForPopup(Appointment appointment) { return appointmentNodeMap.get(System.identityHashCode(appointment)); }
+    public Pane getNodeForPopup(Appointment appointment) { 
+		// a reconstruction may still be pending for the next layout pass, so the appointment may not have a pane yet
+		if (isSetupAppointmentsRequested && !getSkinnable().isBatchUpdating()) {
+			reconstructAppointments();
+		}
+		Pane lPane = appointmentNodeMap.get(System.identityHashCode(appointment));
+		
+		// when virtualized, the appointment may not have a pane because it is not visible, so create it on demand 
+		if (lPane == null && isVirtualized()) {
+			for (DayBodyPane lDayBodyPane : weekBodyPane.dayBodyPanes) {
+				if (lDayBodyPane.materializeAppointment(appointment)) {
+					lPane = appointmentNodeMap.get(System.identityHashCode(appointment));
+					break;
+				}
+			}
+		}
+		return lPane;
+	}
     final private Map<Integer, Pane> appointmentNodeMap = new HashMap<>();
     Map<Integer, Pane> appointmentNodeMap() { return appointmentNodeMap; }
+    
+    /**
+     * The days reuse the panes of appointments that did not change
+     */
+    final AppointmentPanePool appointmentPanePool = new AppointmentPanePool();
 	
 	// ==================================================================================================================
 	// StyleableProperties
@@ -274,6 +341,39 @@ implements AgendaSkin
     public final double getSnapToMinutes() { return snapToMinutesProperty.get().intValue(); }
     public final T withSnapToMinutes(double value) { setSnapToMinutes(value); return (T)this; }
 
+    /**
+     * virtualized: only create panes for the regular and task appointments in the visible part of the days, for calendars with many appointments per day
+     */
+    public final ObjectProperty<Boolean> virtualizedProperty() { return virtualizedProperty; }
+    private ObjectProperty<Boolean> virtualizedProperty = new SimpleStyleableObjectProperty<Boolean>(StyleableProperties.VIRTUALIZED_CSSMETADATA, StyleableProperties.VIRTUALIZED_CSSMETADATA.getInitialValue(null)) {
+    	@Override
+    	protected void invalidated() {
+    		updateVirtualization(true);
+    	}
+    };
+    public final void setVirtualized(boolean value) { virtualizedProperty().set(value); }
+    public final boolean isVirtualized() { return virtualizedProperty.get(); }
+    public final T withVirtualized(boolean value) { setVirtualized(value); return (T)this; }
+
+    /**
+     * legacySelectedStyleClass: also give the panes of selected appointments the "Selected" style class, for stylesheets written against .Agenda .Selected
+     * @deprecated style selected appointments with the :selected pseudo-class, changing a style class makes JavaFX reapply the CSS of the pane
+     */
+    @Deprecated
+    public final ObjectProperty<Boolean> legacySelectedStyleClassProperty() { return legacySelectedStyleClassProperty; }
+    private ObjectProperty<Boolean> legacySelectedStyleClassProperty = new SimpleStyleableObjectProperty<Boolean>(StyleableProperties.LEGACY_SELECTED_STYLE_CLASS_CSSMETADATA, StyleableProperties.LEGACY_SELECTED_STYLE_CLASS_CSSMETADATA.getInitialValue(null)) {
+    	@Override
+    	protected void invalidated() {
+    		layoutHelp.appointmentSelection.refresh();
+    	}
+    };
+    @Deprecated
+    public final void setLegacySelectedStyleClass(boolean value) { legacySelectedStyleClassProperty().set(value); }
+    @Deprecated
+    public final boolean isLegacySelectedStyleClass() { return legacySelectedStyleClassProperty.get(); }
+    @Deprecated
+    public final T withLegacySelectedStyleClass(boolean value) { setLegacySelectedStyleClass(value); return (T)this; }
+
     // -------------------------
         
     private static class StyleableProperties 
@@ -285,10 +385,26 @@ implements AgendaSkin
             }
         };
         
+        private static final CssMetaData<Agenda, Boolean> VIRTUALIZED_CSSMETADATA = new CssMetaDataForSkinProperty<Agenda, AgendaSkinTimeScale24HourAbstract<?>, Boolean>("-fxx-virtualized", StyleConverter.getBooleanConverter(), false ) {
+        	@Override 
+        	protected ObjectProperty<Boolean> getProperty(AgendaSkinTimeScale24HourAbstract<?> s) {
+            	return s.virtualizedProperty;
+            }
+        };
+        
+        private static final CssMetaData<Agenda, Boolean> LEGACY_SELECTED_STYLE_CLASS_CSSMETADATA = new CssMetaDataForSkinProperty<Agenda, AgendaSkinTimeScale24HourAbstract<?>, Boolean>("-fxx-legacy-selected-style-class", StyleConverter.getBooleanConverter(), false ) {
+        	@Override 
+        	protected ObjectProperty<Boolean> getProperty(AgendaSkinTimeScale24HourAbstract<?> s) {
+            	return s.legacySelectedStyleClassProperty;
+            }
+        };
+        
         private static final List<CssMetaData<? extends Styleable, ?>> STYLEABLES;
         static  {
             final List<CssMetaData<? extends Styleable, ?>> styleables = new ArrayList<CssMetaData<? extends Styleable, ?>>(SkinBase.getClassCssMetaData());
             styleables.add(SNAPTOMINUTES_CSSMETADATA);
+            styleables.add(VIRTUALIZED_CSSMETADATA);
+            styleables.add(LEGACY_SELECTED_STYLE_CLASS_CSSMETADATA);
             STYLEABLES = Collections.unmodifiableList(styleables);                
         }
     }
@@ -344,8 +460,12 @@ implements AgendaSkin
 		// bind to the scrollpane's viewport
 		weekScrollPane.viewportBoundsProperty().addListener( (observable) -> {
 			calculateSizes();
+			updateVirtualization(false);
 			nowUpdateRunnable.run();
 		});
+		weekScrollPane.vvalueProperty().addListener( (observable) -> {
+			updateVirtualization(false);
+		});
 		
 		// borderpane top: header has to be created after the content, because there is a binding
 		weekHeaderPane = new WeekHeaderPane(weekBodyPane); // must be done after the WeekBodyPane
@@ -461,6 +581,79 @@ implements AgendaSkin
 			getChildren().clear();
 			construct();
 		}
+	}
+	
+	// ==================================================================================================================
+	// VIRTUALIZATION
+	
+	/**
+	 * When virtualized, the appointments up to this many minutes outside the visible part of the days also have a pane, so scrolling a little does not require any changes
+	 */
+	final static int VIRTUALIZATION_OVERSCAN_MINUTES = 60;
+	
+	/**
+	 * When virtualized, only the regular and task appointments intersecting this range, in minutes of the day, have a pane.
+	 * Using minutes instead of pixels means the range stays valid when the height of the days changes.
+	 */
+	double materializedFromMinute = 0;
+	double materializedToMinute = 24 * 60;
+	
+	/**
+	 * Recycle the panes of appointments that scrolled out of view and create the ones that scrolled into view 
+	 */
+	private void updateVirtualization(boolean force) {
+		if (weekScrollPane == null) {
+			return; // not constructed yet
+		}
+		
+		// determine the range that should have panes
+		double lFromMinute = 0;
+		double lToMinute = 24 * 60;
+		if (isVirtualized()) {
+			double[] lVisibleMinutes = determineVisibleMinutes();
+			if (lVisibleMinutes == null) {
+				// not laid out yet, so nothing is visible
+				lFromMinute = 0;
+				lToMinute = -1;
+			}
+			else {
+				// if the visible part still is covered by the overscan, there is nothing to do
+				if (!force && lVisibleMinutes[0] >= materializedFromMinute && lVisibleMinutes[1] <= materializedToMinute) {
+					return;
+				}
+				lFromMinute = lVisibleMinutes[0] - VIRTUALIZATION_OVERSCAN_MINUTES;
+				lToMinute = lVisibleMinutes[1] + VIRTUALIZATION_OVERSCAN_MINUTES;
+			}
+		}
+		if (!force && lFromMinute == materializedFromMinute && lToMinute == materializedToMinute) {
+			return;
+		}
+		materializedFromMinute = lFromMinute;
+		materializedToMinute = lToMinute;
+		
+		// update the panes
+		for (DayBodyPane lDayBodyPane : weekBodyPane.dayBodyPanes) {
+			lDayBodyPane.materializeTrackedAppointments(null);
+		}
+		nowUpdateRunnable.run(); // set the history of the new panes
+	}
+	
+	/*
+	 * @return the minutes of the day from and to that are visible in the scroll pane, or null if this is not known yet
+	 */
+	private double[] determineVisibleMinutes() {
+		Bounds lViewportBounds = weekScrollPane.getViewportBounds();
+		double lDayHeight = layoutHelp.dayHeightProperty.get();
+		if (lViewportBounds == null || lViewportBounds.getHeight() <= 0 || lDayHeight <= 0) {
+			return null;
+		}
+		
+		// the scroll position determines the top of the visible part
+		double lScrollRange = weekScrollPane.getVmax() - weekScrollPane.getVmin();
+		double lScrollFraction = (lScrollRange <= 0 ? 0.0 : (weekScrollPane.getVvalue() - weekScrollPane.getVmin()) / lScrollRange);
+		double lTopY = Math.max(0.0, lDayHeight - lViewportBounds.getHeight()) * lScrollFraction;
+		double lMinutesPerPixel = (24 * 60) / lDayHeight;
+		return new double[] {lTopY * lMinutesPerPixel, (lTopY + lViewportBounds.getHeight()) * lMinutesPerPixel};
 	}
 	
 	// ==================================================================================================================
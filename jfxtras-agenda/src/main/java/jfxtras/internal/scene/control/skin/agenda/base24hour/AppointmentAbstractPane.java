@@ -27,11 +27,12 @@
 package jfxtras.internal.scene.control.skin.agenda.base24hour;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.Objects;
 
-import javafx.collections.ListChangeListener;
-import javafx.collections.WeakListChangeListener;
+import javafx.css.PseudoClass;
 import javafx.scene.Cursor;
 import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
@@ -54,58 +55,101 @@ abstract class AppointmentAbstractPane extends Pane {
 	{
 		this.appointment = appointment;
 		this.layoutHelp = layoutHelp;
-		appointmentMenu = new AppointmentMenu(this, appointment, layoutHelp);
+		appointmentMenuIcon = new AppointmentMenuIcon(this, appointment, layoutHelp);
 		
 		// for debugging setStyle("-fx-border-color:PINK;-fx-border-width:1px;");
 		getStyleClass().add("Appointment");
 		getStyleClass().add(appointment.getAppointmentGroup() != null ? appointment.getAppointmentGroup().getStyleClass() : "group0");
 		
+		// remember what was rendered
+		renderedStartLocalDateTime = appointment.getStartLocalDateTime();
+		renderedEndLocalDateTime = appointment.getEndLocalDateTime();
+		renderedWholeDay = appointment.isWholeDay();
+		renderedSummary = appointment.getSummary();
+		renderedGroupStyleClass = appointment.getAppointmentGroup() != null ? appointment.getAppointmentGroup().getStyleClass() : "group0";
+		
 		// historical visualizer
 		historyVisualizer = new HistoricalVisualizer(this);
 		getChildren().add(historyVisualizer);
 
 		// tooltip
-		if (appointment.getSummary() != null) {
-			Tooltip.install(this, new Tooltip(appointment.getSummary()));
-		}
+		addEventHandler(MouseEvent.MOUSE_ENTERED, (mouseEvent) -> {
+			installTooltip();
+		});
 		
 		// dragging
 		setupDragging();
 		
-		// react to changes in the selected appointments
-		layoutHelp.skinnable.selectedAppointments().addListener( new WeakListChangeListener<>(listChangeListener) );
+		// react to changes in the selected appointments while shown
+		parentProperty().addListener( (observable, oldValue, newValue) -> {
+			if (newValue == null) {
+				layoutHelp.appointmentSelection.unregister(this);
+			}
+			else if (oldValue == null) {
+				layoutHelp.appointmentSelection.register(this);
+			}
+		});
 	}
 	final protected Agenda.Appointment appointment; 
 	final protected LayoutHelp layoutHelp;
 	final protected HistoricalVisualizer historyVisualizer;
-	final protected AppointmentMenu appointmentMenu;
-	final private ListChangeListener<Appointment> listChangeListener = new ListChangeListener<Appointment>() {
-		@Override
-		public void onChanged(javafx.collections.ListChangeListener.Change<? extends Appointment> changes) {
-			setOrRemoveSelected();
-		}
-	};
+	final protected AppointmentMenuIcon appointmentMenuIcon;
 
 	/**
-	 * 
+	 * Called by AppointmentSelection
+	 * The Selected style class is only added when the skin has legacySelectedStyleClass set, for stylesheets written against .Agenda .Selected.
 	 */
-	private void setOrRemoveSelected() {
-		// remove class if not selected
-		if ( getStyleClass().contains(SELECTED) == true // visually selected
-		  && layoutHelp.skinnable.selectedAppointments().contains(appointment) == false // but no longer in the selected collection
-		) {
-			getStyleClass().remove(SELECTED);
+	@SuppressWarnings("deprecation")
+	void setSelected(boolean selected) {
+		pseudoClassStateChanged(SELECTED_PSEUDO_CLASS, selected);
+		if (selected && ((AgendaSkinTimeScale24HourAbstract<?>)layoutHelp.skin).isLegacySelectedStyleClass()) {
+			if (getStyleClass().contains(SELECTED) == false) {
+				getStyleClass().add(SELECTED);
+			}
 		}
-		
-		// add class if selected
-		if ( getStyleClass().contains(SELECTED) == false // visually not selected
-		  && layoutHelp.skinnable.selectedAppointments().contains(appointment) == true // but still in the selected collection
-		) {
-			getStyleClass().add(SELECTED); 
+		else {
+			getStyleClass().remove(SELECTED);
 		}
 	}
+	private static final PseudoClass SELECTED_PSEUDO_CLASS = PseudoClass.getPseudoClass("selected");
 	private static final String SELECTED = "Selected";
 	
+	/**
+	 * The tooltip is shared with all other appointments, and is installed when the mouse first enters this pane
+	 */
+	private void installTooltip() {
+		if (appointment.getSummary() == null) {
+			return;
+		}
+		Tooltip lTooltip = layoutHelp.appointmentTooltip();
+		lTooltip.setText(appointment.getSummary());
+		if (!tooltipInstalled) {
+			Tooltip.install(this, lTooltip);
+			tooltipInstalled = true;
+		}
+	}
+	private boolean tooltipInstalled = false;
+	
+	/**
+	 * The pane is a snapshot of the appointment; it can only be reused as long as the appointment still has the rendered values 
+	 */
+	boolean isRenderedStateCurrent() {
+		return Objects.equals(renderedStartLocalDateTime, appointment.getStartLocalDateTime())
+		    && Objects.equals(renderedEndLocalDateTime, appointment.getEndLocalDateTime())
+		    && Objects.equals(renderedWholeDay, appointment.isWholeDay())
+		    && Objects.equals(renderedSummary, appointment.getSummary())
+		    && Objects.equals(renderedGroupStyleClass, appointment.getAppointmentGroup() != null ? appointment.getAppointmentGroup().getStyleClass() : "group0");
+	}
+	final private LocalDateTime renderedStartLocalDateTime;
+	final private LocalDateTime renderedEndLocalDateTime;
+	final private Boolean renderedWholeDay;
+	final private String renderedSummary;
+	final private String renderedGroupStyleClass;
+	
+	// for AppointmentPanePool
+	LocalDate pooledLocalDate = null;
+	long poolGeneration = -1;
+	
 	/**
 	 * 
 	 * @param now
@@ -127,7 +171,7 @@ abstract class AppointmentAbstractPane extends Pane {
 			}
 			// popup: right button
 			if (mouseEvent.getButton().equals(MouseButton.SECONDARY)) {
-				appointmentMenu.showMenu(mouseEvent);
+				layoutHelp.appointmentMenu().showMenu(this, appointment);
 				return;
 			}
 			// only on primary
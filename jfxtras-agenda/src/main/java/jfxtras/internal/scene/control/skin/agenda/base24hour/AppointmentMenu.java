@@ -31,13 +31,11 @@ import java.time.LocalDateTime;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.stage.Popup;
 import javafx.util.Callback;
@@ -48,57 +46,28 @@ import jfxtras.scene.control.agenda.Agenda.AppointmentGroup;
 import jfxtras.util.NodeUtil;
 
 //TODO: internationalize the labels and tooltips
-class AppointmentMenu extends Rectangle {
+/**
+ * The popup menu to edit an appointment.
+ * There is one instance per skin, created on first use, which is bound to the appointment it is shown for.
+ */
+class AppointmentMenu {
 
 	/**
 	 * 
-	 * @param pane
-	 * @param appointment
 	 * @param layoutHelp
 	 */
-	AppointmentMenu(Pane pane, Appointment appointment, LayoutHelp layoutHelp) {
-		this.pane = pane;
-		this.appointment = appointment;
+	AppointmentMenu(LayoutHelp layoutHelp) {
 		this.layoutHelp = layoutHelp;
-		
-		// layout
-		setX(NodeUtil.snapXY(layoutHelp.paddingProperty.get()));
-		setY(NodeUtil.snapXY(layoutHelp.paddingProperty.get()));
-		setWidth(6);
-		setHeight(3);
-		
-		// style
-		getStyleClass().add("MenuIcon");
-		
-		// mouse
-		layoutHelp.setupMouseOverAsBusy(this);
-		setupMouseClick();
 	}
-	final Pane pane;
-	final Appointment appointment;
 	final LayoutHelp layoutHelp;
+	private Appointment appointment;
 
 	/**
 	 * 
+	 * @param pane
+	 * @param appointment
 	 */
-	private void setupMouseClick() {
-		setOnMousePressed((mouseEvent) -> {
-			mouseEvent.consume();
-		});
-		setOnMouseReleased((mouseEvent) -> {
-			mouseEvent.consume();
-		});
-		setOnMouseClicked( (mouseEvent) -> {
-			mouseEvent.consume();
-			showMenu(mouseEvent);
-		});
-	}
-	
-	/**
-	 * 
-	 * @param mouseEvent
-	 */
-	void showMenu(MouseEvent mouseEvent) {
+	void showMenu(Pane pane, Appointment appointment) {
 		// has the client done his own popup?
 		Callback<Appointment, Void> lEditCallback = layoutHelp.skinnable.getEditAppointmentCallback();
 		if (lEditCallback != null) {
@@ -111,32 +80,17 @@ class AppointmentMenu extends Rectangle {
 			return;
 		}
 		
+		// bind to the appointment
+		this.appointment = appointment;
+		
 		// create popup
-		popup = new Popup();
-		popup.setAutoFix(true);
-		popup.setAutoHide(true);
-		popup.setHideOnEscape(true);
-		popup.setOnHidden( (windowEvent) -> {
-			layoutHelp.skin.setupAppointments();
-		});
-
-		// popup contents
-		BorderPane lBorderPane = new BorderPane() {
-			// As of 1.8.0_40 CSS files are added in the scope of a control, the popup does not fall under the control, so the stylesheet must be reapplied 
-			// When JFxtras is based on 1.8.0_40+: @Override 
-			public String getUserAgentStylesheet() {
-				return layoutHelp.skinnable.getUserAgentStylesheet();
-			}
-		};
-		lBorderPane.getStyleClass().add(layoutHelp.skinnable.getClass().getSimpleName() + "Popup");
-		popup.getContent().add(lBorderPane);
+		if (popup == null) {
+			popup = createPopup();
+		}
 
-		// close icon
-		lBorderPane.setRight(createCloseIcon());
-		
 		// initial layout
 		VBox lVBox = new VBox(layoutHelp.paddingProperty.get());
-		lBorderPane.setCenter(lVBox);
+		popupBorderPane.setCenter(lVBox);
 
 		// start and end
 		lVBox.getChildren().add(new Text("Time:"));
@@ -168,6 +122,38 @@ class AppointmentMenu extends Rectangle {
 		popup.show(pane, NodeUtil.screenX(pane), NodeUtil.screenY(pane));
 	}
 	private Popup popup;
+	private BorderPane popupBorderPane;
+	
+	/**
+	 * The popup and its frame are reused, only the contents are specific for an appointment
+	 * @return
+	 */
+	private Popup createPopup() {
+		Popup lPopup = new Popup();
+		lPopup.setAutoFix(true);
+		lPopup.setAutoHide(true);
+		lPopup.setHideOnEscape(true);
+		lPopup.setOnHidden( (windowEvent) -> {
+			popupBorderPane.setCenter(null); // the contents are rebuilt for the next appointment
+			layoutHelp.skin.setupAppointments();
+		});
+
+		// popup contents
+		popupBorderPane = new BorderPane() {
+			// As of 1.8.0_40 CSS files are added in the scope of a control, the popup does not fall under the control, so the stylesheet must be reapplied 
+			// When JFxtras is based on 1.8.0_40+: @Override 
+			public String getUserAgentStylesheet() {
+				return layoutHelp.skinnable.getUserAgentStylesheet();
+			}
+		};
+		popupBorderPane.getStyleClass().add(layoutHelp.skinnable.getClass().getSimpleName() + "Popup");
+		lPopup.getContent().add(popupBorderPane);
+
+		// close icon
+		popupBorderPane.setRight(createCloseIcon());
+		
+		return lPopup;
+	}
 	
 	/**
 	 * @return
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import jfxtras.scene.control.agenda.Agenda.Appointment;
+import jfxtras.util.NodeUtil;
+
+/**
+ * The icon on an appointment pane that opens the appointment menu.
+ * The menu itself is shared by all appointments of a skin, see LayoutHelp.appointmentMenu().
+ */
+class AppointmentMenuIcon extends Rectangle {
+
+	/**
+	 * 
+	 * @param pane
+	 * @param appointment
+	 * @param layoutHelp
+	 */
+	AppointmentMenuIcon(Pane pane, Appointment appointment, LayoutHelp layoutHelp) {
+		this.pane = pane;
+		this.appointment = appointment;
+		this.layoutHelp = layoutHelp;
+		
+		// layout
+		setX(NodeUtil.snapXY(layoutHelp.paddingProperty.get()));
+		setY(NodeUtil.snapXY(layoutHelp.paddingProperty.get()));
+		setWidth(6);
+		setHeight(3);
+		
+		// style
+		getStyleClass().add("MenuIcon");
+		
+		// mouse
+		layoutHelp.setupMouseOverAsBusy(this);
+		setupMouseClick();
+	}
+	final Pane pane;
+	final Appointment appointment;
+	final LayoutHelp layoutHelp;
+
+	/**
+	 * 
+	 */
+	private void setupMouseClick() {
+		setOnMousePressed((mouseEvent) -> {
+			mouseEvent.consume();
+		});
+		setOnMouseReleased((mouseEvent) -> {
+			mouseEvent.consume();
+		});
+		setOnMouseClicked( (mouseEvent) -> {
+			mouseEvent.consume();
+			layoutHelp.appointmentMenu().showMenu(pane, appointment);
+		});
+	}
+}
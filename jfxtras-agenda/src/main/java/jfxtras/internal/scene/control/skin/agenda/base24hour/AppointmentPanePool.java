@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import jfxtras.scene.control.agenda.Agenda.Appointment;
+
+/**
+ * Reconciles the appointment panes of a day with the appointments it should show, so a change only creates panes for the appointments that actually changed.
+ * A pane renders one appointment on one date, so it can only be reused for exactly that appointment and date, and only as long as the appointment still has the values the pane was rendered with.
+ * Panes that are no longer needed are kept as spares, up to a maximum, so they can be picked up again, for example when navigating back to a previous week.
+ */
+class AppointmentPanePool {
+
+	/**
+	 * The maximum number of spare panes that is kept around
+	 */
+	final static int MAX_SPARE_PANES = 250;
+
+	/**
+	 * Reconcile the panes with the appointments; the list of panes is updated to match the appointments.
+	 * @return the panes that were in the list but are not anymore
+	 */
+	<P extends AppointmentAbstractPane> List<P> reconcile(List<P> panes, List<Appointment> appointments, LocalDate localDate, Class<P> type, Function<Appointment, P> factory) {
+
+		// index the current panes on their appointment
+		Map<Appointment, P> lCurrentPanes = new IdentityHashMap<>();
+		List<P> lDiscardedPanes = new ArrayList<>();
+		for (P lPane : panes) {
+			P lOtherPane = lCurrentPanes.put(lPane.appointment, lPane);
+			if (lOtherPane != null) {
+				lDiscardedPanes.add(lOtherPane); // the same appointment twice in the list
+			}
+		}
+
+		// find or create a pane for each appointment
+		panes.clear();
+		for (Appointment lAppointment : appointments) {
+			P lPane = lCurrentPanes.remove(lAppointment);
+			if (lPane != null && !isReusable(lPane, localDate)) {
+				lDiscardedPanes.add(lPane);
+				lPane = null;
+			}
+			if (lPane == null) {
+				lPane = takeSpare(type, lAppointment, localDate);
+			}
+			if (lPane == null) {
+				lPane = factory.apply(lAppointment);
+				lPane.pooledLocalDate = localDate;
+				lPane.poolGeneration = generation;
+				createdCount++;
+			}
+			panes.add(lPane);
+		}
+
+		// the panes that are left over become spares
+		for (P lPane : lCurrentPanes.values()) {
+			lDiscardedPanes.add(lPane);
+			if (isReusable(lPane, localDate)) {
+				spares.put(new SpareKey(type, lPane.appointment, localDate), lPane);
+			}
+		}
+		return lDiscardedPanes;
+	}
+
+	/**
+	 * Forget all panes, also the ones currently in use; for example when the locale changes and all panes need to be rendered anew.
+	 */
+	void clear() {
+		spares.clear();
+		generation++;
+	}
+
+	/**
+	 * @return the number of panes created by reconcile, together with the number of appointments shown this shows how well panes are reused
+	 */
+	long getCreatedCount() {
+		return createdCount;
+	}
+	private long createdCount = 0;
+	private long generation = 0;
+
+	/*
+	 *
+	 */
+	private boolean isReusable(AppointmentAbstractPane pane, LocalDate localDate) {
+		return pane.poolGeneration == generation
+		    && localDate.equals(pane.pooledLocalDate)
+		    && pane.isRenderedStateCurrent();
+	}
+
+	/*
+	 *
+	 */
+	private <P extends AppointmentAbstractPane> P takeSpare(Class<P> type, Appointment appointment, LocalDate localDate) {
+		AppointmentAbstractPane lPane = spares.remove(new SpareKey(type, appointment, localDate));
+		if (lPane == null || !isReusable(lPane, localDate)) {
+			return null;
+		}
+		return type.cast(lPane);
+	}
+	final private Map<SpareKey, AppointmentAbstractPane> spares = new LinkedHashMap<SpareKey, AppointmentAbstractPane>() {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<SpareKey, AppointmentAbstractPane> eldest) {
+			return size() > MAX_SPARE_PANES;
+		}
+	};
+
+	/*
+	 * Appointments are compared on identity, like the appointmentNodeMap does
+	 */
+	static private class SpareKey {
+		SpareKey(Class<?> type, Appointment appointment, LocalDate localDate) {
+			this.type = type;
+			this.appointment = appointment;
+			this.localDate = localDate;
+		}
+		final Class<?> type;
+		final Appointment appointment;
+		final LocalDate localDate;
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SpareKey)) {
+				return false;
+			}
+			SpareKey lOther = (SpareKey)o;
+			return type == lOther.type && appointment == lOther.appointment && localDate.equals(lOther.localDate);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, System.identityHashCode(appointment), localDate);
+		}
+	}
+
+	/**
+	 * Make sure the nodes are children of the parent and are stacked in the given order, without removing and re-adding nodes that already are in place.
+	 */
+	static void placeInOrder(Pane parent, List<? extends Node> nodes) {
+		for (Node lNode : nodes) {
+			if (lNode.getParent() != parent) {
+				parent.getChildren().add(lNode);
+			}
+		}
+
+		// check if the order in the children matches
+		int lIdx = 0;
+		for (Node lChild : parent.getChildren()) {
+			if (lIdx < nodes.size() && lChild == nodes.get(lIdx)) {
+				lIdx++;
+			}
+		}
+		if (lIdx == nodes.size()) {
+			return;
+		}
+		for (Node lNode : nodes) {
+			lNode.toFront();
+		}
+	}
+}
@@ -65,7 +65,7 @@ public class AppointmentRegularBodyPane extends AppointmentAbstractTrackedPane {
 		}
 		
 		// add the menu header
-		getChildren().add(appointmentMenu);
+		getChildren().add(appointmentMenuIcon);
 		
 		// add the duration dragger
 		layoutHelp.skinnable.allowResizeProperty().addListener(new WeakInvalidationListener(allowResizeInvalidationListener));
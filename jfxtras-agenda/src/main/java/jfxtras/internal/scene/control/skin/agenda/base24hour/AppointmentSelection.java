@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
+import jfxtras.scene.control.agenda.Agenda;
+import jfxtras.scene.control.agenda.Agenda.Appointment;
+
+/**
+ * Keeps the selected state of the appointment panes of a skin in sync with the selected appointments.
+ * There is a single listener on the selected appointments, which keeps an identity set of them,
+ * and only the panes of the appointments that actually were selected or deselected are updated.
+ * A pane is registered while it has a parent; panes that are not shown (e.g. spares in the pool) are synced when they are shown again.
+ */
+class AppointmentSelection {
+
+	/**
+	 * 
+	 */
+	AppointmentSelection(Agenda skinnable) {
+		ObservableList<Appointment> lSelectedAppointments = skinnable.selectedAppointments();
+		for (Appointment lAppointment : lSelectedAppointments) {
+			select(lAppointment);
+		}
+		lSelectedAppointments.addListener( new WeakListChangeListener<>(listChangeListener) );
+	}
+	final private ListChangeListener<Appointment> listChangeListener = new ListChangeListener<Appointment>() {
+		@Override
+		public void onChanged(javafx.collections.ListChangeListener.Change<? extends Appointment> changes) {
+			List<Appointment> lChangedAppointments = new ArrayList<>();
+			while (changes.next()) {
+				// a permutation does not change what is selected
+				for (Appointment lAppointment : changes.getRemoved()) {
+					if (deselect(lAppointment)) {
+						lChangedAppointments.add(lAppointment);
+					}
+				}
+				for (Appointment lAppointment : changes.getAddedSubList()) {
+					if (select(lAppointment)) {
+						lChangedAppointments.add(lAppointment);
+					}
+				}
+			}
+			for (Appointment lAppointment : lChangedAppointments) {
+				updatePanes(lAppointment);
+			}
+		}
+	};
+	final private Map<Appointment, Integer> selectedAppointmentCounts = new IdentityHashMap<>(); // an appointment may be present in the list more than once
+	final private Map<Appointment, List<AppointmentAbstractPane>> appointmentPanes = new IdentityHashMap<>();
+
+	/**
+	 * 
+	 */
+	boolean isSelected(Appointment appointment) {
+		return selectedAppointmentCounts.containsKey(appointment);
+	}
+	
+	/**
+	 * Start updating the selected state of the pane, and set it to the current state
+	 */
+	void register(AppointmentAbstractPane pane) {
+		appointmentPanes.computeIfAbsent(pane.appointment, a -> new ArrayList<>(2)).add(pane);
+		pane.setSelected(isSelected(pane.appointment));
+	}
+	
+	/**
+	 * 
+	 */
+	void unregister(AppointmentAbstractPane pane) {
+		List<AppointmentAbstractPane> lPanes = appointmentPanes.get(pane.appointment);
+		if (lPanes != null) {
+			lPanes.remove(pane);
+			if (lPanes.isEmpty()) {
+				appointmentPanes.remove(pane.appointment);
+			}
+		}
+	}
+	
+	/**
+	 * Set the selected state of all registered panes again
+	 */
+	void refresh() {
+		for (List<AppointmentAbstractPane> lPanes : appointmentPanes.values()) {
+			for (AppointmentAbstractPane lPane : lPanes) {
+				lPane.setSelected(isSelected(lPane.appointment));
+			}
+		}
+	}
+	
+	/*
+	 * @return true if the appointment became selected
+	 */
+	private boolean select(Appointment appointment) {
+		return selectedAppointmentCounts.merge(appointment, 1, Integer::sum) == 1;
+	}
+	
+	/*
+	 * @return true if the appointment is no longer selected
+	 */
+	private boolean deselect(Appointment appointment) {
+		Integer lCount = selectedAppointmentCounts.get(appointment);
+		if (lCount == null) {
+			return false;
+		}
+		if (lCount > 1) {
+			selectedAppointmentCounts.put(appointment, lCount - 1);
+			return false;
+		}
+		selectedAppointmentCounts.remove(appointment);
+		return true;
+	}
+	
+	/*
+	 * 
+	 */
+	private void updatePanes(Appointment appointment) {
+		List<AppointmentAbstractPane> lPanes = appointmentPanes.get(appointment);
+		if (lPanes == null) {
+			return;
+		}
+		boolean lSelected = isSelected(appointment);
+		for (AppointmentAbstractPane lPane : lPanes) {
+			lPane.setSelected(lSelected);
+		}
+	}
+}
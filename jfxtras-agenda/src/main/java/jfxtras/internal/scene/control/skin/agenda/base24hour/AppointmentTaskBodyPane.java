@@ -39,8 +39,8 @@ class AppointmentTaskBodyPane extends AppointmentAbstractTrackedPane {
 		this.startAsString = layoutHelp.timeDateTimeFormatter.format(this.startDateTime);
 
 		// add the menu
-		appointmentMenu.yProperty().bind(heightProperty().subtract(appointmentMenu.heightProperty()).divide(2.0)); // position is slightly different from the default
-		getChildren().add(appointmentMenu);
+		appointmentMenuIcon.yProperty().bind(heightProperty().subtract(appointmentMenuIcon.heightProperty()).divide(2.0)); // position is slightly different from the default
+		getChildren().add(appointmentMenuIcon);
 
 		// add the start time as text
 		getChildren().add(createTimeText());
@@ -59,7 +59,7 @@ class AppointmentTaskBodyPane extends AppointmentAbstractTrackedPane {
 		timeText = new Text(startAsString);
 		{
 			timeText.getStyleClass().add("AppointmentTimeLabel");
-			timeText.xProperty().bind( appointmentMenu.widthProperty().add(layoutHelp.paddingProperty).add(layoutHelp.paddingProperty) ); // directly next to the menu
+			timeText.xProperty().bind( appointmentMenuIcon.widthProperty().add(layoutHelp.paddingProperty).add(layoutHelp.paddingProperty) ); // directly next to the menu
 			timeText.yProperty().bind( heightProperty().multiply(-0.5).add(timeText.prefHeight(0) / 2) );
 		}
 		return timeText;
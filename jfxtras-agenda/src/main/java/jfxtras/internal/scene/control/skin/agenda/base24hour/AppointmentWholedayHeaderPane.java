@@ -48,7 +48,7 @@ class AppointmentWholedayHeaderPane extends AppointmentAbstractPane
 		getChildren().add(createSummaryText());
 		
 		// add the menu header
-		getChildren().add(appointmentMenu);
+		getChildren().add(appointmentMenuIcon);
 	}
 
 	private Text createSummaryText() {
@@ -29,9 +29,12 @@ package jfxtras.internal.scene.control.skin.agenda.base24hour;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.function.Function;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -72,10 +75,7 @@ class DayBodyPane extends Pane
 		getStyleClass().add("Day");
 		setId("DayBodyPane" + localDateObjectProperty.get()); // for testing
 		
-		// react to changes in the appointments
-		allAppointments.addOnChangeListener( () -> {
-			setupAppointments();
-		});
+		// changes in the appointments are handled by the skin, which reconstructs all days once per change
 		setupAppointments();
 		
 		// change the layout related to the size
@@ -200,18 +200,19 @@ class DayBodyPane extends Pane
 		
 		// then add all tracked appointments (regular & task) to the day
 		for (AppointmentAbstractTrackedPane lAppointmentAbstractTrackedPane : trackedAppointmentBodyPanes) {
+			TrackedAppointment lTrackedAppointment = lAppointmentAbstractTrackedPane.trackedAppointment;
 			
 			// for this pane specifically
-			double lNumberOfTracks = (double)lAppointmentAbstractTrackedPane.clusterOwner.clusterTracks.size();
+			double lNumberOfTracks = (double)lTrackedAppointment.clusterOwner.clusterTrackCount;
 			double lTrackWidth = lRemainingWidthForAppointments / lNumberOfTracks;
-			double lTrackIdx = (double)lAppointmentAbstractTrackedPane.clusterTrackIdx;
+			double lTrackIdx = (double)lTrackedAppointment.clusterTrackIdx;
 			
 			// the X is determined by offsetting the wholeday appointments and then calculate the X of the track the appointment is placed in (available width / number of tracks) 
 			double lX = lAllFlagpolesWidth + (lTrackWidth * lTrackIdx);
 			lAppointmentAbstractTrackedPane.setLayoutX( NodeUtil.snapXY(lX));
 			
 			// the Y is determined by the start time in minutes projected onto the total day height (being 24 hours)
-			int lStartOffsetInMinutes = (lAppointmentAbstractTrackedPane.startDateTime.getHour() * 60) + lAppointmentAbstractTrackedPane.startDateTime.getMinute();
+			int lStartOffsetInMinutes = (lTrackedAppointment.startDateTime.getHour() * 60) + lTrackedAppointment.startDateTime.getMinute();
 			double lY = lNumberOfPixelsPerMinute * lStartOffsetInMinutes;
 			lAppointmentAbstractTrackedPane.setLayoutY( NodeUtil.snapXY(lY) );
 			
@@ -225,11 +226,11 @@ class DayBodyPane extends Pane
 			
 			// the height is determined by the duration projected against the total dayHeight (being 24 hours)
 			double lH;
-			if (lAppointmentAbstractTrackedPane instanceof AppointmentTaskBodyPane) {
+			if (lTrackedAppointment.isTask) {
 				lH = 5; // task height
 			}
 			else {
-				long lHeightInMinutes = lAppointmentAbstractTrackedPane.durationInMS / 1000 / 60;
+				long lHeightInMinutes = lTrackedAppointment.durationInMS / 1000 / 60;
 				lH = lNumberOfPixelsPerMinute * lHeightInMinutes;
 
 				// the height has a minimum size, in order to be able to render sensibly
@@ -243,19 +244,8 @@ class DayBodyPane extends Pane
 
 	void setupAppointments() {
 		setupWholedayAppointments();
-		setupTaskAppointments();
-		setupRegularAppointments();
-		
-		// place appointments in tracks
-		trackedAppointmentBodyPanes.clear();
-		trackedAppointmentBodyPanes.addAll(regularAppointmentBodyPanes);
-		trackedAppointmentBodyPanes.addAll(taskAppointmentBodyPanes);
-		List<? extends AppointmentAbstractTrackedPane> determineTracks = AppointmentRegularBodyPane.determineTracks(trackedAppointmentBodyPanes);
-		// add the appointments to the pane in the correct order, so they overlap nicely
-		//getChildren().removeAll(determineTracks);
-		getChildren().addAll(determineTracks);
-		
-		relayout();
+		setupTrackedAppointments();
+		materializeTrackedAppointments(null);
 	}
 	final List<AppointmentAbstractTrackedPane> trackedAppointmentBodyPanes = new ArrayList<>();
 	
@@ -267,16 +257,14 @@ class DayBodyPane extends Pane
 		wholedayAppointments.clear();
 		wholedayAppointments.addAll( allAppointments.collectWholedayFor(localDateObjectProperty.get()) );
 		
-		// remove all appointments
-		getChildren().removeAll(wholedayAppointmentBodyPanes);
-		wholedayAppointmentBodyPanes.clear();
+		// reuse the panes of unchanged appointments, create the others
+		LocalDate lLocalDate = localDateObjectProperty.get();
+		removeAppointmentPanes( appointmentPanePool().reconcile(wholedayAppointmentBodyPanes, wholedayAppointments, lLocalDate, AppointmentWholedayBodyPane.class, (lAppointment) -> new AppointmentWholedayBodyPane(lLocalDate, lAppointment, layoutHelp)) );
 		
-		// for all wholeday appointments on this date, create a header appointment pane
+		// for all wholeday appointments on this date, setup the body appointment pane
 		int lCnt = 0;
-		for (Appointment lAppointment : wholedayAppointments) {
-			// create pane
-			AppointmentWholedayBodyPane lAppointmentPane = new AppointmentWholedayBodyPane(localDateObjectProperty.get(), lAppointment, layoutHelp);
-			wholedayAppointmentBodyPanes.add(lAppointmentPane);
+		for (AppointmentWholedayBodyPane lAppointmentPane : wholedayAppointmentBodyPanes) {
+			Appointment lAppointment = lAppointmentPane.appointment;
 			((AgendaSkinTimeScale24HourAbstract<Appointment>) layoutHelp.skin).appointmentNodeMap().put(System.identityHashCode(lAppointment), lAppointmentPane);
 			lAppointmentPane.setId(lAppointmentPane.getClass().getSimpleName() + localDateObjectProperty.get() + "/" + lCnt); // for testing
 			
@@ -288,62 +276,139 @@ class DayBodyPane extends Pane
 			
 			lCnt++;
 		}
-		getChildren().addAll(wholedayAppointmentBodyPanes);				
 	}
 	final private List<Appointment> wholedayAppointments = new ArrayList<>();
 	final private List<AppointmentWholedayBodyPane> wholedayAppointmentBodyPanes = new ArrayList<>();
 	
 	/**
-	 * 
+	 * Place the regular and task appointments in tracks; this does not need their panes, so it can be done for all appointments of the day, also when virtualized
 	 */
-	private void setupTaskAppointments() {
-		taskAppointments.clear();
-		taskAppointments.addAll( allAppointments.collectTaskFor(localDateObjectProperty.get()) );
+	private void setupTrackedAppointments() {
+		LocalDate lLocalDate = localDateObjectProperty.get();
+		regularTrackedAppointments.clear();
+		for (Appointment lAppointment : allAppointments.collectRegularFor(lLocalDate)) {
+			regularTrackedAppointments.add(new TrackedAppointment(lLocalDate, lAppointment));
+		}
+		taskTrackedAppointments.clear();
+		for (Appointment lAppointment : allAppointments.collectTaskFor(lLocalDate)) {
+			taskTrackedAppointments.add(new TrackedAppointment(lLocalDate, lAppointment));
+		}
 		
-		// remove all appointments
-		getChildren().removeAll(taskAppointmentBodyPanes);
-		taskAppointmentBodyPanes.clear();
+		// place appointments in tracks
+		trackedAppointments.clear();
+		trackedAppointments.addAll(regularTrackedAppointments);
+		trackedAppointments.addAll(taskTrackedAppointments);
+		TrackedAppointment.determineTracks(trackedAppointments); // sorts the list
+	}
+	final private List<TrackedAppointment> regularTrackedAppointments = new ArrayList<>();
+	final private List<TrackedAppointment> taskTrackedAppointments = new ArrayList<>();
+	final private List<TrackedAppointment> trackedAppointments = new ArrayList<>();
+	
+	/**
+	 * Create, reuse or recycle the panes of the regular and task appointments.
+	 * When virtualized only the appointments intersecting the visible part of the day get a pane.
+	 * 
+	 * @param forcedAppointment an appointment that must get a pane even if it is not visible, may be null
+	 */
+	void materializeTrackedAppointments(Appointment forcedAppointment) {
+		materializeTrackedAppointments(regularTrackedAppointments, regularAppointmentBodyPanes, AppointmentRegularBodyPane.class, (lAppointment) -> new AppointmentRegularBodyPane(localDateObjectProperty.get(), lAppointment, layoutHelp), forcedAppointment);
+		materializeTrackedAppointments(taskTrackedAppointments, taskAppointmentBodyPanes, AppointmentTaskBodyPane.class, (lAppointment) -> new AppointmentTaskBodyPane(lAppointment, layoutHelp), forcedAppointment);
 		
-		// for all task appointments on this date, create a header appointment pane
-		int lCnt = 0;
-		for (Appointment lAppointment : taskAppointments) {
-			AppointmentTaskBodyPane lAppointmentPane = new AppointmentTaskBodyPane(lAppointment, layoutHelp);
-			taskAppointmentBodyPanes.add(lAppointmentPane);
-            ((AgendaSkinTimeScale24HourAbstract<Appointment>) layoutHelp.skin).appointmentNodeMap().put(System.identityHashCode(lAppointment), lAppointmentPane);
-			lAppointmentPane.setId(lAppointmentPane.getClass().getSimpleName() + localDateObjectProperty.get() + "/" + lCnt); // for testing
-			
-			lCnt++;
+		// add the appointments to the pane in the order of the tracks, so they overlap nicely
+		Map<TrackedAppointment, AppointmentAbstractTrackedPane> lTrackedAppointmentToPane = new IdentityHashMap<>();
+		for (AppointmentAbstractTrackedPane lAppointmentPane : regularAppointmentBodyPanes) {
+			lTrackedAppointmentToPane.put(lAppointmentPane.trackedAppointment, lAppointmentPane);
+		}
+		for (AppointmentAbstractTrackedPane lAppointmentPane : taskAppointmentBodyPanes) {
+			lTrackedAppointmentToPane.put(lAppointmentPane.trackedAppointment, lAppointmentPane);
 		}
-		//getChildren().addAll(taskAppointmentBodyPanes);				
+		trackedAppointmentBodyPanes.clear();
+		for (TrackedAppointment lTrackedAppointment : trackedAppointments) {
+			AppointmentAbstractTrackedPane lAppointmentPane = lTrackedAppointmentToPane.get(lTrackedAppointment);
+			if (lAppointmentPane != null) {
+				trackedAppointmentBodyPanes.add(lAppointmentPane);
+			}
+		}
+		List<AppointmentAbstractPane> lAppointmentPanes = new ArrayList<>(wholedayAppointmentBodyPanes);
+		lAppointmentPanes.addAll(trackedAppointmentBodyPanes);
+		AppointmentPanePool.placeInOrder(this, lAppointmentPanes);
+		
+		relayout();
 	}
-	final private List<Appointment> taskAppointments = new ArrayList<>();
-	final private List<AppointmentTaskBodyPane> taskAppointmentBodyPanes = new ArrayList<>();
 	
-	/**
+	/*
 	 * 
 	 */
-	private void setupRegularAppointments() {
-		regularAppointments.clear();
-		regularAppointments.addAll( allAppointments.collectRegularFor(localDateObjectProperty.get()) );
+	private <P extends AppointmentAbstractTrackedPane> void materializeTrackedAppointments(List<TrackedAppointment> trackedAppointmentsOfType, List<P> appointmentPanes, Class<P> type, Function<Appointment, P> factory, Appointment forcedAppointment) {
 		
-		// remove all appointments
-		getChildren().removeAll(regularAppointmentBodyPanes);
-		regularAppointmentBodyPanes.clear();
+		// determine which appointments get a pane
+		boolean lVirtualized = ((AgendaSkinTimeScale24HourAbstract<?>)layoutHelp.skin).isVirtualized();
+		List<TrackedAppointment> lMaterializedTrackedAppointments = new ArrayList<>();
+		List<Appointment> lMaterializedAppointments = new ArrayList<>();
+		List<Integer> lIndexes = new ArrayList<>();
+		for (int i = 0; i < trackedAppointmentsOfType.size(); i++) {
+			TrackedAppointment lTrackedAppointment = trackedAppointmentsOfType.get(i);
+			if (!lVirtualized || lTrackedAppointment.appointment == forcedAppointment || isInMaterializedRange(lTrackedAppointment)) {
+				lMaterializedTrackedAppointments.add(lTrackedAppointment);
+				lMaterializedAppointments.add(lTrackedAppointment.appointment);
+				lIndexes.add(i);
+			}
+		}
 		
-		// for all regular appointments on this date, create a header appointment pane
-		int lCnt = 0;
-		for (Appointment lAppointment : regularAppointments) {
-			AppointmentRegularBodyPane lAppointmentPane = new AppointmentRegularBodyPane(localDateObjectProperty.get(), lAppointment, layoutHelp);
-			regularAppointmentBodyPanes.add(lAppointmentPane);
-            ((AgendaSkinTimeScale24HourAbstract<Appointment>) layoutHelp.skin).appointmentNodeMap().put(System.identityHashCode(lAppointment), lAppointmentPane);
-			lAppointmentPane.setId(lAppointmentPane.getClass().getSimpleName() + localDateObjectProperty.get() + "/" + lCnt); // for testing
-			
-			lCnt++;
+		// reuse the panes of unchanged appointments, create the others
+		removeAppointmentPanes( appointmentPanePool().reconcile(appointmentPanes, lMaterializedAppointments, localDateObjectProperty.get(), type, factory) );
+		
+		// the panes are in the same order as the appointments 
+		for (int i = 0; i < appointmentPanes.size(); i++) {
+			P lAppointmentPane = appointmentPanes.get(i);
+			lAppointmentPane.trackedAppointment = lMaterializedTrackedAppointments.get(i);
+            ((AgendaSkinTimeScale24HourAbstract<Appointment>) layoutHelp.skin).appointmentNodeMap().put(System.identityHashCode(lAppointmentPane.appointment), lAppointmentPane);
+			lAppointmentPane.setId(lAppointmentPane.getClass().getSimpleName() + localDateObjectProperty.get() + "/" + lIndexes.get(i)); // for testing
 		}
-		//getChildren().addAll(regularAppointmentBodyPanes);				
 	}
-	final private List<Appointment> regularAppointments = new ArrayList<>();
+	final private List<AppointmentTaskBodyPane> taskAppointmentBodyPanes = new ArrayList<>();
 	final private List<AppointmentRegularBodyPane> regularAppointmentBodyPanes = new ArrayList<>();
+			
+	/*
+	 * The range is in minutes of the day, so it does not depend on the height of the day
+	 */
+	private boolean isInMaterializedRange(TrackedAppointment trackedAppointment) {
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)layoutHelp.skin;
+		double lStartMinute = (trackedAppointment.startDateTime.getHour() * 60) + trackedAppointment.startDateTime.getMinute();
+		double lEndMinute = lStartMinute + Math.max(trackedAppointment.durationInMS / 1000 / 60, 1);
+		return lStartMinute <= lSkin.materializedToMinute && lEndMinute >= lSkin.materializedFromMinute;
+	}
+	
+	/**
+	 * Make sure the appointment has a pane, if it is a regular or task appointment on this day
+	 * @return true if the appointment is shown on this day
+	 */
+	boolean materializeAppointment(Appointment appointment) {
+		for (TrackedAppointment lTrackedAppointment : trackedAppointments) {
+			if (lTrackedAppointment.appointment == appointment) {
+				materializeTrackedAppointments(appointment);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/*
+	 * 
+	 */
+	private void removeAppointmentPanes(List<? extends AppointmentAbstractPane> appointmentPanes) {
+		getChildren().removeAll(appointmentPanes);
+		for (AppointmentAbstractPane lAppointmentPane : appointmentPanes) {
+			((AgendaSkinTimeScale24HourAbstract<Appointment>) layoutHelp.skin).appointmentNodeMap().remove(System.identityHashCode(lAppointmentPane.appointment), lAppointmentPane);
+		}
+	}
+	
+	/*
+	 * 
+	 */
+	private AppointmentPanePool appointmentPanePool() {
+		return ((AgendaSkinTimeScale24HourAbstract<?>)layoutHelp.skin).appointmentPanePool;
+	}
 	
 	
 	/**
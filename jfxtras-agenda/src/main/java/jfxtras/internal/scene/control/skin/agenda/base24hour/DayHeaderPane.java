@@ -85,10 +85,7 @@ public class DayHeaderPane extends Pane {
 		});
 		setLabel();
 		
-		// react to changes in the appointments
-		allAppointments.addOnChangeListener( () -> {
-			setupAppointments();
-		});
+		// changes in the appointments are handled by the skin, which reconstructs all days once per change
 		setupAppointments();
 		
 		// setup the create appointment
@@ -112,19 +109,13 @@ public class DayHeaderPane extends Pane {
 	 */
 	public void setupAppointments() {
 		
-		// remove all appointments
-		getChildren().removeAll(appointmentHeaderPanes);
-		appointmentHeaderPanes.clear();
-		
-		// for all wholeday appointments on this date, create a header appointment pane
+		// for all wholeday appointments on this date, reuse the header appointment pane of unchanged appointments, create the others
 		appointments.clear();
 		appointments.addAll( allAppointments.collectWholedayFor(localDateObjectProperty.get()) );
+		getChildren().removeAll( ((AgendaSkinTimeScale24HourAbstract<?>)layoutHelp.skin).appointmentPanePool.reconcile(appointmentHeaderPanes, appointments, localDateObjectProperty.get(), AppointmentWholedayHeaderPane.class, (lAppointment) -> new AppointmentWholedayHeaderPane(lAppointment, layoutHelp)) );
+		AppointmentPanePool.placeInOrder(this, appointmentHeaderPanes);
 		int lCnt = 0;
-		for (Appointment lAppointment : appointments) {
-			// create pane
-			AppointmentWholedayHeaderPane lAppointmentHeaderPane = new AppointmentWholedayHeaderPane(lAppointment, layoutHelp);
-			getChildren().add(lAppointmentHeaderPane);				
-			appointmentHeaderPanes.add(lAppointmentHeaderPane);
+		for (AppointmentWholedayHeaderPane lAppointmentHeaderPane : appointmentHeaderPanes) {
 			lAppointmentHeaderPane.setId(lAppointmentHeaderPane.getClass().getSimpleName() + localDateObjectProperty.get() + "/" + lCnt); // for testing
 			
 			// position by binding
@@ -41,6 +41,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.geometry.NodeOrientation;
 import javafx.scene.Cursor;
 import javafx.scene.Node;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
@@ -59,6 +60,7 @@ class LayoutHelp {
 		this.skinnable = skinnable;
 		this.skin = skin;
 		dragPane = new DragPane(this);
+		appointmentSelection = new AppointmentSelection(skinnable);
 		
 		// header
 		titleDateTimeHeightProperty.bind( textHeightProperty.multiply(1.5) ); 
@@ -86,6 +88,7 @@ class LayoutHelp {
 	final Agenda skinnable;
 	final AgendaSkin skin;
 	final DragPane dragPane;
+	final AppointmentSelection appointmentSelection;
 	
 	final DoubleProperty msPerDayProperty = new SimpleDoubleProperty(24 * 60 * 60 * 1000);
 	
@@ -164,6 +167,28 @@ class LayoutHelp {
 		return localDateTime;
 	}
 	
+	/**
+	 * The appointment menu is shared by all appointments and created when it is first shown
+	 */
+	AppointmentMenu appointmentMenu() {
+		if (appointmentMenu == null) {
+			appointmentMenu = new AppointmentMenu(this);
+		}
+		return appointmentMenu;
+	}
+	private AppointmentMenu appointmentMenu = null;
+	
+	/**
+	 * The tooltip is shared by all appointments and created when it is first needed; its text is set to the appointment that is hovered over 
+	 */
+	Tooltip appointmentTooltip() {
+		if (appointmentTooltip == null) {
+			appointmentTooltip = new Tooltip();
+		}
+		return appointmentTooltip;
+	}
+	private Tooltip appointmentTooltip = null;
+	
     /**
      * Has the client added a callback to process the change?
      * @param appointment
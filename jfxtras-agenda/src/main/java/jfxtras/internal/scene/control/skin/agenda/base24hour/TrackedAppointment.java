@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import jfxtras.scene.control.agenda.Agenda;
+
+/**
+ * The layout of a regular or task appointment on a single day: the time it occupies and the track it is placed in.
+ * This is kept separate from the panes, so the tracks of a day can be determined without creating a pane for each appointment.
+ */
+class TrackedAppointment {
+	/**
+	 * @param localDate
+	 * @param appointment
+	 */
+	TrackedAppointment(LocalDate localDate, Agenda.Appointment appointment)
+	{
+		this.appointment = appointment;
+		
+		// we know start and end optionally are set
+		startDateTime = appointment.getStartLocalDateTime().toLocalDate().isEqual(localDate) ? appointment.getStartLocalDateTime() : localDate.atStartOfDay();
+		if (appointment.getEndLocalDateTime() == null) {
+			endDateTime = null; // a task does not have an end time 
+			durationInMS = 0;
+		}
+		else {
+			endDateTime = appointment.getEndLocalDateTime().toLocalDate().isEqual(localDate) ? appointment.getEndLocalDateTime() : localDate.plusDays(1).atStartOfDay();
+			durationInMS = startDateTime.until(endDateTime, ChronoUnit.MILLIS);
+		}
+		isTask = (endDateTime == null);
+	}
+	final Agenda.Appointment appointment;
+	final LocalDateTime startDateTime;
+	final LocalDateTime endDateTime;
+	final long durationInMS;
+	final boolean isTask;
+
+	// for the role of cluster owner
+	int clusterTrackCount = 1;
+	
+	// for the role of cluster member
+	TrackedAppointment clusterOwner = this;
+	int clusterTrackIdx = -1;
+
+	/**
+	 * This method prepares a day for being drawn.
+	 * The appointments within one day might overlap, this method will create a data structure so it is clear how these overlapping appointments should be drawn.
+	 * All appointments in one day are process based on their start time; earliest first, and if there are more with the same start time, longest duration first.
+	 * The appointments are then place onto (parallel) tracks; an appointment initially is placed in track 0. 
+	 * But if there is already an (partially overlapping) appointment there, then the appointment is moved to track 1. 
+	 * Unless there also is an appointment already in that track 1, then the next track is tried, and so forth, until a free track is found.
+	 * For example (the letters are not the sequence in which the appointments are processed, they're just for identifying them):
+	 * 
+	 *  tracks
+	 *  0 1 2 3
+	 *  -------
+	 *  . . . .
+	 *  . . . .
+	 *  A . . .
+	 *  A B C .
+	 *  A B C D
+	 *  A B . D
+	 *  A . . D
+	 *  A E . D
+	 *  A . . D
+	 *  . . . D
+	 *  . . . D
+	 *  F . . D
+	 *  F H . D 
+	 *  . . . .
+	 *  G . . . 
+	 *  . . . .
+	 * 
+	 * Appointment A was rendered first and put into track 0 and its start time.
+	 * Then appointment B was added, initially it was put in track 0, but appointment A already uses the that slot, so B was moved into track 1.
+	 * C moved from track 0, conflicting with A, to track 1, conflicting with B, and ended up in track 2. And so forth.
+	 * F and H show that even though D overlaps them, they could perfectly be placed in lower tracks.
+	 * 
+	 * A cluster of appointments always starts with a free standing appointment in track 0, for example A or G, such appointment is called the cluster owner.
+	 * When the next appointment is added to the tracks, and finds that it cannot be put in track 0, it will be added as a member to the cluster represented by the appointment in track 0.
+	 * Special attention must be paid to an appointment that is placed in track 0, but is linked to a cluster by a earlier appointment in a higher track; such an appointment is not the cluster owner.
+	 * In the example above, F is linked through D to the cluster owned by A. So F is not a cluster owner, but a member of the cluster owned by A.
+	 * And appointment H through F is also part of the cluster owned by A.  
+	 * G finally starts a new cluster.
+	 * The cluster owner knows how many tracks there are, each member knows in what track it is and has a direct link to the cluster owner. 
+	 *  
+	 * When rendering the appointments above, parallel appointments are rendered narrower & indented, so appointments partially overlap and the left side of an appointment is always visible to the user.
+	 * In the example above the single appointment G is rendered full width, while for example A, B, C and D are overlapping.
+	 * F and H are drawn in the same dimensions as A and B in order to allow D to overlap then.
+	 * The size and amount of indentation depends on the number of appointments that are rendered next to each other.
+	 * In order to compute its location and size, each appointment needs to know:
+	 * - its start and ending time,
+	 * - its track number,
+	 * - its total number of tracks,
+	 * - and naturally the total width and height available to draw the day.
+	 * 
+	 * The tracks are assigned in a single sweep over the sorted appointments:
+	 * the tracks that are in use are kept in a min-heap on their end time, and the tracks that have been freed in a min-heap on their index.
+	 * Before an appointment is placed, all tracks ending at or before its start are freed; it then gets the lowest free track, or a new one.
+	 * If no track is in use anymore, the appointment starts a new cluster.
+	 * This places every appointment in the lowest track without an overlap, like trying the tracks one by one would, but in O(n log n).
+	 * 
+	 */
+	static List<TrackedAppointment> determineTracks(List<TrackedAppointment> trackedAppointments) {
+		
+		// sort on start time and then decreasing duration
+		Collections.sort(trackedAppointments, new Comparator<TrackedAppointment>() {
+			@Override
+			public int compare(TrackedAppointment o1, TrackedAppointment o2) {
+				// if not same start, then compare on starttime
+				if (!o1.startDateTime.isEqual(o2.startDateTime)) {
+					return o1.startDateTime.compareTo(o2.startDateTime);
+				}
+				
+				// task after appointment
+				if (!o1.isTask && o2.isTask) {
+					return -1;
+				}
+				if (o1.isTask && !o2.isTask) {
+					return 1;
+				}
+				
+				// longest last 
+				return o1.durationInMS == o2.durationInMS ? 0 : (o1.durationInMS > o2.durationInMS ? -1 : 1);
+			}
+		});
+		int lSize = trackedAppointments.size();
+		if (lSize == 0) {
+			return trackedAppointments;
+		}
+		
+		// the start and end times in nanos relative to the earliest start; an appointment ending before it starts is treated as having no duration
+		LocalDateTime lReference = trackedAppointments.get(0).startDateTime;
+		long[] lStarts = new long[lSize];
+		long[] lEnds = new long[lSize];
+		for (int i = 0; i < lSize; i++) {
+			TrackedAppointment lTrackedAppointment = trackedAppointments.get(i);
+			lStarts[i] = lReference.until(lTrackedAppointment.startDateTime, ChronoUnit.NANOS);
+			lEnds[i] = Math.max(lStarts[i], lReference.until(lTrackedAppointment.effectiveEndDateTime(), ChronoUnit.NANOS));
+		}
+		
+		// there can never be more tracks than appointments
+		long[] lBusyEnds = new long[lSize];
+		int[] lBusyTracks = new int[lSize];
+		int lBusyCount = 0;
+		int[] lFreeTracks = new int[lSize];
+		int lFreeCount = 0;
+		
+		// start placing appointments in the tracks
+		TrackedAppointment lClusterOwner = null;
+		int lTrackCount = 0;
+		for (int i = 0; i < lSize; i++) 
+		{
+			TrackedAppointment lTrackedAppointment = trackedAppointments.get(i);
+			
+			// There is an overlap if the already placed appointment ends after the new appointment's start; equals allows two consecutive appointments in the same track
+			// ...PPPPPPPPP...    
+			// .......NNNN.... -> Pe > Ns -> overlap
+			// ...........NNN. -> no overlap, the track is freed
+			while (lBusyCount > 0 && lBusyEnds[0] <= lStarts[i]) {
+				lFreeCount = pushFreeTrack(lFreeTracks, lFreeCount, lBusyTracks[0]);
+				lBusyCount = popBusyTrack(lBusyEnds, lBusyTracks, lBusyCount);
+			}
+			
+			// if no track is in use, we start a new cluster
+			if (lBusyCount == 0) {
+				if (lClusterOwner != null) {
+					lClusterOwner.clusterTrackCount = lTrackCount;
+				}
+				lClusterOwner = lTrackedAppointment;
+				lTrackCount = 0;
+				lFreeCount = 0;
+			}
+			
+			// the lowest free track, or else a new track 
+			int lTrackNr;
+			if (lFreeCount > 0) {
+				lTrackNr = lFreeTracks[0];
+				lFreeCount = popFreeTrack(lFreeTracks, lFreeCount);
+			}
+			else {
+				lTrackNr = lTrackCount;
+				lTrackCount++;
+			}
+			lBusyCount = pushBusyTrack(lBusyEnds, lBusyTracks, lBusyCount, lEnds[i], lTrackNr);
+			
+			// setup the cluster data
+			lTrackedAppointment.clusterOwner = lClusterOwner;
+			lTrackedAppointment.clusterTrackIdx = lTrackNr;				
+		}
+		lClusterOwner.clusterTrackCount = lTrackCount;
+		
+		// done
+		return trackedAppointments;
+	}
+	
+	/**
+	 * A task does not have an end time, it occupies 10 minutes in its track
+	 */
+	private LocalDateTime effectiveEndDateTime() {
+		return endDateTime != null ? endDateTime : startDateTime.plusMinutes(10);
+	}
+	
+	/*
+	 * min-heap of tracks in use on their end time, as two parallel arrays
+	 */
+	static private int pushBusyTrack(long[] ends, int[] tracks, int count, long end, int track) {
+		int lIdx = count;
+		while (lIdx > 0) {
+			int lParentIdx = (lIdx - 1) / 2;
+			if (ends[lParentIdx] <= end) {
+				break;
+			}
+			ends[lIdx] = ends[lParentIdx];
+			tracks[lIdx] = tracks[lParentIdx];
+			lIdx = lParentIdx;
+		}
+		ends[lIdx] = end;
+		tracks[lIdx] = track;
+		return count + 1;
+	}
+	static private int popBusyTrack(long[] ends, int[] tracks, int count) {
+		count--;
+		long lEnd = ends[count];
+		int lTrack = tracks[count];
+		int lIdx = 0;
+		while (true) {
+			int lChildIdx = 2 * lIdx + 1;
+			if (lChildIdx >= count) {
+				break;
+			}
+			if (lChildIdx + 1 < count && ends[lChildIdx + 1] < ends[lChildIdx]) {
+				lChildIdx++;
+			}
+			if (ends[lChildIdx] >= lEnd) {
+				break;
+			}
+			ends[lIdx] = ends[lChildIdx];
+			tracks[lIdx] = tracks[lChildIdx];
+			lIdx = lChildIdx;
+		}
+		ends[lIdx] = lEnd;
+		tracks[lIdx] = lTrack;
+		return count;
+	}
+	
+	/*
+	 * min-heap of freed track numbers
+	 */
+	static private int pushFreeTrack(int[] tracks, int count, int track) {
+		int lIdx = count;
+		while (lIdx > 0) {
+			int lParentIdx = (lIdx - 1) / 2;
+			if (tracks[lParentIdx] <= track) {
+				break;
+			}
+			tracks[lIdx] = tracks[lParentIdx];
+			lIdx = lParentIdx;
+		}
+		tracks[lIdx] = track;
+		return count + 1;
+	}
+	static private int popFreeTrack(int[] tracks, int count) {
+		count--;
+		int lTrack = tracks[count];
+		int lIdx = 0;
+		while (true) {
+			int lChildIdx = 2 * lIdx + 1;
+			if (lChildIdx >= count) {
+				break;
+			}
+			if (lChildIdx + 1 < count && tracks[lChildIdx + 1] < tracks[lChildIdx]) {
+				lChildIdx++;
+			}
+			if (tracks[lChildIdx] >= lTrack) {
+				break;
+			}
+			tracks[lIdx] = tracks[lChildIdx];
+			lIdx = lChildIdx;
+		}
+		tracks[lIdx] = lTrack;
+		return count;
+	}
+}
@@ -209,12 +209,15 @@ public class Agenda extends Control
 	final private ObservableList<Appointment> appointments =  javafx.collections.FXCollections.observableArrayList();
 	private void constructAppointments()
 	{
-		// when appointments are removed, they can't be selected anymore
+		// when appointments are removed, they can't be selected anymore, and changes in a batch update are remembered
 		appointments.addListener(new ListChangeListener<Agenda.Appointment>() 
 		{
 			@Override
 			public void onChanged(javafx.collections.ListChangeListener.Change<? extends Appointment> changes)
 			{
+				if (batchUpdateDepth > 0) {
+					isAppointmentsChangedInBatch = true;
+				}
 				while (changes.next())
 				{
 					for (Appointment lAppointment : changes.getRemoved())
@@ -411,13 +414,59 @@ public class Agenda extends Control
 	}
 	
 	/**
-	 * Force the agenda to completely refresh itself
+	 * Force the agenda to completely refresh itself.
+	 * Inside a {@link #batchUpdate(Runnable)} the refresh is done once, at the end of the batch.
 	 */
 	public void refresh()
 	{
+		if (batchUpdateDepth > 0) {
+			isRefreshPending = true;
+			return;
+		}
 		((AgendaSkin)getSkin()).refresh();
 	}
 	
+	/**
+	 * Runs a number of changes, like adding appointments one by one, and then updates the rendering once.
+	 * Changes to the appointments and calls to {@link #refresh()} inside the batch don't rebuild the skin; 
+	 * when the outermost batch ends, the agenda is refreshed or its appointments are set up once, before this method returns.
+	 * Batches can be nested.
+	 * 
+	 * @param runnable the changes
+	 */
+	public void batchUpdate(Runnable runnable)
+	{
+		batchUpdateDepth++;
+		try {
+			runnable.run();
+		}
+		finally {
+			batchUpdateDepth--;
+			if (batchUpdateDepth == 0) {
+				boolean isRefresh = isRefreshPending;
+				boolean isSetupAppointments = isAppointmentsChangedInBatch;
+				isRefreshPending = false;
+				isAppointmentsChangedInBatch = false;
+				if (getSkin() instanceof AgendaSkin) {
+					if (isRefresh) {
+						((AgendaSkin)getSkin()).refresh();
+					}
+					else if (isSetupAppointments) {
+						((AgendaSkin)getSkin()).setupAppointments();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return true while a {@link #batchUpdate(Runnable)} is running, skins then defer rebuilding until the batch ends
+	 */
+	public boolean isBatchUpdating() { return batchUpdateDepth > 0; }
+	private int batchUpdateDepth = 0;
+	private boolean isRefreshPending = false;
+	private boolean isAppointmentsChangedInBatch = false;
+	
 	/**
 	 * Stores date-time as a Temporal.  This allows any class implementing Temporal, that can
 	 * be converted to a LocalDate or LocalDateTime, to be displayed in Agenda.
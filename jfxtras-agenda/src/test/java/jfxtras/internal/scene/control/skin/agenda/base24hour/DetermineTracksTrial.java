@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import jfxtras.scene.control.agenda.Agenda;
+
+/**
+ * Micro benchmark of the track assignment, comparing the sweep line with the legacy assignment on a day of overlapping bookings (like a room resource view).
+ * Run it as an application; the timings are printed to stdout.
+ */
+public class DetermineTracksTrial {
+
+	public static void main(String[] args) {
+		for (int lSize : new int[] {50, 200, 1000, 5000}) {
+			List<TrackedAppointment> lTrackedAppointments = createDay(lSize);
+			int lRuns = Math.max(5, 200000 / lSize);
+			
+			// warm up both
+			measure(lTrackedAppointments, lRuns, false);
+			measure(lTrackedAppointments, lRuns, true);
+			
+			double lSweepLineMS = measure(lTrackedAppointments, lRuns, false);
+			double lLegacyMS = measure(lTrackedAppointments, Math.max(1, lRuns / 10), true);
+			System.out.println(String.format("%5d appointments: sweep line %.3f ms, legacy %.3f ms", lSize, lSweepLineMS, lLegacyMS));
+		}
+	}
+
+	/*
+	 * average time of a single assignment in ms
+	 */
+	static double measure(List<TrackedAppointment> trackedAppointments, int runs, boolean legacy) {
+		long lStart = System.nanoTime();
+		for (int i = 0; i < runs; i++) {
+			List<TrackedAppointment> lTrackedAppointments = new ArrayList<>(trackedAppointments);
+			if (legacy) {
+				new LegacyTrackAssignment().determineTracks(lTrackedAppointments);
+			}
+			else {
+				TrackedAppointment.determineTracks(lTrackedAppointments);
+			}
+		}
+		return (System.nanoTime() - lStart) / 1000000.0 / runs;
+	}
+
+	/*
+	 * bookings of 30 minutes to 2 hours during office hours
+	 */
+	static List<TrackedAppointment> createDay(int size) {
+		Random lRandom = new Random(size);
+		LocalDate lDay = LocalDate.of(2014, 1, 1);
+		List<TrackedAppointment> lTrackedAppointments = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			LocalDateTime lStart = lDay.atTime(8, 0).plusMinutes(15 * lRandom.nextInt(4 * 9));
+			lTrackedAppointments.add(new TrackedAppointment(lDay, new Agenda.AppointmentImplLocal()
+				.withStartLocalDateTime(lStart)
+				.withEndLocalDateTime(lStart.plusMinutes(30 + 15 * lRandom.nextInt(7)))
+			));
+		}
+		return lTrackedAppointments;
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The track assignment as it was done before the sweep line, by trying each track in turn. 
+ * It is kept as a reference for the layout that TrackedAppointment.determineTracks must produce.
+ */
+class LegacyTrackAssignment {
+
+	final Map<TrackedAppointment, TrackedAppointment> clusterOwners = new IdentityHashMap<>();
+	final Map<TrackedAppointment, Integer> clusterTrackIdxs = new IdentityHashMap<>();
+	final Map<TrackedAppointment, List<List<TrackedAppointment>>> clusterTracks = new IdentityHashMap<>();
+
+	/**
+	 * 
+	 */
+	int trackCount(TrackedAppointment trackedAppointment) {
+		return clusterTracks.get(clusterOwners.get(trackedAppointment)).size();
+	}
+
+	/**
+	 * 
+	 */
+	LegacyTrackAssignment determineTracks(List<TrackedAppointment> trackedAppointments) {
+		
+		// sort on start time and then decreasing duration
+		Collections.sort(trackedAppointments, new Comparator<TrackedAppointment>() {
+			@Override
+			public int compare(TrackedAppointment o1, TrackedAppointment o2) {
+				// if not same start, then compare on starttime
+				if (!o1.startDateTime.isEqual(o2.startDateTime)) {
+					return o1.startDateTime.compareTo(o2.startDateTime);
+				}
+				
+				// task after appointment
+				if (!o1.isTask && o2.isTask) {
+					return -1;
+				}
+				if (o1.isTask && !o2.isTask) {
+					return 1;
+				}
+				
+				// longest last 
+				return o1.durationInMS == o2.durationInMS ? 0 : (o1.durationInMS > o2.durationInMS ? -1 : 1);
+			}
+		});
+		
+		// start placing appointments in the tracks
+		TrackedAppointment lClusterOwner = null;
+		for (TrackedAppointment lTrackedAppointment : trackedAppointments) 
+		{
+			// if there is no cluster owner
+			if (lClusterOwner == null) {
+				lClusterOwner = lTrackedAppointment;
+				clusterTracks.put(lClusterOwner, new ArrayList<List<TrackedAppointment>>());
+			}
+			
+			// in which track should it be added
+			int lTrackNr = determineTrackWhereAppointmentCanBeAdded(clusterTracks.get(lClusterOwner), lTrackedAppointment);
+			if (lTrackNr == 0) {
+				
+				// So let's see if there is a linking appointment higher up
+				boolean lOverlaps = false;
+				for (int i = 1; i < clusterTracks.get(lClusterOwner).size() && lOverlaps == false; i++) {
+					lOverlaps = checkIfTheAppointmentOverlapsAnAppointmentAlreadyInThisTrack(clusterTracks.get(lClusterOwner), i, lTrackedAppointment);
+				}
+				
+				// if it does not overlap, we start a new cluster
+				if (lOverlaps == false) {
+					lClusterOwner = lTrackedAppointment;
+					clusterTracks.put(lClusterOwner, new ArrayList<List<TrackedAppointment>>());
+					clusterTracks.get(lClusterOwner).add(new ArrayList<TrackedAppointment>());
+				}
+			}
+			
+			// add it to the track
+			clusterTracks.get(lClusterOwner).get(lTrackNr).add(lTrackedAppointment);
+			clusterOwners.put(lTrackedAppointment, lClusterOwner);
+			clusterTrackIdxs.put(lTrackedAppointment, lTrackNr);				
+		}
+		return this;
+	}
+	
+	/**
+	 * 
+	 */
+	static private int determineTrackWhereAppointmentCanBeAdded(List<List<TrackedAppointment>> tracks, TrackedAppointment trackedAppointment)
+	{
+		int lTrackNr = 0;
+		while (true)
+		{
+			// make sure there is a arraylist for this track
+			if (lTrackNr == tracks.size()) {
+				tracks.add(new ArrayList<TrackedAppointment>());
+			}
+			
+			// scan all existing appointments in this track and see if there is an overlap
+			if (checkIfTheAppointmentOverlapsAnAppointmentAlreadyInThisTrack(tracks, lTrackNr, trackedAppointment) == false)
+			{
+				// no overlap, it can be added here
+				return lTrackNr;
+			}
+
+			// overlap, try next track
+			lTrackNr++;
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	static private boolean checkIfTheAppointmentOverlapsAnAppointmentAlreadyInThisTrack(List<List<TrackedAppointment>> tracks, int tracknr, TrackedAppointment newTrackedAppointment)
+	{
+		for (TrackedAppointment lTrackedAppointment : tracks.get(tracknr))
+		{
+			LocalDateTime lPlacedStart = lTrackedAppointment.startDateTime;
+			LocalDateTime lPlacedEnd = (lTrackedAppointment.endDateTime != null ? lTrackedAppointment.endDateTime : lTrackedAppointment.startDateTime.plusMinutes(10));
+			LocalDateTime lNewStart = newTrackedAppointment.startDateTime;
+			LocalDateTime lNewEnd = (newTrackedAppointment.endDateTime != null ? newTrackedAppointment.endDateTime : newTrackedAppointment.startDateTime.plusMinutes(10));
+			if ( (lPlacedStart.isEqual(lNewStart) || lNewEnd == null || lPlacedStart.isBefore(lNewEnd)) 
+			  && lPlacedEnd != null && lPlacedEnd.isAfter(lNewStart)
+			   )
+			{
+				// overlap
+				return true;
+			}
+		}
+		
+		// no overlap
+		return false;
+	}
+}
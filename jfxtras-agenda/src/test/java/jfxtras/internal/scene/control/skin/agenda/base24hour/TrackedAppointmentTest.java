@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.internal.scene.control.skin.agenda.base24hour;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import jfxtras.scene.control.agenda.Agenda;
+
+public class TrackedAppointmentTest {
+
+	final static LocalDate DAY = LocalDate.of(2014, 1, 1);
+
+	@Test
+	public void documentedExample() {
+		// the example in the javadoc of determineTracks, in rows of half an hour
+		TrackedAppointment a = create(2, 9);
+		TrackedAppointment b = create(3, 6);
+		TrackedAppointment c = create(3, 5);
+		TrackedAppointment d = create(4, 13);
+		TrackedAppointment e = create(7, 8);
+		TrackedAppointment f = create(11, 13);
+		TrackedAppointment h = create(12, 13);
+		TrackedAppointment g = create(14, 15);
+		List<TrackedAppointment> lTrackedAppointments = new ArrayList<>(Arrays.asList(g, h, f, e, d, c, b, a));
+		TrackedAppointment.determineTracks(lTrackedAppointments);
+
+		assertLayout(a, a, 0, 4);
+		assertLayout(b, a, 1, 4);
+		assertLayout(c, a, 2, 4);
+		assertLayout(d, a, 3, 4);
+		assertLayout(e, a, 1, 4);
+		assertLayout(f, a, 0, 4);
+		assertLayout(h, a, 1, 4);
+		assertLayout(g, g, 0, 1);
+	}
+
+	@Test
+	public void consecutiveAppointmentsShareATrack() {
+		TrackedAppointment a = create(2, 4);
+		TrackedAppointment b = create(4, 6);
+		TrackedAppointment c = create(5, 7);
+		List<TrackedAppointment> lTrackedAppointments = new ArrayList<>(Arrays.asList(a, b, c));
+		TrackedAppointment.determineTracks(lTrackedAppointments);
+
+		assertLayout(a, a, 0, 1);
+		assertLayout(b, b, 0, 2);
+		assertLayout(c, b, 1, 2);
+	}
+
+	@Test
+	public void allOverlapping() {
+		List<TrackedAppointment> lTrackedAppointments = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			lTrackedAppointments.add(create(2, 10));
+		}
+		List<TrackedAppointment> lExpected = new ArrayList<>(lTrackedAppointments);
+		TrackedAppointment.determineTracks(lTrackedAppointments);
+
+		for (int i = 0; i < 500; i++) {
+			assertLayout(lExpected.get(i), lExpected.get(0), i, 500);
+		}
+	}
+
+	@Test
+	public void sameLayoutAsLegacy() {
+		Random lRandom = new Random(20141);
+		for (int lDay = 0; lDay < 2000; lDay++) {
+			List<TrackedAppointment> lTrackedAppointments = new ArrayList<>();
+			int lCount = 1 + lRandom.nextInt(lDay % 10 == 0 ? 400 : 40);
+			for (int i = 0; i < lCount; i++) {
+				lTrackedAppointments.add(createRandom(lRandom));
+			}
+			List<TrackedAppointment> lLegacyTrackedAppointments = new ArrayList<>(lTrackedAppointments);
+			
+			TrackedAppointment.determineTracks(lTrackedAppointments);
+			LegacyTrackAssignment lLegacy = new LegacyTrackAssignment().determineTracks(lLegacyTrackedAppointments);
+			
+			Assert.assertEquals(lLegacyTrackedAppointments, lTrackedAppointments);
+			for (TrackedAppointment lTrackedAppointment : lTrackedAppointments) {
+				String lMessage = "day " + lDay + " " + lTrackedAppointment.startDateTime + "-" + lTrackedAppointment.endDateTime;
+				Assert.assertSame(lMessage, lLegacy.clusterOwners.get(lTrackedAppointment), lTrackedAppointment.clusterOwner);
+				Assert.assertEquals(lMessage, lLegacy.clusterTrackIdxs.get(lTrackedAppointment).intValue(), lTrackedAppointment.clusterTrackIdx);
+				Assert.assertEquals(lMessage, lLegacy.trackCount(lTrackedAppointment), lTrackedAppointment.clusterOwner.clusterTrackCount);
+			}
+		}
+	}
+
+	/*
+	 * an appointment from one row to another, each row being half an hour starting at 08:00
+	 */
+	static TrackedAppointment create(int startRow, int endRow) {
+		LocalDateTime lStart = DAY.atTime(8, 0);
+		return new TrackedAppointment(DAY, new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(lStart.plusMinutes(30 * startRow))
+			.withEndLocalDateTime(lStart.plusMinutes(30 * endRow))
+		);
+	}
+
+	/*
+	 * tasks, zero length appointments and appointments running over the day boundaries
+	 */
+	static TrackedAppointment createRandom(Random random) {
+		LocalDateTime lStart = DAY.atStartOfDay().plusMinutes(5 * random.nextInt(24 * 12));
+		LocalDateTime lEnd = null;
+		if (random.nextInt(20) == 0) {
+			lStart = DAY.atStartOfDay().minusMinutes(5 * (1 + random.nextInt(12 * 8)));
+			lEnd = DAY.atStartOfDay().plusMinutes(5 * random.nextInt(12 * 8));
+		}
+		else if (random.nextInt(7) != 0) {
+			lEnd = lStart.plusMinutes(5 * random.nextInt(12 * 8)).plusSeconds(random.nextInt(3) * 30);
+		}
+		return new TrackedAppointment(DAY, new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(lStart)
+			.withEndLocalDateTime(lEnd)
+		);
+	}
+
+	/*
+	 * 
+	 */
+	static void assertLayout(TrackedAppointment trackedAppointment, TrackedAppointment clusterOwner, int trackIdx, int trackCount) {
+		Assert.assertSame(clusterOwner, trackedAppointment.clusterOwner);
+		Assert.assertEquals(trackIdx, trackedAppointment.clusterTrackIdx);
+		Assert.assertEquals(trackCount, trackedAppointment.clusterOwner.clusterTrackCount);
+	}
+}
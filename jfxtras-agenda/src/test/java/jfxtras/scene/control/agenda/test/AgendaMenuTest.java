@@ -108,6 +108,41 @@ public class AgendaMenuTest extends AbstractAgendaTestBase {
 		//TestUtil.sleep(3000);
 	}
 
+	/**
+	 * The menu is shared by all appointments, it must edit the appointment it was last opened for
+	 */
+	@Test
+	public void reuseAppointmentMenu()
+	{
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.appointments().add( new Agenda.AppointmentImplLocal()
+	            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:00"))
+	            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T12:00"))
+	            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+            );
+			agenda.appointments().add( new Agenda.AppointmentImplLocal()
+	            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T14:00"))
+	            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T16:00"))
+	            .withAppointmentGroup(appointmentGroupMap.get("group02"))
+            );
+		});
+
+		// open and close the menu for the first appointment
+		clickOn("#AppointmentRegularBodyPane2014-01-01/0 .MenuIcon");
+		assertPopupIsVisible(find("#AppointmentRegularBodyPane2014-01-01/0"));
+		clickOn(".close-icon");
+		
+		// then use it for the second
+		clickOn("#AppointmentRegularBodyPane2014-01-01/1 .MenuIcon");
+		clickOn("#wholeday-checkbox");
+		clickOn(".close-icon");
+		Assert.assertEquals(1, appointmentChangedCallbackList.size());
+		Assert.assertTrue(appointmentChangedCallbackList.contains(agenda.appointments().get(1)));
+		Assert.assertEquals(false, agenda.appointments().get(0).isWholeDay().booleanValue() );
+		Assert.assertEquals(true, agenda.appointments().get(1).isWholeDay().booleanValue() );
+		//TestUtil.sleep(3000);
+	}
+
 //	/**
 //	 *  
 //	 */
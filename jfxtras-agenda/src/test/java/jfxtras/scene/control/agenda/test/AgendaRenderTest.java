@@ -37,7 +37,9 @@ import java.time.ZonedDateTime;
 import java.time.chrono.HijrahDate;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 import org.junit.Test;
@@ -45,7 +47,9 @@ import org.junit.Test;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Pane;
 import jfxtras.internal.scene.control.skin.agenda.AgendaDaySkin;
+import jfxtras.internal.scene.control.skin.agenda.base24hour.AgendaSkinTimeScale24HourAbstract;
 import jfxtras.scene.control.agenda.Agenda;
 import jfxtras.scene.control.agenda.test.OSInfo.OS;
 import jfxtras.test.AssertNode;
@@ -433,4 +437,169 @@ public class AgendaRenderTest extends AbstractAgendaTestBase {
 		Assert.assertTrue(lScrollPane.getVvalue() > 0.95); // we do not want to pinpoint it too hard, but somewhere way high is close enough to assert the behavior
 		//TestUtil.sleep(3000);
 	}
+	
+	/**
+	 * 
+	 */
+	@Test
+	public void coalesceAppointmentChanges()
+	{
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin();
+		long lChangeCount = lSkin.getAppointmentsChangeCount();
+		long lSetupCount = lSkin.getSetupAppointmentsCount();
+		
+		// when adding appointments one by one in one pulse
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			for (int i = 0; i < 10; i++) {
+				agenda.appointments().add( new Agenda.AppointmentImplLocal()
+		            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:00").plusMinutes(i * 30))
+		            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:30").plusMinutes(i * 30))
+		            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+	            );
+			}
+		});
+		
+		// then the days are reconstructed once
+		Assert.assertEquals(10, lSkin.getAppointmentsChangeCount() - lChangeCount);
+		Assert.assertEquals(1, lSkin.getSetupAppointmentsCount() - lSetupCount);
+		assertFind("#AppointmentRegularBodyPane2014-01-01/9");
+	}
+	
+	/**
+	 * 
+	 */
+	@Test
+	public void batchUpdate()
+	{
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin();
+		long lSetupCount = lSkin.getSetupAppointmentsCount();
+		
+		// when adding appointments and refreshing in a batch
+		long lSetupCountInBatch = TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.batchUpdate( () -> {
+				for (int i = 0; i < 5; i++) {
+					agenda.appointments().add( new Agenda.AppointmentImplLocal()
+			            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:00").plusMinutes(i * 30))
+			            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:30").plusMinutes(i * 30))
+			            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+		            );
+					agenda.refresh();
+				}
+				Assert.assertTrue(agenda.isBatchUpdating());
+			});
+			return lSkin.getSetupAppointmentsCount() - lSetupCount;
+		});
+		
+		// then the days are reconstructed once, when the batch ends, and not again in the next pulse
+		Assert.assertEquals(1, lSetupCountInBatch);
+		Assert.assertEquals(1, lSkin.getSetupAppointmentsCount() - lSetupCount);
+		Assert.assertFalse(agenda.isBatchUpdating());
+		assertFind("#AppointmentRegularBodyPane2014-01-01/4");
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void nodeForPopupBeforeLayout()
+	{
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin();
+		Agenda.Appointment lAppointment = new Agenda.AppointmentImplLocal()
+            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:00"))
+            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T12:00"))
+            .withAppointmentGroup(appointmentGroupMap.get("group01"));
+
+		// when asking for the popup node right after adding an appointment, before the layout pass reconstructs the days
+		Pane lPane = TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.appointments().add(lAppointment);
+			return lSkin.getNodeForPopup(lAppointment);
+		});
+
+		// then the pending reconstruction has already created its pane
+		Assert.assertNotNull(lPane);
+		Assert.assertSame(lPane, find("#AppointmentRegularBodyPane2014-01-01/0"));
+	}
+
+	/**
+	 * 
+	 */
+	@Test
+	public void reuseAppointmentPanes()
+	{
+		Agenda.Appointment lAppointment = new Agenda.AppointmentImplLocal()
+            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T10:00"))
+            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T12:00"))
+            .withSummary("a")
+            .withAppointmentGroup(appointmentGroupMap.get("group01"));
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.appointments().add(lAppointment);
+		});
+		Node lNode = find("#AppointmentRegularBodyPane2014-01-01/0");
+		
+		// when adding another appointment, the pane of the unchanged appointment is kept
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.appointments().add( new Agenda.AppointmentImplLocal()
+	            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-02T10:00"))
+	            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-02T12:00"))
+	            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+            );
+		});
+		assertFind("#AppointmentRegularBodyPane2014-01-02/0");
+		Assert.assertSame(lNode, find("#AppointmentRegularBodyPane2014-01-01/0"));
+		
+		// when modifying the appointment, it gets a new pane
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			lAppointment.setSummary("b");
+			((AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin()).setupAppointments();
+		});
+		Assert.assertNotSame(lNode, find("#AppointmentRegularBodyPane2014-01-01/0"));
+	}
+	
+	/**
+	 * 
+	 */
+	@Test
+	public void virtualized()
+	{
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin();
+		List<Agenda.Appointment> lAppointments = new ArrayList<>();
+		for (int i = 0; i < 24; i++) {
+			lAppointments.add( new Agenda.AppointmentImplLocal()
+	            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T00:00").plusHours(i))
+	            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T00:30").plusHours(i))
+	            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+            );
+		}
+		
+		// when virtualized
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			lSkin.setVirtualized(true);
+			agenda.appointments().addAll(lAppointments);
+		});
+		
+		// then only the appointments in view have a pane
+		int lIdx = TestUtil.runThenWaitForPaintPulse( () -> {
+			for (int i = 0; i < lAppointments.size(); i++) {
+				if (agenda.lookup("#AppointmentRegularBodyPane2014-01-01/" + i) == null) {
+					return i;
+				}
+			}
+			return -1;
+		});
+		Assert.assertTrue(lIdx > 0);
+		assertFind("#AppointmentRegularBodyPane2014-01-01/0");
+		
+		// but a pane is created on demand
+		Assert.assertNotNull(TestUtil.runThenWaitForPaintPulse( () -> {
+			return lSkin.getNodeForPopup(lAppointments.get(lIdx));
+		}));
+		
+		// when not virtualized anymore, all appointments have a pane
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			lSkin.setVirtualized(false);
+		});
+		for (int i = 0; i < lAppointments.size(); i++) {
+			assertFind("#AppointmentRegularBodyPane2014-01-01/" + i);
+		}
+	}
 }
@@ -31,9 +31,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
+import jfxtras.internal.scene.control.skin.agenda.base24hour.AgendaSkinTimeScale24HourAbstract;
 import jfxtras.scene.control.agenda.Agenda;
 import jfxtras.test.TestUtil;
 
@@ -280,4 +283,120 @@ public class AgendaSelectTest extends AbstractAgendaTestBase {
 		Assert.assertEquals(0, agenda.selectedAppointments().size() );
 		//TestUtil.sleep(3000);
 	}
+
+	/**
+	 * 
+	 */
+	@Test
+	public void selectedPseudoClass()
+	{
+		// given
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			for (int i = 0; i < 10; i++) {
+				agenda.appointments().add( new Agenda.AppointmentImplLocal()
+		            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T08:00").plusHours(i))
+		            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T09:00").plusHours(i))
+		            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+	            );
+			}
+		});
+		assertSelected(false, false);
+		
+		// when
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.selectedAppointments().setAll(agenda.appointments());
+		});
+		
+		// then
+		assertSelected(true, true);
+		
+		// when
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.selectedAppointments().remove(agenda.appointments().get(0));
+		});
+		
+		// then
+		assertSelected(false, true);
+		
+		// when
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.selectedAppointments().clear();
+		});
+		
+		// then
+		assertSelected(false, false);
+		
+		// when an appointment is added that already is selected
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			Agenda.Appointment lAppointment = new Agenda.AppointmentImplLocal()
+	            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-02T08:00"))
+	            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-02T09:00"))
+	            .withAppointmentGroup(appointmentGroupMap.get("group01"));
+			agenda.selectedAppointments().add(lAppointment);
+			agenda.appointments().add(lAppointment);
+		});
+		
+		// then its pane is shown as selected
+		Assert.assertTrue( ((Node)find("#AppointmentRegularBodyPane2014-01-02/0")).getPseudoClassStates().contains(PseudoClass.getPseudoClass("selected")) );
+		//TestUtil.sleep(3000);
+	}
+	
+	/**
+	 * 
+	 */
+	@SuppressWarnings("deprecation")
+	@Test
+	public void legacySelectedStyleClass()
+	{
+		// given
+		AgendaSkinTimeScale24HourAbstract<?> lSkin = (AgendaSkinTimeScale24HourAbstract<?>)agenda.getSkin();
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			for (int i = 0; i < 10; i++) {
+				agenda.appointments().add( new Agenda.AppointmentImplLocal()
+		            .withStartLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T08:00").plusHours(i))
+		            .withEndLocalDateTime(TestUtil.quickParseLocalDateTimeYMDhm("2014-01-01T09:00").plusHours(i))
+		            .withAppointmentGroup(appointmentGroupMap.get("group01"))
+	            );
+			}
+			agenda.selectedAppointments().add(agenda.appointments().get(0));
+		});
+		assertSelected(true, false);
+		
+		// when the legacy style class is switched on
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			lSkin.setLegacySelectedStyleClass(true);
+		});
+		
+		// then the selected pane also has the Selected style class
+		assertSelected(true, false, true);
+		
+		// when
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			agenda.selectedAppointments().setAll(agenda.appointments().subList(1, 10));
+		});
+		
+		// then
+		assertSelected(false, true, true);
+		
+		// when switched off again
+		TestUtil.runThenWaitForPaintPulse( () -> {
+			lSkin.setLegacySelectedStyleClass(false);
+		});
+		
+		// then
+		assertSelected(false, true);
+	}
+	
+	private void assertSelected(boolean first, boolean others) {
+		assertSelected(first, others, false);
+	}
+	
+	private void assertSelected(boolean first, boolean others, boolean legacySelectedStyleClass) {
+		for (int i = 0; i < 10; i++) {
+			Node lNode = (Node)find("#AppointmentRegularBodyPane2014-01-01/" + i);
+			boolean lSelected = (i == 0 ? first : others);
+			Assert.assertEquals("pane " + i, lSelected, lNode.getPseudoClassStates().contains(PseudoClass.getPseudoClass("selected")));
+			Assert.assertEquals("pane " + i, lSelected && legacySelectedStyleClass, lNode.getStyleClass().contains("Selected"));
+		}
+	}
 }
@@ -28,6 +28,7 @@ package jfxtras.scene.control.agenda.test;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -135,4 +136,97 @@ public class AllAppointmentsTest extends JFXtrasTest {
 		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
 		Assert.assertEquals(0, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 1, 2)).size());
 	}
+
+	@Test
+	public void addAndRemoveAfterConstruction() {
+		// the index follows the changes in the list
+		ObservableList<Agenda.Appointment> lAppointments = FXCollections.observableArrayList();
+		AllAppointments lAllAppointments = new AllAppointments(lAppointments);
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		Agenda.Appointment lAppointment = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 1, 2, 8, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 1, 2, 11, 30));
+		lAppointments.add(lAppointment);
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		lAppointments.remove(lAppointment);
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+	}
+
+	@Test
+	public void multiDayAppointment() {
+		// an appointment is present on each day it covers
+		ObservableList<Agenda.Appointment> lAppointments = FXCollections.observableArrayList(new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 1, 2, 10, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 1, 4, 10, 00))
+		);
+		AllAppointments lAllAppointments = new AllAppointments(lAppointments);
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 1)).size());
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 3)).size());
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 4)).size());
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 5)).size());
+	}
+
+	@Test
+	public void longSpanningAppointment() {
+		// an appointment spanning months is not put in the per day buckets, but must still be found
+		ObservableList<Agenda.Appointment> lAppointments = FXCollections.observableArrayList(new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDate.of(2014, 1, 1).atStartOfDay())
+			.withEndLocalDateTime(LocalDate.of(2014, 6, 1).atStartOfDay()) // end is exclusive
+			.withWholeDay(true)
+		);
+		AllAppointments lAllAppointments = new AllAppointments(lAppointments);
+		Assert.assertEquals(0, lAllAppointments.collectWholedayFor(LocalDate.of(2013, 12, 31)).size());
+		Assert.assertEquals(1, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 1, 1)).size());
+		Assert.assertEquals(1, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 3, 15)).size());
+		Assert.assertEquals(1, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 5, 31)).size());
+		Assert.assertEquals(0, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 6, 1)).size());
+		lAppointments.clear();
+		Assert.assertEquals(0, lAllAppointments.collectWholedayFor(LocalDate.of(2014, 3, 15)).size());
+	}
+
+	@Test
+	public void listOrderIsKept() {
+		// the appointments for a day are returned in the order of the list, also when long spanning appointments are mixed in
+		Agenda.Appointment lAppointment1 = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 3, 2, 8, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 3, 2, 9, 00));
+		Agenda.Appointment lAppointment2 = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 1, 1, 8, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 6, 1, 9, 00));
+		Agenda.Appointment lAppointment3 = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 3, 2, 10, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 3, 2, 11, 00));
+		Agenda.Appointment lAppointment4 = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 3, 2, 12, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 3, 2, 13, 00));
+		ObservableList<Agenda.Appointment> lAppointments = FXCollections.observableArrayList(lAppointment1, lAppointment2, lAppointment3);
+		AllAppointments lAllAppointments = new AllAppointments(lAppointments);
+		Assert.assertEquals(Arrays.asList(lAppointment1, lAppointment2, lAppointment3), lAllAppointments.collectRegularFor(LocalDate.of(2014, 3, 2)));
+		
+		// inserting at the front
+		lAppointments.add(0, lAppointment4);
+		Assert.assertEquals(Arrays.asList(lAppointment4, lAppointment1, lAppointment2, lAppointment3), lAllAppointments.collectRegularFor(LocalDate.of(2014, 3, 2)));
+		
+		// sorting
+		FXCollections.reverse(lAppointments);
+		Assert.assertEquals(Arrays.asList(lAppointment3, lAppointment2, lAppointment1, lAppointment4), lAllAppointments.collectRegularFor(LocalDate.of(2014, 3, 2)));
+	}
+
+	@Test
+	public void invalidateAfterModifyingInPlace() {
+		// moving an appointment to another day is not visible in the list, so the index must be invalidated
+		Agenda.Appointment lAppointment = new Agenda.AppointmentImplLocal()
+			.withStartLocalDateTime(LocalDateTime.of(2014, 1, 2, 8, 00))
+			.withEndLocalDateTime(LocalDateTime.of(2014, 1, 2, 11, 30));
+		ObservableList<Agenda.Appointment> lAppointments = FXCollections.observableArrayList(lAppointment);
+		AllAppointments lAllAppointments = new AllAppointments(lAppointments);
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		lAppointment.setStartLocalDateTime(LocalDateTime.of(2014, 1, 3, 8, 00));
+		lAppointment.setEndLocalDateTime(LocalDateTime.of(2014, 1, 3, 11, 30));
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		lAllAppointments.invalidate();
+		Assert.assertEquals(0, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 2)).size());
+		Assert.assertEquals(1, lAllAppointments.collectRegularFor(LocalDate.of(2014, 1, 3)).size());
+	}
 }
@@ -761,11 +761,13 @@ public abstract class EditRecurrenceRuleVBox<T extends VDisplayable<T>> extends
                     {
                     	// NOTE: Only works for one EXDATE property
                         vComponent.getExceptionDates().get(0).getValue().addAll(added1);                    	
+                        vComponent.getExceptionDates().get(0).markDirty(); // changed in place
                     }
                 } else if (change.wasRemoved())
                 {
                     List<? extends Temporal> removed = change.getRemoved();
                     vComponent.getExceptionDates().get(0).getValue().removeAll(removed);
+                    vComponent.getExceptionDates().get(0).markDirty();
                 }
             }
         };
@@ -1208,6 +1210,7 @@ public abstract class EditRecurrenceRuleVBox<T extends VDisplayable<T>> extends
     {
         Temporal d = exceptionsListView.getSelectionModel().getSelectedItem();
         vComponent.getExceptionDates().get(0).getValue().remove(d);
+        vComponent.getExceptionDates().get(0).markDirty();
         refreshExceptionDates();
         exceptionsListView.getItems().remove(d);
         if (exceptionsListView.getSelectionModel().getSelectedItem() == null)
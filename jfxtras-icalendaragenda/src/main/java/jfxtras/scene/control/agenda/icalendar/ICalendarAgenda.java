@@ -34,12 +34,20 @@ import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -92,6 +100,7 @@ import jfxtras.internal.scene.control.skin.agenda.icalendar.base24hour.Settings;
 import jfxtras.internal.scene.control.skin.agenda.icalendar.base24hour.popup.EditDisplayableScene;
 import jfxtras.internal.scene.control.skin.agenda.icalendar.base24hour.popup.SimpleEditSceneFactory;
 import jfxtras.scene.control.agenda.Agenda;
+import jfxtras.scene.control.agenda.TemporalUtilities;
 import jfxtras.scene.control.agenda.icalendar.editors.ChangeDialogOption;
 import jfxtras.scene.control.agenda.icalendar.editors.deleters.SimpleDeleterFactory;
 import jfxtras.scene.control.agenda.icalendar.editors.revisors.Reviser;
@@ -308,7 +317,54 @@ public class ICalendarAgenda extends Agenda
     /** Gets the value of the VComponent factory */
     public RecurrenceFactory<Appointment> getRecurrenceFactory() { return recurrenceFactory; }
     /** Sets the value of the recurrence factory */
-    public void setRecurrenceFactory(RecurrenceFactory<Appointment> recurrenceFactory) { this.recurrenceFactory = recurrenceFactory; }
+    public void setRecurrenceFactory(RecurrenceFactory<Appointment> recurrenceFactory)
+    {
+        this.recurrenceFactory = recurrenceFactory;
+        appointmentsStartRange = null; // next range change remakes all appointments
+    }
+
+    /*
+     * Executor to make recurrences in the background
+     */
+    private Executor recurrenceExecutor;
+    /** Gets the executor that makes recurrences in the background when the range changes, null if they are made on the FX thread */
+    public Executor getRecurrenceExecutor() { return recurrenceExecutor; }
+    /**
+     * Sets the executor that makes recurrences when the range changes, such as {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * or an executor of virtual threads.  The VComponents are split in batches that are expanded in parallel, and the
+     * appointments are published in one {@link Platform#runLater(Runnable)}.  A range change while recurrences are
+     * being made cancels them.  Null, the default, makes recurrences on the FX thread.
+     * 
+     * The background tasks read copies of the VComponents, made on the FX thread, so the {@link VCalendar} can be
+     * edited while they run.  A copy is remade only when its VComponent changes.
+     * The {@link #getRecurrenceFactory() recurrence factory} must be able to make recurrences from several threads, which
+     * the default one can.  Errors are reported to the {@link #getErrorCallback() error callback}.
+     */
+    public void setRecurrenceExecutor(Executor recurrenceExecutor) { this.recurrenceExecutor = recurrenceExecutor; }
+    /** Sets the executor that makes recurrences in the background, see {@link #setRecurrenceExecutor(Executor)} */
+    public ICalendarAgenda withRecurrenceExecutor(Executor recurrenceExecutor) { setRecurrenceExecutor(recurrenceExecutor); return this; }
+
+    /*
+     * Callback for errors that can't be thrown to the caller
+     */
+    private Callback<Throwable, Void> errorCallback = DEFAULT_ERROR_CALLBACK;
+    /** Gets the callback for errors that can't be thrown to the caller, such as errors making recurrences in the background */
+    public Callback<Throwable, Void> getErrorCallback() { return errorCallback; }
+    /**
+     * Sets the callback for errors that can't be thrown to the caller, such as errors making recurrences in the background.
+     * It's called on the FX thread.  The default passes the error to the uncaught exception handler of the FX thread,
+     * like an exception thrown by an event handler.
+     */
+    public void setErrorCallback(Callback<Throwable, Void> errorCallback) { this.errorCallback = errorCallback; }
+    /** Sets the callback for errors that can't be thrown to the caller, see {@link #setErrorCallback(Callback)} */
+    public ICalendarAgenda withErrorCallback(Callback<Throwable, Void> errorCallback) { setErrorCallback(errorCallback); return this; }
+    /** Default error callback, passes the error to the uncaught exception handler of the current thread */
+    public static final Callback<Throwable, Void> DEFAULT_ERROR_CALLBACK = (Throwable throwable) ->
+    {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+        return null;
+    };
 
     
     /*
@@ -353,9 +409,16 @@ public class ICalendarAgenda extends Agenda
     private final Map<Integer, VDisplayable<?>> appointmentVComponentMap = new HashMap<>();
     /* Map to match the System.identityHashCode of each VComponent with a List of Appointments it represents */
     private final Map<Integer, List<Appointment>> vComponentAppointmentMap = new HashMap<>();
+    /* Map to match the System.identityHashCode of each VComponent with its modification stamp when its Appointments were made.
+     * A VComponent changed in place since then has its Appointments remade when the range changes. */
+    private final Map<Integer, Long> vComponentStampMap = new HashMap<>();
     /* When a new appointment is drawn, it's added to this map to indicate SEQUENCE shouldn't be incremented
      * when editAppointmentCallback is used */
     private final Map<Appointment, Boolean> newAppointmentMap = new HashMap<>();
+    /* Range the appointments list was made for, null if unknown.  Used to update only the difference
+     * when the range changes. */
+    private LocalDateTime appointmentsStartRange;
+    private LocalDateTime appointmentsEndRange;
 
     /** used by default {@link #selectedOneAppointmentCallback} */
     private Alert lastOneAppointmentSelectedAlert;
@@ -403,7 +466,7 @@ public class ICalendarAgenda extends Agenda
                         vComponent.copyChildrenInto(vComponentCopy);
                     } catch (InstantiationException | IllegalAccessException e)
                     {
-                        e.printStackTrace();
+                        getErrorCallback().call(e);
                     }
                     List<VCalendar> cancelMessage = SimpleDeleterFactory.newDeleter(
                             vComponentCopy,
@@ -675,7 +738,7 @@ public class ICalendarAgenda extends Agenda
                             vComponent.copyChildrenInto(vComponentCopy);
                         } catch (InstantiationException | IllegalAccessException e)
                         {
-                            e.printStackTrace();
+                            getErrorCallback().call(e);
                         }
                         List<VCalendar> cancelMessage = SimpleDeleterFactory.newDeleter(
                                 vComponentCopy,
@@ -729,17 +792,15 @@ public class ICalendarAgenda extends Agenda
         /*
          * Agenda LocalDateTimeRange Callback
          * 
-         * This callback is executed when the LocalDateTime range of Agenda changes.  It clears
-         * the appointments list, re-creates the appointments for all the VComponents, and then adds them back
-         * to the appointments list.
+         * This callback is executed when the LocalDateTime range of Agenda changes.  Appointments that
+         * scrolled out of the range are removed and only the newly displayed part of the range is expanded.
+         * See {@link #updateAppointments(LocalDateTime, LocalDateTime)}
          */
         setLocalDateTimeRangeCallback(dateTimeRange ->
         {
-            getRecurrenceFactory().setStartRange(dateTimeRange.getStartLocalDateTime());
-            getRecurrenceFactory().setEndRange(dateTimeRange.getEndLocalDateTime());
             if (dateTimeRange != null)
             {
-            	updateAppointments();
+            	updateAppointments(dateTimeRange.getStartLocalDateTime(), dateTimeRange.getEndLocalDateTime());
             }
             return null; // return argument for the Callback
         });
@@ -762,7 +823,7 @@ public class ICalendarAgenda extends Agenda
                 vComponentCopy = vComponent.getClass().newInstance();
             } catch (InstantiationException | IllegalAccessException e)
             {
-                e.printStackTrace();
+                getErrorCallback().call(e);
             }
             vComponent.copyChildrenInto(vComponentCopy);
             vComponentCopy.setParent(vComponent.getParent());
@@ -812,6 +873,7 @@ public class ICalendarAgenda extends Agenda
             appointmentStartOriginalMap.put(System.identityHashCode(a), a.getStartTemporal());
         });
         vComponentAppointmentMap.put(System.identityHashCode(v), myAppointments);
+        vComponentStampMap.put(System.identityHashCode(v), v.getModificationStamp());
         return myAppointments;
     }
     
@@ -825,10 +887,12 @@ public class ICalendarAgenda extends Agenda
     /** Clear and make new appointments for all displayable VComponents */
     public void updateAppointments()
     {
+        cancelRangeUpdate();
         List<Appointment> newAppointments = new ArrayList<>();
         appointments().removeListener(appointmentsListChangeListener);
         appointments().clear();
         vComponentAppointmentMap.clear();
+        vComponentStampMap.clear();
         appointmentStartOriginalMap.clear();
         appointmentVComponentMap.clear();
         if (getVCalendar().getVEvents() != null)
@@ -845,5 +909,319 @@ public class ICalendarAgenda extends Agenda
         }
         appointments().addAll(newAppointments);
         appointments().addListener(appointmentsListChangeListener); // add back appointmentListener
+        appointmentsStartRange = getRecurrenceFactory().getStartRange();
+        appointmentsEndRange = getRecurrenceFactory().getEndRange();
+    }
+
+    /**
+     * Update the appointments for a new range.
+     * 
+     * If the new range overlaps the range of the current appointments, only the difference is processed:
+     * appointments outside the new range are removed, and recurrences are made only for the newly
+     * exposed parts of the range.  VComponents added to or removed from the {@link VCalendar} since the
+     * last update are also handled, and VComponents changed in place get all their appointments remade.
+     * Otherwise, or when the range is unchanged (e.g. a {@link #refresh()} after editing the calendar),
+     * all appointments are remade.  Either way the appointments list gets one change.
+     * 
+     * If a {@link #setRecurrenceExecutor(Executor) recurrence executor} is set, the recurrences are made by it from
+     * copies of the VComponents, and the appointments are updated later, on the FX thread.  The update is dropped if
+     * a newer one was started in the meantime.
+     * 
+     * @param startRange  start of new range, inclusive
+     * @param endRange  end of new range, exclusive
+     */
+    public void updateAppointments(LocalDateTime startRange, LocalDateTime endRange)
+    {
+        boolean isBackground = getRecurrenceExecutor() != null;
+        RangeUpdate rangeUpdate = planRangeUpdate(startRange, endRange, isBackground);
+        if (! isBackground)
+        {
+            makeRecurrences(rangeUpdate, 0, rangeUpdate.vComponents.size());
+            publishRangeUpdate(rangeUpdate);
+            return;
+        }
+        
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from=0; from<rangeUpdate.vComponents.size(); from += RANGE_UPDATE_BATCH_SIZE)
+        {
+            int batchFrom = from;
+            int batchTo = Math.min(from + RANGE_UPDATE_BATCH_SIZE, rangeUpdate.vComponents.size());
+            batches.add(CompletableFuture.runAsync(() -> makeRecurrences(rangeUpdate, batchFrom, batchTo), getRecurrenceExecutor()));
+        }
+        pendingRangeUpdate = batches;
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[batches.size()])).whenComplete((result, exception) ->
+        {
+            if (rangeUpdate.number != rangeUpdateCount) return; // cancelled by a newer update
+            Platform.runLater(() ->
+            {
+                if (rangeUpdate.number == rangeUpdateCount)
+                {
+                    pendingRangeUpdate = null;
+                    if (exception == null)
+                    {
+                        publishRangeUpdate(rangeUpdate);
+                    } else
+                    {
+                        Throwable cause = (exception instanceof CompletionException) ? exception.getCause() : exception;
+                        getErrorCallback().call(cause);
+                    }
+                }
+            });
+        });
+    }
+    
+    /* Number of VComponents expanded by one background task */
+    private static final int RANGE_UPDATE_BATCH_SIZE = 32;
+    /* Number of the last range update, checked by background tasks to stop when a newer update made them stale */
+    private volatile long rangeUpdateCount;
+    /* Background tasks of the range update being made, null if there aren't any */
+    private List<CompletableFuture<Void>> pendingRangeUpdate;
+    
+    /* Recurrences to make for a range update, planned and published on the FX thread */
+    private static class RangeUpdate
+    {
+        final long number;
+        final LocalDateTime startRange;
+        final LocalDateTime endRange;
+        final boolean isIncremental;
+        final RecurrenceFactory<Appointment> recurrenceFactory;
+        final List<VDisplayable<?>> vComponents = new ArrayList<>();
+        /* VComponents to make recurrences from - copies when the recurrences are made in the background */
+        List<VDisplayable<?>> expandedVComponents;
+        /* modification stamp of each VComponent when the update was planned */
+        final List<Long> stamps = new ArrayList<>();
+        /* System.identityHashCode of VComponents changed in place, their existing appointments are replaced */
+        final Set<Integer> changedVComponentKeys = new HashSet<>();
+        /* start and end of the parts of the range to make recurrences in, for each VComponent */
+        final List<List<LocalDateTime[]>> slices = new ArrayList<>();
+        /* recurrences made for each VComponent */
+        AtomicReferenceArray<List<Appointment>> madeAppointments;
+        
+        RangeUpdate(long number, LocalDateTime startRange, LocalDateTime endRange, boolean isIncremental, RecurrenceFactory<Appointment> recurrenceFactory)
+        {
+            this.number = number;
+            this.startRange = startRange;
+            this.endRange = endRange;
+            this.isIncremental = isIncremental;
+            this.recurrenceFactory = recurrenceFactory;
+        }
+    }
+    
+    /*
+     * Decides the parts of the range to make recurrences in for each VComponent, and cancels a pending update.
+     * For a background update, the VComponents are copied so the background tasks don't read the VCalendar.
+     */
+    private RangeUpdate planRangeUpdate(LocalDateTime startRange, LocalDateTime endRange, boolean isBackground)
+    {
+        cancelRangeUpdate();
+        LocalDateTime oldStartRange = appointmentsStartRange;
+        LocalDateTime oldEndRange = appointmentsEndRange;
+        getRecurrenceFactory().setStartRange(startRange);
+        getRecurrenceFactory().setEndRange(endRange);
+        boolean isOverlapping = (oldStartRange != null) && (oldEndRange != null)
+                && startRange.isBefore(oldEndRange) && endRange.isAfter(oldStartRange);
+        boolean isSameRange = startRange.equals(oldStartRange) && endRange.equals(oldEndRange);
+        RangeUpdate rangeUpdate = new RangeUpdate(rangeUpdateCount, startRange, endRange, isOverlapping && ! isSameRange, getRecurrenceFactory());
+
+        if (getVCalendar().getVEvents() != null) rangeUpdate.vComponents.addAll(getVCalendar().getVEvents());
+        if (getVCalendar().getVTodos() != null) rangeUpdate.vComponents.addAll(getVCalendar().getVTodos());
+        if (getVCalendar().getVJournals() != null) rangeUpdate.vComponents.addAll(getVCalendar().getVJournals());
+        for (VDisplayable<?> v : rangeUpdate.vComponents)
+        {
+            List<LocalDateTime[]> slices = new ArrayList<>();
+            Integer key = System.identityHashCode(v);
+            long stamp = v.getModificationStamp();
+            rangeUpdate.stamps.add(stamp);
+            boolean isNew = ! vComponentAppointmentMap.containsKey(key);
+            boolean isChanged = ! isNew && ! Long.valueOf(stamp).equals(vComponentStampMap.get(key));
+            if (isChanged) rangeUpdate.changedVComponentKeys.add(key);
+            if (! rangeUpdate.isIncremental || isNew || isChanged)
+            {
+                slices.add(new LocalDateTime[] { startRange, endRange });
+            } else
+            {
+                if (startRange.isBefore(oldStartRange)) slices.add(new LocalDateTime[] { startRange, oldStartRange });
+                if (endRange.isAfter(oldEndRange)) slices.add(new LocalDateTime[] { oldEndRange, endRange });
+            }
+            rangeUpdate.slices.add(slices);
+        }
+        rangeUpdate.expandedVComponents = (isBackground) ? snapshot(rangeUpdate.vComponents, rangeUpdate.stamps) : rangeUpdate.vComponents;
+        rangeUpdate.madeAppointments = new AtomicReferenceArray<>(rangeUpdate.vComponents.size());
+        return rangeUpdate;
+    }
+    
+    /*
+     * Copies of the VComponents, read by the background tasks instead of the VCalendar, which can change on the FX thread
+     * while they run.  A copy is remade when the modification stamp of its VComponent changes, so unchanged copies keep
+     * their recurrence caches from one range update to the next.  The copies of RECURRENCE-ID children are in the same
+     * calendar as their parents' copies, so the parents' recurrences skip them.
+     */
+    private final VCalendar recurrenceSnapshot = new VCalendar();
+    private final Map<Integer, VDisplayable<?>> snapshotCopyMap = new HashMap<>();
+    private final Map<Integer, Long> snapshotStampMap = new HashMap<>();
+    
+    /* Brings the copies up to date with the VComponents, and returns the copy of each one */
+    private List<VDisplayable<?>> snapshot(List<VDisplayable<?>> vComponents, List<Long> stamps)
+    {
+        Set<Integer> removedKeys = new HashSet<>(snapshotCopyMap.keySet());
+        List<VDisplayable<?>> copies = new ArrayList<>(vComponents.size());
+        for (int i=0; i<vComponents.size(); i++)
+        {
+            VDisplayable<?> v = vComponents.get(i);
+            Integer key = System.identityHashCode(v);
+            removedKeys.remove(key);
+            VDisplayable<?> copy = snapshotCopyMap.get(key);
+            if ((copy == null) || ! stamps.get(i).equals(snapshotStampMap.get(key)))
+            {
+                if (copy != null) recurrenceSnapshot.removeChild(copy);
+                try
+                {
+                    copy = v.getClass().newInstance();
+                } catch (InstantiationException | IllegalAccessException e)
+                {
+                    throw new RuntimeException(e);
+                }
+                v.copyChildrenInto(copy);
+                recurrenceSnapshot.addChild(copy);
+                snapshotCopyMap.put(key, copy);
+                snapshotStampMap.put(key, stamps.get(i));
+            }
+            copies.add(copy);
+        }
+        removedKeys.forEach(key ->
+        {
+            recurrenceSnapshot.removeChild(snapshotCopyMap.remove(key));
+            snapshotStampMap.remove(key);
+        });
+        recurrenceSnapshot.uidIndex(); // made here, not by the first background task
+        return copies;
+    }
+    
+    /* Makes a range update being made in the background stale */
+    private void cancelRangeUpdate()
+    {
+        rangeUpdateCount++;
+        if (pendingRangeUpdate != null)
+        {
+            pendingRangeUpdate.forEach(b -> b.cancel(false));
+            pendingRangeUpdate = null;
+        }
+    }
+    
+    /* Makes the recurrences of VComponents from index from to index to, skipped when a newer update made them stale */
+    private void makeRecurrences(RangeUpdate rangeUpdate, int from, int to)
+    {
+        for (int i=from; i<to; i++)
+        {
+            if (rangeUpdate.number != rangeUpdateCount) return;
+            VDisplayable<?> v = rangeUpdate.expandedVComponents.get(i);
+            List<Appointment> madeAppointments = new ArrayList<>();
+            for (LocalDateTime[] slice : rangeUpdate.slices.get(i))
+            {
+                madeAppointments.addAll(rangeUpdate.recurrenceFactory.makeRecurrences(v, slice[0], slice[1]));
+            }
+            rangeUpdate.madeAppointments.set(i, madeAppointments);
+        }
+    }
+
+    /* Replaces the appointments with the made ones in one change of the appointments list */
+    private void publishRangeUpdate(RangeUpdate rangeUpdate)
+    {
+        Set<Appointment> staleAppointments = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (rangeUpdate.isIncremental)
+        {
+            // remove appointments of deleted or changed VComponents and appointments outside the new range
+            Set<Integer> vComponentKeys = new HashSet<>();
+            rangeUpdate.vComponents.forEach(v -> vComponentKeys.add(System.identityHashCode(v)));
+            vComponentAppointmentMap.entrySet().removeIf(e ->
+            {
+                if (! vComponentKeys.contains(e.getKey()) || rangeUpdate.changedVComponentKeys.contains(e.getKey()))
+                {
+                    staleAppointments.addAll(e.getValue());
+                    vComponentStampMap.remove(e.getKey());
+                    return true;
+                }
+                e.getValue().removeIf(a ->
+                {
+                    boolean isStale = ! isInRange(a, rangeUpdate.startRange, rangeUpdate.endRange);
+                    if (isStale) staleAppointments.add(a);
+                    return isStale;
+                });
+                return false;
+            });
+            staleAppointments.forEach(a ->
+            {
+                appointmentVComponentMap.remove(System.identityHashCode(a));
+                appointmentStartOriginalMap.remove(System.identityHashCode(a));
+            });
+        } else
+        {
+            vComponentAppointmentMap.clear();
+            vComponentStampMap.clear();
+            appointmentStartOriginalMap.clear();
+            appointmentVComponentMap.clear();
+        }
+
+        List<Appointment> newAppointments = new ArrayList<>();
+        for (int i=0; i<rangeUpdate.vComponents.size(); i++)
+        {
+            VDisplayable<?> v = rangeUpdate.vComponents.get(i);
+            List<Appointment> madeAppointments = rangeUpdate.madeAppointments.get(i);
+            vComponentStampMap.put(System.identityHashCode(v), rangeUpdate.stamps.get(i));
+            List<Appointment> existingAppointments = vComponentAppointmentMap.get(System.identityHashCode(v));
+            if (existingAppointments == null)
+            {
+                madeAppointments.forEach(a -> 
+                {
+                    appointmentVComponentMap.put(System.identityHashCode(a), v);
+                    appointmentStartOriginalMap.put(System.identityHashCode(a), a.getStartTemporal());
+                });
+                vComponentAppointmentMap.put(System.identityHashCode(v), madeAppointments);
+                newAppointments.addAll(madeAppointments);
+                continue;
+            }
+            Set<Temporal> existingStarts = new HashSet<>();
+            existingAppointments.forEach(a -> existingStarts.add(appointmentStartOriginalMap.get(System.identityHashCode(a))));
+            madeAppointments.forEach(a -> 
+            {
+                // recurrences spanning a slice boundary are made twice - keep the existing one
+                if (existingStarts.add(a.getStartTemporal()))
+                {
+                    appointmentVComponentMap.put(System.identityHashCode(a), v);
+                    appointmentStartOriginalMap.put(System.identityHashCode(a), a.getStartTemporal());
+                    existingAppointments.add(a);
+                    newAppointments.add(a);
+                }
+            });
+        }
+
+        appointments().removeListener(appointmentsListChangeListener);
+        if (! rangeUpdate.isIncremental)
+        {
+            appointments().setAll(newAppointments);
+        } else if (! staleAppointments.isEmpty() || ! newAppointments.isEmpty())
+        {
+            // kept appointments stay in their order, so listeners see one change
+            List<Appointment> updatedAppointments = new ArrayList<>(appointments().size() + newAppointments.size());
+            appointments().forEach(a ->
+            {
+                if (! staleAppointments.contains(a)) updatedAppointments.add(a);
+            });
+            updatedAppointments.addAll(newAppointments);
+            appointments().setAll(updatedAppointments);
+        }
+        appointments().addListener(appointmentsListChangeListener); // add back appointmentListener
+        appointmentsStartRange = rangeUpdate.startRange;
+        appointmentsEndRange = rangeUpdate.endRange;
+    }
+
+    /* Returns true if appointment overlaps the range, zero-length appointments must start in it */
+    private static boolean isInRange(Appointment appointment, LocalDateTime startRange, LocalDateTime endRange)
+    {
+        LocalDateTime start = TemporalUtilities.toLocalDateTime(appointment.getStartTemporal());
+        Temporal endTemporal = appointment.getEndTemporal();
+        LocalDateTime end = (endTemporal == null) ? start : TemporalUtilities.toLocalDateTime(endTemporal);
+        if (! start.isBefore(endRange)) return false;
+        return end.isAfter(startRange) || (end.equals(start) && ! start.isBefore(startRange));
     }
 }
\ No newline at end of file
@@ -77,6 +77,20 @@ public abstract class RecurrenceFactory<R>
         {
             throw new DateTimeException("Both startRange and endRange MUST NOT be null (" + startRange + ", " + endRange + ")");
         }
+        return makeRecurrences(vComponent, getStartRange(), getEndRange());
+    }
+
+    /**
+     * Makes recurrences from a {@link VDisplayable} between startRange and endRange, ignoring the range properties.
+     * Doesn't change the factory, so it can be called from several threads as long as {@link #makeRecurrence} can.
+     * 
+     * @param vComponent - calendar component
+     * @param startRange - start of range, inclusive
+     * @param endRange - end of range, exclusive
+     * @return created appointments
+     */
+    public List<R> makeRecurrences(VDisplayable<?> vComponent, LocalDateTime startRange, LocalDateTime endRange)
+    {
         List<R> newRecurrences = new ArrayList<>();
         Boolean isWholeDay = vComponent.getDateTimeStart().getValue() instanceof LocalDate;
         
@@ -85,12 +99,12 @@ public abstract class RecurrenceFactory<R>
         final Temporal endRange2;
         if (isWholeDay)
         {
-            startRange2 = LocalDate.from(getStartRange());
-            endRange2 = LocalDate.from(getEndRange());            
+            startRange2 = LocalDate.from(startRange);
+            endRange2 = LocalDate.from(endRange);            
         } else
         {
-            startRange2 = vComponent.getDateTimeStart().getValue().with(getStartRange());
-            endRange2 = vComponent.getDateTimeStart().getValue().with(getEndRange());            
+            startRange2 = vComponent.getDateTimeStart().getValue().with(startRange);
+            endRange2 = vComponent.getDateTimeStart().getValue().with(endRange);            
         }
         // make recurrences
 //        vComponent.streamRecurrences(startRange2, endRange2) // Gradle won't compile with this line.  I don't understand why.
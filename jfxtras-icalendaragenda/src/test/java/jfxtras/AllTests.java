@@ -44,6 +44,7 @@ import jfxtras.scene.control.agenda.icalendar.agenda.DeleteVEventTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.GraphicallyChangeTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.MakeNewVEventsTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.NotifyCalendarUpdate;
+import jfxtras.scene.control.agenda.icalendar.agenda.RangeUpdateTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.RenderVEventsTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.RevisePopupTest;
 import jfxtras.scene.control.agenda.icalendar.agenda.VEventDisplayPopupTest;
@@ -94,6 +95,7 @@ import jfxtras.scene.control.agenda.icalendar.misc.MakeAppointmentsTest;
     GraphicallyChangeTest.class,
     MakeNewVEventsTest.class,
     NotifyCalendarUpdate.class,
+    RangeUpdateTest.class,
     RenderVEventsTest.class,
     RevisePopupTest.class,
     VEventDisplayPopupTest.class,
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.scene.control.agenda.icalendar.agenda;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import javafx.collections.ListChangeListener;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.scene.control.agenda.Agenda.Appointment;
+import jfxtras.scene.control.agenda.icalendar.ICalendarStaticComponents;
+import jfxtras.scene.control.agenda.icalendar.factories.DefaultRecurrenceFactory;
+import jfxtras.test.TestUtil;
+
+public class RangeUpdateTest extends AgendaTestAbstract
+{
+    @Test
+    public void canUpdateRangeInOneChange()
+    {
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+        });
+        assertEquals(6, agenda.appointments().size());
+
+        int[] changes = new int[1];
+        ListChangeListener<Appointment> listener = c -> changes[0]++;
+        agenda.appointments().addListener(listener);
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 10, 0, 0), LocalDateTime.of(2015, 11, 17, 0, 0));
+        });
+        agenda.appointments().removeListener(listener);
+        assertEquals(1, changes[0]);
+        List<LocalDateTime> expectedStarts = Arrays.asList(
+                LocalDateTime.of(2015, 11, 10, 10, 0),
+                LocalDateTime.of(2015, 11, 11, 10, 0),
+                LocalDateTime.of(2015, 11, 12, 10, 0),
+                LocalDateTime.of(2015, 11, 13, 10, 0),
+                LocalDateTime.of(2015, 11, 14, 10, 0),
+                LocalDateTime.of(2015, 11, 15, 10, 0),
+                LocalDateTime.of(2015, 11, 16, 10, 0)
+                );
+        List<LocalDateTime> starts = agenda.appointments().stream()
+                .map(a -> (LocalDateTime) a.getStartTemporal())
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(expectedStarts, starts);
+    }
+
+    @Test
+    public void canRemakeComponentEditedInPlace()
+    {
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+        });
+        VEvent vEvent = agenda.getVCalendar().getVEvents().get(0);
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            vEvent.getSummary().setValue("Edited Summary");
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 10, 0, 0), LocalDateTime.of(2015, 11, 17, 0, 0));
+        });
+        assertEquals(7, agenda.appointments().size());
+        List<String> summaries = agenda.appointments().stream()
+                .map(a -> a.getSummary())
+                .distinct()
+                .collect(Collectors.toList());
+        assertEquals(Collections.singletonList("Edited Summary"), summaries);
+    }
+
+    /* Background tasks of the recurrence executor, run when a test asks for it */
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+    private void runBackgroundTasks(List<Runnable> tasks)
+    {
+        tasks.forEach(Runnable::run);
+        TestUtil.runThenWaitForPaintPulse( () -> {}); // after the update is published on the FX thread
+    }
+
+    private List<Runnable> takeBackgroundTasks()
+    {
+        List<Runnable> tasks = new ArrayList<>(backgroundTasks);
+        backgroundTasks.clear();
+        return tasks;
+    }
+
+    private List<LocalDateTime> appointmentStarts()
+    {
+        return agenda.appointments().stream()
+                .map(a -> (LocalDateTime) a.getStartTemporal())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void canPublishBackgroundUpdate()
+    {
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+            agenda.setRecurrenceExecutor(backgroundTasks::add);
+        });
+        VEvent vEvent = agenda.getVCalendar().getVEvents().get(0);
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 10, 0, 0), LocalDateTime.of(2015, 11, 17, 0, 0));
+            vEvent.getSummary().setValue("Edited Summary"); // after the copies are made
+        });
+        assertEquals(6, agenda.appointments().size()); // not published yet
+
+        runBackgroundTasks(takeBackgroundTasks());
+        List<LocalDateTime> expectedStarts = Arrays.asList(
+                LocalDateTime.of(2015, 11, 10, 10, 0),
+                LocalDateTime.of(2015, 11, 11, 10, 0),
+                LocalDateTime.of(2015, 11, 12, 10, 0),
+                LocalDateTime.of(2015, 11, 13, 10, 0),
+                LocalDateTime.of(2015, 11, 14, 10, 0),
+                LocalDateTime.of(2015, 11, 15, 10, 0),
+                LocalDateTime.of(2015, 11, 16, 10, 0)
+                );
+        assertEquals(expectedStarts, appointmentStarts());
+        assertEquals(0, agenda.appointments().stream().filter(a -> a.getSummary().equals("Edited Summary")).count());
+
+        // the edit changed the VComponent's stamp, so its copy and appointments are remade
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 10, 0, 0), LocalDateTime.of(2015, 11, 17, 0, 0));
+        });
+        runBackgroundTasks(takeBackgroundTasks());
+        assertEquals(expectedStarts, appointmentStarts());
+        assertEquals(7, agenda.appointments().stream().filter(a -> a.getSummary().equals("Edited Summary")).count());
+    }
+
+    @Test
+    public void canDropStaleBackgroundUpdate()
+    {
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.setRecurrenceExecutor(backgroundTasks::add);
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+        });
+        List<Runnable> staleTasks = takeBackgroundTasks();
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 20, 0, 0), LocalDateTime.of(2015, 11, 22, 0, 0));
+        });
+        runBackgroundTasks(takeBackgroundTasks());
+        runBackgroundTasks(staleTasks); // finishes after the newer range
+        List<LocalDateTime> expectedStarts = Arrays.asList(
+                LocalDateTime.of(2015, 11, 20, 10, 0),
+                LocalDateTime.of(2015, 11, 21, 10, 0)
+                );
+        assertEquals(expectedStarts, appointmentStarts());
+    }
+
+    @Test
+    public void canCancelBackgroundUpdate()
+    {
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.setRecurrenceExecutor(backgroundTasks::add);
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+        });
+        List<Runnable> cancelledTasks = takeBackgroundTasks();
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.setRecurrenceExecutor(null);
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 20, 0, 0), LocalDateTime.of(2015, 11, 21, 0, 0));
+        });
+        assertEquals(Arrays.asList(LocalDateTime.of(2015, 11, 20, 10, 0)), appointmentStarts());
+        runBackgroundTasks(cancelledTasks);
+        assertEquals(Arrays.asList(LocalDateTime.of(2015, 11, 20, 10, 0)), appointmentStarts());
+    }
+
+    @Test
+    public void canReportBackgroundError()
+    {
+        List<Throwable> errors = new ArrayList<>();
+        TestUtil.runThenWaitForPaintPulse( () -> {
+            agenda.getVCalendar().addChild(ICalendarStaticComponents.getDaily1());
+            agenda.setRecurrenceFactory(new DefaultRecurrenceFactory(agenda.appointmentGroups())
+            {
+                @Override
+                public List<Appointment> makeRecurrences(VDisplayable<?> vComponent, LocalDateTime startRange, LocalDateTime endRange)
+                {
+                    throw new IllegalStateException("Can't make recurrences");
+                }
+            });
+            agenda.setErrorCallback(e -> { errors.add(e); return null; });
+            agenda.setRecurrenceExecutor(backgroundTasks::add);
+            agenda.updateAppointments(LocalDateTime.of(2015, 11, 8, 0, 0), LocalDateTime.of(2015, 11, 15, 0, 0));
+        });
+        runBackgroundTasks(takeBackgroundTasks());
+        assertEquals(1, errors.size());
+        assertEquals(IllegalStateException.class, errors.get(0).getClass());
+    }
+}
@@ -26,6 +26,7 @@
  */
 package jfxtras.scene.control.agenda.icalendar.misc;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.time.DayOfWeek;
@@ -183,6 +184,33 @@ public class MakeAppointmentsTest
         }
     }
     
+    /** Tests making recurrences for a range without changing the factory's range, as background range updates do */
+    @Test
+    public void makeAppointmentsForRangeTest()
+    {
+        VEvent vevent = ICalendarStaticComponents.getDaily1();
+        RecurrenceFactory<Appointment> recurrenceFactory = new DefaultRecurrenceFactory(DEFAULT_APPOINTMENT_GROUPS);
+        LocalDateTime startRange = LocalDateTime.of(2015, 11, 15, 0, 0);
+        LocalDateTime endRange = LocalDateTime.of(2015, 11, 22, 0, 0);
+        recurrenceFactory.setStartRange(startRange);
+        recurrenceFactory.setEndRange(endRange);
+        List<Appointment> newAppointments = recurrenceFactory.makeRecurrences(vevent, LocalDateTime.of(2015, 11, 25, 0, 0), LocalDateTime.of(2015, 11, 27, 0, 0));
+        List<Appointment> expectedAppointments = Arrays.asList(LocalDateTime.of(2015, 11, 25, 10, 0), LocalDateTime.of(2015, 11, 26, 10, 0))
+                .stream()
+                .map(d -> new Agenda.AppointmentImplTemporal()
+                            .withStartTemporal(d)
+                            .withEndTemporal(d.plus(1, ChronoUnit.HOURS))
+                            .withSummary("Daily1 Summary"))
+                .collect(Collectors.toList());
+        assertEquals(expectedAppointments.size(), newAppointments.size());
+        for (int i=0; i<expectedAppointments.size(); i++)
+        {
+            assertTrue(isEqualTo(expectedAppointments.get(i), newAppointments.get(i)));
+        }
+        assertEquals(startRange, recurrenceFactory.getStartRange());
+        assertEquals(endRange, recurrenceFactory.getEndRange());
+    }
+    
     public static boolean isEqualTo(Appointment a1, Appointment a2)
     {
         boolean startEquals = a1.getStartTemporal().equals(a2.getStartTemporal());
@@ -0,0 +1,715 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VComponentElement;
+import jfxtras.icalendarfx.components.VDateTimeEnd;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VLocatable;
+import jfxtras.icalendarfx.components.VPersonal;
+import jfxtras.icalendarfx.components.VPrimary;
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.components.VTodo;
+import jfxtras.icalendarfx.content.UnfoldingChannelIterator;
+import jfxtras.icalendarfx.properties.VProperty;
+
+/**
+ * Calendar stored in a memory-mapped file, for working with calendars too large to parse into memory.
+ * 
+ * <p>The store keeps each component as its block of content lines, plus an index of the component's type, UID
+ * and the time span of its recurrence set.  Queries read the index straight from the mapped file and only
+ * parse the matching components, so opening a store and querying it take heap in proportion to the result,
+ * not to the calendar.  Materialized components are new objects without a parent, changing them doesn't
+ * change the store.</p>
+ * 
+ * <p>A store is written once, from a {@link VCalendar} or by streaming an ics file, and then opened
+ * read-only any number of times.  The store file is only replaced when writing succeeds, a failed write
+ * leaves an existing store as it was.  Calendar properties and VTIMEZONEs are kept in a small block that is
+ * parsed on first use, see {@link #getCalendar()}.</p>
+ * 
+ * <p>Floating date/times (DATE and DATE-TIME without a time zone) are placed in the time line with the
+ * {@link ZoneId} given when writing.  Components with an infinite recurrence set match every range after
+ * their start.</p>
+ * 
+ * <p>An open store can be queried from several threads.</p>
+ */
+public final class CalendarStore implements Closeable
+{
+    /*
+     * FILE LAYOUT
+     * 
+     * header       magic, version, component count, zone id length, calendar offset and length,
+     *              record offset, UID entry offset
+     * zone id      UTF-8
+     * components   content lines of each component
+     * calendar     VCALENDAR with the calendar properties and VTIMEZONEs
+     * records      start, end, running maximum of end, offset, length and type of each component, in order of start
+     * UID entries  UID hash code and record number, in order of hash code
+     */
+    private static final int MAGIC = 0x4A465853; // "JFXS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 48;
+    private static final int RECORD_SIZE = 40;
+    private static final int UID_ENTRY_SIZE = 8;
+    /* Components are mapped in segments, as one MappedByteBuffer can't exceed 2 GB */
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final byte[] LINE_SEPARATOR = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    /* Properties read from streamed components to index them */
+    private static final Set<String> INDEXED_PROPERTIES = new HashSet<>(Arrays.asList(
+            "UID", "DTSTART", "DTEND", "DURATION", "DUE", "RRULE", "RDATE", "RECURRENCE-ID"));
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer[] segments;
+    private final int size;
+    private final ZoneId zone;
+    private final long calendarOffset;
+    private final int calendarLength;
+    private final int uidEntryStart;
+    private VCalendar calendar;
+    
+    /*
+     * CONSTRUCTOR
+     */
+    private CalendarStore(FileChannel channel) throws IOException
+    {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if ((header.remaining() < HEADER_SIZE) || (header.getInt() != MAGIC))
+        {
+            throw new IOException("Not a calendar store");
+        }
+        int version = header.getInt();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported calendar store version:" + version);
+        }
+        size = header.getInt();
+        int zoneLength = header.getInt();
+        calendarOffset = header.getLong();
+        calendarLength = header.getInt();
+        header.getInt(); // unused
+        long recordOffset = header.getLong();
+        long uidEntryOffset = header.getLong();
+        
+        ByteBuffer zoneBytes = ByteBuffer.allocate(zoneLength);
+        channel.read(zoneBytes, HEADER_SIZE);
+        zone = ZoneId.of(new String(zoneBytes.array(), StandardCharsets.UTF_8));
+        
+        index = channel.map(MapMode.READ_ONLY, recordOffset, channel.size() - recordOffset);
+        uidEntryStart = (int) (uidEntryOffset - recordOffset);
+        segments = new MappedByteBuffer[(int) ((recordOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int i=0; i<segments.length; i++)
+        {
+            long segmentOffset = i * SEGMENT_SIZE;
+            segments[i] = channel.map(MapMode.READ_ONLY, segmentOffset, Math.min(SEGMENT_SIZE, recordOffset - segmentOffset));
+        }
+    }
+
+    /**
+     * Opens a store written by one of the write methods.  Only the header is read, the rest of the file
+     * is mapped and read on demand.
+     * 
+     * @param storeFile  path of the store file
+     * @return  the opened store, to be closed after use
+     * @throws IOException  if the file can't be read or isn't a store
+     */
+    public static CalendarStore open(Path storeFile) throws IOException
+    {
+        FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ);
+        try
+        {
+            return new CalendarStore(channel);
+        } catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file.  The mapped memory is released when the buffers are garbage collected, components
+     * must not be queried after closing.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+    
+    /*
+     * QUERIES
+     */
+    /** Number of components in the store, not counting VTIMEZONEs */
+    public int size() { return size; }
+    
+    /** Zone of floating date/times */
+    public ZoneId getZone() { return zone; }
+    
+    /**
+     * Returns the calendar properties and VTIMEZONEs of the store, parsed on first use.  The calendar has no
+     * other components.  The components returned by queries are parsed with it, so they can refer to the TZIDs
+     * defined only by a VTIMEZONE.
+     * 
+     * @return  calendar without its VEVENTs, VTODOs, VJOURNALs and VFREEBUSYs
+     */
+    public synchronized VCalendar getCalendar()
+    {
+        if (calendar == null)
+        {
+            VCalendar newCalendar = new VCalendar();
+            newCalendar.parseContent(new UnfoldingChannelIterator(slice(calendarOffset, calendarLength)));
+            calendar = newCalendar;
+        }
+        return calendar;
+    }
+
+    /**
+     * Returns the components with occurrences overlapping a range, in order of DTSTART.  A component
+     * overlaps if one of its occurrences starts before the end of the range and ends after its start.
+     * Components that only have a zero-length occurrence match if it's inside the range.
+     * 
+     * <p>Each matching component is parsed, so repeated queries return new objects.</p>
+     * 
+     * @param start  inclusive start of range
+     * @param end  exclusive end of range
+     * @return  the matching components
+     */
+    public List<VComponent> query(Temporal start, Temporal end)
+    {
+        long rangeStart = toEpochSecond(start, zone);
+        long rangeEnd = toEpochSecond(end, zone);
+        int recordCount = firstRecordStartingAtOrAfter(rangeEnd);
+        List<VComponent> components = new ArrayList<>();
+        for (int record=firstRecordOverlapping(rangeStart); record<recordCount; record++)
+        {
+            int position = record * RECORD_SIZE;
+            long recordStart = index.getLong(position);
+            long recordEnd = index.getLong(position + 8);
+            boolean isOverlapping = (recordEnd > rangeStart) || (recordStart >= rangeStart);
+            if (isOverlapping)
+            {
+                components.add(materialize(record));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Returns the components with a UID, such as a recurring component and its RECURRENCE-ID children
+     * 
+     * @param uid  unique identifier
+     * @return  the components with uid, in order of DTSTART, empty if there aren't any
+     */
+    public List<VComponent> get(String uid)
+    {
+        int hashCode = uid.hashCode();
+        int low = 0;
+        int high = size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (index.getInt(uidEntryStart + middle * UID_ENTRY_SIZE) < hashCode) low = middle + 1; else high = middle;
+        }
+        List<VComponent> components = new ArrayList<>();
+        for (int entry=low; (entry < size) && (index.getInt(uidEntryStart + entry * UID_ENTRY_SIZE) == hashCode); entry++)
+        {
+            VComponent component = materialize(index.getInt(uidEntryStart + entry * UID_ENTRY_SIZE + 4));
+            boolean isMatch = (component instanceof VPersonal) && (((VPersonal<?>) component).getUniqueIdentifier() != null) &&
+                    uid.equals(((VPersonal<?>) component).getUniqueIdentifier().getValue());
+            if (isMatch)
+            {
+                components.add(component);
+            }
+        }
+        return components;
+    }
+    
+    /* Binary search of the records, which are in order of start */
+    private int firstRecordStartingAtOrAfter(long epochSecond)
+    {
+        int low = 0;
+        int high = size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (index.getLong(middle * RECORD_SIZE) < epochSecond) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+    
+    /*
+     * Binary search of the first record that can overlap a range starting at epochSecond.  Both the starts
+     * and the running maximum of the ends grow with the record number, so no earlier record can overlap.
+     */
+    private int firstRecordOverlapping(long epochSecond)
+    {
+        int low = 0;
+        int high = size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            int position = middle * RECORD_SIZE;
+            boolean isBefore = (index.getLong(position + 16) <= epochSecond) && (index.getLong(position) < epochSecond);
+            if (isBefore) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+
+    private VComponent materialize(int record)
+    {
+        int position = record * RECORD_SIZE;
+        long offset = index.getLong(position + 24);
+        int length = index.getInt(position + 32);
+        String name = VComponentElement.values()[index.get(position + 36)].toString();
+        VParentBase<?> component = (VParentBase<?>) VElementBase.newEmptyVElement(VComponent.class, name);
+        getCalendar().parseWithZoneIds(() -> component.parseContent(new UnfoldingChannelIterator(slice(offset, length))));
+        return (VComponent) component;
+    }
+    
+    /* Returns a buffer of the bytes at offset, read from the mapped segment holding them */
+    private ByteBuffer slice(long offset, int length)
+    {
+        int segment = (int) (offset / SEGMENT_SIZE);
+        int segmentPosition = (int) (offset % SEGMENT_SIZE);
+        if (segmentPosition + length <= segments[segment].capacity())
+        {
+            ByteBuffer buffer = segments[segment].duplicate();
+            buffer.position(segmentPosition);
+            buffer.limit(segmentPosition + length);
+            return buffer;
+        }
+        // crosses a segment boundary - rare, so read a copy
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, offset + buffer.position()) < 0) throw new IOException("Unexpected end of calendar store");
+            }
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    /*
+     * WRITING
+     */
+    /**
+     * Writes a calendar to a store file, replacing an existing file.  Floating date/times are placed in
+     * the time line with the system default zone.
+     * 
+     * @param vCalendar  calendar to write
+     * @param storeFile  path of the store file
+     * @throws IOException  if the file can't be written
+     */
+    public static void write(VCalendar vCalendar, Path storeFile) throws IOException
+    {
+        write(vCalendar, storeFile, ZoneId.systemDefault());
+    }
+    
+    /**
+     * Writes a calendar to a store file, replacing an existing file
+     * 
+     * @param vCalendar  calendar to write
+     * @param storeFile  path of the store file
+     * @param zone  zone of floating date/times
+     * @throws IOException  if the file can't be written
+     */
+    public static void write(VCalendar vCalendar, Path storeFile, ZoneId zone) throws IOException
+    {
+        try (StoreWriter writer = new StoreWriter(storeFile, zone))
+        {
+            writer.calendarContent.append(VElementBase.BEGIN + vCalendar.name()).append(System.lineSeparator());
+            for (VChild child : vCalendar.childrenUnmodifiable())
+            {
+                if ((child instanceof VProperty) || (child instanceof VTimeZone))
+                {
+                    writer.calendarContent.append(child).append(System.lineSeparator());
+                } else if (child instanceof VComponent)
+                {
+                    writer.add((VComponent) child, child.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            writer.calendarContent.append(VElementBase.END + vCalendar.name()).append(System.lineSeparator());
+            writer.commit();
+        }
+    }
+
+    /**
+     * Writes the calendar of an ics file to a store file, replacing an existing file.  Floating date/times
+     * are placed in the time line with the system default zone.
+     * 
+     * @param icsFile  path of the ics file to read
+     * @param storeFile  path of the store file
+     * @throws IOException  if a file can't be read or written
+     */
+    public static void write(Path icsFile, Path storeFile) throws IOException
+    {
+        write(icsFile, storeFile, ZoneId.systemDefault());
+    }
+    
+    /**
+     * Writes the calendar of an ics file to a store file, replacing an existing file.
+     * 
+     * <p>The ics file is streamed, one component at a time, so calendars larger than the heap can be written.
+     * Each component is indexed by parsing only its UID and date/time properties.  Components this library
+     * doesn't support, such as X-components, are skipped.</p>
+     * 
+     * @param icsFile  path of the ics file to read
+     * @param storeFile  path of the store file
+     * @param zone  zone of floating date/times
+     * @throws IOException  if a file can't be read or written
+     */
+    public static void write(Path icsFile, Path storeFile, ZoneId zone) throws IOException
+    {
+        try (UnfoldingChannelIterator lines = new UnfoldingChannelIterator(FileChannel.open(icsFile, StandardOpenOption.READ));
+                StoreWriter writer = new StoreWriter(storeFile, zone))
+        {
+            VCalendar timeZones = new VCalendar(); // resolves inline time zones for the following components
+            List<String> blockLines = new ArrayList<>();
+            List<String> indexedLines = new ArrayList<>();
+            ByteBuffer block = ByteBuffer.allocate(8192);
+            int depth = 0;
+            while (lines.hasNext())
+            {
+                String line = lines.next();
+                boolean isBegin = line.startsWith(VElementBase.BEGIN);
+                boolean isEnd = line.startsWith(VElementBase.END);
+                if (isBegin) depth++;
+                if (depth == 1)
+                { // calendar
+                    writer.calendarContent.append(line).append(System.lineSeparator());
+                } else if (depth >= 2)
+                { // component
+                    blockLines.add(line);
+                    boolean isIndexed = (depth == 2) && (isBegin || isEnd || INDEXED_PROPERTIES.contains(propertyName(line)));
+                    if (isIndexed) indexedLines.add(line);
+                    if (isEnd && (depth == 2))
+                    {
+                        String name = blockLines.get(0).substring(VElementBase.BEGIN.length());
+                        if (VComponentElement.VTIMEZONE.toString().equals(name))
+                        {
+                            VTimeZone vTimeZone = new VTimeZone();
+                            vTimeZone.parseContent(blockLines.iterator());
+                            timeZones.addChild(vTimeZone);
+                            blockLines.forEach(l -> writer.calendarContent.append(l).append(System.lineSeparator()));
+                        } else
+                        {
+                            VParentBase<?> indexedComponent = (VParentBase<?>) VElementBase.newEmptyVElement(VComponent.class, name);
+                            if (indexedComponent instanceof VComponent)
+                            {
+                                timeZones.parseWithZoneIds(() -> indexedComponent.parseContent(indexedLines.iterator()));
+                                block.clear();
+                                for (String blockLine : blockLines)
+                                {
+                                    byte[] bytes = blockLine.getBytes(StandardCharsets.UTF_8);
+                                    block = ensureRemaining(block, bytes.length + LINE_SEPARATOR.length);
+                                    block.put(bytes).put(LINE_SEPARATOR);
+                                }
+                                writer.add((VComponent) indexedComponent, Arrays.copyOf(block.array(), block.position()));
+                            }
+                        }
+                        blockLines.clear();
+                        indexedLines.clear();
+                    }
+                }
+                if (isEnd) depth--;
+            }
+            writer.commit();
+        }
+    }
+    
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int length)
+    {
+        if (buffer.remaining() >= length) return buffer;
+        ByteBuffer biggerBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        buffer.flip();
+        return biggerBuffer.put(buffer);
+    }
+    
+    /* Name of a content line's property, without checking it's valid */
+    private static String propertyName(String line)
+    {
+        int end = 0;
+        while ((end < line.length()) && (line.charAt(end) != ':') && (line.charAt(end) != ';')) end++;
+        return line.substring(0, end).toUpperCase();
+    }
+    
+    /*
+     * Writes components to a temporary file as they are added, and the calendar content and index when
+     * committed.  Only a committed file replaces the store file, closing without committing deletes it, so a
+     * failed write leaves an existing store as it was.
+     */
+    private static class StoreWriter implements Closeable
+    {
+        private final Path storeFile;
+        private final Path temporaryFile;
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final ZoneId zone;
+        private final byte[] zoneBytes;
+        private long position;
+        final StringBuilder calendarContent = new StringBuilder();
+        
+        private int size;
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private byte[] types = new byte[1024];
+        private int[] uidHashCodes = new int[1024];
+
+        StoreWriter(Path storeFile, ZoneId zone) throws IOException
+        {
+            this.storeFile = storeFile;
+            Path directory = storeFile.toAbsolutePath().getParent();
+            temporaryFile = Files.createTempFile(directory, storeFile.getFileName().toString(), ".tmp");
+            try
+            {
+                channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE);
+            } catch (IOException | RuntimeException e)
+            {
+                Files.deleteIfExists(temporaryFile);
+                throw e;
+            }
+            this.zone = zone;
+            zoneBytes = zone.getId().getBytes(StandardCharsets.UTF_8);
+            position = HEADER_SIZE + zoneBytes.length;
+            channel.position(position);
+            out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        }
+        
+        void add(VComponent component, byte[] content) throws IOException
+        {
+            if (size == starts.length)
+            {
+                int newLength = size * 2;
+                starts = Arrays.copyOf(starts, newLength);
+                ends = Arrays.copyOf(ends, newLength);
+                offsets = Arrays.copyOf(offsets, newLength);
+                lengths = Arrays.copyOf(lengths, newLength);
+                types = Arrays.copyOf(types, newLength);
+                uidHashCodes = Arrays.copyOf(uidHashCodes, newLength);
+            }
+            long[] span = span(component, zone);
+            starts[size] = span[0];
+            ends[size] = span[1];
+            offsets[size] = position;
+            lengths[size] = content.length;
+            types[size] = (byte) VComponentElement.fromClass(component.getClass()).ordinal();
+            boolean hasUid = (component instanceof VPersonal) && (((VPersonal<?>) component).getUniqueIdentifier() != null);
+            uidHashCodes[size] = hasUid ? ((VPersonal<?>) component).getUniqueIdentifier().getValue().hashCode() : 0;
+            size++;
+            out.write(content);
+            position += content.length;
+        }
+        
+        /* Writes the calendar content, index and header, and moves the file in place of the store file */
+        void commit() throws IOException
+        {
+            try
+            {
+                byte[] calendarBytes = calendarContent.toString().getBytes(StandardCharsets.UTF_8);
+                long calendarOffset = position;
+                out.write(calendarBytes);
+                position += calendarBytes.length;
+                
+                Integer[] order = new Integer[size];
+                for (int i=0; i<size; i++) order[i] = i;
+                Arrays.sort(order, (i1, i2) -> Long.compare(starts[i1], starts[i2])); // stable, keeps file order of equal starts
+                long recordOffset = position;
+                ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+                long maxEnd = Long.MIN_VALUE;
+                for (int i : order)
+                {
+                    maxEnd = Math.max(maxEnd, ends[i]);
+                    record.clear();
+                    record.putLong(starts[i]).putLong(ends[i]).putLong(maxEnd).putLong(offsets[i]).putInt(lengths[i]).put(types[i]);
+                    out.write(record.array());
+                }
+                position += (long) size * RECORD_SIZE;
+                
+                long uidEntryOffset = position;
+                Integer[] recordNumbers = new Integer[size];
+                for (int i=0; i<size; i++) recordNumbers[order[i]] = i;
+                Arrays.sort(order, (i1, i2) -> Integer.compare(uidHashCodes[i1], uidHashCodes[i2]));
+                ByteBuffer uidEntry = ByteBuffer.allocate(UID_ENTRY_SIZE);
+                for (int i : order)
+                {
+                    uidEntry.clear();
+                    uidEntry.putInt(uidHashCodes[i]).putInt(recordNumbers[i]);
+                    out.write(uidEntry.array());
+                }
+                out.flush();
+                
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + zoneBytes.length);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(zoneBytes.length)
+                    .putLong(calendarOffset).putInt(calendarBytes.length).putInt(0)
+                    .putLong(recordOffset).putLong(uidEntryOffset)
+                    .put(zoneBytes);
+                header.flip();
+                while (header.hasRemaining())
+                {
+                    channel.write(header, header.position());
+                }
+            } finally
+            {
+                channel.close();
+            }
+            try
+            {
+                Files.move(temporaryFile, storeFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporaryFile, storeFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        
+        /* Deletes the temporary file, unless it was committed */
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                channel.close();
+            } finally
+            {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+    
+    /*
+     * Start and end, in epoch seconds, of the recurrence set of a component.  The end is Long.MAX_VALUE
+     * for infinite recurrence sets.  Components without DTSTART (or DUE) get Long.MIN_VALUE, so they
+     * don't match any range.
+     */
+    static long[] span(VComponent component, ZoneId zone)
+    {
+        Temporal dtStart = (component instanceof VPrimary) && (((VPrimary<?>) component).getDateTimeStart() != null) ?
+                ((VPrimary<?>) component).getDateTimeStart().getValue() : null;
+        if (dtStart == null)
+        {
+            boolean hasDue = (component instanceof VTodo) && (((VTodo) component).getDateTimeDue() != null);
+            if (hasDue)
+            {
+                long due = toEpochSecond(((VTodo) component).getDateTimeDue().getValue(), zone);
+                return new long[] { due, due };
+            }
+            return new long[] { Long.MIN_VALUE, Long.MIN_VALUE };
+        }
+        long start = toEpochSecond(dtStart, zone);
+        long duration;
+        if (component instanceof VLocatable)
+        {
+            duration = toEpochSecond(dtStart.plus(((VLocatable<?>) component).getActualDuration()), zone) - start;
+        } else if ((component instanceof VDateTimeEnd) && (((VDateTimeEnd<?>) component).getDateTimeEnd() != null))
+        {
+            duration = toEpochSecond(((VDateTimeEnd<?>) component).getDateTimeEnd().getValue(), zone) - start;
+        } else
+        {
+            duration = 0;
+        }
+        long lastStart = start;
+        if (component instanceof VDisplayable)
+        {
+            VDisplayable<?> vDisplayable = (VDisplayable<?>) component;
+            boolean isInfinite = (vDisplayable.getRecurrenceRule() != null) && vDisplayable.getRecurrenceRule().getValue().isInfinite();
+            if (isInfinite)
+            {
+                return new long[] { start, Long.MAX_VALUE };
+            }
+            boolean isRecurring = (vDisplayable.getRecurrenceRule() != null) ||
+                    ((vDisplayable.getRecurrenceDates() != null) && ! vDisplayable.getRecurrenceDates().isEmpty());
+            if (isRecurring)
+            {
+                Iterator<Temporal> i = vDisplayable.streamRecurrences().iterator();
+                while (i.hasNext())
+                {
+                    lastStart = Math.max(lastStart, toEpochSecond(i.next(), zone));
+                }
+            }
+        }
+        return new long[] { start, lastStart + duration };
+    }
+
+    static long toEpochSecond(Temporal temporal, ZoneId zone)
+    {
+        if (temporal instanceof ZonedDateTime)
+        {
+            return ((ZonedDateTime) temporal).toEpochSecond();
+        } else if (temporal instanceof LocalDateTime)
+        {
+            return ((LocalDateTime) temporal).atZone(zone).toEpochSecond();
+        } else if (temporal instanceof LocalDate)
+        {
+            return ((LocalDate) temporal).atStartOfDay(zone).toEpochSecond();
+        } else if (temporal instanceof Instant)
+        {
+            return ((Instant) temporal).getEpochSecond();
+        }
+        throw new DateTimeException("Unsupported Temporal type:" + temporal.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import jfxtras.icalendarfx.components.VComponent;
+
+/**
+ * Append-only log of the components added to, changed in or removed from a {@link VCalendar}.
+ * Feeds a journaled store, which only writes the components of the new entries instead of the whole calendar.
+ * 
+ * <p>Each entry has a sequence number one higher than the previous entry.  An entry refers to the top-level
+ * component, so a change to a VALARM is logged as a change to its VEVENT or VTODO.  A change to the
+ * component of the last entry isn't logged again, because readers get the component's current content.</p>
+ * 
+ * <p>Entries are kept until they are discarded by {@link #discardThrough(long)}.</p>
+ * 
+ * @see VCalendar#setChangeLog(ChangeLog)
+ */
+public class ChangeLog
+{
+    /** Type of change */
+    public enum ChangeType
+    {
+        ADDED,
+        CHANGED,
+        REMOVED
+    }
+    
+    /** Entry of a change log */
+    public static class Change
+    {
+        private final long sequence;
+        /** Sequence number, one higher than the previous entry */
+        public long getSequence() { return sequence; }
+        
+        private final ChangeType type;
+        /** Type of change */
+        public ChangeType getType() { return type; }
+        
+        private final VComponent component;
+        /** Top-level component that changed.  Its toString returns the current content. */
+        public VComponent getComponent() { return component; }
+        
+        Change(long sequence, ChangeType type, VComponent component)
+        {
+            this.sequence = sequence;
+            this.type = type;
+            this.component = component;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return sequence + " " + type + " " + component.name();
+        }
+    }
+    
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long lastSequence;
+    
+    /*
+     * CONSTRUCTORS
+     */
+    /** Creates an empty change log */
+    public ChangeLog() { }
+    
+    /** Sequence number of the last entry, 0 if nothing was logged */
+    public synchronized long lastSequence()
+    {
+        return lastSequence;
+    }
+    
+    /**
+     * Returns the entries after a sequence number, oldest first
+     * 
+     * @param sequence  sequence number of the last entry already read, 0 for all entries
+     * @return  entries with a higher sequence number
+     */
+    public synchronized List<Change> changesSince(long sequence)
+    {
+        List<Change> newChanges = new ArrayList<>();
+        for (Change change : changes)
+        {
+            if (change.getSequence() > sequence)
+            {
+                newChanges.add(change);
+            }
+        }
+        return newChanges;
+    }
+    
+    /**
+     * Discards the entries up to and including a sequence number, such as entries already journaled
+     * 
+     * @param sequence  sequence number of the last entry to discard
+     */
+    public synchronized void discardThrough(long sequence)
+    {
+        while (! changes.isEmpty() && (changes.peekFirst().getSequence() <= sequence))
+        {
+            changes.pollFirst();
+        }
+    }
+    
+    synchronized void append(ChangeType type, VComponent component)
+    {
+        Change lastChange = changes.peekLast();
+        boolean isLogged = (type == ChangeType.CHANGED) && (lastChange != null) && (lastChange.getComponent() == component) &&
+                (lastChange.getType() != ChangeType.REMOVED);
+        if (! isLogged)
+        {
+            changes.add(new Change(++lastSequence, type, component));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Getter and setter pair for one kind of {@link VChild} of a {@link VParent} class.
+ *
+ * The reflected {@link Method}s found by {@link VParentBase#collectGetterMap(Class)} and
+ * {@link VParentBase#collectSetterMap(Class)} are converted once into {@link Function} and
+ * {@link BiConsumer} instances spun by {@link LambdaMetafactory}, so invoking them costs the same as
+ * a direct call instead of going through {@link Method#invoke(Object, Object...)}.
+ *
+ * Copy constructors used by {@link VParentBase#copyChildrenInto(VParent)} are cached the same way.
+ */
+final class ChildAccessor
+{
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final Map<Class<?>, Function<Object, Object>> COPY_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+	/** Returns child or collection of children, null if getter doesn't exist */
+	final Function<Object, Object> getter;
+	/** Sets child or collection of children, null if setter doesn't exist */
+	final BiConsumer<Object, Object> setter;
+	/** Return type of getter, null if getter doesn't exist */
+	final Class<?> getterType;
+	/** true if setter takes a collection of children */
+	final boolean isCollection;
+
+	ChildAccessor(Method getter, Method setter)
+	{
+		this.getter = (getter == null) ? null : makeGetter(getter);
+		this.setter = (setter == null) ? null : makeSetter(setter);
+		this.getterType = (getter == null) ? null : getter.getReturnType();
+		this.isCollection = (setter != null) && Collection.class.isAssignableFrom(setter.getParameterTypes()[0]);
+	}
+
+	/** Make a copy of the child using its copy constructor */
+	static VChild copy(VChild source)
+	{
+		return (VChild) COPY_CONSTRUCTORS
+				.computeIfAbsent(source.getClass(), ChildAccessor::makeCopyConstructor)
+				.apply(source);
+	}
+
+	@SuppressWarnings("unchecked")
+	static Function<Object, Object> makeGetter(Method getter)
+	{
+		try
+		{
+			MethodHandle handle = LOOKUP.unreflect(getter);
+			CallSite site = LambdaMetafactory.metafactory(
+					LOOKUP,
+					"apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class),
+					handle,
+					handle.type());
+			return (Function<Object, Object>) site.getTarget().invokeExact();
+		} catch (Throwable e)
+		{ // not accessible to the metafactory - use reflection
+			return p ->
+			{
+				try
+				{
+					return getter.invoke(p);
+				} catch (IllegalAccessException | InvocationTargetException e1)
+				{
+					throw new RuntimeException(e1);
+				}
+			};
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> makeSetter(Method setter)
+	{
+		try
+		{
+			MethodHandle handle = LOOKUP.unreflect(setter);
+			CallSite site = LambdaMetafactory.metafactory(
+					LOOKUP,
+					"accept",
+					MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class),
+					handle,
+					handle.type().changeReturnType(void.class));
+			return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+		} catch (Throwable e)
+		{ // not accessible to the metafactory - use reflection
+			return (p, c) ->
+			{
+				try
+				{
+					setter.invoke(p, c);
+				} catch (IllegalAccessException | InvocationTargetException e1)
+				{
+					throw new RuntimeException(e1);
+				}
+			};
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> makeCopyConstructor(Class<?> childClass)
+	{
+		try
+		{
+			MethodHandle handle = LOOKUP.findConstructor(childClass, MethodType.methodType(void.class, childClass));
+			CallSite site = LambdaMetafactory.metafactory(
+					LOOKUP,
+					"apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class),
+					handle,
+					handle.type());
+			return (Function<Object, Object>) site.getTarget().invokeExact();
+		} catch (Throwable e)
+		{
+			throw new RuntimeException("No copy constructor found for " + childClass, e);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import jfxtras.icalendarfx.utilities.InternPool;
+
+/**
+ * Options for parsing a {@link VCalendar}, such as {@link VCalendar#parse(java.nio.file.Path, ParseOptions)}
+ *
+ * <p>Default options parse on the calling thread.  {@link #parallel(ExecutorService)} options split
+ * the content at top-level component boundaries (e.g. VEVENT, VTODO, VJOURNAL, VTIMEZONE), parse
+ * the components on the executor and add them to the {@link VCalendar} in their original order.</p>
+ *
+ * <p>Options with an {@link InternPool} share equal property and parameter values, such as TZIDs,
+ * mailto URIs and CATEGORIES, between the parsed elements.  Using the same pool for several parses
+ * shares the values between the calendars.</p>
+ */
+public class ParseOptions
+{
+    private ExecutorService executor;
+    /** Executor used to parse components, null for parsing on the calling thread */
+    public ExecutorService getExecutor() { return executor; }
+    public void setExecutor(ExecutorService executor) { this.executor = executor; }
+    public ParseOptions withExecutor(ExecutorService executor)
+    {
+        setExecutor(executor);
+        return this;
+    }
+
+    /** true if components are parsed on an executor */
+    public boolean isParallel() { return executor != null; }
+
+    /**
+     * Maximum number of components parsed, but not yet added to the calendar.  Limits memory use
+     * when the executor falls behind the reader.  Defaults to four times the executor's parallelism.
+     */
+    public int getMaxPendingComponents()
+    {
+        if (maxPendingComponents > 0) return maxPendingComponents;
+        int parallelism = (executor instanceof ForkJoinPool) ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return 4 * parallelism;
+    }
+    private int maxPendingComponents;
+    public void setMaxPendingComponents(int maxPendingComponents) { this.maxPendingComponents = maxPendingComponents; }
+    public ParseOptions withMaxPendingComponents(int maxPendingComponents)
+    {
+        setMaxPendingComponents(maxPendingComponents);
+        return this;
+    }
+
+    private InternPool internPool;
+    /** Pool for interning parsed values, null for no interning */
+    public InternPool getInternPool() { return internPool; }
+    public void setInternPool(InternPool internPool) { this.internPool = internPool; }
+    public ParseOptions withInternPool(InternPool internPool)
+    {
+        setInternPool(internPool);
+        return this;
+    }
+
+    /*
+     * CONSTRUCTORS
+     */
+    /** Creates options for parsing on the calling thread */
+    public ParseOptions() { }
+
+    /** Creates options for parsing components on the executor */
+    public static ParseOptions parallel(ExecutorService executor)
+    {
+        return new ParseOptions().withExecutor(executor);
+    }
+
+    /** Creates options for parsing components on the common {@link ForkJoinPool} */
+    public static ParseOptions parallel()
+    {
+        return parallel(ForkJoinPool.commonPool());
+    }
+}
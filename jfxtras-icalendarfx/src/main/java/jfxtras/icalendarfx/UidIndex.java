@@ -0,0 +1,322 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VPersonal;
+
+/**
+ * Index of the components of a {@link VCalendar} by UID, for finding the recurrence parent and
+ * RECURRENCE-ID children of a component without scanning the calendar.
+ * 
+ * <p>Components are grouped by their class, matching the component lists of {@link VCalendar}, and by
+ * the value of their UID.  Each group holds the parents (components without RECURRENCE-ID) and the children,
+ * which are also mapped by their RECURRENCE-ID value.</p>
+ * 
+ * <p>The index of a calendar, from {@link VCalendar#uidIndex()}, is kept in sync when components are added,
+ * removed or replaced, and when the UID or RECURRENCE-ID property of an indexed component, or its value, is set.
+ * A component whose UID or RECURRENCE-ID value is mutated in place without marking the property dirty must be
+ * re-indexed with {@link #refresh(VPersonal)}.  Components added to or removed from a component list of the
+ * calendar directly, bypassing {@link VCalendar#addChild(VChild)} and {@link VCalendar#removeChild(VChild)},
+ * are detected by a changed list size, which rebuilds the index.</p>
+ * 
+ * <p>All methods are synchronized, so components can be looked up from other threads, such as threads making
+ * recurrences in the background, while the calendar is changed on its own thread through addChild, removeChild
+ * and setters.  The rebuild after a direct change of a component list reads that list, so direct changes must
+ * not be made while other threads look up components.</p>
+ */
+public class UidIndex
+{
+    private final VCalendar vCalendar;
+    /* groups of components, by class then UID value */
+    private final Map<Class<?>, Map<String, Group>> groups = new HashMap<>();
+    /* UID value of each indexed component when it was indexed */
+    private final Map<VPersonal<?>, String> componentUids = new IdentityHashMap<>();
+    /* source of group versions, never reset so a rebuilt group gets a new version */
+    private long modCount;
+    /* number of indexed components of each class */
+    private final Map<Class<?>, Integer> classCounts = new HashMap<>();
+
+    /* Components with the same class and UID */
+    private static class Group
+    {
+        final List<VPersonal<?>> parents = new ArrayList<>(1);
+        final List<VDisplayable<?>> children = new ArrayList<>();
+        final Map<Temporal, VDisplayable<?>> recurrenceIdChildren = new HashMap<>();
+        long version;
+
+        boolean isEmpty() { return parents.isEmpty() && children.isEmpty(); }
+    }
+
+    /*
+     * CONSTRUCTORS
+     */
+    /** Creates an index of the VEVENTs, VTODOs, VJOURNALs and VFREEBUSYs of vCalendar */
+    public UidIndex(VCalendar vCalendar)
+    {
+        this.vCalendar = vCalendar;
+        addAll();
+    }
+
+    private void addAll()
+    {
+        if (vCalendar.getVEvents() != null) vCalendar.getVEvents().forEach(this::add);
+        if (vCalendar.getVTodos() != null) vCalendar.getVTodos().forEach(this::add);
+        if (vCalendar.getVJournals() != null) vCalendar.getVJournals().forEach(this::add);
+        if (vCalendar.getVFreeBusies() != null) vCalendar.getVFreeBusies().forEach(this::add);
+    }
+
+    /** Number of indexed components */
+    public synchronized int size()
+    {
+        return componentUids.size();
+    }
+
+    /*
+     * MAINTENANCE
+     */
+    /**
+     * Adds a component.  Children other than components with a UID, and components that are already indexed, are ignored.
+     * 
+     * @param child  component to add
+     */
+    public synchronized void add(VChild child)
+    {
+        if (! (child instanceof VPersonal)) return;
+        VPersonal<?> component = (VPersonal<?>) child;
+        String uid = uid(component);
+        if (componentUids.containsKey(component)) return;
+        classCounts.merge(component.getClass(), 1, Integer::sum);
+        componentUids.put(component, uid);
+        if (uid == null) return; // counted, but can't be found
+        Group group = groups
+                .computeIfAbsent(component.getClass(), c -> new HashMap<>())
+                .computeIfAbsent(uid, u -> new Group());
+        group.version = ++modCount;
+        Temporal recurrenceId = recurrenceId(component);
+        if (recurrenceId == null)
+        {
+            group.parents.add(component);
+        } else
+        {
+            VDisplayable<?> vDisplayable = (VDisplayable<?>) component;
+            group.children.add(vDisplayable);
+            group.recurrenceIdChildren.putIfAbsent(recurrenceId, vDisplayable);
+        }
+    }
+
+    /**
+     * Removes a component
+     * 
+     * @param child  component to remove
+     */
+    public synchronized void remove(VChild child)
+    {
+        if (! componentUids.containsKey(child)) return;
+        String uid = componentUids.remove(child);
+        classCounts.merge(child.getClass(), -1, Integer::sum);
+        if (uid == null) return;
+        Map<String, Group> classGroups = groups.get(child.getClass());
+        Group group = classGroups.get(uid);
+        group.version = ++modCount;
+        if (! group.parents.removeIf(c -> c == child))
+        {
+            group.children.removeIf(c -> c == child);
+            group.recurrenceIdChildren.values().removeIf(c -> c == child);
+            // a duplicate RECURRENCE-ID may now be the one to find
+            group.children.forEach(c ->
+            {
+                Temporal recurrenceId = recurrenceId(c);
+                if (recurrenceId != null) group.recurrenceIdChildren.putIfAbsent(recurrenceId, c);
+            });
+        }
+        if (group.isEmpty())
+        {
+            classGroups.remove(uid);
+        }
+    }
+
+    /**
+     * Re-indexes a component if it's indexed.  Used when its UID or RECURRENCE-ID has changed.
+     * 
+     * @param component  changed component
+     */
+    public synchronized void refresh(VPersonal<?> component)
+    {
+        if (componentUids.containsKey(component))
+        {
+            remove(component);
+            add(component);
+        }
+    }
+
+    /*
+     * QUERIES
+     */
+    /**
+     * Returns the indexed components of the same class and with the same UID as a component, in the order
+     * they were indexed, parents first.  The component doesn't need to be indexed, such as a component from
+     * an iTIP message.
+     * 
+     * @param component  component to match
+     * @return  matching components, including component itself if it's indexed
+     */
+    public synchronized List<VPersonal<?>> related(VPersonal<?> component)
+    {
+        Group group = group(component);
+        if (group == null) return Collections.emptyList();
+        String uid = uid(component);
+        List<VPersonal<?>> related = new ArrayList<>(group.parents.size() + group.children.size());
+        group.parents.stream().filter(c -> uid.equals(uid(c))).forEach(related::add);
+        group.children.stream().filter(c -> uid.equals(uid(c))).forEach(related::add);
+        return related;
+    }
+
+    /**
+     * Returns the recurrence parent of a component - the other component with the same class and UID and
+     * without RECURRENCE-ID - or null if there isn't one
+     * 
+     * @param component  RECURRENCE-ID child
+     * @return  recurrence parent, or null
+     */
+    public synchronized VDisplayable<?> recurrenceParent(VDisplayable<?> component)
+    {
+        Group group = group(component);
+        if (group == null) return null;
+        String uid = uid(component);
+        return (VDisplayable<?>) group.parents
+                .stream()
+                .filter(c -> c != component)
+                .filter(c -> uid.equals(uid(c)) && (recurrenceId(c) == null))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Returns the RECURRENCE-ID children of a component - the other components with the same class and UID
+     * and with RECURRENCE-ID
+     * 
+     * @param component  recurrence parent
+     * @return  RECURRENCE-ID children, in the order they were indexed
+     */
+    public synchronized List<VDisplayable<?>> recurrenceChildren(VPersonal<?> component)
+    {
+        Group group = group(component);
+        if (group == null) return new ArrayList<>();
+        String uid = uid(component);
+        List<VDisplayable<?>> children = new ArrayList<>(group.children.size());
+        group.children
+                .stream()
+                .filter(c -> c != component)
+                .filter(c -> uid.equals(uid(c)) && (recurrenceId(c) != null))
+                .forEach(children::add);
+        return children;
+    }
+
+    /**
+     * Returns the RECURRENCE-ID child of a component that replaces one recurrence, or null if there isn't one
+     * 
+     * @param component  recurrence parent, or any component with the same class and UID
+     * @param recurrenceId  RECURRENCE-ID value to match
+     * @return  matching RECURRENCE-ID child, or null
+     */
+    public synchronized VDisplayable<?> recurrenceChild(VPersonal<?> component, Temporal recurrenceId)
+    {
+        Group group = group(component);
+        if (group == null) return null;
+        String uid = uid(component);
+        VDisplayable<?> child = group.recurrenceIdChildren.get(recurrenceId);
+        if ((child != null) && uid.equals(uid(child)) && recurrenceId.equals(recurrenceId(child)))
+        {
+            return child;
+        }
+        // the RECURRENCE-ID may have been changed in place
+        return group.children
+                .stream()
+                .filter(c -> uid.equals(uid(c)) && recurrenceId.equals(recurrenceId(c)))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Returns a stamp that changes whenever a component is added to or removed from the group of components with
+     * the same class and UID as a component, or -1 if there are none.  Used to invalidate values derived from the
+     * recurrence children.
+     * 
+     * @param component  component to match
+     * @return  version of the group of related components
+     */
+    public synchronized long version(VPersonal<?> component)
+    {
+        Group group = group(component);
+        return (group == null) ? -1 : group.version;
+    }
+
+    /* Group of the components with the same class and UID as component, null if there is none.  Must hold the lock. */
+    private Group group(VPersonal<?> component)
+    {
+        checkListSize(component);
+        String uid = uid(component);
+        if (uid == null) return null;
+        Map<String, Group> classGroups = groups.get(component.getClass());
+        return (classGroups == null) ? null : classGroups.get(uid);
+    }
+
+    /* Rebuild the index if the calendar's list for component's class was changed without adding or removing children */
+    private void checkListSize(VPersonal<?> component)
+    {
+        List<? extends VChild> list = vCalendar.getVComponents(component);
+        int listSize = (list == null) ? 0 : list.size();
+        if (listSize != classCounts.getOrDefault(component.getClass(), 0))
+        {
+            groups.clear();
+            componentUids.clear();
+            classCounts.clear();
+            addAll();
+        }
+    }
+
+    private static String uid(VPersonal<?> component)
+    {
+        return (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+    }
+
+    private static Temporal recurrenceId(VPersonal<?> component)
+    {
+        if (! (component instanceof VDisplayable)) return null;
+        VDisplayable<?> vDisplayable = (VDisplayable<?>) component;
+        return (vDisplayable.getRecurrenceId() == null) ? null : vDisplayable.getRecurrenceId().getValue();
+    }
+}
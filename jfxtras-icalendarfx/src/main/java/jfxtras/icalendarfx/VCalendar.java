@@ -29,18 +29,33 @@ package jfxtras.icalendarfx;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VComponentElement;
 import jfxtras.icalendarfx.components.VEvent;
 import jfxtras.icalendarfx.components.VFreeBusy;
 import jfxtras.icalendarfx.components.VJournal;
@@ -49,10 +64,12 @@ import jfxtras.icalendarfx.components.VTimeZone;
 import jfxtras.icalendarfx.components.VTodo;
 import jfxtras.icalendarfx.content.MultiLineContent;
 import jfxtras.icalendarfx.content.OrdererBase;
+import jfxtras.icalendarfx.content.UnfoldingChannelIterator;
 import jfxtras.icalendarfx.content.UnfoldingStringIterator;
 import jfxtras.icalendarfx.itip.AbstractITIPFactory;
 import jfxtras.icalendarfx.itip.DefaultITIPFactory;
 import jfxtras.icalendarfx.itip.Processable;
+import jfxtras.icalendarfx.properties.VProperty;
 import jfxtras.icalendarfx.properties.calendar.CalendarScale;
 import jfxtras.icalendarfx.properties.calendar.Method;
 import jfxtras.icalendarfx.properties.calendar.ProductIdentifier;
@@ -60,7 +77,10 @@ import jfxtras.icalendarfx.properties.calendar.Version;
 import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
 import jfxtras.icalendarfx.properties.component.misc.NonStandardProperty;
 import jfxtras.icalendarfx.properties.component.misc.RequestStatus;
+import jfxtras.icalendarfx.properties.component.timezone.TimeZoneIdentifier;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.InternPool;
+import jfxtras.icalendarfx.utilities.Pair;
 
 /**
  * iCalendar Object
@@ -591,6 +611,137 @@ public class VCalendar extends VParentBase<VCalendar>
     }
     
     
+    /**
+     * Index of the occurrences of the VEVENTs and VTODOs for range queries, conflict detection and free/busy.
+     * It's made on first use, and then kept in sync as components are added and removed.
+     * 
+     * @see VCalendarIndex
+     */
+    public synchronized VCalendarIndex index()
+    {
+        if (index == null)
+        {
+            index = new VCalendarIndex(this);
+        }
+        return index;
+    }
+    private volatile VCalendarIndex index;
+
+    /**
+     * Index of the components by UID, for finding recurrence parents and RECURRENCE-ID children without
+     * scanning the calendar.  It's made on first use, and then kept in sync as components are added and removed.
+     * 
+     * @see UidIndex
+     */
+    public synchronized UidIndex uidIndex()
+    {
+        if (uidIndex == null)
+        {
+            uidIndex = new UidIndex(this);
+        }
+        return uidIndex;
+    }
+    private volatile UidIndex uidIndex;
+
+    /**
+     * Log of the components added, changed and removed, for journaling only the changed components
+     * instead of serializing the whole calendar.  Null by default, which logs nothing.
+     * 
+     * @see ChangeLog
+     */
+    public ChangeLog getChangeLog() { return changeLog; }
+    private volatile ChangeLog changeLog;
+    public void setChangeLog(ChangeLog changeLog) { this.changeLog = changeLog; }
+    public VCalendar withChangeLog(ChangeLog changeLog) { setChangeLog(changeLog); return this; }
+    
+    private void logChange(ChangeLog.ChangeType type, VChild child)
+    {
+        ChangeLog changeLog = this.changeLog;
+        if ((changeLog != null) && (child instanceof VComponent))
+        {
+            changeLog.append(type, (VComponent) child);
+        }
+    }
+
+    @Override
+    protected void childChanged(VChild child)
+    {
+        super.childChanged(child);
+        logChange(ChangeLog.ChangeType.CHANGED, child);
+    }
+
+    @Override
+    public void orderChild(VChild addedChild)
+    {
+        super.orderChild(addedChild);
+        if (uidIndex != null) uidIndex.add(addedChild); // first, VCalendarIndex finds recurrence children with it
+        if (index != null) index.add(addedChild);
+        if (addedChild instanceof VTimeZone) registerZoneId((VTimeZone) addedChild);
+        logChange(ChangeLog.ChangeType.ADDED, addedChild);
+    }
+    
+    /*
+     * ZoneIds of the TZIDs that aren't java.time zone IDs, such as Outlook's "W. Europe Standard Time", defined by
+     * the VTIMEZONE components.  Used while parsing into this calendar, so later date-times referring to them parse.
+     */
+    private final Map<String, ZoneId> zoneIds = new ConcurrentHashMap<>();
+    
+    private void registerZoneId(VTimeZone vTimeZone)
+    {
+        TimeZoneIdentifier timeZoneIdentifier = vTimeZone.getTimeZoneIdentifier();
+        boolean isInlineOnly = (timeZoneIdentifier != null) && (timeZoneIdentifier.getValue() == null) &&
+                (vTimeZone.getStandardOrDaylight() != null) && ! vTimeZone.getStandardOrDaylight().isEmpty();
+        if (isInlineOnly)
+        {
+            try
+            {
+                zoneIds.put(timeZoneIdentifier.getIdentifier(), vTimeZone.toZoneId());
+            } catch (DateTimeException e)
+            {
+                // incomplete definition - date-times referring to it fail to parse as before
+            }
+        }
+    }
+    
+    private void unregisterZoneId(VTimeZone vTimeZone)
+    {
+        TimeZoneIdentifier timeZoneIdentifier = vTimeZone.getTimeZoneIdentifier();
+        if ((timeZoneIdentifier != null) && (timeZoneIdentifier.getIdentifier() != null))
+        {
+            zoneIds.remove(timeZoneIdentifier.getIdentifier());
+        }
+    }
+
+    @Override
+    public void orderChild(VChild oldChild, VChild newChild)
+    {
+        super.orderChild(oldChild, newChild);
+        if (uidIndex != null)
+        {
+            if (oldChild != null) uidIndex.remove(oldChild);
+            if (newChild != null) uidIndex.add(newChild);
+        }
+        if (index != null)
+        {
+            if (oldChild != null) index.remove(oldChild);
+            if (newChild != null) index.add(newChild);
+        }
+        if (oldChild instanceof VTimeZone) unregisterZoneId((VTimeZone) oldChild);
+        if (newChild instanceof VTimeZone) registerZoneId((VTimeZone) newChild);
+        if (oldChild != null) logChange(ChangeLog.ChangeType.REMOVED, oldChild);
+        if (newChild != null) logChange(ChangeLog.ChangeType.ADDED, newChild);
+    }
+
+    @Override
+    public void orderChild(int index, VChild addedChild)
+    {
+        super.orderChild(index, addedChild);
+        if (uidIndex != null) uidIndex.add(addedChild);
+        if (this.index != null) this.index.add(addedChild);
+        if (addedChild instanceof VTimeZone) registerZoneId((VTimeZone) addedChild);
+        logChange(ChangeLog.ChangeType.ADDED, addedChild);
+    }
+    
     /** set AbstractITIPFactory to handle processing input VCalendar based on {@link Method} */
     public void setMethodProcessFactory(AbstractITIPFactory iTIPFactory)
     {
@@ -898,78 +1049,164 @@ public class VCalendar extends VParentBase<VCalendar>
 //        return messages;
 //    }
 
-//    // multi threaded
-//    /** Parse content lines into calendar object */
-//    // TODO - TEST THIS - MAY NOT MAINTAIN ORDER
-//    // TODO - FIX THIS - DOESN'T WORK, DOESN'T GET CALENDARY PROPERTIES
-//    public void parseContentMulti(Iterator<String> lineIterator)
-//    {
-//        // Callables to generate components
-//        ExecutorService service = Executors.newWorkStealingPool();
-////        Map<Integer, Callable<Object>> taskMap = new LinkedHashMap<>();
-//        Integer order = 0;
-//        List<Callable<Object>> tasks = new ArrayList<>();
-//        
-//        String firstLine = lineIterator.next();
-//        if (! firstLine.equals("BEGIN:VCALENDAR"))
-//        {
-//            throw new IllegalArgumentException("Content lines must begin with BEGIN:VCALENDAR");
-//        }
-//        while (lineIterator.hasNext())
-//        {
-//            String line = lineIterator.next();
-//            int nameEndIndex = ICalendarUtilities.getPropertyNameIndex(line);
-//            String propertyName = line.substring(0, nameEndIndex);
-//            
-//            // Parse component
-//            if (propertyName.equals("BEGIN"))
-//            {
-//                String componentName = line.substring(nameEndIndex+1);
-//                List<String> myLines = new ArrayList<>(20);
-//                myLines.add(line);
-//                final String endLine = "END:" + componentName;
-//                while (lineIterator.hasNext())
-//                {
-//                    String myLine = lineIterator.next();
-//                    myLines.add(myLine);
-//                    if (myLine.equals(endLine))
-//                    {
-//                        Integer myOrder = order;
-//                        order += 100;
-//                        Runnable vComponentRunnable = () -> 
-//                        {
-//                            CalendarComponent elementType = CalendarComponent.valueOf(componentName);
-//                            VElement component = elementType.parse(this, myLines);
-////                            orderer().elementSortOrderMap().put((VChild) component, myOrder);
-//                        };
-////                        taskMap.put(order, Executors.callable(vComponentRunnable));
-//                        tasks.add(Executors.callable(vComponentRunnable));
-//                        break;
-//                    }
-//                }
-//                
-//            // parse calendar properties (ignores unknown properties)
-//            } else
-//            {
-//                CalendarComponent elementType = CalendarComponent.enumFromName(propertyName);
-//                if (elementType != null)
-//                {
-//                    VElement property = elementType.parse(this, Arrays.asList(line));
-////                    orderer().elementSortOrderMap().put((VChild) property, order);
-////                    order += 100;
-//                }
-//            }
-//        }
-//        
-//        try
-//        {
-////            List<Callable<Object>> tasks = taskMap.entrySet().stream().map(e -> e.getValue()).collect(Collectors.toList());
-//            service.invokeAll(tasks);
-//        } catch (InterruptedException e)
-//        {
-//            e.printStackTrace();
-//        }
-//    }
+    /* Date-times referring to the inline VTIMEZONEs parsed before them resolve to their ZoneIds */
+    @Override
+    protected List<Message> parseContent(Iterator<String> unfoldedLineIterator)
+    {
+        return parseWithZoneIds(() -> super.parseContent(unfoldedLineIterator));
+    }
+    
+    /* Runs a parse of content belonging to this calendar, so the TZIDs of its inline VTIMEZONEs resolve */
+    <T> T parseWithZoneIds(Supplier<T> parse)
+    {
+        return DateTimeUtilities.parseWithZoneIds(zoneIds, parse);
+    }
+    
+    /*
+     * Parse content lines with top-level components parsed on the executor from the parse options.
+     * Each component's lines are collected on the calling thread and handed to a worker, which builds the
+     * component.  The parsed components are added on the calling thread in their original order, so the
+     * children order matches the sequential parse.  Calendar properties and VTIMEZONEs are parsed on the calling
+     * thread, so the ZoneIds of inline VTIMEZONEs are known before the components after them are handed out.
+     * If a component fails to parse, the components still pending are cancelled and the failure is thrown as
+     * in the sequential parse.
+     */
+    private List<Message> parseContentParallel(Iterator<String> unfoldedLineIterator, ParseOptions options)
+    {
+        return parseWithZoneIds(() -> parseContentParallelWithZoneIds(unfoldedLineIterator, options));
+    }
+    
+    private List<Message> parseContentParallelWithZoneIds(Iterator<String> unfoldedLineIterator, ParseOptions options)
+    {
+        ExecutorService executor = options.getExecutor();
+        int maxPendingComponents = options.getMaxPendingComponents();
+        InternPool internPool = options.getInternPool();
+        List<Message> messages = new ArrayList<>();
+        Deque<Pair<String, Future<Pair<VChild, List<Message>>>>> pendingComponents = new ArrayDeque<>();
+        try
+        {
+            parseComponentsParallel(unfoldedLineIterator, executor, maxPendingComponents, internPool, messages, pendingComponents);
+        } catch (RuntimeException | Error e)
+        {
+            pendingComponents.forEach(p -> p.getValue().cancel(true));
+            throw e;
+        }
+        return messages;
+    }
+    
+    private void parseComponentsParallel(Iterator<String> unfoldedLineIterator, ExecutorService executor, int maxPendingComponents,
+            InternPool internPool, List<Message> messages, Deque<Pair<String, Future<Pair<VChild, List<Message>>>>> pendingComponents)
+    {
+        while (unfoldedLineIterator.hasNext())
+        {
+            String unfoldedLine = unfoldedLineIterator.next();
+            if (unfoldedLine.startsWith(END)) break; // exit when end found;
+            String childName = elementName(unfoldedLine);
+            if (childName != null) childName = (childName.startsWith("X-")) ? "X-" : childName;
+            boolean isMainComponent = name().equals(childName);
+            if (unfoldedLine.startsWith(BEGIN))
+            {
+                if (! isMainComponent)
+                {
+                    List<String> componentLines = collectComponentLines(unfoldedLineIterator);
+                    String componentName = childName;
+                    final Future<Pair<VChild, List<Message>>> future;
+                    if (VComponentElement.fromName(componentName) == VComponentElement.VTIMEZONE)
+                    {
+                        Pair<VChild, List<Message>> result = (internPool == null) ?
+                                parseComponent(componentName, componentLines) :
+                                internPool.parse(() -> parseComponent(componentName, componentLines));
+                        registerZoneId((VTimeZone) result.getKey()); // before the components referring to it
+                        future = CompletableFuture.completedFuture(result);
+                    } else
+                    {
+                        future = executor.submit(() -> parseWithZoneIds(() -> (internPool == null) ?
+                                parseComponent(componentName, componentLines) :
+                                internPool.parse(() -> parseComponent(componentName, componentLines))));
+                    }
+                    pendingComponents.add(new Pair<>(unfoldedLine, future));
+                    if (pendingComponents.size() >= maxPendingComponents)
+                    {
+                        addParsedComponent(messages, pendingComponents.poll());
+                    }
+                }
+            } else
+            { // calendar property - add after preceding components to maintain order
+                while (! pendingComponents.isEmpty())
+                {
+                    addParsedComponent(messages, pendingComponents.poll());
+                }
+                VElementBase child = (VElementBase) VElementBase.newEmptyVElement(VProperty.class, childName);
+                parseSingleLineChild(messages, unfoldedLine, childName, child);
+            }
+        }
+        while (! pendingComponents.isEmpty())
+        {
+            addParsedComponent(messages, pendingComponents.poll());
+        }
+    }
+    
+    /* Collect lines of a component, including subcomponents, up to and including its END line */
+    private static List<String> collectComponentLines(Iterator<String> unfoldedLineIterator)
+    {
+        List<String> lines = new ArrayList<>(20);
+        int depth = 1;
+        while (unfoldedLineIterator.hasNext() && (depth > 0))
+        {
+            String line = unfoldedLineIterator.next();
+            if (line.startsWith(BEGIN))
+            {
+                depth++;
+            } else if (line.startsWith(END))
+            {
+                depth--;
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+    
+    /* Runs on worker thread - only touches the new component */
+    private Pair<VChild, List<Message>> parseComponent(String componentName, List<String> componentLines)
+    {
+        VParentBase<?> component = (VParentBase<?>) VElementBase.newEmptyVElement(VComponent.class, componentName);
+        if (component == null)
+        {
+            List<Message> messages = new ArrayList<>();
+            messages.add(new Message(this,
+                    "Unknown element:" + BEGIN + componentName,
+                    MessageEffect.MESSAGE_ONLY));
+            return new Pair<>(null, messages);
+        }
+        List<Message> messages = component.parseContent(componentLines.iterator());
+        return new Pair<>((VChild) component, messages);
+    }
+    
+    private void addParsedComponent(List<Message> messages, Pair<String, Future<Pair<VChild, List<Message>>>> pendingComponent)
+    {
+        final Pair<VChild, List<Message>> result;
+        try
+        {
+            result = pendingComponent.getValue().get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e)
+        { // rethrow what the sequential parse would throw, only checked exceptions need wrapping
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+        messages.addAll(result.getValue());
+        VChild component = result.getKey();
+        if (component != null)
+        {
+            String unfoldedLine = pendingComponent.getKey();
+            addChildInternal(messages, unfoldedLine, component.name(), component);
+        }
+    }
     
     public static VCalendar parse(Reader reader) throws IOException
     {
@@ -984,6 +1221,52 @@ public class VCalendar extends VParentBase<VCalendar>
         return vCalendar;
     }
     
+    /**
+     * Creates a new VCalendar by streaming UTF-8 encoded iCalendar content from a channel.
+     * Lines are unfolded as bytes are read, so only one content line is buffered at a time.
+     * CRLF and LF line endings are both accepted.
+     * 
+     * @param channel  channel to read, not closed by this method
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(ReadableByteChannel channel) throws IOException
+    {
+        return parse(channel, new ParseOptions());
+    }
+    
+    /**
+     * Creates a new VCalendar by streaming UTF-8 encoded iCalendar content from a channel,
+     * using the parse options.
+     * 
+     * @param channel  channel to read, not closed by this method
+     * @param options  parse options, such as {@link ParseOptions#parallel(java.util.concurrent.ExecutorService)}
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(ReadableByteChannel channel, ParseOptions options) throws IOException
+    {
+        Iterator<String> unfoldedLineIterator = new UnfoldingChannelIterator(channel);
+        VCalendar vCalendar = new VCalendar();
+        try
+        {
+            if (options.isParallel())
+            {
+                vCalendar.parseContentParallel(unfoldedLineIterator, options);
+            } else if (options.getInternPool() != null)
+            {
+                options.getInternPool().parse(() -> vCalendar.parseContent(unfoldedLineIterator));
+            } else
+            {
+                vCalendar.parseContent(unfoldedLineIterator);
+            }
+        } catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        return vCalendar;
+    }
+    
     /**
      * Creates a new VCalendar from an ics file
      * 
@@ -993,7 +1276,23 @@ public class VCalendar extends VParentBase<VCalendar>
      */
     public static VCalendar parse(Path icsFilePath) throws IOException
     {
-        return parse(Files.newBufferedReader(icsFilePath));
+        return parse(icsFilePath, new ParseOptions());
+    }
+    
+    /**
+     * Creates a new VCalendar from an ics file using the parse options
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @param options  parse options, such as {@link ParseOptions#parallel(java.util.concurrent.ExecutorService)}
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(Path icsFilePath, ParseOptions options) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(icsFilePath, StandardOpenOption.READ))
+        {
+            return parse(channel, options);
+        }
     }
     
     /**
@@ -1006,13 +1305,7 @@ public class VCalendar extends VParentBase<VCalendar>
     // TODO - REMOVE useResourceStatus
     public static VCalendar parseICalendarFile(Path icsFilePath, boolean useResourceStatus) throws IOException
     {
-        BufferedReader br = Files.newBufferedReader(icsFilePath);
-        List<String> lines = br.lines().collect(Collectors.toList());
-//        Iterator<String> unfoldedLines = ICalendarUtilities.unfoldLines(lines).iterator();
-        VCalendar vCalendar = new VCalendar();
-//        vCalendar.parseContent(lines.iterator(), useResourceStatus);
-        vCalendar.parseContent(lines.iterator());
-        return vCalendar;
+        return parse(icsFilePath);
     }
     
     /**
@@ -1025,12 +1318,7 @@ public class VCalendar extends VParentBase<VCalendar>
     // TODO - REMOVE useResourceStatus
     public static VCalendar parseICalendarFile(Path icsFilePath) throws IOException
     {
-        BufferedReader br = Files.newBufferedReader(icsFilePath);
-        List<String> lines = br.lines().collect(Collectors.toList());
-//        Iterator<String> unfoldedLines = ICalendarUtilities.unfoldLines(lines).iterator();
-        VCalendar vCalendar = new VCalendar();
-        vCalendar.parseContent(lines.iterator());
-        return vCalendar;
+        return parse(icsFilePath);
     }
     
 	@Override
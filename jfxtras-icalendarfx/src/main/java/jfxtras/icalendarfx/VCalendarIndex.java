@@ -0,0 +1,660 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VLocatable;
+import jfxtras.icalendarfx.properties.component.time.TimeTransparency.TimeTransparencyType;
+import jfxtras.icalendarfx.utilities.Pair;
+
+/**
+ * Index of the occurrences of the {@link VEvent}s and {@link jfxtras.icalendarfx.components.VTodo VTodo}s
+ * of a {@link VCalendar}, for range queries, conflict detection and free/busy calculation.
+ * 
+ * <p>Occurrences are kept in an interval tree, so finding the ones overlapping a range costs
+ * O(log n + k) instead of streaming the recurrences of every component.  Recurrence sets can be infinite,
+ * so occurrences are only materialized inside a horizon around the last queried range.  The horizon moves
+ * with the queries and occurrences that fall outside it are dropped, so the index holds about one range's
+ * worth of occurrences no matter how far apart the queries are.</p>
+ * 
+ * <p>The index of a calendar, from {@link VCalendar#index()}, is kept in sync when components are added
+ * to or removed from the calendar.  Adding or removing a component re-indexes the other components with the
+ * same UID, so RECURRENCE-ID children replace the occurrences of their parent.  A component changed in
+ * place, such as by setting a new DTSTART, must be re-indexed with {@link #refresh(VLocatable)}.</p>
+ * 
+ * <p>Floating date/times (DATE and DATE-TIME without a time zone) are placed in the time line with the
+ * index's {@link ZoneId}.  All methods are synchronized.</p>
+ */
+public class VCalendarIndex
+{
+    /** Default number of recurrences of a new {@link VEvent} checked by {@link #conflicts(VEvent)} */
+    public static final int CONFLICT_CHECK_QUANTITY = 400;
+    /* ranges of queryEach less than this many seconds apart are materialized together */
+    private static final long SPAN_GAP = Duration.ofDays(31).getSeconds();
+
+    private final ZoneId zone;
+    /* materialized occurrences of each indexed component */
+    private final Map<VLocatable<?>, List<Node>> componentNodes = new IdentityHashMap<>();
+    /* indexed components with the same UID */
+    private final Map<String, List<VLocatable<?>>> uidComponents = new HashMap<>();
+    /* UID of each indexed component when it was indexed, the component may have changed it since */
+    private final Map<VLocatable<?>, String> componentUids = new IdentityHashMap<>();
+    private Node root;
+    private long nextSequence;
+    /* occurrences starting in [horizonStart, horizonEnd) epoch seconds are materialized */
+    private boolean hasHorizon;
+    private long horizonStart;
+    private long horizonEnd;
+    /* longest duration of an indexed component in seconds */
+    private long maxDuration;
+
+    /*
+     * CONSTRUCTORS
+     */
+    /** Creates an index of the VEVENTs and VTODOs of vCalendar, with the system default time zone for floating date/times */
+    public VCalendarIndex(VCalendar vCalendar)
+    {
+        this(vCalendar, ZoneId.systemDefault());
+    }
+
+    /** Creates an index of the VEVENTs and VTODOs of vCalendar, with zone for floating date/times */
+    public VCalendarIndex(VCalendar vCalendar, ZoneId zone)
+    {
+        this.zone = zone;
+        if (vCalendar.getVEvents() != null) vCalendar.getVEvents().forEach(this::add);
+        if (vCalendar.getVTodos() != null) vCalendar.getVTodos().forEach(this::add);
+    }
+
+    /** Creates an index of the components, with zone for floating date/times.  It isn't kept in sync with any calendar. */
+    public VCalendarIndex(Collection<? extends VLocatable<?>> components, ZoneId zone)
+    {
+        this.zone = zone;
+        components.forEach(this::add);
+    }
+
+    /** Time zone used for floating date/times */
+    public ZoneId getZone() { return zone; }
+
+    /** Number of materialized occurrences */
+    public synchronized int size()
+    {
+        return componentNodes.values().stream().mapToInt(List::size).sum();
+    }
+
+    /*
+     * MAINTENANCE
+     */
+    /**
+     * Adds the occurrences of a component.  Components other than VEVENT and VTODO, components without DTSTART
+     * and components that are already indexed are ignored.
+     * 
+     * @param child  component to add
+     */
+    public synchronized void add(VChild child)
+    {
+        if (! isIndexable(child)) return;
+        VLocatable<?> component = (VLocatable<?>) child;
+        if (componentNodes.containsKey(component)) return;
+        String uid = uid(component);
+        componentUids.put(component, uid);
+        if (uid != null)
+        {
+            List<VLocatable<?>> siblings = uidComponents.computeIfAbsent(uid, u -> new ArrayList<>());
+            siblings.add(component);
+            reindex(siblings, component); // a new RECURRENCE-ID child changes the occurrences of its parent
+        }
+        index(component);
+    }
+
+    /**
+     * Removes the occurrences of a component
+     * 
+     * @param child  component to remove
+     */
+    public synchronized void remove(VChild child)
+    {
+        if (! componentNodes.containsKey(child)) return;
+        VLocatable<?> component = (VLocatable<?>) child;
+        unindex(component);
+        String uid = componentUids.remove(component);
+        List<VLocatable<?>> siblings = (uid == null) ? null : uidComponents.get(uid);
+        if (siblings != null)
+        {
+            siblings.removeIf(c -> c == component);
+            if (siblings.isEmpty())
+            {
+                uidComponents.remove(uid);
+            } else
+            {
+                reindex(siblings, null);
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a component that was changed in place, such as by a new DTSTART, RRULE or UID
+     * 
+     * @param component  changed component
+     */
+    public synchronized void refresh(VLocatable<?> component)
+    {
+        remove(component);
+        add(component);
+    }
+
+    /*
+     * QUERIES
+     */
+    /**
+     * Returns the occurrences that overlap a range, in order of their start.  An occurrence without duration
+     * is included when it starts inside the range.
+     * 
+     * @param start  start of range, inclusive
+     * @param end  end of range, exclusive
+     * @return  occurrences in the range
+     */
+    public synchronized List<Occurrence> query(Temporal start, Temporal end)
+    {
+        long queryStart = toEpochSecond(start);
+        long queryEnd = toEpochSecond(end);
+        ensureHorizon(queryStart, queryEnd);
+        List<Occurrence> occurrences = new ArrayList<>();
+        collect(root, queryStart, queryEnd, occurrences);
+        return occurrences;
+    }
+
+    /**
+     * Returns the busy occurrences that conflict with the first {@link #CONFLICT_CHECK_QUANTITY} recurrences
+     * of vEvent.  See {@link #conflicts(VEvent, int)}
+     */
+    public List<Occurrence> conflicts(VEvent vEvent)
+    {
+        return conflicts(vEvent, CONFLICT_CHECK_QUANTITY);
+    }
+
+    /**
+     * Returns the busy occurrences that conflict with recurrences of vEvent, in order of their start.
+     * Busy occurrences are those of {@link TimeTransparencyType#OPAQUE OPAQUE} VEVENTs that have a duration.
+     * A recurrence of vEvent without duration conflicts with busy occurrences it's inside of.  Occurrences of
+     * components with the same UID as vEvent don't conflict with it.  The recurrences are looked up with
+     * {@link #queryEach(List, TemporalAmount)}, so the horizon of this index doesn't move.
+     * 
+     * @param vEvent  event to test, doesn't have to be in the calendar
+     * @param checkQuantity  number of recurrences of vEvent to test
+     * @return  conflicting occurrences, empty if there aren't any or vEvent is TRANSPARENT
+     */
+    public synchronized List<Occurrence> conflicts(VEvent vEvent, int checkQuantity)
+    {
+        if (! isOpaque(vEvent)) return Collections.emptyList();
+        TemporalAmount duration = vEvent.getActualDuration();
+        String uid = uid(vEvent);
+        List<Temporal> newStarts = new ArrayList<>();
+        vEvent.streamRecurrences().limit(checkQuantity).forEach(newStarts::add);
+
+        // an occurrence can overlap several recurrences, and in different spans it's materialized again
+        Map<VLocatable<?>, Set<Long>> conflictStarts = new IdentityHashMap<>();
+        List<Occurrence> conflicts = new ArrayList<>();
+        for (List<Occurrence> overlapping : queryEach(newStarts, duration))
+        {
+            overlapping.stream()
+                    .filter(Occurrence::isBusy)
+                    .filter(o -> (o.getComponent() != vEvent) && ((uid == null) || ! uid.equals(uid(o.getComponent()))))
+                    .filter(o -> conflictStarts.computeIfAbsent(o.getComponent(), c -> new HashSet<>()).add(o.startSecond))
+                    .forEach(conflicts::add);
+        }
+        conflicts.sort((o1, o2) -> Long.compare(o1.startSecond, o2.startSecond));
+        return conflicts;
+    }
+
+    /**
+     * Returns the occurrences that overlap each of a series of ranges of the same length, such as the recurrences
+     * of a new component.  Ranges less than a month apart are grouped into spans, and the occurrences of each
+     * span are materialized once in a private copy of this index, so the horizon of this index doesn't move and
+     * far apart ranges don't materialize everything in between.
+     * 
+     * @param starts  starts of the ranges, in increasing order
+     * @param duration  length of each range
+     * @return  for each range, the occurrences overlapping it in order of their start
+     */
+    public synchronized List<List<Occurrence>> queryEach(List<? extends Temporal> starts, TemporalAmount duration)
+    {
+        int rangeCount = starts.size();
+        long[] rangeStarts = new long[rangeCount];
+        long[] rangeEnds = new long[rangeCount];
+        for (int i=0; i<rangeCount; i++)
+        {
+            rangeStarts[i] = toEpochSecond(starts.get(i));
+            rangeEnds[i] = toEpochSecond(starts.get(i).plus(duration));
+        }
+        VCalendarIndex spanIndex = new VCalendarIndex(new ArrayList<>(componentNodes.keySet()), zone);
+        List<List<Occurrence>> occurrences = new ArrayList<>(rangeCount);
+        int first = 0;
+        while (first < rangeCount)
+        {
+            int last = first;
+            long spanEnd = rangeEnds[first];
+            while ((last + 1 < rangeCount) && (rangeStarts[last + 1] - spanEnd < SPAN_GAP))
+            {
+                last++;
+                spanEnd = Math.max(spanEnd, rangeEnds[last]);
+            }
+            spanIndex.ensureHorizon(rangeStarts[first], spanEnd);
+            for (int i=first; i<=last; i++)
+            {
+                List<Occurrence> overlapping = new ArrayList<>();
+                collect(spanIndex.root, rangeStarts[i], rangeEnds[i], overlapping);
+                occurrences.add(overlapping);
+            }
+            first = last + 1;
+        }
+        return occurrences;
+    }
+
+    /**
+     * Returns the busy time in a range as merged, non-overlapping periods.  The periods are in UTC, clipped to the
+     * range, and can be used as the value of a {@link jfxtras.icalendarfx.properties.component.time.FreeBusyTime FreeBusyTime}.
+     * Busy occurrences are those of {@link TimeTransparencyType#OPAQUE OPAQUE} VEVENTs that have a duration.
+     * 
+     * @param start  start of range, inclusive
+     * @param end  end of range, exclusive
+     * @return  busy periods, as start and duration
+     */
+    public synchronized List<Pair<ZonedDateTime, TemporalAmount>> freeBusy(Temporal start, Temporal end)
+    {
+        long rangeStart = toEpochSecond(start);
+        long rangeEnd = toEpochSecond(end);
+        List<Pair<ZonedDateTime, TemporalAmount>> periods = new ArrayList<>();
+        long busyStart = 0;
+        long busyEnd = Long.MIN_VALUE;
+        for (Occurrence o : query(start, end))
+        {
+            if (! o.isBusy()) continue;
+            long s = Math.max(o.startSecond, rangeStart);
+            long e = Math.min(o.endSecond, rangeEnd);
+            if (s > busyEnd)
+            {
+                if (busyEnd != Long.MIN_VALUE) periods.add(period(busyStart, busyEnd));
+                busyStart = s;
+                busyEnd = e;
+            } else
+            {
+                busyEnd = Math.max(busyEnd, e);
+            }
+        }
+        if (busyEnd != Long.MIN_VALUE) periods.add(period(busyStart, busyEnd));
+        return periods;
+    }
+
+    private static Pair<ZonedDateTime, TemporalAmount> period(long start, long end)
+    {
+        return new Pair<>(ZonedDateTime.ofInstant(Instant.ofEpochSecond(start), ZoneOffset.UTC), Duration.ofSeconds(end - start));
+    }
+
+    /**
+     * An occurrence of an indexed component
+     */
+    public static final class Occurrence
+    {
+        private final VLocatable<?> component;
+        /** Component with the occurrence - the parent for a recurrence, or a RECURRENCE-ID child */
+        public VLocatable<?> getComponent() { return component; }
+        private final Temporal start;
+        /** Start date/time of occurrence */
+        public Temporal getStart() { return start; }
+        private final Temporal end;
+        /** End date/time of occurrence */
+        public Temporal getEnd() { return end; }
+        /** UID of component, null if it hasn't one */
+        public String getUniqueIdentifier() { return uid(component); }
+        /** Original start identifying the occurrence in its recurrence set - the RECURRENCE-ID of a child, otherwise the start */
+        public Temporal getRecurrenceId()
+        {
+            return (component.getRecurrenceId() != null) ? component.getRecurrenceId().getValue() : start;
+        }
+        private final boolean isBusy;
+        /** true if the occurrence blocks time - it's from an OPAQUE VEVENT and has a duration */
+        public boolean isBusy() { return isBusy; }
+        final long startSecond;
+        final long endSecond;
+
+        Occurrence(VLocatable<?> component, Temporal start, Temporal end, long startSecond, long endSecond)
+        {
+            this.component = component;
+            this.start = start;
+            this.end = end;
+            this.startSecond = startSecond;
+            this.endSecond = endSecond;
+            isBusy = (component instanceof VEvent) && isOpaque((VEvent) component) && (endSecond > startSecond);
+        }
+
+        @Override
+        public String toString()
+        {
+            return component.getClass().getSimpleName() + " " + getUniqueIdentifier() + " " + start + "/" + end;
+        }
+    }
+
+    /*
+     * MATERIALIZING OCCURRENCES
+     */
+    private static boolean isIndexable(VChild child)
+    {
+        return (child instanceof VLocatable) && (((VLocatable<?>) child).getDateTimeStart() != null);
+    }
+
+    private static boolean isOpaque(VEvent vEvent)
+    {
+        return (vEvent.getTimeTransparency() == null) || (vEvent.getTimeTransparency().getValue() != TimeTransparencyType.TRANSPARENT);
+    }
+
+    private static String uid(VLocatable<?> component)
+    {
+        return (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+    }
+
+    /* Re-indexes all siblings other than skip */
+    private void reindex(List<VLocatable<?>> siblings, VLocatable<?> skip)
+    {
+        for (VLocatable<?> sibling : siblings)
+        {
+            if (sibling == skip) continue;
+            unindex(sibling);
+            index(sibling);
+        }
+    }
+
+    private void index(VLocatable<?> component)
+    {
+        List<Node> nodes = new ArrayList<>();
+        componentNodes.put(component, nodes);
+        maxDuration = Math.max(maxDuration, durationSeconds(component));
+        if (hasHorizon)
+        {
+            materialize(component, horizonStart, horizonEnd);
+        }
+    }
+
+    private void unindex(VLocatable<?> component)
+    {
+        List<Node> nodes = componentNodes.remove(component);
+        if (nodes != null)
+        {
+            nodes.forEach(n -> root = delete(root, n));
+        }
+    }
+
+    private long durationSeconds(VLocatable<?> component)
+    {
+        Temporal dtStart = component.getDateTimeStart().getValue();
+        return toEpochSecond(dtStart.plus(component.getActualDuration())) - toEpochSecond(dtStart);
+    }
+
+    /*
+     * Materializes occurrences of all components that overlap [start, end).  If the horizon doesn't cover
+     * the range it's moved to it: occurrences outside the range are dropped, those inside are kept.
+     */
+    private void ensureHorizon(long start, long end)
+    {
+        long neededStart = start - maxDuration;
+        long neededEnd = Math.max(neededStart, end);
+        if (hasHorizon && (neededStart >= horizonStart) && (neededEnd <= horizonEnd)) return; // already covered
+        boolean isOverlapping = hasHorizon && (neededStart < horizonEnd) && (neededEnd > horizonStart);
+        if (! isOverlapping)
+        {
+            root = null;
+            componentNodes.values().forEach(List::clear);
+        }
+        for (Map.Entry<VLocatable<?>, List<Node>> entry : componentNodes.entrySet())
+        {
+            if (isOverlapping)
+            {
+                entry.getValue().removeIf(n ->
+                {
+                    boolean isOutside = (n.start < neededStart) || (n.start >= neededEnd);
+                    if (isOutside) root = delete(root, n);
+                    return isOutside;
+                });
+                materialize(entry.getKey(), neededStart, horizonStart);
+                materialize(entry.getKey(), horizonEnd, neededEnd);
+            } else
+            {
+                materialize(entry.getKey(), neededStart, neededEnd);
+            }
+        }
+        hasHorizon = true;
+        horizonStart = neededStart;
+        horizonEnd = neededEnd;
+    }
+
+    /* Adds the occurrences of component that start in [from, to) */
+    private void materialize(VLocatable<?> component, long from, long to)
+    {
+        if (from >= to) return;
+        List<Node> nodes = componentNodes.get(component);
+        TemporalAmount duration = component.getActualDuration();
+        Temporal dtStart = component.getDateTimeStart().getValue();
+        Iterator<Temporal> i = component.streamRecurrences(fromEpochSecond(from, dtStart)).iterator();
+        while (i.hasNext())
+        {
+            Temporal start = i.next();
+            long startSecond = toEpochSecond(start);
+            if (startSecond >= to) break;
+            if (startSecond < from) continue;
+            Temporal end = start.plus(duration);
+            Node node = new Node(new Occurrence(component, start, end, startSecond, toEpochSecond(end)), nextSequence++);
+            nodes.add(node);
+            root = insert(root, node);
+        }
+    }
+
+    private long toEpochSecond(Temporal temporal)
+    {
+        if (temporal instanceof ZonedDateTime)
+        {
+            return ((ZonedDateTime) temporal).toEpochSecond();
+        } else if (temporal instanceof LocalDateTime)
+        {
+            return ((LocalDateTime) temporal).atZone(zone).toEpochSecond();
+        } else if (temporal instanceof LocalDate)
+        {
+            return ((LocalDate) temporal).atStartOfDay(zone).toEpochSecond();
+        } else if (temporal instanceof Instant)
+        {
+            return ((Instant) temporal).getEpochSecond();
+        }
+        throw new DateTimeException("Unsupported Temporal type:" + temporal.getClass().getSimpleName());
+    }
+
+    /* Converts epoch second to the type of the example, rounding down */
+    private Temporal fromEpochSecond(long epochSecond, Temporal example)
+    {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        if (example instanceof ZonedDateTime)
+        {
+            return ZonedDateTime.ofInstant(instant, ((ZonedDateTime) example).getZone());
+        }
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, zone.getRules().getOffset(instant));
+        return (example instanceof LocalDate) ? localDateTime.toLocalDate() : localDateTime;
+    }
+
+    /*
+     * INTERVAL TREE
+     * AVL tree ordered by start, augmented with the maximum end of each subtree
+     */
+    private static final class Node
+    {
+        final Occurrence occurrence;
+        final long start;
+        final long end;
+        final long sequence; // breaks ties between equal starts
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Occurrence occurrence, long sequence)
+        {
+            this.occurrence = occurrence;
+            this.start = occurrence.startSecond;
+            this.end = occurrence.endSecond;
+            this.sequence = sequence;
+            this.maxEnd = end;
+        }
+
+        boolean isBefore(Node other)
+        {
+            return (start < other.start) || ((start == other.start) && (sequence < other.sequence));
+        }
+    }
+
+    private static void collect(Node node, long queryStart, long queryEnd, List<Occurrence> occurrences)
+    {
+        if ((node == null) || (node.maxEnd < queryStart)) return;
+        collect(node.left, queryStart, queryEnd, occurrences);
+        if (node.start >= queryEnd) return; // this node and right subtree start too late
+        boolean overlaps = (node.end > queryStart) || ((node.end == node.start) && (node.start >= queryStart));
+        if (overlaps) occurrences.add(node.occurrence);
+        collect(node.right, queryStart, queryEnd, occurrences);
+    }
+
+    private static Node insert(Node node, Node newNode)
+    {
+        if (node == null) return newNode;
+        if (newNode.isBefore(node))
+        {
+            node.left = insert(node.left, newNode);
+        } else
+        {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, Node oldNode)
+    {
+        if (node == null) return null;
+        if (node == oldNode)
+        {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null)
+            {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        if (oldNode.isBefore(node))
+        {
+            node.left = delete(node.left, oldNode);
+        } else
+        {
+            node.right = delete(node.right, oldNode);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node)
+    {
+        if (node.left == null) return node.right;
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node)
+    {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1)
+        {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        } else if (balance < -1)
+        {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node)
+    {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node)
+    {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static int height(Node node)
+    {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static void update(Node node)
+    {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        node.maxEnd = maxEnd;
+    }
+}
@@ -26,14 +26,19 @@
  */
 package jfxtras.icalendarfx;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -41,6 +46,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VCalendar;
@@ -51,6 +59,8 @@ import jfxtras.icalendarfx.VParent;
 import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.content.ContentLineStrategy;
+import jfxtras.icalendarfx.content.ContentLineWriter;
+import jfxtras.icalendarfx.content.MultiLineContent;
 import jfxtras.icalendarfx.content.Orderer;
 import jfxtras.icalendarfx.content.OrdererBase;
 import jfxtras.icalendarfx.content.UnfoldingStringIterator;
@@ -76,8 +86,15 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	 * The first key is the VParent class
 	 * The second key is the VChild of that VParent
 	 */
-	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> SETTERS = new HashMap<>();
-	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> GETTERS = new HashMap<>();
+	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> SETTERS = new ConcurrentHashMap<>();
+	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> GETTERS = new ConcurrentHashMap<>();
+	/* Generated accessors made from the setters and getters
+	 * The first key is the VParent class
+	 * The second key is the VChild of that VParent
+	 */
+	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, ChildAccessor>> ACCESSORS = new ConcurrentHashMap<>();
+	/* Getters of all children of a VParent class, used by equals */
+	private static final  Map<Class<? extends VParent>, List<Function<Object, Object>>> ALL_GETTERS = new ConcurrentHashMap<>();
 
     /*
      * HANDLE SORT ORDER FOR CHILD ELEMENTS
@@ -89,47 +106,44 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	public void orderChild(VChild addedChild)
 	{
 		orderer.orderChild(addedChild);
+		markDirty();
 	}
 	
 	@Override
 	public void orderChild(VChild oldChild, VChild newChild)
 	{
 		orderer.replaceChild(oldChild, newChild);
+		markDirty();
 	}
 
 	@Override
 	public void orderChild(int index, VChild addedChild)
 	{
 		orderer.orderChild(index, addedChild);
+		markDirty();
 	}
 
 	@Override
     public void addChild(VChild child)
     {
-		Method setter = getSetter(child);
-		boolean isList = Collection.class.isAssignableFrom(setter.getParameters()[0].getType());
-		try {
-			if (isList)
+		ChildAccessor accessor = getAccessor(child);
+		if (accessor.isCollection)
+		{
+			Collection<VChild> list = (Collection<VChild>) accessor.getter.apply(this);
+			if (list == null)
 			{
-				Method getter = getGetter(child);
-				Collection<VChild> list = (Collection<VChild>) getter.invoke(this);
-				if (list == null)
-				{
-					list = (getter.getReturnType() == List.class) ? new ArrayList<>() :
-						   (getter.getReturnType() == Set.class) ? new LinkedHashSet<>() : new ArrayList<>();
-					list.add(child);
-					setter.invoke(this, list);
-				} else
-				{
-					list.add(child);
-					orderChild(child);
-				}
+				list = (accessor.getterType == List.class) ? new ArrayList<>() :
+					   (accessor.getterType == Set.class) ? new LinkedHashSet<>() : new ArrayList<>();
+				list.add(child);
+				accessor.setter.accept(this, list);
 			} else
 			{
-				setter.invoke(this, child);
+				list.add(child);
+				orderChild(child);
 			}
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
+		} else
+		{
+			accessor.setter.accept(this, child);
 		}
     }
 	@Override
@@ -146,37 +160,30 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	@Override
 	public boolean removeChild(VChild child)
 	{
-		Method setter = getSetter(child);
-		boolean isList = List.class.isAssignableFrom(setter.getParameters()[0].getType());
-		try {
-			if (isList)
+		ChildAccessor accessor = getAccessor(child);
+		if (accessor.isCollection)
+		{
+			Collection<VChild> list = (Collection<VChild>) accessor.getter.apply(this);
+			if (list == null)
 			{
-				Method getter = getGetter(child);
-				List<VChild> list = (List<VChild>) getter.invoke(this);
-				if (list == null)
-				{
-					return false;
-				} else
-				{
-					boolean result = list.remove(child);
-					orderChild(child, null);
-					// Should I leave empty lists? - below code removes empty lists
-//					if (list.isEmpty())
-//					{
-//						setter.invoke(this, (Object) null);
-//					}
-					return result;
-				}
+				return false;
 			} else
 			{
-				setter.invoke(this, (Object) null);
+				boolean result = list.remove(child);
 				orderChild(child, null);
-				return true;
+				// Should I leave empty lists? - below code removes empty lists
+//				if (list.isEmpty())
+//				{
+//					accessor.setter.accept(this, null);
+//				}
+				return result;
 			}
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
+		} else
+		{
+			accessor.setter.accept(this, null);
+			orderChild(child, null);
+			return true;
 		}
-		return false;
 	}
 	@Override
 	public boolean removeChild(int index)
@@ -193,7 +200,9 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	@Override
 	public boolean replaceChild(VChild oldChild, VChild newChild)
 	{
-		return orderer.replaceChild(oldChild, newChild);
+		boolean isReplaced = orderer.replaceChild(oldChild, newChild);
+		markDirty();
+		return isReplaced;
 	}
 	public T withChild(VChild child)
 	{
@@ -203,24 +212,12 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	
     protected Map<Class<? extends VChild>, Method> getSetters()
     {
-    	if (SETTERS.get(getClass()) == null)
-    	{
-    		Map<Class<? extends VChild>, Method> setterMap = collectSetterMap(getClass());
-			SETTERS.put(getClass(), setterMap);
-			return setterMap;
-    	}
-    	return SETTERS.get(getClass());
+    	return SETTERS.computeIfAbsent(getClass(), c -> Collections.unmodifiableMap(collectSetterMap(c)));
     }
     
     protected Map<Class<? extends VChild>, Method> getGetters()
     {
-    	if (GETTERS.get(getClass()) == null)
-    	{
-    		Map<Class<? extends VChild>, Method> getterMap = collectGetterMap(getClass());
-			GETTERS.put(getClass(), getterMap);
-			return getterMap;
-    	}
-    	return GETTERS.get(getClass());
+    	return GETTERS.computeIfAbsent(getClass(), c -> Collections.unmodifiableMap(collectGetterMap(c)));
     }
 	protected Method getSetter(VChild child)
 	{
@@ -231,6 +228,22 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 		return getGetters().get(child.getClass());
 	}
 	
+	/* Returns generated accessor for child's getter and setter, null if child isn't allowed */
+	private ChildAccessor getAccessor(VChild child)
+	{
+		Map<Class<? extends VChild>, ChildAccessor> accessors = ACCESSORS.computeIfAbsent(getClass(), c -> new ConcurrentHashMap<>());
+		ChildAccessor accessor = accessors.get(child.getClass());
+		if (accessor == null)
+		{
+			Method getter = getGetter(child);
+			Method setter = getSetter(child);
+			if ((getter == null) && (setter == null)) return null;
+			accessor = new ChildAccessor(getter, setter);
+			accessors.put(child.getClass(), accessor);
+		}
+		return accessor;
+	}
+	
     @Override
 	protected List<Message> parseContent(String content)
     {
@@ -295,28 +308,34 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
             		child = (VElementBase) VElementBase.newEmptyVElement(singlelineChildClass, childName);
             	}
             	
-                if (child != null)
-                {
-	                List<Message> myMessages = ((VParentBase<?>) child).parseContent(unfoldedLine); // recursively parse child parent
-	                // don't add single-line children with info or error messages - they have problems and should be ignored
-	                if (myMessages.isEmpty())
-	                {
-	            		addChildInternal(messages, unfoldedLine, childName, (VChild) child);                	
-	                } else
-	                {
-	                	messages.addAll(myMessages);
-	                }
-                } else
-                {
-                	messages.add(new Message(this,
-                			"Unknown element:" + unfoldedLine,
-                			MessageEffect.MESSAGE_ONLY));
-                }
+                parseSingleLineChild(messages, unfoldedLine, childName, child);
             }
         }
         return messages;
     }
 
+    /* Parse single line element (e.g. property, parameter, rrule value) and add it if there are no problems */
+    protected void parseSingleLineChild(List<Message> messages, String unfoldedLine, String childName, VElementBase child)
+    {
+        if (child != null)
+        {
+            List<Message> myMessages = ((VParentBase<?>) child).parseContent(unfoldedLine); // recursively parse child parent
+            // don't add single-line children with info or error messages - they have problems and should be ignored
+            if (myMessages.isEmpty())
+            {
+        		addChildInternal(messages, unfoldedLine, childName, (VChild) child);                	
+            } else
+            {
+            	messages.addAll(myMessages);
+            }
+        } else
+        {
+        	messages.add(new Message(this,
+        			"Unknown element:" + unfoldedLine,
+        			MessageEffect.MESSAGE_ONLY));
+        }
+    }
+
     // For Recurrence Rule Value and Properties
 	protected void processInLineChild(
 			List<Message> messages, 
@@ -348,8 +367,8 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 					MessageEffect.MESSAGE_ONLY);
 			messages.add(message);
 		}
-		Method getter = getGetter(newChild);
-		boolean isChildAllowed = getter != null;
+		ChildAccessor accessor = (newChild == null) ? null : getAccessor(newChild);
+		boolean isChildAllowed = (accessor != null) && (accessor.getter != null);
 		if (! isChildAllowed)
 		{
 			Message message = new Message(this,
@@ -360,12 +379,7 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
     		else // Moved to an else block, because getter could be null here
     		{		
 			final boolean isChildAlreadyPresent;
-			Object currentParameter = null;
-			try {
-				currentParameter = getter.invoke(this);
-			} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-				e.printStackTrace();
-			}
+			Object currentParameter = accessor.getter.apply(this);
 			if (currentParameter instanceof Collection)
 			{
 				isChildAlreadyPresent = ((Collection<?>) currentParameter).contains(newChild); // TODO contains is expensive - try to find a way to avoid
@@ -408,11 +422,9 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         {
         	try {
         		// use copy constructors to make copy of child
-        		VChild newChild = childSource.getClass()
-        				.getConstructor(childSource.getClass())
-        				.newInstance(childSource);
+        		VChild newChild = ChildAccessor.copy(childSource);
         		destination.addChild(newChild);
-			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			} catch (RuntimeException e) {
 				e.printStackTrace();
 			}
         });
@@ -442,6 +454,71 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
     }
 
 
+    /*
+     * DIRTY TRACKING
+     */
+    private boolean isDirty = true;
+    // content of multi-line elements (calendar and components) rendered by the last toCachedString, null when dirty
+    private String renderedContent;
+    
+    /**
+     * Returns true if the content changed since the last {@link #toCachedString()}
+     * 
+     * @return  true if toCachedString renders the content again
+     */
+    public boolean isDirty()
+    {
+        return isDirty;
+    }
+    
+    /**
+     * Marks the content of this element and its ancestors as changed, so the next {@link #toCachedString()} renders
+     * them again.  The content of unchanged components is reused.
+     * 
+     * Changes made through setters, orderChild and addChild/removeChild are tracked automatically.  Call this
+     * after changing a mutable value in place, such as adding a date to the Set of an EXDATE property.
+     */
+    public void markDirty()
+    {
+        isDirty = true;
+        renderedContent = null;
+        modificationStamp = 0;
+        VParent parent = (this instanceof VChild) ? ((VChild) this).getParent() : null;
+        if (parent instanceof VParentBase)
+        {
+            ((VParentBase<?>) parent).childChanged((VChild) this);
+        }
+    }
+    
+    /* source of modification stamps, never reset so a stamp is never handed out twice */
+    private static final AtomicLong NEXT_MODIFICATION_STAMP = new AtomicLong();
+    // 0 until requested, reset to 0 by markDirty
+    private volatile long modificationStamp;
+    
+    /**
+     * Returns a number that identifies the current content of this element.  The stamp changes when
+     * {@link #markDirty()} is called on this element or one of its descendants, and no two elements
+     * share a stamp.  Caches use it instead of comparing rendered content.
+     * 
+     * @return  stamp of the current content
+     */
+    public long getModificationStamp()
+    {
+        long stamp = modificationStamp;
+        if (stamp == 0)
+        {
+            stamp = NEXT_MODIFICATION_STAMP.incrementAndGet();
+            modificationStamp = stamp;
+        }
+        return stamp;
+    }
+    
+    /** Called when the content of child, or one of its descendants, changed */
+    protected void childChanged(VChild child)
+    {
+        markDirty();
+    }
+    
     @Override
     public String toString()
     {
@@ -452,6 +529,78 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         return contentLineGenerator.execute();
     }
     
+    /**
+     * Returns the same content as {@link #toString()}, but reuses the content rendered by earlier calls for the
+     * calendar and components that didn't change since.  For saving a large calendar again and again, such as
+     * autosave, when only a few components change between saves.
+     * 
+     * Changes made through setters, orderChild and addChild/removeChild are tracked automatically.  A value changed
+     * in place, such as a date added to the Set of an EXDATE property, is only rendered after {@link #markDirty()},
+     * until then the earlier content is returned.  {@link #toString()} always renders the current content.
+     * 
+     * @return  content lines
+     */
+    public String toCachedString()
+    {
+        if (contentLineGenerator == null)
+        {
+            throw new RuntimeException("Can't produce content lines because contentLineGenerator isn't set");  // contentLineGenerator MUST be set by subclasses
+        }
+        String content = renderedContent;
+        if (content == null)
+        {
+            // only multi-line content is kept, properties are rendered again with their component
+            if (contentLineGenerator instanceof MultiLineContent)
+            {
+                content = ((MultiLineContent) contentLineGenerator).executeCached();
+                renderedContent = content;
+            } else
+            {
+                content = toString();
+            }
+            isDirty = false;
+        }
+        return content;
+    }
+
+    /**
+     * Writes the content lines to an {@link Appendable}, such as a {@link Writer} or {@link StringBuilder}.
+     * 
+     * Unlike {@link #toString()}, the content is streamed once without building intermediate Strings for each
+     * nesting level.  Lines are folded at 75 octets and terminated by CRLF regardless of platform, as required
+     * by RFC 5545.
+     * 
+     * @param out  destination of content lines, not flushed or closed by this method
+     * @throws IOException
+     */
+    public void writeTo(Appendable out) throws IOException
+    {
+        writeTo(new ContentLineWriter(out));
+    }
+
+    /**
+     * Writes the content lines to a channel, UTF-8 encoded.  See {@link #writeTo(Appendable)}
+     * 
+     * @param channel  destination of content, not closed by this method
+     * @throws IOException
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException
+    {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+        writeTo(writer);
+        writer.flush();
+    }
+
+    /** Writes the content lines to writer.  Used by parents to stream their children. */
+    public void writeTo(ContentLineWriter writer) throws IOException
+    {
+        if (contentLineGenerator == null)
+        {
+            throw new RuntimeException("Can't produce content lines because contentLineGenerator isn't set");  // contentLineGenerator MUST be set by subclasses
+        }
+        contentLineGenerator.writeTo(writer);
+    }
+    
     // Note: can't check equals or hashCode of parents - causes stack overflow
     @Override
     public boolean equals(Object obj)
@@ -463,21 +612,19 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         VParent testObj = (VParent) obj;
         
         // getter version is slower, but will be correct.
-        Map<Class<? extends VChild>, Method> getters = getGetters();
-        return getters.entrySet()
-        	.stream()
-        	.map(e -> e.getValue())
-        	.allMatch(m ->
+        List<Function<Object, Object>> getters = ALL_GETTERS.computeIfAbsent(getClass(), c -> getGetters()
+        		.values()
+        		.stream()
+        		.map(ChildAccessor::makeGetter)
+        		.collect(Collectors.toList()));
+        for (Function<Object, Object> getter : getters)
+        {
+        	if (! Objects.equals(getter.apply(this), getter.apply(testObj)))
         	{
-				try {
-					Object v1 = m.invoke(this);
-	        		Object v2 = m.invoke(testObj);
-	        		return Objects.equals(v1, v2);
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e1) {
-					e1.printStackTrace();
-				}
-				return false;
-        	});
+        		return false;
+        	}
+        }
+        return true;
     }
     
     @Override
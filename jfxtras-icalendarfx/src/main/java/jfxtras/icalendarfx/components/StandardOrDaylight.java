@@ -38,6 +38,7 @@ import jfxtras.icalendarfx.components.StandardOrDaylight;
 import jfxtras.icalendarfx.components.StandardTime;
 import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VRepeatableBase;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceCache;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneName;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneOffsetFrom;
@@ -267,7 +268,7 @@ public abstract class StandardOrDaylight<T extends StandardOrDaylight<T>> extend
     }
     
     // Recurrence streamer - produces recurrence set
-    private RecurrenceRuleCache streamer = new RecurrenceRuleCache(this);
+    private RecurrenceCache streamer = RecurrenceRuleCache.newCache(this);
     @Override
-    public RecurrenceRuleCache recurrenceCache() { return streamer; }
+    public RecurrenceCache recurrenceCache() { return streamer; }
 }
@@ -34,14 +34,15 @@ import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VChild;
 import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VDescribable;
 import jfxtras.icalendarfx.components.VDisplayable;
@@ -63,11 +64,11 @@ import jfxtras.icalendarfx.properties.component.descriptive.Status.StatusType;
 import jfxtras.icalendarfx.properties.component.recurrence.ExceptionDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRule;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceCache;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.relationship.Contact;
 import jfxtras.icalendarfx.properties.component.relationship.RecurrenceId;
 import jfxtras.icalendarfx.properties.component.relationship.RelatedTo;
-import jfxtras.icalendarfx.properties.component.relationship.UniqueIdentifier;
 import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
@@ -407,6 +408,7 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
     {
     	orderChild(this.recurrenceId, recurrenceId);
     	this.recurrenceId = recurrenceId;
+    	refreshUidIndex();
 	}
     public void setRecurrenceId(String recurrenceId) { setRecurrenceId(RecurrenceId.parse(recurrenceId)); }
     public void setRecurrenceId(Temporal temporal)
@@ -418,7 +420,7 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
                 setRecurrenceId(new RecurrenceId(temporal));
             } else
             {
-                getRecurrenceId().setValue(temporal);
+                getRecurrenceId().setValue(temporal); // re-indexed by childChanged
             }
         } else
         {
@@ -680,39 +682,15 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
         // get stream with recurrence rule (RRULE) and recurrence date (RDATE)
         Stream<Temporal> inStream = VRepeatable.super.streamRecurrences(start);
 
-        // assign temporal comparator to match start type
-        final Comparator<Temporal> temporalComparator = DateTimeUtilities.getTemporalComparator(start);
-        
-        // Handle Recurrence IDs
-        final Stream<Temporal> stream2;
-        List<VDisplayable<?>> children = recurrenceChildren();
-        if (children != null)
-        {
-            // If present, remove recurrence ID original values
-            List<Temporal> recurrenceIDTemporals = recurrenceChildren()
-                    .stream()
-                    .map(c -> c.getRecurrenceId().getValue())
-                    .collect(Collectors.toList());
-            stream2 = inStream.filter(t -> ! recurrenceIDTemporals.contains(t));
-        } else
-        {
-            stream2 = inStream;
-        }
-        
-        // If present, remove exceptions
+        // If present, remove recurrence ID original values and exceptions
         final Stream<Temporal> stream3;
-        if (getExceptionDates() != null)
+        Set<Temporal> exclusions = recurrenceExclusions();
+        if (exclusions.isEmpty())
         {
-            List<Temporal> exceptions = getExceptionDates()
-                    .stream()
-                    .flatMap(r -> r.getValue().stream())
-                    .map(v -> v)
-                    .sorted(temporalComparator)
-                    .collect(Collectors.toList());
-            stream3 = stream2.filter(d -> ! exceptions.contains(d));
+            stream3 = inStream;
         } else
         {
-            stream3 = stream2;
+            stream3 = inStream.filter(t -> ! exclusions.contains(t));
         }
         
         if (getRecurrenceRule() == null)
@@ -732,9 +710,82 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
      *  RECURRENCE STREAMER
      *  produces recurrence set
      */
-    private RecurrenceRuleCache recurrenceCache = new RecurrenceRuleCache(this);
+    private RecurrenceCache recurrenceCache = RecurrenceRuleCache.newCache(this);
     @Override
-    public RecurrenceRuleCache recurrenceCache() { return recurrenceCache; }
+    public RecurrenceCache recurrenceCache() { return recurrenceCache; }
+
+    /*
+     * RECURRENCE EXCLUSIONS - EXDATE values and RECURRENCE-ID values of children, removed from the recurrence set.
+     * Kept in a hash set that is rebuilt only when the EXDATEs or the children change.
+     */
+    private volatile RecurrenceExclusions recurrenceExclusions;
+    private static class RecurrenceExclusions
+    {
+        final long childrenVersion;
+        final long[] exceptionDatesKey;
+        final Set<Temporal> temporals;
+
+        RecurrenceExclusions(long childrenVersion, long[] exceptionDatesKey, Set<Temporal> temporals)
+        {
+            this.childrenVersion = childrenVersion;
+            this.exceptionDatesKey = exceptionDatesKey;
+            this.temporals = temporals;
+        }
+    }
+
+    /* Returns the EXDATE values and the RECURRENCE-ID values of the recurrence children */
+    private Set<Temporal> recurrenceExclusions()
+    {
+        boolean hasChildren = (getParent() instanceof VCalendar) && (getRecurrenceId() == null);
+        long childrenVersion = hasChildren ? ((VCalendar) getParent()).uidIndex().version(this) : -1;
+        long[] exceptionDatesKey = exceptionDatesKey();
+        RecurrenceExclusions cached = recurrenceExclusions;
+        if ((cached != null) && (cached.childrenVersion == childrenVersion) &&
+                Arrays.equals(cached.exceptionDatesKey, exceptionDatesKey))
+        {
+            return cached.temporals;
+        }
+        Set<Temporal> temporals = new HashSet<>();
+        if (hasChildren)
+        {
+            recurrenceChildren().forEach(c -> temporals.add(c.getRecurrenceId().getValue()));
+        }
+        if (getExceptionDates() != null)
+        {
+            getExceptionDates().forEach(e -> temporals.addAll(e.getValue()));
+        }
+        recurrenceExclusions = new RecurrenceExclusions(childrenVersion, exceptionDatesKey, temporals);
+        return temporals;
+    }
+
+    /*
+     * Modification stamp and value size of the EXDATE properties - changes when EXDATEs are added, removed or set,
+     * when a value set edited in place is marked dirty, and when a value set grows or shrinks in place
+     */
+    private long[] exceptionDatesKey()
+    {
+        List<ExceptionDates> exceptionDates = getExceptionDates();
+        if (exceptionDates == null) return new long[0];
+        long[] key = new long[2*exceptionDates.size()];
+        for (int i=0; i<exceptionDates.size(); i++)
+        {
+            Set<Temporal> value = exceptionDates.get(i).getValue();
+            key[2*i] = exceptionDates.get(i).getModificationStamp();
+            key[2*i+1] = (value == null) ? 0 : value.size();
+        }
+        return key;
+    }
+
+    /* Re-index when the RECURRENCE-ID value is set in place, so the parent's exclusions are rebuilt */
+    @Override
+    protected void childChanged(VChild child)
+    {
+        super.childChanged(child);
+        if (child == getRecurrenceId())
+        {
+            refreshUidIndex();
+        }
+    }
 
     /*
      * RECURRENCE CHILDREN - (RECURRENCE-IDs AND MATCHING UID)
@@ -743,14 +794,7 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
     {
     	if ((getParent() != null) && (getRecurrenceId() == null))
     	{
-    		UniqueIdentifier myUid = getUniqueIdentifier();
-    		return calendarList()
-    			.stream()
-    			.map(c -> (VDisplayable<?>) c)
-    			.filter(c -> ! (c == this))
-    			.filter(c -> c.getUniqueIdentifier().equals(myUid))
-				.filter(c -> c.getRecurrenceId() != null)
-				.collect(Collectors.toList());
+    		return ((VCalendar) getParent()).uidIndex().recurrenceChildren(this);
     	} else
     	{
     		return Collections.emptyList();
@@ -764,16 +808,7 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
     {
     	if (getParent() != null && (getRecurrenceId() != null))
     	{
-    		UniqueIdentifier myUid = getUniqueIdentifier();
-    		@SuppressWarnings("rawtypes")
-			Optional<VDisplayable> recurrenceParent = calendarList()
-    			.stream()
-    			.map(c -> (VDisplayable) c)
-    			.filter(c -> ! (c == this))
-    			.filter(c -> c.getUniqueIdentifier().equals(myUid))
-				.filter(c -> c.getRecurrenceId() == null)
-				.findAny();
-    		return (recurrenceParent.isPresent()) ? recurrenceParent.get() : null;
+    		return ((VCalendar) getParent()).uidIndex().recurrenceParent(this);
     	} else
     	{
     		return null;
@@ -790,19 +825,13 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
             VCalendar vCalendar = (VCalendar) getParent();
             if (vCalendar != null)
             {
-                final UniqueIdentifier uid = getUniqueIdentifier();
-                return calendarList()
+                return vCalendar.uidIndex().recurrenceChildren(this)
                         .stream()
-                        .map(v -> (VDisplayable<?>) v)
-                        .filter(v -> v.getUniqueIdentifier().equals(uid))
-                        .filter(v -> v.getRecurrenceId() != null)
                         .filter(v -> 
                         {
                             Temporal myRecurrenceID = v.getRecurrenceId().getValue();
-                            Temporal cacheStart = recurrenceCache().getClosestStart(myRecurrenceID);
                             Temporal nextRecurrenceDateTime = getRecurrenceRule().getValue()
-                                    .streamRecurrences(cacheStart)
-                                    .filter(t -> ! DateTimeUtilities.isBefore(t, myRecurrenceID))
+                                    .streamRecurrences(getDateTimeStart().getValue(), myRecurrenceID)
                                     .findFirst()
                                     .orElseGet(() -> null);
                             return ! Objects.equals(nextRecurrenceDateTime, myRecurrenceID);
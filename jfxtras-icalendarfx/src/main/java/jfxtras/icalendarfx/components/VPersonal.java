@@ -34,6 +34,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VChild;
 import jfxtras.icalendarfx.components.VAttendee;
 import jfxtras.icalendarfx.components.VFreeBusy;
 import jfxtras.icalendarfx.components.VPersonal;
@@ -211,6 +213,7 @@ public abstract class VPersonal<T> extends VPrimary<T> implements VAttendee<T>
     {
     	orderChild(this.uniqueIdentifier, uniqueIdentifier);
     	this.uniqueIdentifier = uniqueIdentifier;
+    	refreshUidIndex();
 	}
     public void setUniqueIdentifier(String uniqueIdentifier) { setUniqueIdentifier(UniqueIdentifier.parse(uniqueIdentifier)); }
     /** Set uniqueIdentifier by calling uidGeneratorCallback */
@@ -225,6 +228,25 @@ public abstract class VPersonal<T> extends VPrimary<T> implements VAttendee<T>
         setUniqueIdentifier(uniqueIdentifier);
         return (T) this;
     }
+    /** Re-index this component in its calendar's {@link VCalendar#uidIndex()} after its UID or RECURRENCE-ID changed */
+    protected void refreshUidIndex()
+    {
+    	if (getParent() instanceof VCalendar)
+    	{
+    		((VCalendar) getParent()).uidIndex().refresh(this);
+    	}
+    }
+
+    /* Re-index when the UID value is set in place */
+    @Override
+    protected void childChanged(VChild child)
+    {
+        super.childChanged(child);
+        if (child == getUniqueIdentifier())
+        {
+            refreshUidIndex();
+        }
+    }
     /** Assign UID by using UID generator callback */
     public T withUniqueIdentifier()
     {
@@ -46,9 +46,9 @@ import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VJournal;
 import jfxtras.icalendarfx.components.VTodo;
 import jfxtras.icalendarfx.properties.component.recurrence.PropertyBaseRecurrence;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceCache;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRule;
-import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
@@ -245,7 +245,7 @@ public interface VRepeatable<T> extends VComponent
     /**
      * Handles caching of recurrence start Temporal values.
      */
-    RecurrenceRuleCache recurrenceCache();
+    RecurrenceCache recurrenceCache();
 
     /**
      * Produces a stream of dates or date-times bounded by the start and end parameters.  See {@link #streamRecurrences(Temporal)}
@@ -287,14 +287,8 @@ public interface VRepeatable<T> extends VComponent
             stream1 = Arrays.asList(getDateTimeStart().getValue()).stream();
         } else
         {
-        	if (getRecurrenceRule().getValue().getCount() == null)
-        	{
-	            Temporal cacheStart = recurrenceCache().getClosestStart(start);
-	            stream1 = getRecurrenceRule().getValue().streamRecurrences(cacheStart);
-        	} else
-        	{ // if RRULE has COUNT must start at DTSTART
-        		stream1 = getRecurrenceRule().getValue().streamRecurrences(getDateTimeStart().getValue());
-        	}
+        	// seek from DTSTART - also keeps the COUNT of a RRULE correct
+            stream1 = getRecurrenceRule().getValue().streamRecurrences(getDateTimeStart().getValue(), start);
         }
         
         // assign temporal comparator to match start type
@@ -331,16 +325,7 @@ public interface VRepeatable<T> extends VComponent
      */
     default Temporal previousStreamValue(Temporal value)
     {
-        Temporal cacheStart = recurrenceCache().getClosestStart(value);
-        Iterator<Temporal> i = streamRecurrences(cacheStart).iterator();
-        Temporal lastT = null;
-        while (i.hasNext())
-        {
-            Temporal t = i.next();
-            if (! DateTimeUtilities.isBefore(t, value)) break;
-            lastT = t;
-        }
-        return lastT;
+        return recurrenceCache().previousValue(value);
     }
     
     /** Returns true if temporal is in vComponent's stream of start date-time
@@ -42,6 +42,7 @@ import jfxtras.icalendarfx.components.VRepeatableBase;
 import jfxtras.icalendarfx.properties.component.recurrence.PropertyBaseRecurrence;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRule;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceCache;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
@@ -240,8 +241,8 @@ public abstract class VRepeatableBase<T> extends VPrimary<T> implements VRepeata
      *  RECURRENCE STREAMER
      *  produces recurrence set
      */
-    private RecurrenceRuleCache streamer = new RecurrenceRuleCache(this);
+    private RecurrenceCache streamer = RecurrenceRuleCache.newCache(this);
     @Override
-    public RecurrenceRuleCache recurrenceCache() { return streamer; }
+    public RecurrenceCache recurrenceCache() { return streamer; }
     
 }
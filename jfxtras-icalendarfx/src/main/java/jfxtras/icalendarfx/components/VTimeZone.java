@@ -28,11 +28,33 @@ package jfxtras.icalendarfx.components;
 
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneOffsetTransitionRule.TimeDefinition;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesProvider;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.VChild;
@@ -45,6 +67,13 @@ import jfxtras.icalendarfx.components.VComponentElement;
 import jfxtras.icalendarfx.components.VLastModified;
 import jfxtras.icalendarfx.components.VTimeZone;
 import jfxtras.icalendarfx.properties.component.change.LastModified;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay.ByDayPair;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonthDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneIdentifier;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneURL;
 
@@ -541,6 +570,398 @@ public class VTimeZone extends VCommon<VTimeZone> implements VLastModified<VTime
 		return null;
 	}
     
+    /*
+     * ZONE RULES
+     */
+    
+    /* Compiled rules keyed by TZID and LAST-MODIFIED, limited in size because the keys come from parsed content */
+    private static final Map<String, ZoneRules> ZONE_RULES_CACHE = new ConcurrentHashMap<>();
+    private static final Map<ZoneRules, ZoneId> ZONE_ID_CACHE = new ConcurrentHashMap<>();
+    private static final int CACHE_SIZE = 1000;
+    /* Open-ended observances that can't be made into a ZoneOffsetTransitionRule are expanded through this year */
+    private static final int LAST_EXPANDED_YEAR = 2100;
+    /* Prefix of the zone IDs of compiled rules that match no region */
+    private static final String COMPILED_ZONE_ID_PREFIX = "VTIMEZONE/";
+    /* Zones of compiled rules registered with java.time, limited in number because registrations can't be undone */
+    private static final Map<ZoneRules, ZoneId> COMPILED_ZONE_IDS = new HashMap<>();
+    private static int maxCompiledZones = 100;
+    
+    /** Maximum number of compiled zones {@link #toZoneId()} registers with java.time */
+    public static synchronized int getMaxCompiledZones() { return maxCompiledZones; }
+    /**
+     * Sets the maximum number of compiled zones {@link #toZoneId()} registers with java.time.  Zones already
+     * registered stay registered.
+     */
+    public static synchronized void setMaxCompiledZones(int maxCompiledZones) { VTimeZone.maxCompiledZones = maxCompiledZones; }
+    
+    /* Rules compiled from this component, valid while its modification stamp is unchanged */
+    private volatile CompiledZoneRules compiledZoneRules;
+    
+    private static class CompiledZoneRules
+    {
+        final long modificationStamp;
+        final ZoneRules zoneRules;
+        
+        CompiledZoneRules(long modificationStamp, ZoneRules zoneRules)
+        {
+            this.modificationStamp = modificationStamp;
+            this.zoneRules = zoneRules;
+        }
+    }
+    
+    /**
+     * Returns the time zone rules defined by the STANDARD and DAYLIGHT subcomponents.
+     * The onsets are expanded once into a transition table.  Open-ended yearly observances
+     * become the last rules of the table when they can be represented by a {@link ZoneOffsetTransitionRule}.
+     * The result is kept until this component or its subcomponents change, and shared by the components
+     * with the same TZID and LAST-MODIFIED.
+     * 
+     * @return  the compiled ZoneRules
+     * @throws DateTimeException if the STANDARD and DAYLIGHT subcomponents are missing or incomplete
+     */
+    public ZoneRules toZoneRules()
+    {
+        long modificationStamp = getModificationStamp();
+        CompiledZoneRules compiled = compiledZoneRules;
+        if ((compiled != null) && (compiled.modificationStamp == modificationStamp))
+        {
+            return compiled.zoneRules;
+        }
+        String key = (getDateTimeLastModified() == null) ? null :
+            String.valueOf(getTimeZoneIdentifier()) + getDateTimeLastModified();
+        ZoneRules zoneRules = (key == null) ? null : ZONE_RULES_CACHE.get(key);
+        if (zoneRules == null)
+        {
+            zoneRules = compileZoneRules();
+            if ((key != null) && (ZONE_RULES_CACHE.size() < CACHE_SIZE))
+            {
+                ZONE_RULES_CACHE.put(key, zoneRules);
+            }
+        }
+        compiledZoneRules = new CompiledZoneRules(modificationStamp, zoneRules);
+        return zoneRules;
+    }
+    
+    /**
+     * Returns the ZoneId for this time zone definition.  A TZID that is a java.time zone ID is returned directly.
+     * Otherwise, such as Outlook's "W. Europe Standard Time", the result is the region whose rules agree
+     * with {@link #toZoneRules()} from last year through next year, trying the well-known zones of
+     * {@link ZoneId#SHORT_IDS} first.
+     * If no region agrees the result is a zone with the compiled rules, whose ID starts with "VTIMEZONE/".
+     * 
+     * <p>java.time only makes zones of rules registered with {@link ZoneRulesProvider}, so such a zone is
+     * registered for the whole JVM and stays registered.  Equal rules share one registration, and at most
+     * {@link #getMaxCompiledZones()} are registered.  Beyond that the result is the {@link ZoneOffset} of the
+     * standard time now, without daylight saving time, so parsing untrusted content can't grow the registry
+     * without bound.</p>
+     * 
+     * @return  ZoneId for date-times referring to this TZID
+     * @throws DateTimeException if the rules can't be compiled
+     */
+    public ZoneId toZoneId()
+    {
+        if ((getTimeZoneIdentifier() != null) && (getTimeZoneIdentifier().getValue() != null))
+        {
+            return getTimeZoneIdentifier().getValue();
+        }
+        ZoneRules zoneRules = toZoneRules();
+        ZoneId zoneId = ZONE_ID_CACHE.get(zoneRules);
+        if (zoneId == null)
+        {
+            int year = Year.now().getValue();
+            Instant start = LocalDate.of(year - 1, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant end = LocalDate.of(year + 2, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            // try the well-known zones of ZoneId.SHORT_IDS before the rest of the regions
+            Stream<String> zoneIds = Stream.concat(
+                    ZoneId.SHORT_IDS.values().stream().filter(id -> id.contains("/")).sorted(),
+                    ZoneId.getAvailableZoneIds().stream().filter(id -> ! id.startsWith(COMPILED_ZONE_ID_PREFIX)).sorted());
+            zoneId = zoneIds
+                    .map(id -> ZoneId.of(id))
+                    .filter(z -> agree(z.getRules(), zoneRules, start, end) && agree(zoneRules, z.getRules(), start, end))
+                    .findFirst()
+                    .orElseGet(() -> compiledZoneId(getTimeZoneIdentifier(), zoneRules));
+            if (ZONE_ID_CACHE.size() < CACHE_SIZE)
+            {
+                ZONE_ID_CACHE.put(zoneRules, zoneId);
+            }
+        }
+        return zoneId;
+    }
+    
+    /*
+     * Zone with the compiled rules, such as VTIMEZONE/My_Custom_Zone/1a2b3c4d.  java.time can only make zones
+     * of registered rules, so each distinct set of rules is registered once with its own provider, up to
+     * maxCompiledZones.
+     */
+    private static synchronized ZoneId compiledZoneId(TimeZoneIdentifier timeZoneIdentifier, ZoneRules zoneRules)
+    {
+        ZoneId compiledZoneId = COMPILED_ZONE_IDS.get(zoneRules);
+        if (compiledZoneId != null)
+        {
+            return compiledZoneId;
+        }
+        if (COMPILED_ZONE_IDS.size() >= maxCompiledZones)
+        {
+            return zoneRules.getStandardOffset(Instant.now());
+        }
+        String name = ((timeZoneIdentifier == null) || (timeZoneIdentifier.getIdentifier() == null)) ? "" :
+            timeZoneIdentifier.getIdentifier();
+        String baseId = COMPILED_ZONE_ID_PREFIX + name.replaceAll("[^A-Za-z0-9~._+-]", "_") + "/" +
+                Integer.toHexString(zoneRules.hashCode());
+        String id = baseId;
+        for (int i=1; ZoneId.getAvailableZoneIds().contains(id); i++)
+        {
+            ZoneId zoneId = ZoneId.of(id);
+            if (zoneId.getRules().equals(zoneRules)) return zoneId;
+            id = baseId + "-" + i;
+        }
+        ZoneRulesProvider.registerProvider(new CompiledZoneRulesProvider(id, zoneRules));
+        compiledZoneId = ZoneId.of(id);
+        COMPILED_ZONE_IDS.put(zoneRules, compiledZoneId);
+        return compiledZoneId;
+    }
+    
+    /* Provides the rules of one compiled zone */
+    private static class CompiledZoneRulesProvider extends ZoneRulesProvider
+    {
+        private final String zoneId;
+        private final ZoneRules zoneRules;
+        
+        CompiledZoneRulesProvider(String zoneId, ZoneRules zoneRules)
+        {
+            this.zoneId = zoneId;
+            this.zoneRules = zoneRules;
+        }
+        
+        @Override
+        protected Set<String> provideZoneIds()
+        {
+            return Collections.singleton(zoneId);
+        }
+        
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching)
+        {
+            return zoneRules;
+        }
+        
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId)
+        {
+            return new TreeMap<>(Collections.singletonMap("", zoneRules));
+        }
+    }
+    
+    /* true if rules2 has the same offsets as rules1 at the start and around each transition of rules1 */
+    private static boolean agree(ZoneRules rules1, ZoneRules rules2, Instant start, Instant end)
+    {
+        if (! rules1.getOffset(start).equals(rules2.getOffset(start))) return false;
+        ZoneOffsetTransition transition = rules1.nextTransition(start);
+        while ((transition != null) && transition.getInstant().isBefore(end))
+        {
+            Instant instant = transition.getInstant();
+            if (! rules1.getOffset(instant).equals(rules2.getOffset(instant)) ||
+                    ! rules1.getOffset(instant.minusSeconds(1)).equals(rules2.getOffset(instant.minusSeconds(1))))
+            {
+                return false;
+            }
+            transition = rules1.nextTransition(instant);
+        }
+        return true;
+    }
+    
+    private ZoneRules compileZoneRules()
+    {
+        if ((getStandardOrDaylight() == null) || getStandardOrDaylight().isEmpty())
+        {
+            throw new DateTimeException("No STANDARD or DAYLIGHT subcomponents exist in " + name());
+        }
+        // Open-ended observances become last rules, expand the others and the first years of the open-ended ones
+        List<ZoneOffsetTransitionRule> lastRules = new ArrayList<>();
+        List<Onset> onsets = new ArrayList<>();
+        List<StandardOrDaylight<?>> openEndedObservances = new ArrayList<>();
+        int lastYear = Integer.MIN_VALUE;
+        boolean isAllRepresentable = true;
+        for (StandardOrDaylight<?> observance : getStandardOrDaylight())
+        {
+            if ((observance.getDateTimeStart() == null) || (observance.getTimeZoneOffsetFrom() == null) ||
+                    (observance.getTimeZoneOffsetTo() == null))
+            {
+                throw new DateTimeException(observance.name() + " in " + name() + " requires DTSTART, TZOFFSETFROM and TZOFFSETTO");
+            }
+            LocalDateTime dateTimeStart = LocalDateTime.from(observance.getDateTimeStart().getValue());
+            lastYear = Math.max(lastYear, dateTimeStart.getYear());
+            RecurrenceRuleValue rRule = (observance.getRecurrenceRule() == null) ? null : observance.getRecurrenceRule().getValue();
+            if ((rRule == null) || (rRule.getUntil() != null) || (rRule.getCount() != null))
+            {
+                observance.streamRecurrences().forEach(t -> onsets.add(new Onset(LocalDateTime.from(t), observance)));
+            } else
+            {
+                openEndedObservances.add(observance);
+                ZoneOffsetTransitionRule lastRule = transitionRule(observance, rRule, dateTimeStart);
+                if (lastRule == null)
+                {
+                    isAllRepresentable = false;
+                } else
+                {
+                    lastRules.add(lastRule);
+                }
+            }
+        }
+        lastYear = onsets.stream().mapToInt(o -> o.dateTime.getYear()).reduce(lastYear, Math::max);
+        if (! isAllRepresentable)
+        {
+            lastRules.clear();
+            lastYear = Math.max(lastYear, LAST_EXPANDED_YEAR);
+        }
+        LocalDateTime expansionEnd = LocalDateTime.of(lastYear + 1, 1, 1, 0, 0);
+        for (StandardOrDaylight<?> observance : openEndedObservances)
+        {
+            observance.streamRecurrences(observance.getDateTimeStart().getValue(), expansionEnd)
+                    .forEach(t -> onsets.add(new Onset(LocalDateTime.from(t), observance)));
+        }
+        onsets.sort(Comparator.comparing(o -> o.instant));
+        lastRules.sort(Comparator.comparing(r -> r.createTransition(2000).getInstant()));
+
+        Onset firstOnset = onsets.get(0);
+        ZoneOffset baseStandardOffset = firstOnset.standardOffset;
+        ZoneOffset baseWallOffset = firstOnset.offsetFrom;
+        ZoneOffset standardOffset = baseStandardOffset;
+        ZoneOffset wallOffset = baseWallOffset;
+        List<ZoneOffsetTransition> standardTransitions = new ArrayList<>();
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        for (Onset onset : onsets)
+        {
+            long epochSecond = onset.instant.getEpochSecond();
+            if (! onset.standardOffset.equals(standardOffset))
+            {
+                standardTransitions.add(ZoneOffsetTransition.of(LocalDateTime.ofEpochSecond(epochSecond, 0, standardOffset),
+                        standardOffset, onset.standardOffset));
+                standardOffset = onset.standardOffset;
+            }
+            if (! onset.offsetTo.equals(wallOffset))
+            {
+                transitions.add(ZoneOffsetTransition.of(LocalDateTime.ofEpochSecond(epochSecond, 0, wallOffset),
+                        wallOffset, onset.offsetTo));
+                wallOffset = onset.offsetTo;
+            }
+        }
+        return ZoneRules.of(baseStandardOffset, baseWallOffset, standardTransitions, transitions, lastRules);
+    }
+    
+    /* Onset of an observance, the local date-time is in the TZOFFSETFROM offset */
+    private static class Onset
+    {
+        final LocalDateTime dateTime;
+        final Instant instant;
+        final ZoneOffset offsetFrom;
+        final ZoneOffset offsetTo;
+        final ZoneOffset standardOffset;
+        
+        Onset(LocalDateTime dateTime, StandardOrDaylight<?> observance)
+        {
+            this.dateTime = dateTime;
+            offsetFrom = observance.getTimeZoneOffsetFrom().getValue();
+            offsetTo = observance.getTimeZoneOffsetTo().getValue();
+            standardOffset = (observance instanceof StandardTime) ? offsetTo : offsetFrom;
+            instant = dateTime.toInstant(offsetFrom);
+        }
+    }
+    
+    /*
+     * Returns the yearly rule for FREQ=YEARLY;BYMONTH=m with BYDAY=nDD, BYMONTHDAY=d, BYMONTHDAY=d,...,d+6;BYDAY=DD
+     * or no BYxxx rules, null for anything else
+     */
+    private static ZoneOffsetTransitionRule transitionRule(StandardOrDaylight<?> observance, RecurrenceRuleValue rRule,
+            LocalDateTime dateTimeStart)
+    {
+        boolean isYearly = (rRule.getFrequency() != null) && (rRule.getFrequency().getValue() == FrequencyType.YEARLY) &&
+                ((rRule.getInterval() == null) || (rRule.getInterval().getValue() == 1));
+        if (! isYearly) return null;
+        ByMonth byMonth = null;
+        ByDay byDay = null;
+        ByMonthDay byMonthDay = null;
+        if (rRule.getByRules() != null)
+        {
+            for (ByRule<?> byRule : rRule.getByRules())
+            {
+                if (byRule instanceof ByMonth)
+                {
+                    byMonth = (ByMonth) byRule;
+                } else if (byRule instanceof ByDay)
+                {
+                    byDay = (ByDay) byRule;
+                } else if (byRule instanceof ByMonthDay)
+                {
+                    byMonthDay = (ByMonthDay) byRule;
+                } else
+                {
+                    return null;
+                }
+            }
+        }
+        
+        final Month month;
+        final int dayOfMonthIndicator;
+        DayOfWeek dayOfWeek = null;
+        if (byMonth == null)
+        {
+            if ((byDay != null) || (byMonthDay != null)) return null;
+            month = dateTimeStart.getMonth();
+            dayOfMonthIndicator = dateTimeStart.getDayOfMonth();
+        } else if (byMonth.getValue().size() != 1)
+        {
+            return null;
+        } else
+        {
+            month = byMonth.getValue().get(0);
+            if (byDay != null)
+            {
+                if (byDay.getValue().size() != 1) return null;
+                ByDayPair byDayPair = byDay.getValue().get(0);
+                dayOfWeek = byDayPair.getDayOfWeek();
+                int ordinal = byDayPair.getOrdinal();
+                if (byMonthDay != null)
+                { // e.g. BYMONTHDAY=8,9,10,11,12,13,14;BYDAY=SU for the second Sunday
+                    List<Integer> days = byMonthDay.getValue().stream().sorted().collect(Collectors.toList());
+                    boolean isWeek = (ordinal == 0) && (days.size() == 7) && (days.get(0) > 0) && (days.get(6) - days.get(0) == 6);
+                    if (! isWeek) return null;
+                    dayOfMonthIndicator = days.get(0);
+                } else if ((ordinal >= 1) && (ordinal <= 4))
+                {
+                    dayOfMonthIndicator = 1 + 7*(ordinal-1);
+                } else if ((ordinal <= -1) && (ordinal >= -4))
+                {
+                    dayOfMonthIndicator = -1 + 7*(ordinal+1);
+                } else
+                {
+                    return null;
+                }
+            } else if ((byMonthDay != null) && (byMonthDay.getValue().size() == 1))
+            {
+                dayOfMonthIndicator = byMonthDay.getValue().get(0);
+            } else if (byMonthDay == null)
+            {
+                dayOfMonthIndicator = dateTimeStart.getDayOfMonth();
+            } else
+            {
+                return null;
+            }
+        }
+        
+        ZoneOffset offsetFrom = observance.getTimeZoneOffsetFrom().getValue();
+        ZoneOffset offsetTo = observance.getTimeZoneOffsetTo().getValue();
+        ZoneOffset standardOffset = (observance instanceof StandardTime) ? offsetTo : offsetFrom;
+        try
+        {
+            return ZoneOffsetTransitionRule.of(month, dayOfMonthIndicator, dayOfWeek, dateTimeStart.toLocalTime(), false,
+                    TimeDefinition.WALL, standardOffset, offsetFrom, offsetTo);
+        } catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+    
 //    @Override // include STANDARD or DAYLIGHT Subcomponents
 //    public int hashCode()
 //    {
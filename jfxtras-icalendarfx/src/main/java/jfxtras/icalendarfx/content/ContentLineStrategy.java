@@ -26,6 +26,8 @@
  */
 package jfxtras.icalendarfx.content;
 
+import java.io.IOException;
+
 import jfxtras.icalendarfx.VElement;
 
 /** Interface for delegated content line generators */
@@ -33,4 +35,10 @@ public interface ContentLineStrategy
 {
     /** Produce output for {@link VElement#toString()} */
     String execute();
+
+    /** Write content lines, unfolded, to writer.  Writes {@link #execute()} as one line by default. */
+    default void writeTo(ContentLineWriter writer) throws IOException
+    {
+        writer.writeLine(execute());
+    }
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.io.IOException;
+
+/**
+ * Writes iCalendar content lines to an {@link Appendable}.
+ * 
+ * <p>Lines are folded inline at 75 octets of UTF-8 and terminated by CRLF regardless of platform, as
+ * required by RFC 5545, 3.1 Content Lines.  A fold never splits a multi-octet character.  No content is
+ * buffered beyond what the {@link Appendable} itself buffers.</p>
+ * 
+ * @see jfxtras.icalendarfx.VParentBase#writeTo(Appendable)
+ */
+public class ContentLineWriter
+{
+    /** Maximum length of a line in octets, excluding the line break */
+    public static final int MAX_OCTETS = 75;
+    private static final String CRLF = "\r\n";
+    private static final String FOLD = CRLF + " ";
+
+    private final Appendable out;
+
+    public ContentLineWriter(Appendable out)
+    {
+        this.out = out;
+    }
+
+    /**
+     * Writes one content line, folding it as required
+     * 
+     * @param line  unfolded content line without line terminator
+     * @throws IOException
+     */
+    public void writeLine(CharSequence line) throws IOException
+    {
+        int length = line.length();
+        int octets = 0;
+        int segmentStart = 0;
+        for (int i=0; i<length; i++)
+        {
+            int n = octetCount(line.charAt(i));
+            if (octets + n > MAX_OCTETS)
+            {
+                out.append(line, segmentStart, i).append(FOLD);
+                segmentStart = i;
+                octets = 1; // leading space of the continuation line
+            }
+            octets += n;
+        }
+        out.append(line, segmentStart, length).append(CRLF);
+    }
+
+    /* UTF-8 length of a char - a surrogate pair counts four octets on its high surrogate so it's never split */
+    private static int octetCount(char c)
+    {
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        if (Character.isHighSurrogate(c)) return 4;
+        if (Character.isLowSurrogate(c)) return 0;
+        return 3;
+    }
+}
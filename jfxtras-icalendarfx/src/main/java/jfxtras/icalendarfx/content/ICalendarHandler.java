@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+/**
+ * Receives callbacks from {@link ICalendarReader} as iCalendar content is read, without
+ * building any calendar element objects.
+ *
+ * <p>All methods have empty default implementations so a handler only needs to override the
+ * callbacks it's interested in.</p>
+ *
+ * <p>For example, a handler that collects only the UIDs of VEVENTs:
+ * <pre>
+ * List&lt;String&gt; uids = new ArrayList&lt;&gt;();
+ * ICalendarReader.read(path, new ICalendarHandler()
+ * {
+ *     public boolean startComponent(String name) { return name.equals("VCALENDAR") || name.equals("VEVENT"); }
+ *     public void property(String name, String parameters, String value)
+ *     {
+ *         if (name.equals("UID")) uids.add(value);
+ *     }
+ * });
+ * </pre>
+ *
+ * @see ICalendarReader
+ */
+public interface ICalendarHandler
+{
+    /**
+     * Called when a BEGIN line is read
+     *
+     * @param name  component name, such as VCALENDAR or VEVENT
+     * @return  true to receive the content of the component, false to skip it, including all its
+     * properties and subcomponents.  When skipped, {@link #endComponent(String)} isn't called either.
+     */
+    default boolean startComponent(String name) { return true; }
+
+    /**
+     * Called for each property content line of a component that wasn't skipped
+     *
+     * @param name  property name, such as DTSTART or X-MY-PROP
+     * @param parameters  unparsed parameter text without the leading semicolon, such as TZID=Europe/London,
+     * or null if the property has no parameters
+     * @param value  unparsed property value
+     */
+    default void property(String name, String parameters, String value) { }
+
+    /**
+     * Called when the END line of a component that wasn't skipped is read
+     *
+     * @param name  component name, such as VCALENDAR or VEVENT
+     */
+    default void endComponent(String name) { }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Event-driven reader of iCalendar content.  Pushes each component boundary and property content line
+ * to an {@link ICalendarHandler} instead of building a {@link jfxtras.icalendarfx.VCalendar VCalendar}.
+ *
+ * <p>Nothing beyond the current content line is held in memory, and no parameter, property or
+ * component objects are created.  This makes it suitable for read-mostly jobs that only need a few
+ * properties from each component, such as indexing or free/busy calculation.</p>
+ *
+ * @see ICalendarHandler
+ */
+public final class ICalendarReader
+{
+    private static final String BEGIN = "BEGIN:";
+    private static final String END = "END:";
+
+    private ICalendarReader() { }
+
+    /**
+     * Reads an ics file, pushing its content to the handler
+     *
+     * @param icsFilePath  path of ics file to read
+     * @param handler  receiver of callbacks
+     * @throws IOException
+     */
+    public static void read(Path icsFilePath, ICalendarHandler handler) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(icsFilePath, StandardOpenOption.READ))
+        {
+            read(channel, handler);
+        }
+    }
+
+    /**
+     * Reads UTF-8 encoded iCalendar content from a channel, pushing it to the handler
+     *
+     * @param channel  channel to read, not closed by this method
+     * @param handler  receiver of callbacks
+     * @throws IOException
+     */
+    public static void read(ReadableByteChannel channel, ICalendarHandler handler) throws IOException
+    {
+        try
+        {
+            read(new UnfoldingChannelIterator(channel), handler);
+        } catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads unfolded iCalendar content lines, pushing them to the handler
+     *
+     * @param unfoldedLineIterator  unfolded content lines
+     * @param handler  receiver of callbacks
+     */
+    public static void read(Iterator<String> unfoldedLineIterator, ICalendarHandler handler)
+    {
+        int skipDepth = 0; // greater than zero while inside a skipped component
+        while (unfoldedLineIterator.hasNext())
+        {
+            String line = unfoldedLineIterator.next();
+            if (line.startsWith(BEGIN))
+            {
+                if (skipDepth > 0)
+                {
+                    skipDepth++;
+                } else if (! handler.startComponent(line.substring(BEGIN.length())))
+                {
+                    skipDepth = 1;
+                }
+            } else if (line.startsWith(END))
+            {
+                if (skipDepth > 0)
+                {
+                    skipDepth--;
+                } else
+                {
+                    handler.endComponent(line.substring(END.length()));
+                }
+            } else if (skipDepth == 0)
+            {
+                pushProperty(line, handler);
+            }
+        }
+    }
+
+    /* Splits a property content line into name, parameters and value slices */
+    private static void pushProperty(String line, ICalendarHandler handler)
+    {
+        int nameEnd = 0;
+        int length = line.length();
+        while ((nameEnd < length) && (line.charAt(nameEnd) != ';') && (line.charAt(nameEnd) != ':'))
+        {
+            nameEnd++;
+        }
+        if (nameEnd == length) return; // not a content line, ignore
+        String name = line.substring(0, nameEnd);
+        if (line.charAt(nameEnd) == ':')
+        {
+            handler.property(name, null, line.substring(nameEnd+1));
+            return;
+        }
+
+        // find the colon that ends the parameters - colons inside quoted parameter values don't count
+        boolean isQuoted = false;
+        int valueStart = nameEnd+1;
+        while (valueStart < length)
+        {
+            char c = line.charAt(valueStart);
+            if (c == '"')
+            {
+                isQuoted = ! isQuoted;
+            } else if ((c == ':') && ! isQuoted)
+            {
+                break;
+            }
+            valueStart++;
+        }
+        String parameters = line.substring(nameEnd+1, Math.min(valueStart, length));
+        String value = (valueStart < length) ? line.substring(valueStart+1) : "";
+        handler.property(name, parameters, value);
+    }
+}
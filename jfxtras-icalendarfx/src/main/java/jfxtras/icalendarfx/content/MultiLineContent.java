@@ -26,8 +26,13 @@
  */
 package jfxtras.icalendarfx.content;
 
+import java.io.IOException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.VParentBase;
+
 public class MultiLineContent extends ContentLineBase
 {
     final private String firstContentLine;
@@ -48,11 +53,22 @@ public class MultiLineContent extends ContentLineBase
     
     @Override
     public String execute()
+    {
+        return execute(c -> c.toString());
+    }
+    
+    /** Like {@link #execute()}, but with the cached content of children that didn't change, see {@link VParentBase#toCachedString()} */
+    public String executeCached()
+    {
+        return execute(c -> (c instanceof VParentBase) ? ((VParentBase<?>) c).toCachedString() : c.toString());
+    }
+    
+    private String execute(Function<VChild, String> childContent)
     {
         StringBuilder builder = new StringBuilder(builderSize);
         builder.append(firstContentLine + System.lineSeparator());
         String content = orderer.childrenUnmodifiable().stream()
-                .map(c -> c.toString())
+                .map(childContent)
                 .collect(Collectors.joining(System.lineSeparator()));
         if (! content.isEmpty())
         {
@@ -61,4 +77,22 @@ public class MultiLineContent extends ContentLineBase
         builder.append(lastContentLine);
         return builder.toString();
     }
+
+    /** Streams the lines of each child directly to writer, without building intermediate Strings */
+    @Override
+    public void writeTo(ContentLineWriter writer) throws IOException
+    {
+        writer.writeLine(firstContentLine);
+        for (VChild child : orderer.childrenUnmodifiable())
+        {
+            if (child instanceof VParentBase)
+            {
+                ((VParentBase<?>) child).writeTo(writer);
+            } else
+            {
+                writer.writeLine(child.toString());
+            }
+        }
+        writer.writeLine(lastContentLine);
+    }
 }
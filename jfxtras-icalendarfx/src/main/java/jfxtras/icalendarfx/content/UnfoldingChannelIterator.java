@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A streaming {@code Iterator<String>} that reads iCalendar content directly from a
+ * {@link ReadableByteChannel} (or an already filled {@link ByteBuffer}, such as a memory-mapped file)
+ * and returns unfolded content lines according to the RFC 5545 iCalendar standard.
+ *
+ * <p>Line breaks are detected at the byte level, so both CRLF and LF line endings are accepted
+ * regardless of platform.  Unfolding is done on the raw octets before decoding, which handles
+ * folds that split a multi-byte UTF-8 character.  Only one content line is held in memory at
+ * a time, so memory use is independent of the size of the input.</p>
+ *
+ * <p>Empty lines are skipped.</p>
+ *
+ * @see UnfoldingStringIterator
+ */
+public class UnfoldingChannelIterator implements Iterator<String>, Closeable
+{
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    /** The channel being read, null if reading from a pre-filled buffer */
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final Charset charset;
+
+    /* Bytes of the content line currently being unfolded */
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    private String nextLine;
+    private boolean isEndOfInput;
+
+    /*
+     * CONSTRUCTORS
+     */
+    /**
+     * Creates an iterator reading UTF-8 encoded content from a channel
+     *
+     * @param channel  channel to read, not null
+     */
+    public UnfoldingChannelIterator(ReadableByteChannel channel)
+    {
+        this(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an iterator reading content from a channel
+     *
+     * @param channel  channel to read, not null
+     * @param charset  character encoding of the content
+     * @param bufferSize  size of the read buffer in bytes
+     */
+    public UnfoldingChannelIterator(ReadableByteChannel channel, Charset charset, int bufferSize)
+    {
+        if (channel == null) throw new NullPointerException("Channel must not be null");
+        this.channel = channel;
+        this.charset = charset;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.flip(); // start empty
+    }
+
+    /**
+     * Creates an iterator reading UTF-8 encoded content from a filled buffer, such as a
+     * {@link java.nio.MappedByteBuffer}.  Content is read from the buffer's position to its limit.
+     *
+     * @param content  buffer to read, not null
+     */
+    public UnfoldingChannelIterator(ByteBuffer content)
+    {
+        if (content == null) throw new NullPointerException("Buffer must not be null");
+        this.channel = null;
+        this.charset = StandardCharsets.UTF_8;
+        buffer = content;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (nextLine == null)
+        {
+            nextLine = readUnfoldedLine();
+        }
+        return nextLine != null;
+    }
+
+    @Override
+    public String next()
+    {
+        if (! hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        String result = nextLine;
+        nextLine = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (channel != null)
+        {
+            channel.close();
+        }
+    }
+
+    /* Returns the next non-empty unfolded content line, or null at end of input */
+    private String readUnfoldedLine()
+    {
+        while (true)
+        {
+            lineLength = 0;
+            boolean isAnyByteRead = false;
+            int b;
+            while ((b = read()) != -1)
+            {
+                isAnyByteRead = true;
+                if (b == LF)
+                {
+                    int next = peek();
+                    boolean isContinuationLine = (next == ' ') || (next == '\t');
+                    if (isContinuationLine)
+                    {
+                        stripCarriageReturn();
+                        read(); // discard leading whitespace of the folded line
+                        continue;
+                    }
+                    break;
+                }
+                append((byte) b);
+            }
+            if (! isAnyByteRead)
+            {
+                return null;
+            }
+            stripCarriageReturn();
+            if (lineLength > 0)
+            {
+                return new String(line, 0, lineLength, charset);
+            }
+        }
+    }
+
+    private void stripCarriageReturn()
+    {
+        if ((lineLength > 0) && (line[lineLength-1] == CR))
+        {
+            lineLength--;
+        }
+    }
+
+    private void append(byte b)
+    {
+        if (lineLength == line.length)
+        {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private int read()
+    {
+        if (! fill()) return -1;
+        return buffer.get() & 0xFF;
+    }
+
+    private int peek()
+    {
+        if (! fill()) return -1;
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /* Ensures at least one byte is available in the buffer, returns false at end of input */
+    private boolean fill()
+    {
+        if (buffer.hasRemaining()) return true;
+        if ((channel == null) || isEndOfInput) return false;
+        try
+        {
+            buffer.clear();
+            int count = 0;
+            while (count == 0)
+            {
+                count = channel.read(buffer);
+            }
+            buffer.flip();
+            if (count < 0)
+            {
+                isEndOfInput = true;
+                return false;
+            }
+            return true;
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -172,10 +172,9 @@ public class ProcessCancel implements Processable
                 VDisplayable<?> vDisplayable = ((VDisplayable<?>) c);
                 int newSequence = (vDisplayable.getSequence() == null) ? 0 : vDisplayable.getSequence().getValue();
                 UniqueIdentifier uid = vDisplayable.getUniqueIdentifier();
-                List<VDisplayable<?>> relatedVComponents = mainVCalendar.getVComponents(vDisplayable)
+                List<VDisplayable<?>> relatedVComponents = mainVCalendar.uidIndex().related(vDisplayable)
                 		.stream()
                 		.map(v -> (VDisplayable<?>) v)
-                		.filter(v -> v.getUniqueIdentifier().equals(uid))
                 		.collect(Collectors.toList());
                 RecurrenceId recurrenceID = vDisplayable.getRecurrenceId();
 
@@ -188,15 +187,11 @@ public class ProcessCancel implements Processable
                         log.add("SUCCESS: canceled " + vDisplayable.getClass().getSimpleName() + " with UID:" + vDisplayable.getUniqueIdentifier().getValue());
                     } else
                     {
-                        VDisplayable<?> matchingVComponent = relatedVComponents
-                                .stream()
-                                .filter(v -> {
-                                    return Objects.equals(recurrenceID, v.getRecurrenceId());
-//                                    Temporal mRecurrenceID = (v.getRecurrenceId() != null) ? v.getRecurrenceId().getValue() : null;
-//                                    return Objects.equals(recurrenceID, mRecurrenceID);
-                                })
-                                .findAny()
-                                .orElseGet(() -> null);
+                        VDisplayable<?> matchingVComponent = mainVCalendar.uidIndex().recurrenceChild(vDisplayable, recurrenceID.getValue());
+                        if ((matchingVComponent != null) && ! Objects.equals(recurrenceID, matchingVComponent.getRecurrenceId()))
+                        {
+                            matchingVComponent = null; // same value, but different RECURRENCE-ID parameters
+                        }
 
                         boolean isMatchFound = matchingVComponent != null;
                         if (isMatchFound)
@@ -204,8 +199,7 @@ public class ProcessCancel implements Processable
                             int oldSequence = (matchingVComponent.getSequence() == null) ? 0 : matchingVComponent.getSequence().getValue();
                             if (newSequence >= oldSequence)
                             {
-                                List<? extends VComponent> myVComponents = vDisplayable.calendarList();
-                                myVComponents.remove(matchingVComponent);
+                                mainVCalendar.removeChild(matchingVComponent);
                                 log.add("SUCCESS: canceled " + c.getClass().getSimpleName() + " with UID:" + vDisplayable.getUniqueIdentifier().getValue());
                             } else
                             {
@@ -245,6 +239,7 @@ public class ProcessCancel implements Processable
                                         } else
                                         {
                                             parentVComponent.getExceptionDates().get(0).getValue().add(recurrenceID.getValue());
+                                            parentVComponent.getExceptionDates().get(0).markDirty();
                                             log.add("SUCCESS: canceled " + recurrenceID.getValue() + " for "+ parentVComponent.getClass().getSimpleName() + " with UID:" + vDisplayable.getUniqueIdentifier().getValue());
 //                                            parentVComponent.getExceptionDates().add(new ExceptionDates(recurrenceID.getValue()));
                                         }
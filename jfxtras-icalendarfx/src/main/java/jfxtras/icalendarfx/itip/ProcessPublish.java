@@ -158,11 +158,9 @@ public class ProcessPublish implements Processable
                 	relatedVComponents = null;
                 } else
                 {
-	                relatedVComponents = mainVCalendar.getVComponents(vDisplayable)
+	                relatedVComponents = mainVCalendar.uidIndex().related(vDisplayable)
 	                	.stream()
-	                	.filter(v -> v instanceof VDisplayable)
 	            		.map(v -> (VDisplayable<?>) v)
-	            		.filter(v -> v.getUniqueIdentifier().equals(uid))
 	            		.collect(Collectors.toList());
                 }
                 final Temporal recurrenceID = (vDisplayable.getRecurrenceId() != null) ? vDisplayable.getRecurrenceId().getValue() : null;
@@ -205,7 +203,7 @@ public class ProcessPublish implements Processable
                 List<VDisplayable<?>> orphanedChildren = vDisplayable.orphanedRecurrenceChildren();
                 if (! orphanedChildren.isEmpty())
                 {
-                    vDisplayable.calendarList().removeAll(orphanedChildren);
+                    orphanedChildren.forEach(v -> mainVCalendar.removeChild(v));
                 }
             } else if (c instanceof VTimeZone)
             {
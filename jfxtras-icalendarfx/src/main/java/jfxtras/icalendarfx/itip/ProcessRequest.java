@@ -187,10 +187,7 @@ public class ProcessRequest extends ProcessPublish
             {
                 throw new IllegalArgumentException("Can't process REQUEST, VComponent has null UID");
             }
-            boolean isUIDPresent = mainVCalendar.getVComponents(myComponent)
-	    		.stream()
-	    		.map(v -> (VPersonal<?>) v)
-	    		.anyMatch(v -> v.getUniqueIdentifier().equals(uid));
+            boolean isUIDPresent = ! mainVCalendar.uidIndex().related(myComponent).isEmpty();
             if (! isUIDPresent)
             {
                 throw new IllegalArgumentException("Can't process REQUEST, VComponent UID is not present in main VCalendar");
@@ -27,9 +27,11 @@
 package jfxtras.icalendarfx.parameters;
 
 import java.time.ZoneId;
+import java.util.List;
 
 import jfxtras.icalendarfx.parameters.TimeZoneIdentifierParameter;
 import jfxtras.icalendarfx.parameters.VParameterBase;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.StringConverter;
 
 /**
@@ -59,10 +61,36 @@ public class TimeZoneIdentifierParameter extends VParameterBase<TimeZoneIdentifi
         @Override
         public ZoneId fromString(String string)
         {
-            return ZoneId.of(string);
+            return DateTimeUtilities.zoneIdFromString(string);
         }
     };
     
+    /* TZID text when it isn't the ID of the value, such as a TZID defined by an inline VTIMEZONE */
+    private String identifier;
+    
+    @Override
+    public void setValue(ZoneId value)
+    {
+        identifier = null;
+        super.setValue(value);
+    }
+    
+    @Override
+    protected List<Message> parseContent(String content)
+    {
+        List<Message> messages = super.parseContent(content);
+        String valueString = extractValue(content);
+        identifier = ((getValue() == null) || getValue().getId().equals(valueString)) ? null : valueString;
+        return messages;
+    }
+    
+    // write the TZID as parsed, the value may be a region resolved from an inline VTIMEZONE
+    @Override
+    String valueAsString()
+    {
+        return (identifier == null) ? super.valueAsString() : identifier;
+    }
+    
     public TimeZoneIdentifierParameter()
     {
         super(CONVERTER);
@@ -76,6 +104,7 @@ public class TimeZoneIdentifierParameter extends VParameterBase<TimeZoneIdentifi
     public TimeZoneIdentifierParameter(TimeZoneIdentifierParameter source)
     {
         super(source, CONVERTER);
+        identifier = source.identifier;
     }
     
     public static TimeZoneIdentifierParameter parse(String content)
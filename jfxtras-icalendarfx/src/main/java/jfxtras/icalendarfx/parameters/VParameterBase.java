@@ -32,9 +32,11 @@ import java.util.List;
 
 import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.parameters.VParameter;
 import jfxtras.icalendarfx.parameters.VParameterBase;
 import jfxtras.icalendarfx.parameters.VParameterElement;
+import jfxtras.icalendarfx.utilities.InternPool;
 import jfxtras.icalendarfx.utilities.StringConverter;
 
 /**
@@ -67,6 +69,10 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     public void setValue(T value)
     {
         this.value = value;
+        if (getParent() instanceof VParentBase)
+        {
+            ((VParentBase<?>) getParent()).markDirty();
+        }
     }
     public void setValue(CharSequence value)
     {
@@ -95,7 +101,8 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     {
         String valueString = extractValue(content);
         T value = getConverter().fromString(valueString);
-        setValue(value);
+        InternPool internPool = InternPool.parsingPool();
+        setValue((internPool == null) ? value : internPool.intern(value));
         return Collections.EMPTY_LIST;
     }
     
@@ -155,7 +162,7 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     VParameterBase(StringConverter<T> stringConverter)
     {
     	elementType = VParameterElement.enumFromClass(getClass());
-        this.converter = elementType.getConverter();
+        this.converter = elementType.converter();
     }
 
     VParameterBase(T value, StringConverter<T> stringConverter)
@@ -64,6 +64,7 @@ import jfxtras.icalendarfx.parameters.Range.RangeType;
 import jfxtras.icalendarfx.parameters.Relationship.RelationshipType;
 import jfxtras.icalendarfx.properties.VProperty;
 import jfxtras.icalendarfx.properties.ValueType;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.StringConverter;
 import jfxtras.icalendarfx.utilities.StringConverters;
 
@@ -345,7 +346,7 @@ public enum VParameterElement
                 @Override
                 public T fromString(String string)
                 {
-                    return (T) ZoneId.of(string);
+                    return (T) DateTimeUtilities.zoneIdFromString(string);
                 }
             };
         }
@@ -429,6 +430,20 @@ public enum VParameterElement
 	public Class<? extends VParameter<?>> elementClass() { return myClass; }
 
     @Override  public String toString() { return name; }
+    
+    // converters are stateless, so parameters share one per element
+    private StringConverter<?> converter;
+    <T> StringConverter<T> converter()
+    {
+        if (converter == null)
+        {
+            converter = getConverter();
+        }
+        @SuppressWarnings("unchecked") // T is the value type of this element's parameter class, as in getConverter
+        StringConverter<T> typedConverter = (StringConverter<T>) converter;
+        return typedConverter;
+    }
+    
     VParameterElement(String name, Class<? extends VParameter<?>> myClass)
     {
         this.name = name;
@@ -26,6 +26,7 @@
  */
 package jfxtras.icalendarfx.properties;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.time.DateTimeException;
 import java.util.ArrayList;
@@ -37,6 +38,7 @@ import java.util.stream.Collectors;
 import jfxtras.icalendarfx.VElement;
 import jfxtras.icalendarfx.VParent;
 import jfxtras.icalendarfx.VParentBase;
+import jfxtras.icalendarfx.content.ContentLineWriter;
 import jfxtras.icalendarfx.content.SingleLineContent;
 import jfxtras.icalendarfx.parameters.NonStandardParameter;
 import jfxtras.icalendarfx.parameters.VParameter;
@@ -47,6 +49,7 @@ import jfxtras.icalendarfx.properties.calendar.Version;
 import jfxtras.icalendarfx.properties.component.misc.NonStandardProperty;
 import jfxtras.icalendarfx.properties.component.relationship.UniqueIdentifier;
 import jfxtras.icalendarfx.utilities.ICalendarUtilities;
+import jfxtras.icalendarfx.utilities.InternPool;
 import jfxtras.icalendarfx.utilities.StringConverter;
 
 /**
@@ -96,6 +99,7 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
     public void setValue(T value)
     {
         this.value = value;
+        markDirty();
     }
     public U withValue(T value)
     {
@@ -368,7 +372,11 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
         return converter;
     }
     private StringConverter<T> converter;
-    protected void setConverter(StringConverter<T> converter) { this.converter = converter; }
+    protected void setConverter(StringConverter<T> converter)
+    {
+        this.converter = converter;
+        markDirty();
+    }
     private boolean isCustomConverter()
     {
         return converter != null;
@@ -474,17 +482,19 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
     		if (content != null)
     		{
 	            try {
-	            	actualValueContent = content;
+	            	InternPool internPool = InternPool.parsingPool();
+	            	actualValueContent = (internPool == null) ? content : internPool.intern(content);
 	            	T value = getConverter().fromString(modifiedValue());
+	            	if (internPool != null) value = internPool.intern(value);
 	                if (value == null)
 	                {
-	                    setUnknownValue(content);
+	                    setUnknownValue(actualValueContent);
 	                } else
 	                {
 	                    setValue(value);
 	                    if (value.toString() == "UNKNOWN") // enum name indicating unknown value
 	                    {
-	                        setUnknownValue(content);
+	                        setUnknownValue(actualValueContent);
 	                    }
 	                }
 	            } catch (IllegalArgumentException | DateTimeException e)
@@ -546,10 +556,22 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
     @Override
     public String toString()
     {
-        StringBuilder builder = new StringBuilder(super.toString());
-        builder.append(":" + valueContent());
         // return folded line
-        return ICalendarUtilities.foldLine(builder).toString();
+        return ICalendarUtilities.foldLine(unfoldedContentLine()).toString();
+    }
+
+    @Override
+    public void writeTo(ContentLineWriter writer) throws IOException
+    {
+        writer.writeLine(unfoldedContentLine());
+    }
+
+    /* Property name, parameters and value */
+    private StringBuilder unfoldedContentLine()
+    {
+        StringBuilder builder = new StringBuilder(super.toString());
+        builder.append(':').append(valueContent());
+        return builder;
     }
     
     @Override // Note: can't check equality of parents - causes stack overflow
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.properties.component.recurrence;
+
+import java.time.temporal.Temporal;
+import java.util.stream.Stream;
+
+import jfxtras.icalendarfx.components.VRepeatable;
+
+/**
+ * Cache of recurrence start date/times of one {@link VRepeatable} component
+ * 
+ * Recurrences streamed through {@link #makeCache(Stream)} are remembered as checkpoints.  A checkpoint
+ * close to a target date/time is a cheaper starting point than DTSTART for finding the recurrences
+ * around the target.
+ * 
+ * The default implementation is {@link RecurrenceRuleCache}.  Another implementation can be plugged in
+ * with {@link RecurrenceRuleCache#setFactory(java.util.function.Function)}.  Implementations must be safe
+ * to use from multiple threads, and must discard their content when DTSTART, RRULE or RDATE of the
+ * component change.
+ * 
+ * @see VRepeatable#recurrenceCache()
+ */
+public interface RecurrenceCache
+{
+    /**
+     * Returns the latest cached recurrence on or before targetStart.  If there isn't one, DTSTART is
+     * returned.  Returns null if the component has no recurrence rule.
+     * 
+     * @param targetStart - target date/time
+     * @return closest recurrence, without going over
+     */
+    Temporal getClosestStart(Temporal targetStart);
+
+    /**
+     * Returns the recurrence of the component right before value, null if there isn't one
+     * 
+     * @param value - date/time to find previous recurrence of
+     * @return previous recurrence
+     */
+    Temporal previousValue(Temporal value);
+
+    /**
+     * Returns a stream of the same recurrences as inStream that records checkpoints as it's consumed
+     * 
+     * @param inStream - recurrences of the component, in order
+     * @return stream of recurrences
+     */
+    Stream<Temporal> makeCache(Stream<Temporal> inStream);
+
+    /** Discards all cached recurrences */
+    void invalidate();
+
+    /** Number of {@link #getClosestStart(Temporal)} and {@link #previousValue(Temporal)} calls that started from a cached recurrence */
+    long getHitCount();
+
+    /** Number of {@link #getClosestStart(Temporal)} and {@link #previousValue(Temporal)} calls that started from DTSTART */
+    long getMissCount();
+}
@@ -69,6 +69,17 @@ public class RecurrenceRule extends VPropertyBase<RecurrenceRuleValue, Recurrenc
         super(source);
     }
 
+    /** Also sets this property as the parent of value, so in-place changes to its parts re-render this property */
+    @Override
+    public void setValue(RecurrenceRuleValue value)
+    {
+        super.setValue(value);
+        if (value != null)
+        {
+            value.setParent(this);
+        }
+    }
+
     @Override
     protected RecurrenceRuleValue copyValue(RecurrenceRuleValue source)
     {
@@ -26,69 +26,134 @@
  */
 package jfxtras.icalendarfx.properties.component.recurrence;
 
+import java.lang.ref.WeakReference;
 import java.time.temporal.Temporal;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import jfxtras.icalendarfx.components.VRepeatable;
-import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 
 /**
- * Handles caching an array of Temporal date/time values to speed up producing a stream
- * of recurrence instances for a recurrence rule (RRULE).
+ * Default {@link RecurrenceCache}.  Keeps a sorted index of checkpoints - every {@value #CHECKPOINT_SPACING}th
+ * recurrence streamed through {@link #makeCache(Stream)} - of the recurrence set of one component.
  * RFC 5545 3.8.5.2, page 121
  * The recurrence set is the complete set of recurrence instances for a calendar component.
  * 
+ * All caches share a budget of {@link #getMaxCheckpoints()} checkpoints.  When it's exceeded the least
+ * recently used caches are cleared.  A cache holds only a weak reference to its component, so the budget
+ * doesn't keep components of discarded calendars alive.
+ * 
+ * Reads take a shared lock, so many threads can look up checkpoints at once.  The cache is cleared
+ * when DTSTART, RRULE or RDATE of the component change, as tracked by their modification stamps.
+ * 
  * @author David Bal
  *
  */
-public class RecurrenceRuleCache
+public class RecurrenceRuleCache implements RecurrenceCache
 {
-    // Variables for start date or date/time cache used as starting Temporal for stream
-    private static final int CACHE_RANGE = 51; // number of values in cache
-    private static final int CACHE_SKIP = 21; // store every nth value in the cache
-    private int skipCounter = 0; // counter that increments up to CACHE_SKIP, indicates time to record a value, then resets to 0
-    public Temporal[] temporalCache; // the start date or date/time cache
-    private Temporal dateTimeStartLast; // last dateTimeStart, when changes indicates clearing the cache is necessary
-    private RecurrenceRuleValue rRuleLast; // last rRule, when changes indicates clearing the cache is necessary
-    public int cacheStart = 0; // start index where cache values are stored (starts in middle)
-    public int cacheEnd = 0; // end index where cache values are stored
-    private VRepeatable<?> component; // the VComponent
-    
-    public RecurrenceRuleCache(VRepeatable<?> component)
+    /** Store every nth streamed recurrence as a checkpoint */
+    private static final int CHECKPOINT_SPACING = 21;
+    /** Maximum checkpoints of one component.  When full, every other checkpoint is dropped. */
+    private static final int MAX_COMPONENT_CHECKPOINTS = 64;
+
+    private static volatile Function<VRepeatable<?>, RecurrenceCache> factory = RecurrenceRuleCache::new;
+    /** Makes the cache of a component with the current factory */
+    public static RecurrenceCache newCache(VRepeatable<?> component) { return factory.apply(component); }
+    /** Factory of caches for components made afterwards, by default makes a {@link RecurrenceRuleCache} */
+    public static Function<VRepeatable<?>, RecurrenceCache> getFactory() { return factory; }
+    public static void setFactory(Function<VRepeatable<?>, RecurrenceCache> factory) { RecurrenceRuleCache.factory = factory; }
+
+    private static volatile int maxCheckpoints = 100_000;
+    /** Maximum number of checkpoints of all {@link RecurrenceRuleCache}s together */
+    public static int getMaxCheckpoints() { return maxCheckpoints; }
+    public static void setMaxCheckpoints(int maxCheckpoints)
     {
-        this.component = component;
+        RecurrenceRuleCache.maxCheckpoints = maxCheckpoints;
+        if (TOTAL_CHECKPOINTS.get() > maxCheckpoints) evict();
     }
 
-    /**
-     * finds previous value in recurrence set before input parameter value
-     * 
-     * @param value - start value
-     * @return - previous recurrence instance
-     */
-    public Temporal previousValue(Temporal value)
+    private static final Set<RecurrenceRuleCache> CACHES_WITH_CHECKPOINTS = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger TOTAL_CHECKPOINTS = new AtomicInteger();
+    private static final AtomicLong ACCESS_CLOCK = new AtomicLong();
+    private static final LongAdder TOTAL_HITS = new LongAdder();
+    private static final LongAdder TOTAL_MISSES = new LongAdder();
+    /** Number of checkpoints of all {@link RecurrenceRuleCache}s together */
+    public static int getTotalCheckpoints() { return TOTAL_CHECKPOINTS.get(); }
+    /** Number of hits of all {@link RecurrenceRuleCache}s together */
+    public static long getTotalHitCount() { return TOTAL_HITS.sum(); }
+    /** Number of misses of all {@link RecurrenceRuleCache}s together */
+    public static long getTotalMissCount() { return TOTAL_MISSES.sum(); }
+
+    private final WeakReference<VRepeatable<?>> component;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastAccess;
+    // guarded by lock
+    private Temporal[] checkpoints; // sorted, null until the first checkpoint is added
+    private int size;
+    private long[] key; // DTSTART, RRULE and RDATE modification stamps the checkpoints belong to
+
+    @Override
+    public long getHitCount() { return hits.sum(); }
+    @Override
+    public long getMissCount() { return misses.sum(); }
+    /** Number of checkpoints in this cache */
+    public int size()
     {
-        final Temporal start; 
-        if (cacheEnd == 0)
+        lock.readLock().lock();
+        try
         {
-            start = component.getDateTimeStart().getValue();
-        } else
-        { // try to get start from cache
-            Temporal m  = null;
-            for (int i=cacheEnd; i>cacheStart; i--)
-            {
-                if (DateTimeUtilities.isBefore(temporalCache[i], value))
-                {
-                    m = temporalCache[i];
-                    break;
-                }
-            }
-            start = (m != null) ? m : component.getDateTimeStart().getValue();
+            return size;
+        } finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RecurrenceRuleCache(VRepeatable<?> component)
+    {
+        this.component = new WeakReference<>(component);
+    }
+
+    @Override
+    public Temporal getClosestStart(Temporal targetStart)
+    {
+        VRepeatable<?> myComponent = component.get();
+        if ((myComponent == null) || (myComponent.getRecurrenceRule() == null))
+        { // if individual event
+            return null;
         }
-        Iterator<Temporal> i = component.streamRecurrences(start).iterator();
-//        Iterator<Temporal> i = streamNoCache(start).iterator();
+        Temporal checkpoint = floorCheckpoint(myComponent, targetStart, true);
+        return (checkpoint != null) ? checkpoint : myComponent.getDateTimeStart().getValue();
+    }
+
+    @Override
+    public Temporal previousValue(Temporal value)
+    {
+        VRepeatable<?> myComponent = component.get();
+        if (myComponent == null) return null;
+        Temporal checkpoint = (myComponent.getRecurrenceRule() == null) ? null : floorCheckpoint(myComponent, value, false);
+        Temporal start = (checkpoint != null) ? checkpoint : myComponent.getDateTimeStart().getValue();
+        Iterator<Temporal> i = myComponent.streamRecurrences(start).iterator();
         Temporal lastT = null;
         while (i.hasNext())
         {
@@ -98,242 +163,231 @@ public class RecurrenceRuleCache
         }
         return lastT;
     }
-    
-    /**
-     * Returns the previous start date/time value of the recurrence set on or before targetStart in the cache.  If no value
-     * is present in the cache then the DTSTART value is returned.  This value is guaranteed to be
-     * a valid recurrence date/time.  It can be used as a starting point for calculating future
-     * recurrences more efficiently than using DTSTART.
-     * 
-     * @param targetStart - target date/time to get previous recurrence.
-     * @return closest recurrence DTSTART value, without going over.
-     */
-    public Temporal getClosestStart(Temporal targetStart)
+
+    @Override
+    public Stream<Temporal> makeCache(Stream<Temporal> inStream)
     {
-        final Temporal match;
-        final Temporal dateTimeStart;
-        final RecurrenceRuleValue recurrenceRule;
-        
-        dateTimeStart = component.getDateTimeStart().getValue();
-        
-        recurrenceRule = (component.getRecurrenceRule() != null) ? component.getRecurrenceRule().getValue() : null;
+        VRepeatable<?> myComponent = component.get();
+        if ((myComponent == null) || (myComponent.getRecurrenceRule() == null)) return inStream;
+        long[] currentKey = validate(myComponent);
+        lastAccess = ACCESS_CLOCK.incrementAndGet();
+        Spliterator<Temporal> source = inStream.spliterator();
+        Spliterator<Temporal> recorder = new AbstractSpliterator<Temporal>(Long.MAX_VALUE, source.characteristics() & Spliterator.ORDERED)
+        {
+            private int counter; // recurrences since last checkpoint in this stream
 
-        // adjust start to ensure its not before dateTimeStart
-        final Temporal start2 = (DateTimeUtilities.isBefore(targetStart, dateTimeStart)) ? dateTimeStart : targetStart;
-        final Temporal latestCacheValue;
+            @Override
+            public boolean tryAdvance(Consumer<? super Temporal> action)
+            {
+                return source.tryAdvance(t ->
+                {
+                    if (++counter == CHECKPOINT_SPACING)
+                    {
+                        addCheckpoint(t, currentKey);
+                        counter = 0;
+                    }
+                    action.accept(t);
+                });
+            }
+        };
+        return StreamSupport.stream(recorder, false).onClose(inStream::close);
+    }
 
-        
-        if (recurrenceRule == null)
-        { // if individual event
-            return null;
+    @Override
+    public void invalidate()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            clearCheckpoints();
+            key = null;
+        } finally
+        {
+            lock.writeLock().unlock();
         }
+    }
 
-        // check if cache needs to be cleared (changes to RRULE or DTSTART)
-        if ((dateTimeStartLast != null) && (rRuleLast != null))
+    /*
+     * Returns latest checkpoint on or before (if inclusive), or strictly before target.
+     * null if there isn't one.  Counts the lookup as hit or miss.
+     */
+    private Temporal floorCheckpoint(VRepeatable<?> myComponent, Temporal target, boolean inclusive)
+    {
+        Temporal checkpoint = floorCheckpoint(validate(myComponent), target, inclusive);
+        if (checkpoint != null)
         {
-            boolean startChanged = ! dateTimeStart.equals(dateTimeStartLast);
-            boolean rRuleChanged = ! recurrenceRule.equals(rRuleLast);
-            if (startChanged || rRuleChanged)
-            {
-                temporalCache = null;
-                cacheStart = 0;
-                cacheEnd = 0;
-                skipCounter = 0;
-                dateTimeStartLast = dateTimeStart;
-                rRuleLast = recurrenceRule;
-            }
+            hits.increment();
+            TOTAL_HITS.increment();
         } else
-        { // save current DTSTART and RRULE for next time
-            dateTimeStartLast = dateTimeStart;
-            rRuleLast = recurrenceRule;
+        {
+            misses.increment();
+            TOTAL_MISSES.increment();
         }
-        
-        // use cache if available to find matching start date or date/time
-        if (temporalCache != null)
+        return checkpoint;
+    }
+
+    private Temporal floorCheckpoint(long[] currentKey, Temporal target, boolean inclusive)
+    {
+        lastAccess = ACCESS_CLOCK.incrementAndGet();
+        lock.readLock().lock();
+        try
         {
-            // Reorder cache to maintain centered and sorted
-            final int len = temporalCache.length;
-            final Temporal[] p1;
-            final Temporal[] p2;
-            if (cacheEnd < cacheStart) // high values have wrapped from end to beginning
-            {
-                p1 = Arrays.copyOfRange(temporalCache, cacheStart, len);
-                p2 = Arrays.copyOfRange(temporalCache, 0, Math.min(cacheEnd+1,len));
-            } else if (cacheEnd > cacheStart) // low values have wrapped from beginning to end
+            if ((size == 0) || ! Arrays.equals(currentKey, key)) return null;
+            // binary search for last checkpoint before target
+            int low = 0;
+            int high = size - 1;
+            while (low <= high)
             {
-                p2 = Arrays.copyOfRange(temporalCache, cacheStart, len);
-                p1 = Arrays.copyOfRange(temporalCache, 0, Math.min(cacheEnd+1,len));
-            } else
+                int mid = (low + high) >>> 1;
+                Temporal c = checkpoints[mid];
+                boolean isBefore = inclusive ? ! DateTimeUtilities.isAfter(c, target) : DateTimeUtilities.isBefore(c, target);
+                if (isBefore)
+                {
+                    low = mid + 1;
+                } else
+                {
+                    high = mid - 1;
+                }
+            }
+            return (high >= 0) ? checkpoints[high] : null;
+        } finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* Clears checkpoints if DTSTART, RRULE or RDATE changed since they were recorded */
+    private long[] validate(VRepeatable<?> myComponent)
+    {
+        long[] currentKey = makeKey(myComponent);
+        lock.readLock().lock();
+        try
+        {
+            if (Arrays.equals(currentKey, key)) return currentKey;
+        } finally
+        {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try
+        {
+            if (! Arrays.equals(currentKey, key))
             {
-                p1 = null;
-                p2 = null;
+                clearCheckpoints();
+                key = currentKey;
             }
-            if (p1 != null)
-            { // copy elements to accommodate wrap and restore sort order
-                int p1Index = 0;
-                int p2Index = 0;
-                for (int i=0; i<len; i++)
+        } finally
+        {
+            lock.writeLock().unlock();
+        }
+        return currentKey;
+    }
+
+    /*
+     * Stamps change when a property is replaced or its value is set, so comparing them is enough to
+     * detect a change without rendering the properties.
+     */
+    private static long[] makeKey(VRepeatable<?> myComponent)
+    {
+        List<RecurrenceDates> recurrenceDates = myComponent.getRecurrenceDates();
+        int rdateCount = (recurrenceDates == null) ? 0 : recurrenceDates.size();
+        long[] key = new long[2 + rdateCount];
+        key[0] = myComponent.getDateTimeStart().getModificationStamp();
+        key[1] = myComponent.getRecurrenceRule().getModificationStamp();
+        for (int i=0; i<rdateCount; i++)
+        {
+            key[2 + i] = recurrenceDates.get(i).getModificationStamp();
+        }
+        return key;
+    }
+
+    private void addCheckpoint(Temporal t, long[] recordedKey)
+    {
+        int added = 0;
+        lock.writeLock().lock();
+        try
+        {
+            if (! Arrays.equals(recordedKey, key)) return; // cache changed while streaming
+            int low = 0;
+            int high = size - 1;
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+                Temporal c = checkpoints[mid];
+                if (DateTimeUtilities.isBefore(c, t))
                 {
-                    if (p1Index < p1.length)
-                    {
-                        temporalCache[i] = p1[p1Index];
-                        p1Index++;
-                    } else if (p2Index < p2.length)
-                    {
-                        temporalCache[i] = p2[p2Index];
-                        p2Index++;
-                    } else
-                    {
-                        cacheEnd = i;
-                        break;
-                    }
+                    low = mid + 1;
+                } else if (DateTimeUtilities.isAfter(c, t))
+                {
+                    high = mid - 1;
+                } else
+                {
+                    return; // already a checkpoint
                 }
             }
-
-            // Find match in cache
-            latestCacheValue = temporalCache[cacheEnd];
-            if ((! DateTimeUtilities.isBefore(start2, temporalCache[cacheStart])))
+            if (checkpoints == null)
             {
-                Temporal m = latestCacheValue;
-                for (int i=cacheStart; i<cacheEnd+1; i++)
+                checkpoints = new Temporal[8];
+            } else if (size == MAX_COMPONENT_CHECKPOINTS)
+            { // thin out by dropping every other checkpoint
+                int newSize = 0;
+                for (int i=0; i<size; i+=2)
                 {
-                    if (DateTimeUtilities.isAfter(temporalCache[i], start2))
-                    {
-                        m = temporalCache[i-1];
-                        break;
-                    }
+                    checkpoints[newSize++] = checkpoints[i];
                 }
-                match = m;
-            } else
-            { // all cached values too late - start over
-                cacheStart = 0;
-                cacheEnd = 0;
-                temporalCache[cacheStart] = dateTimeStart;
-                match = dateTimeStart;
+                Arrays.fill(checkpoints, newSize, size, null);
+                added -= size - newSize;
+                low = (low + 1) / 2;
+                size = newSize;
+            } else if (size == checkpoints.length)
+            {
+                checkpoints = Arrays.copyOf(checkpoints, Math.min(size * 2, MAX_COMPONENT_CHECKPOINTS));
             }
-        } else
-        { // no previous cache.  initialize new array with dateTimeStart as first value.
-            temporalCache = new Temporal[CACHE_RANGE];
-            temporalCache[cacheStart] = dateTimeStart;
-            match = dateTimeStart;
+            System.arraycopy(checkpoints, low, checkpoints, low + 1, size - low);
+            checkpoints[low] = t;
+            size++;
+            added++;
+            CACHES_WITH_CHECKPOINTS.add(this);
+        } finally
+        {
+            lock.writeLock().unlock();
         }
-        return match;
+        if (TOTAL_CHECKPOINTS.addAndGet(added) > maxCheckpoints) evict();
     }
-    
-    
-    /** add to cache while streaming recurrences */
-    public Stream<Temporal> makeCache(Stream<Temporal> inStream)
+
+    /* must hold write lock */
+    private void clearCheckpoints()
     {
-        Temporal earliestCacheValue = temporalCache[cacheStart];
-        Temporal latestCacheValue = temporalCache[cacheEnd];
-//        System.out.println("makeCache:" + earliestCacheValue + " " + latestCacheValue + " " + component.getRecurrences());
-        Stream<Temporal> outStream = inStream
-                .peek(t ->
-                { // save new values in cache
-                    if (component.getRecurrenceRule() != null)
-                    {
-                        if (DateTimeUtilities.isBefore(t, earliestCacheValue))
-                        {
-                            if (skipCounter == CACHE_SKIP)
-                            {
-                                cacheStart--;
-                                if (cacheStart < 0) cacheStart = CACHE_RANGE - 1;
-                                if (cacheStart == cacheEnd) cacheEnd--; // just overwrote oldest value - push cacheEnd down
-                                temporalCache[cacheStart] = t;
-                                skipCounter = 0;
-                            } else skipCounter++;
-                        }
-                        if (DateTimeUtilities.isAfter(t, latestCacheValue))
-                        {
-                            if (skipCounter == CACHE_SKIP)
-                            {
-                                cacheEnd++;
-                                if (cacheEnd == CACHE_RANGE) cacheEnd = 0;
-                                if (cacheStart == cacheEnd) cacheStart++; // just overwrote oldest value - push cacheStart up
-                                temporalCache[cacheEnd] = t;
-                                skipCounter = 0;
-                            } else skipCounter++;
-                        }
-                        // check if start or end needs to wrap
-                        if (cacheEnd < 0) cacheEnd = CACHE_RANGE - 1;
-                        if (cacheStart == CACHE_RANGE) cacheStart = 0;
-                    }
-                });
-        return outStream;
+        TOTAL_CHECKPOINTS.addAndGet(-size);
+        checkpoints = null;
+        size = 0;
+        CACHES_WITH_CHECKPOINTS.remove(this);
     }
 
-//    /** Stream of date/times that indicate the start of the event(s).
-//     * For a VEvent without RRULE the stream will contain only one date/time element.
-//     * A VEvent with a RRULE the stream contains more than one date/time element.  It will be infinite 
-//     * if COUNT or UNTIL is not present.  The stream has an end when COUNT or UNTIL condition is met.
-//     * Starts on startDateTime, which must be a valid event date/time, not necessarily the
-//     * first date/time (DTSTART) in the sequence. 
-//     * 
-//     * @param start - starting date or date/time for which occurrence start date or date/time
-//     * are generated by the returned stream
-//     * @return stream of starting dates or date/times for occurrences after rangeStart
-//     */
-//    @Deprecated
-//    public Stream<Temporal> streamNoCache(Temporal start)
-//    {
-//        final Comparator<Temporal> temporalComparator;
-//        if (start instanceof LocalDate)
-//        {
-//            temporalComparator = (t1, t2) -> ((LocalDate) t1).compareTo((LocalDate) t2);
-//        } else if (start instanceof LocalDateTime)
-//        {
-//            temporalComparator = (t1, t2) -> ((LocalDateTime) t1).compareTo((LocalDateTime) t2);            
-//        } else if (start instanceof ZonedDateTime)
-//        {
-//            temporalComparator = (t1, t2) -> ((ZonedDateTime) t1).compareTo((ZonedDateTime) t2);
-//        } else
-//        {
-//            throw new DateTimeException("Unsupported Temporal type:" + start.getClass().getSimpleName());
-//        }
-//        final Stream<Temporal> stream1;
-//        if (component.getRecurrenceRule() == null)
-//        { // if individual event
-//            stream1 = Arrays.asList(component.getDateTimeStart().getValue())
-//                    .stream()
-//                    .map(v -> (Temporal) v)
-//                    .filter(d -> ! DateTimeUtilities.isBefore(d, start));
-//        } else
-//        { // if has recurrence rule
-//            stream1 = component.getRecurrenceRule().getValue().streamRecurrences(component.getDateTimeStart().getValue());
-//        }
-//        // If present, add recurrence list
-//        final Stream<Temporal> stream2;
-//        if (component.getRecurrences() == null)
-//        {
-//            stream2 = stream1;
-//        } else
-//        {
-//            stream2 = RecurrenceRuleCache.merge(
-//                         stream1
-//                       , component.getRecurrences()
-//                               .stream()
-//                               .flatMap(r -> r.getValue().stream())
-//                               .map(v -> (Temporal) v)
-//                               .sorted(temporalComparator)
-//                       , temporalComparator);
-//        }
-//        
-//        final Stream<Temporal> stream3;
-//        if ((component instanceof VComponentDisplayable) && (((VComponentDisplayable<?>) component).getExceptions() != null))
-//        {
-//            /** Remove date/times in exDates set */
-//            List<Temporal> exceptions = ((VComponentDisplayable<?>) component).getExceptions()
-//                    .stream()
-//                    .flatMap(r -> r.getValue().stream())
-//                    .map(v -> (Temporal) v)
-//                    .sorted(temporalComparator)
-//                    .collect(Collectors.toList());
-//            stream3 = stream2.filter(d -> ! exceptions.contains(d));
-//        } else
-//        {
-//            stream3 = stream2;
-//        }
-//        return stream3.filter(t -> ! DateTimeUtilities.isBefore(t, start));
-//    }
-
+    /* Clears least recently used caches until total checkpoints are well under the budget */
+    private static void evict()
+    {
+        synchronized (CACHES_WITH_CHECKPOINTS)
+        {
+            if (TOTAL_CHECKPOINTS.get() <= maxCheckpoints) return;
+            // snapshot access times, they keep changing while sorting
+            List<Map.Entry<RecurrenceRuleCache, Long>> caches = new ArrayList<>();
+            CACHES_WITH_CHECKPOINTS.forEach(c -> caches.add(new SimpleEntry<>(c, c.lastAccess)));
+            caches.sort(Map.Entry.comparingByValue());
+            int target = maxCheckpoints - maxCheckpoints / 4;
+            for (Map.Entry<RecurrenceRuleCache, Long> entry : caches)
+            {
+                if (TOTAL_CHECKPOINTS.get() <= target) break;
+                RecurrenceRuleCache cache = entry.getKey();
+                cache.lock.writeLock().lock();
+                try
+                {
+                    cache.clearCheckpoints();
+                } finally
+                {
+                    cache.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@ import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjuster;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.Frequency;
@@ -126,8 +127,36 @@ public class Frequency extends RRulePartBase<FrequencyType, Frequency>
      */
     public Stream<Temporal> streamRecurrences(Temporal start, int interval)
     {
-        TemporalAdjuster adjuster = (temporal) -> temporal.plus(interval, getValue().getChronoUnit());
-        return Stream.iterate(start, a -> a.with(adjuster));
+        return LongStream.iterate(0, i -> i+1).mapToObj(i -> periodStart(start, interval, i));
+    }
+
+    /**
+     * Start of a frequency period.  It is computed directly from start instead of by repeated
+     * addition, so month-end and daylight saving time adjustments don't accumulate.
+     * 
+     * @param start - start of period zero
+     * @param interval - number of frequency units in one period
+     * @param index - number of the period
+     * @return - start of period number index
+     */
+    public Temporal periodStart(Temporal start, int interval, long index)
+    {
+        return (index == 0) ? start : start.plus(index * interval, getValue().getChronoUnit());
+    }
+
+    /**
+     * Number of whole frequency periods from start to target.  Enables seeking directly to a far
+     * away period, instead of stepping through all the periods before it.
+     * 
+     * @param start - start of period zero
+     * @param interval - number of frequency units in one period
+     * @param target - date/time to seek, must be the same type as start
+     * @return - number of whole periods, zero if target is before start
+     */
+    public long periodsBetween(Temporal start, int interval, Temporal target)
+    {
+        long units = getValue().getChronoUnit().between(start, target);
+        return (units <= 0) ? 0 : units / interval;
     }
 
     @Override
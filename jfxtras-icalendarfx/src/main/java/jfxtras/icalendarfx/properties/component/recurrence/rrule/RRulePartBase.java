@@ -31,6 +31,7 @@ import java.util.List;
 
 import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRuleElement;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePart;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePartBase;
@@ -50,13 +51,26 @@ abstract public class RRulePartBase<T, U> extends VElementBase implements RRuleP
     public T getValue() { return value; }
     private T value;
     @Override
-    public void setValue(T value) { this.value = value; }
+    public void setValue(T value)
+    {
+        this.value = value;
+        markParentDirty();
+    }
     public U withValue(T value)
     {
     	setValue(value);
     	return (U) this;
 	}
     
+    /** Marks the recurrence rule as changed, for parts that change their value in place */
+    protected void markParentDirty()
+    {
+        if (getParent() instanceof VParentBase)
+        {
+            ((VParentBase<?>) getParent()).markDirty();
+        }
+    }
+    
     final protected RRuleElement elementType;
     @Override
     public String name()
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.properties.component.recurrence.rrule;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRuleAbstract;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+
+/**
+ * Iterator of the start date/times produced by a {@link RecurrenceRuleValue}
+ *
+ * <p>The evaluation plan - frequency unit, interval, BYxxx rules in processing order with the
+ * {@link ChronoUnit} each one receives, and the COUNT or UNTIL limit - is computed once when the
+ * iterator is made.  After that the iterator only reads its own state, so a rule can be iterated
+ * from many threads at once as long as the rule isn't modified meanwhile.</p>
+ *
+ * <p>Without BYxxx rules each recurrence is computed directly from the start and the number of
+ * elapsed frequency periods, so nothing but the returned {@link Temporal} is allocated.  With BYxxx
+ * rules one frequency period at a time is expanded and buffered.</p>
+ *
+ * @see RecurrenceRuleValue#iterator(Temporal)
+ */
+public final class RecurrenceIterator implements Iterator<Temporal>
+{
+    private final Temporal start;
+    private final Frequency frequency;
+    private final int interval;
+    /** BYxxx rules in processing order */
+    private final ByRule<?>[] byRules;
+    /** chronoUnit passed to the BYxxx rule at the same index */
+    private final ChronoUnit[] byRuleUnits;
+    /** maximum number of recurrences, -1 if there is no COUNT */
+    private final int count;
+    /** last allowed recurrence, null if there is no UNTIL */
+    private final Temporal until;
+    /** recurrences expanded by BYxxx rules, but not yet returned */
+    private final ArrayDeque<Temporal> expanded;
+
+    private long periodIndex;
+    private int produced;
+    private Temporal next;
+    private boolean isDone;
+
+    /**
+     * Creates an iterator of start date/times of the rule
+     *
+     * @param rRule  recurrence rule to iterate
+     * @param start  starting point of iteration (MUST be a valid occurrence date/time)
+     */
+    public RecurrenceIterator(RecurrenceRuleValue rRule, Temporal start)
+    {
+        this.start = start;
+        frequency = rRule.getFrequency();
+        interval = (rRule.getInterval() == null) ? Interval.DEFAULT_INTERVAL : rRule.getInterval().getValue();
+        if ((rRule.getByRules() == null) || rRule.getByRules().isEmpty())
+        {
+            byRules = new ByRule<?>[0];
+            byRuleUnits = new ChronoUnit[0];
+            expanded = null;
+        } else
+        {
+            byRules = rRule.getByRules().stream().sorted().toArray(ByRule<?>[]::new);
+            byRuleUnits = new ChronoUnit[byRules.length];
+            ChronoUnit chronoUnit = frequency.getValue().getChronoUnit(); // initial chronoUnit from Frequency
+            for (int i=0; i<byRules.length; i++)
+            {
+                byRuleUnits[i] = chronoUnit;
+                chronoUnit = ((ByRuleAbstract<?, ?>) byRules[i]).elementType.getChronoUnit();
+            }
+            expanded = new ArrayDeque<>();
+        }
+        if (rRule.getCount() != null)
+        {
+            count = rRule.getCount().getValue();
+            until = null;
+        } else if (rRule.getUntil() != null)
+        {
+            count = -1;
+            ZoneId zone = (start instanceof ZonedDateTime) ? ((ZonedDateTime) start).getZone() : null;
+            until = DateTimeType.of(start).from(rRule.getUntil().getValue(), zone);
+        } else
+        {
+            count = -1;
+            until = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ((next == null) && ! isDone)
+        {
+            next = computeNext();
+            isDone = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Temporal next()
+    {
+        if (! hasNext()) throw new NoSuchElementException();
+        Temporal result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Skips recurrences before target.  The following {@link #next()} returns the first recurrence
+     * on or after target.  Skipped recurrences count towards the COUNT limit.
+     *
+     * <p>Whole frequency periods before target are skipped arithmetically, so the cost doesn't depend on
+     * how far target is from the start.  The one exception is a rule with both COUNT and BYxxx parts,
+     * where the number of recurrences in a period isn't known without expanding it.  It is stepped
+     * through one recurrence at a time.</p>
+     *
+     * @param target  date/time to advance to, must be the same type as the start
+     * @return  this iterator
+     */
+    public RecurrenceIterator advanceTo(Temporal target)
+    {
+        if ((next != null) && ! DateTimeUtilities.isBefore(next, target)) return this;
+        next = null;
+        if (! isDone)
+        {
+            seek(target);
+        }
+        while (hasNext() && DateTimeUtilities.isBefore(next, target))
+        {
+            next = null;
+        }
+        return this;
+    }
+
+    /*
+     * Jumps to the period before the one containing target.  BYxxx expansions stay within the calendar
+     * unit of their period's start, so all recurrences of the skipped periods are before target.
+     */
+    private void seek(Temporal target)
+    {
+        long seekIndex = frequency.periodsBetween(start, interval, target) - 1;
+        if (seekIndex <= periodIndex) return;
+        if (byRules.length == 0)
+        {
+            if (count >= 0)
+            { // counted seek - every period has exactly one recurrence
+                produced = (int) Math.min(count, produced + seekIndex - periodIndex);
+            }
+        } else
+        {
+            if (count >= 0) return; // can't count recurrences without expanding periods
+            expanded.clear(); // recurrences of an earlier period
+        }
+        periodIndex = seekIndex;
+    }
+
+    /* Returns the following recurrence, or null when the rule is exhausted */
+    private Temporal computeNext()
+    {
+        if ((count >= 0) && (produced >= count)) return null;
+        Temporal candidate;
+        if (byRules.length == 0)
+        {
+            candidate = periodStart(periodIndex++);
+        } else
+        {
+            do
+            {
+                while (expanded.isEmpty())
+                {
+                    expandPeriod();
+                }
+                candidate = expanded.poll();
+            } while (DateTimeUtilities.isBefore(candidate, start)); // must filter out too early recurrences
+        }
+        if ((until != null) && DateTimeUtilities.isAfter(candidate, until)) return null;
+        produced++;
+        return candidate;
+    }
+
+    /* Applies the BYxxx rules to the next frequency period */
+    private void expandPeriod()
+    {
+        Stream<Temporal> periodStream = Stream.of(periodStart(periodIndex++));
+        for (int i=0; i<byRules.length; i++)
+        {
+            periodStream = byRules[i].streamRecurrences(periodStream, byRuleUnits[i], start);
+        }
+        periodStream.forEachOrdered(expanded::add);
+    }
+
+    private Temporal periodStart(long index)
+    {
+        return frequency.periodStart(start, interval, index);
+    }
+}
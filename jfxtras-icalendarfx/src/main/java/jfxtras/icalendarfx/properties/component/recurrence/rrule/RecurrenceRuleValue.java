@@ -28,9 +28,6 @@ package jfxtras.icalendarfx.properties.component.recurrence.rrule;
 
 import java.lang.reflect.Method;
 import java.time.DayOfWeek;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -40,8 +37,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -64,12 +59,10 @@ import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMinute;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonthDay;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
-import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRuleAbstract;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.BySecond;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByYearDay;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.ICalendarUtilities;
-import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
 
 /**
  * RRULE
@@ -407,43 +400,43 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
      */
     public Stream<Temporal> streamRecurrences(Temporal start)
     {
-        int interval = (getInterval() == null) ? Interval.DEFAULT_INTERVAL : getInterval().getValue();
-        Stream<Temporal> frequencyStream = getFrequency().streamRecurrences(start, interval);
-        
-        Stream<Temporal> recurrenceStream = frequencyStream
-                .flatMap(value ->
-                {
-                    // process byRules
-                    chronoUnit = getFrequency().getValue().getChronoUnit(); // initial chronoUnit from Frequency
-                    myStream = Arrays.asList(value).stream();
-                    if (getByRules() != null)
-                    {
-	                    getByRules().stream()
-	                            .sorted()
-	                            .forEach(rule ->
-	                            {
-	                                myStream = rule.streamRecurrences(myStream, chronoUnit, start);
-//	                                chronoUnit = RRuleElement.fromClass(rule.getClass()).getChronoUnit();
-	                                chronoUnit = ((ByRuleAbstract<?, ?>) rule).elementType.getChronoUnit();
-	                            });
-                    }
-                    // must filter out too early recurrences
-                    return myStream.filter(r -> ! DateTimeUtilities.isBefore(r, start));
-                });
-        
-        if (getCount() != null)
-        {
-            return recurrenceStream.limit(getCount().getValue());
-        } else if (getUntil() != null)
-        {
-            ZoneId zone = (start instanceof ZonedDateTime) ? ((ZonedDateTime) start).getZone() : null;
-            Temporal convertedUntil = DateTimeType.of(start).from(getUntil().getValue(), zone);
-            return takeWhile(recurrenceStream, a -> ! DateTimeUtilities.isAfter(a, convertedUntil));
-        }
-        return recurrenceStream;
+        return streamRecurrences(iterator(start));
+    }
+
+    /**
+     * Resulting stream of start date/times of the recurrence set beginning at dateTimeStart, without
+     * the ones before from.  The recurrences before from are skipped arithmetically, instead of being
+     * produced and discarded, so a far away from costs about the same as a near one.
+     * 
+     * @param dateTimeStart - first date/time of the recurrence set (DTSTART)
+     * @param from - earliest date/time in the stream
+     * @return
+     */
+    public Stream<Temporal> streamRecurrences(Temporal dateTimeStart, Temporal from)
+    {
+        return streamRecurrences(iterator(dateTimeStart).advanceTo(from));
+    }
+
+    private static Stream<Temporal> streamRecurrences(RecurrenceIterator iterator)
+    {
+        Spliterator<Temporal> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * ITERATE RECURRENCES
+     * 
+     * Iterator of the same start date/times as {@link #streamRecurrences(Temporal)}.  Supports skipping
+     * ahead with {@link RecurrenceIterator#advanceTo(Temporal)}.
+     * 
+     * @param start - starting point of iteration (MUST be a valid occurrence date/time)
+     * @return
+     */
+    public RecurrenceIterator iterator(Temporal start)
+    {
+        return new RecurrenceIterator(this, start);
     }
-    private ChronoUnit chronoUnit; // must be field instead of local variable due to use in lambda expression
-    private Stream<Temporal> myStream; // must be field instead of local variable due to use in lambda expression
     
     /**
      * Determines if recurrence set is goes on forever
@@ -456,31 +449,6 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
     }
     
     
-    // takeWhile - From http://stackoverflow.com/questions/20746429/limit-a-stream-by-a-predicate
-    static <T> Spliterator<T> takeWhile(Spliterator<T> splitr, Predicate<? super T> predicate)
-    {
-      return new Spliterators.AbstractSpliterator<T>(splitr.estimateSize(), 0) {
-        boolean stillGoing = true;
-        @Override public boolean tryAdvance(Consumer<? super T> consumer) {
-          if (stillGoing) {
-            boolean hadNext = splitr.tryAdvance(elem -> {
-              if (predicate.test(elem)) {
-                consumer.accept(elem);
-              } else {
-                stillGoing = false;
-              }
-            });
-            return hadNext && stillGoing;
-          }
-          return false;
-        }
-      };
-    }
-
-    static <T> Stream<T> takeWhile(Stream<T> stream, Predicate<? super T> predicate) {
-       return StreamSupport.stream(takeWhile(stream.spliterator(), predicate), false);
-    }
-    
     @Override
     public String toString()
     {
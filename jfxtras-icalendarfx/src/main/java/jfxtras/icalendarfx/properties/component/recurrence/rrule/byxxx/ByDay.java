@@ -166,6 +166,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
         if (! isPresent)
         {
             getValue().add(new ByDayPair(dayOfWeek, 0));
+            markParentDirty();
             return true;
         }
         return false;
@@ -185,6 +186,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
         if (p != null)
         {
             getValue().remove(p);
+            markParentDirty();
             return true;
         }
         return false;
@@ -209,6 +211,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
             int ordinal = p.getOrdinal();
             getValue().remove(p);
             getValue().add(new ByDayPair(replacemenDayOfWeekt, ordinal));
+            markParentDirty();
             return true;
         }
         return false;
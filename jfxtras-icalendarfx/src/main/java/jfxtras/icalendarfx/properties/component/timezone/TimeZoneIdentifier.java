@@ -93,6 +93,17 @@ public class TimeZoneIdentifier extends VPropertyBase<ZoneId, TimeZoneIdentifier
         setConverter(CONVERTER);
     }
     
+    /**
+     * Returns the identifier as it appears in the content, including globally unique identifiers and
+     * names that aren't java.time zone IDs (which have a null value)
+     * 
+     * @return  time zone identifier text
+     */
+    public String getIdentifier()
+    {
+        return valueContent();
+    }
+    
     @Override
     public boolean isValid()
     {
@@ -54,13 +54,17 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VCalendarIndex;
 import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VTimeZone;
 import jfxtras.icalendarfx.parameters.VParameterElement;
 import jfxtras.icalendarfx.properties.component.time.TimeTransparency.TimeTransparencyType;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
-import jfxtras.icalendarfx.utilities.ICalendarUtilities;
 import jfxtras.icalendarfx.utilities.Pair;
 
 
@@ -254,75 +258,29 @@ public final class DateTimeUtilities
         }
         
         /*
-         * Make list of recurrence start date/times for VEvent to be tested
+         * Index the existing events, then look up all recurrences of VEvent to be tested at once
+         * New start before existing end, new end after existing start
+         * Floating date/times are placed in the time zone of VEvent, UTC if it's floating too
          */
-        LocalDate dtstart = LocalDate.from(vEvent.getDateTimeStart().getValue());
         TemporalAmount duration = vEvent.getActualDuration();
         List<Temporal> newStarts = vEvent.streamRecurrences().limit(checkQuantity).collect(Collectors.toList());
-        Temporal lastStart = newStarts.get(newStarts.size()-1);
-
-        /*
-         * Make sorted list of events before lastStart from all VEvents
-         */
-        List<Triple> eventTimes = vEvents.stream()
-            .filter(v -> 
-            { // only keep OPAQUE events
-                TimeTransparencyType myTransparency = (v.getTimeTransparency() == null) ? TimeTransparencyType.OPAQUE : v.getTimeTransparency().getValue();
-                return myTransparency == TimeTransparencyType.OPAQUE;
-            })
-            .flatMap(v ->
-            {
-                TemporalAmount actualDuration = v.getActualDuration();
-                Temporal myDTStart = v.getDateTimeStart().getValue().with(dtstart);
-                return v.streamRecurrences(myDTStart)
-                    .limit(checkQuantity)
-                    .filter(t -> ! DateTimeUtilities.isAfter(t, lastStart))
-                    .map(t -> 
-                    {
-                        String uid = (v.getUniqueIdentifier() != null) ? v.getUniqueIdentifier().getValue() : null;
-                        return new Triple(t, t.plus(actualDuration), uid);
-                    });
-            })
-            .sorted((t1, t2) -> DateTimeUtilities.TEMPORAL_COMPARATOR2.compare(t1.start, t2.start))
-            .collect(Collectors.toList());
-
-        /*
-         *  Search for a conflict
-         *  1.  New start before existing end, new end after existing start
-         */
-        for (Temporal newStart : newStarts)
+        Temporal dtStart = vEvent.getDateTimeStart().getValue();
+        ZoneId zone = (dtStart instanceof ZonedDateTime) ? ((ZonedDateTime) dtStart).getZone() : ZoneOffset.UTC;
+        VCalendarIndex index = new VCalendarIndex(vEvents, zone);
+        for (List<VCalendarIndex.Occurrence> overlapping : index.queryEach(newStarts, duration))
         {
-            Temporal newEnd = newStart.plus(duration);
-            Triple firstConflict = eventTimes.stream()
-                .filter(triple ->
-                {
-                    boolean newStartBeforeEnd = DateTimeUtilities.isBefore(newStart, triple.end);
-                    boolean newEndAfterStart = DateTimeUtilities.isAfter(newEnd, triple.start);
-                    return (newStartBeforeEnd && newEndAfterStart);
-                })
-                .findAny()
-                .orElseGet(() -> null);
-            if (firstConflict != null)
-            {
-                String uid = (firstConflict.uid != null) ? firstConflict.uid + ", " : "";
-                return (firstConflict == null) ? null : uid + DateTimeUtilities.temporalToString(firstConflict.start);
+            Optional<VCalendarIndex.Occurrence> firstConflict = overlapping
+                .stream()
+                .filter(o -> o.isBusy())
+                .findFirst();
+            if (firstConflict.isPresent())
+            {
+                String uid = (firstConflict.get().getUniqueIdentifier() != null) ? firstConflict.get().getUniqueIdentifier() + ", " : "";
+                return uid + DateTimeUtilities.temporalToString(firstConflict.get().getStart());
             }
         }
         return null; // no conflicts found
     }
-    // Triple class for checkScheduleConflict
-    private static class Triple
-    {
-        public Triple(Temporal start, Temporal end, String uid)
-        {
-            this.start = start;
-            this.end = end;
-            this.uid = uid;
-        }
-        Temporal start;
-        Temporal end;
-        String uid;
-    }
     
 //    /** Check if schedule conflict exists for {@link TimeTransparencyType.OPAQUE OPAQUE} events.
 //     * Finds conflict faster, but not necessarily the first conflict that occurs
@@ -480,46 +438,208 @@ public final class DateTimeUtilities
     
     /**
      * Parse ISO.8601 string into LocalDate, LocalDateTime or ZonedDateTime Temporal object.
-     */ 
+     * 
+     * The string is a DATE or DATE-TIME value, optionally preceded by a property name and parameters, such as
+     * {@code DTSTART;TZID=America/Los_Angeles:20160228T070000}.  The value is read directly from its
+     * character offsets - only a TZID parameter, if present, is extracted as a String.
+     * 
+     * <ul>
+     * <li>yyyyMMdd - LocalDate
+     * <li>yyyyMMddTHHmmss - LocalDateTime, or ZonedDateTime if there is a TZID parameter
+     * <li>yyyyMMddTHHmmssZ - ZonedDateTime in UTC, a TZID parameter is ignored
+     * <li>[zone]yyyyMMddTHHmmss - ZonedDateTime, the form made by {@link jfxtras.icalendarfx.properties.PropBaseDateTime}
+     * <li>[zone]yyyyMMddTHHmmssZ - ZonedDateTime of the UTC instant in zone
+     * </ul>
+     * 
+     * @throws DateTimeException if the value isn't one of the above forms
+     */
     public static Temporal temporalFromString(String string)
     {
-        List<Pair<String, String>> list = ICalendarUtilities.parseInlineElementsToListPair(string);
-        Map<String, String> map = list.stream().collect(Collectors.toMap(p -> p.getKey(), p -> p.getValue()));
-//        Map<String, String> map = ICalendarUtilities.propertyLineToParameterMap(string);
-        StringBuilder builder = new StringBuilder(50);
-        String value = map.get(ICalendarUtilities.PROPERTY_VALUE_KEY);
-        if (map.get(VParameterElement.TIME_ZONE_IDENTIFIER.toString()) != null)
-        {
-            if (value.charAt(value.length()-1) != 'Z')
-            {
-                builder.append("[");
-                builder.append(map.get(VParameterElement.TIME_ZONE_IDENTIFIER.toString()));
-                builder.append("]");
+        // value starts after the first colon outside of a quoted parameter value
+        int length = string.length();
+        int valueStart = -1;
+        boolean isQuoted = false;
+        for (int i=0; i<length; i++)
+        {
+            char c = string.charAt(i);
+            if (c == '"')
+            {
+                isQuoted = ! isQuoted;
+            } else if ((c == ':') && ! isQuoted)
+            {
+                valueStart = i+1;
+                break;
             }
         }
-        builder.append(value);
-        String string2 = builder.toString();
-
-        final String form0 = "^[0-9]{8}";
-        final String form1 = "^[0-9]{8}T([0-9]{6})";
-        final String form2 = "^[0-9]{8}T([0-9]{6})Z";
-        final String form3 = "^(\\[.*/.*\\])[0-9]{8}T([0-9]{6}Z?)";
-        if (string2.matches(form0))
+        String timeZoneIdentifier = (valueStart < 0) ? null : parameterValue(string, valueStart-1,
+                VParameterElement.TIME_ZONE_IDENTIFIER.toString());
+        if (valueStart < 0) valueStart = 0;
+        boolean isBracketedZone = (valueStart < length) && (string.charAt(valueStart) == '[');
+        if (isBracketedZone)
         {
-            return LocalDate.parse(string2, DateTimeUtilities.LOCAL_DATE_FORMATTER);                                                
-        } else if (string2.matches(form1))
+            int zoneEnd = string.indexOf(']', valueStart);
+            if (zoneEnd < 0)
+            {
+                throw new DateTimeException("Can't parse date-time string:" + string);
+            }
+            timeZoneIdentifier = string.substring(valueStart+1, zoneEnd);
+            valueStart = zoneEnd+1;
+        }
+        
+        int valueLength = length - valueStart;
+        if ((valueLength == 8) && (timeZoneIdentifier == null))
         {
-            return LocalDateTime.parse(string2, DateTimeUtilities.LOCAL_DATE_TIME_FORMATTER);                                                
-        } else if (string2.matches(form2))
+            return LocalDate.of(
+                    parseDigits(string, valueStart, 4),
+                    parseDigits(string, valueStart+4, 2),
+                    parseDigits(string, valueStart+6, 2));
+        }
+        boolean isUTC = (valueLength == 16) && (string.charAt(length-1) == 'Z');
+        if (((valueLength == 15) || isUTC) && (string.charAt(valueStart+8) == 'T'))
         {
-            return ZonedDateTime.parse(string2, DateTimeUtilities.ZONED_DATE_TIME_UTC_FORMATTER);                                                
-        } else if (string2.matches(form3))
+            LocalDateTime localDateTime = LocalDateTime.of(
+                    parseDigits(string, valueStart, 4),
+                    parseDigits(string, valueStart+4, 2),
+                    parseDigits(string, valueStart+6, 2),
+                    parseDigits(string, valueStart+9, 2),
+                    parseDigits(string, valueStart+11, 2),
+                    parseDigits(string, valueStart+13, 2));
+            if (isUTC && isBracketedZone)
+            {
+                return ZonedDateTime.of(localDateTime, ZoneOffset.UTC).withZoneSameInstant(zoneIdFromString(timeZoneIdentifier));
+            } else if (isUTC)
+            {
+                return ZonedDateTime.of(localDateTime, ZoneOffset.UTC);
+            } else if (timeZoneIdentifier != null)
+            {
+                return ZonedDateTime.of(localDateTime, zoneIdFromString(timeZoneIdentifier));
+            }
+            return localDateTime;
+        }
+        throw new DateTimeException("Can't parse date-time string:" + string);
+    }
+    
+    /* Returns the value of a parameter in the parameter section, which ends at parametersEnd, null if absent */
+    private static String parameterValue(String string, int parametersEnd, String parameterName)
+    {
+        int nameLength = parameterName.length();
+        boolean isQuoted = false;
+        int segmentStart = 0;
+        for (int i=0; i<=parametersEnd; i++)
         {
-            return ZonedDateTime.parse(string2, DateTimeUtilities.ZONED_DATE_TIME_FORMATTER);                                                
-        } else
+            char c = (i == parametersEnd) ? ';' : string.charAt(i);
+            if (c == '"')
+            {
+                isQuoted = ! isQuoted;
+            } else if ((c == ';') && ! isQuoted)
+            {
+                // segment is NAME=VALUE, or the property name
+                if ((i - segmentStart > nameLength) && (string.charAt(segmentStart + nameLength) == '=')
+                        && string.regionMatches(true, segmentStart, parameterName, 0, nameLength))
+                {
+                    int start = segmentStart + nameLength + 1;
+                    int end = i;
+                    if ((end - start >= 2) && (string.charAt(start) == '"') && (string.charAt(end-1) == '"'))
+                    {
+                        start++;
+                        end--;
+                    }
+                    return string.substring(start, end);
+                }
+                segmentStart = i+1;
+            }
+        }
+        return null;
+    }
+    
+    /* Parses an unsigned decimal number of count digits at offset */
+    private static int parseDigits(String string, int offset, int count)
+    {
+        int value = 0;
+        for (int i=offset; i<offset+count; i++)
+        {
+            char c = string.charAt(i);
+            if ((c < '0') || (c > '9'))
+            {
+                throw new DateTimeException("Can't parse date-time string:" + string);
+            }
+            value = value*10 + (c - '0');
+        }
+        return value;
+    }
+    
+    /* TZID parameter values already resolved, limited in size because the keys come from parsed content */
+    private static final Map<String, ZoneId> ZONE_ID_CACHE = new ConcurrentHashMap<>();
+    private static final int ZONE_ID_CACHE_SIZE = 1000;
+    
+    /* TZIDs that aren't java.time zone IDs, defined by the VTIMEZONE components of the calendar being parsed */
+    private static final ThreadLocal<Map<String, ZoneId>> PARSING_ZONE_IDS = new ThreadLocal<>();
+    
+    /**
+     * Runs the parse on the calling thread with the ZoneIds to use for TZID parameter values that aren't
+     * java.time zone IDs, such as the Windows names in Outlook and Exchange exports.  A {@link VCalendar}
+     * parses its content with the ZoneIds of its VTIMEZONE components, so the date-times following them
+     * can be parsed.
+     * 
+     * @param zoneIds  ZoneIds by TZID, read during the parse
+     * @param parse  code that parses content
+     * @return  result of the parse
+     * @see VTimeZone#toZoneId()
+     */
+    public static <T> T parseWithZoneIds(Map<String, ZoneId> zoneIds, Supplier<T> parse)
+    {
+        Map<String, ZoneId> previousZoneIds = PARSING_ZONE_IDS.get();
+        PARSING_ZONE_IDS.set(zoneIds);
+        try
+        {
+            return parse.get();
+        } finally
         {
-            throw new DateTimeException("Can't parse date-time string:" + string);                        
+            if (previousZoneIds == null)
+            {
+                PARSING_ZONE_IDS.remove();
+            } else
+            {
+                PARSING_ZONE_IDS.set(previousZoneIds);
+            }
+        }
+    }
+    
+    /**
+     * Returns the ZoneId for a TZID parameter value.  IDs are matched case-insensitively, like
+     * {@link #ZONED_DATE_TIME_FORMATTER}, after the IDs of the parse running on this thread, see
+     * {@link #parseWithZoneIds(Map, Supplier)}.  Lookups of java.time zone IDs are cached.
+     * 
+     * @param timeZoneIdentifier  value of TZID parameter
+     * @return  matching ZoneId
+     * @throws DateTimeException if there is no matching ZoneId
+     */
+    public static ZoneId zoneIdFromString(String timeZoneIdentifier)
+    {
+        ZoneId zoneId = ZONE_ID_CACHE.get(timeZoneIdentifier);
+        if (zoneId == null)
+        {
+            try
+            {
+                zoneId = ZoneId.of(timeZoneIdentifier);
+            } catch (DateTimeException e)
+            {
+                Map<String, ZoneId> parsingZoneIds = PARSING_ZONE_IDS.get();
+                ZoneId parsingZoneId = (parsingZoneIds == null) ? null : parsingZoneIds.get(timeZoneIdentifier);
+                if (parsingZoneId != null) return parsingZoneId; // not cached, belongs to one calendar
+                zoneId = ZoneId.getAvailableZoneIds()
+                        .stream()
+                        .filter(id -> id.equalsIgnoreCase(timeZoneIdentifier))
+                        .findAny()
+                        .map(ZoneId::of)
+                        .orElseThrow(() -> e);
+            }
+            if (ZONE_ID_CACHE.size() < ZONE_ID_CACHE_SIZE)
+            {
+                ZONE_ID_CACHE.put(timeZoneIdentifier, zoneId);
+            }
         }
+        return zoneId;
     }
     
     
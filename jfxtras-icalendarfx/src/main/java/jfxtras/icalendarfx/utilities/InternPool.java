@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.utilities;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of immutable values shared by parsed properties and parameters, such as
+ * TZID=America/New_York, mailto URIs of ORGANIZER and ATTENDEE, CN values and CATEGORIES.
+ * Equal values parsed into different elements become the same instance.
+ * 
+ * <p>Only immutable values are pooled (String, URI and java.time values).  The elements of a List value
+ * are pooled, but the List stays owned by its property.  Because a pooled value is immutable, setting a
+ * new value on one property or parameter leaves the others unchanged.</p>
+ * 
+ * <p>Once the pool holds its maximum number of values, new values are no longer added.</p>
+ * 
+ * @see jfxtras.icalendarfx.ParseOptions#withInternPool(InternPool)
+ */
+public class InternPool
+{
+    /** Default maximum number of pooled values */
+    public static final int DEFAULT_MAX_SIZE = 100000;
+    
+    private static final ThreadLocal<InternPool> PARSING_POOL = new ThreadLocal<>();
+    
+    private final Map<Object, Object> values = new ConcurrentHashMap<>();
+    // URI equality ignores the case of some parts, so URIs are matched by their text
+    private final Map<String, URI> uris = new ConcurrentHashMap<>();
+    private final int maxSize;
+    
+    /**
+     * Returns the pool used by the parser on the calling thread, null if values aren't interned
+     * 
+     * @return  pool of the parse running on this thread, or null
+     */
+    public static InternPool parsingPool()
+    {
+        return PARSING_POOL.get();
+    }
+    
+    /**
+     * Runs the parse on the calling thread with this pool, so the values it creates are interned
+     * 
+     * @param parse  code that parses content
+     * @return  result of the parse
+     */
+    public <T> T parse(Supplier<T> parse)
+    {
+        InternPool previousPool = PARSING_POOL.get();
+        PARSING_POOL.set(this);
+        try
+        {
+            return parse.get();
+        } finally
+        {
+            if (previousPool == null)
+            {
+                PARSING_POOL.remove();
+            } else
+            {
+                PARSING_POOL.set(previousPool);
+            }
+        }
+    }
+    
+    /**
+     * Returns the pooled instance equal to the value.  An immutable value not yet in the pool is added and
+     * returned.  Elements of a List are replaced by their pooled instances.  Other values are returned unchanged.
+     * 
+     * @param value  value to intern, may be null
+     * @return  pooled instance, or value
+     */
+    public <T> T intern(T value)
+    {
+        final Object pooledValue;
+        if (value instanceof List)
+        {
+            internElements((List<?>) value);
+            pooledValue = value;
+        } else if (value instanceof URI)
+        {
+            pooledValue = internUri((URI) value);
+        } else if (isImmutable(value))
+        {
+            pooledValue = internImmutable(value);
+        } else
+        {
+            pooledValue = value;
+        }
+        @SuppressWarnings("unchecked") // the pooled value equals value, and equal values of these types have the same class
+        T typedValue = (T) pooledValue;
+        return typedValue;
+    }
+    
+    private Object internImmutable(Object value)
+    {
+        Object pooledValue = values.get(value);
+        if (pooledValue == null)
+        {
+            if (size() >= maxSize) return value;
+            pooledValue = values.putIfAbsent(value, value);
+            return (pooledValue == null) ? value : pooledValue;
+        }
+        return pooledValue;
+    }
+    
+    private URI internUri(URI uri)
+    {
+        String key = uri.toString();
+        URI pooledUri = uris.get(key);
+        if (pooledUri == null)
+        {
+            if (size() >= maxSize) return uri;
+            pooledUri = uris.putIfAbsent(intern(key), uri);
+            return (pooledUri == null) ? uri : pooledUri;
+        }
+        return pooledUri;
+    }
+    
+    private <E> void internElements(List<E> list)
+    {
+        try
+        {
+            ListIterator<E> i = list.listIterator();
+            while (i.hasNext())
+            {
+                E element = i.next();
+                E pooledElement = intern(element);
+                if (pooledElement != element)
+                {
+                    i.set(pooledElement);
+                }
+            }
+        } catch (UnsupportedOperationException e)
+        {
+            // unmodifiable list - leave elements as they are
+        }
+    }
+    
+    private static boolean isImmutable(Object value)
+    {
+        return (value instanceof String) || (value instanceof LocalDate) || (value instanceof LocalDateTime) ||
+                (value instanceof ZonedDateTime) || (value instanceof OffsetDateTime) || (value instanceof Instant) ||
+                (value instanceof LocalTime) || (value instanceof ZoneId) || (value instanceof Duration) ||
+                (value instanceof Period) || (value instanceof Integer);
+    }
+    
+    /** Number of pooled values */
+    public int size()
+    {
+        return values.size() + uris.size();
+    }
+    
+    /** Maximum number of pooled values */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+    
+    /*
+     * CONSTRUCTORS
+     */
+    /** Creates a pool holding up to {@link #DEFAULT_MAX_SIZE} values */
+    public InternPool()
+    {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    /** Creates a pool holding up to maxSize values */
+    public InternPool(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+}
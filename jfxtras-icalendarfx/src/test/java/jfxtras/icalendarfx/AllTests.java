@@ -33,10 +33,19 @@ import org.junit.runners.Suite.SuiteClasses;
 import jfxtras.icalendarfx.calendar.CalendarScaleTest;
 import jfxtras.icalendarfx.calendar.CopyCalendarTest;
 import jfxtras.icalendarfx.calendar.GeneralCalendarTest;
+import jfxtras.icalendarfx.calendar.ICalendarReaderTest;
+import jfxtras.icalendarfx.calendar.CalendarStoreTest;
+import jfxtras.icalendarfx.calendar.DirtyTrackingTest;
+import jfxtras.icalendarfx.calendar.InternPoolTest;
+import jfxtras.icalendarfx.calendar.ParallelParseTest;
 import jfxtras.icalendarfx.calendar.ParseCalendarTest;
+import jfxtras.icalendarfx.calendar.ParseChannelTest;
 import jfxtras.icalendarfx.calendar.ReadICSFileTest;
 import jfxtras.icalendarfx.calendar.RecurrenceIDParentValidTest;
+import jfxtras.icalendarfx.calendar.UidIndexTest;
+import jfxtras.icalendarfx.calendar.VCalendarIndexTest;
 import jfxtras.icalendarfx.calendar.VCalendarRecurrenceIDTest;
+import jfxtras.icalendarfx.calendar.WriteToTest;
 import jfxtras.icalendarfx.component.BaseTest;
 import jfxtras.icalendarfx.component.ComponentStatusTest;
 import jfxtras.icalendarfx.component.CopyComponentTest;
@@ -51,6 +60,7 @@ import jfxtras.icalendarfx.component.LocatableTest;
 import jfxtras.icalendarfx.component.ParseComponentTest;
 import jfxtras.icalendarfx.component.PersonalTest;
 import jfxtras.icalendarfx.component.PrimaryTest;
+import jfxtras.icalendarfx.component.RecurrenceCacheTest;
 import jfxtras.icalendarfx.component.RepeatableTest;
 import jfxtras.icalendarfx.component.ScheduleConflictTest;
 import jfxtras.icalendarfx.component.StandardOrDaylightTimeTest;
@@ -96,6 +106,7 @@ import jfxtras.icalendarfx.parameter.rrule.ByYearDayTest;
 import jfxtras.icalendarfx.parameter.rrule.FrequencyTest;
 import jfxtras.icalendarfx.parameter.rrule.IntervalTest;
 import jfxtras.icalendarfx.parameter.rrule.RRuleErrorTest;
+import jfxtras.icalendarfx.parameter.rrule.RecurrenceIteratorTest;
 import jfxtras.icalendarfx.parameter.rrule.RecurrenceRuleParseTest;
 import jfxtras.icalendarfx.parameter.rrule.RecurrenceRuleStreamTest;
 import jfxtras.icalendarfx.property.calendar.MethodTest;
@@ -165,11 +176,20 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         CalendarScaleTest.class,
         CopyCalendarTest.class,
         GeneralCalendarTest.class,
+        ICalendarReaderTest.class,
+        InternPoolTest.class,
+        DirtyTrackingTest.class,
+        CalendarStoreTest.class,
         OrdererTest.class,
+        ParallelParseTest.class,
         ParseCalendarTest.class,
+        ParseChannelTest.class,
+        WriteToTest.class,
         ReadICSFileTest.class,
         RecurrenceIDParentValidTest.class,
         VCalendarRecurrenceIDTest.class,
+        VCalendarIndexTest.class,
+        UidIndexTest.class,
                 
         //component tests
         BaseTest.class,
@@ -188,6 +208,7 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         PersonalTest.class,
         PrimaryTest.class,
         RepeatableTest.class,
+        RecurrenceCacheTest.class,
         ScheduleConflictTest.class,
         StandardOrDaylightTimeTest.class,
         VAlarmTest.class,
@@ -268,6 +289,7 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         IntervalTest.class,
         RecurrenceRuleParseTest.class,
         RecurrenceRuleStreamTest.class,
+        RecurrenceIteratorTest.class,
         ByRuleTest.class
               })
 
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.CalendarStore;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VPersonal;
+
+public class CalendarStoreTest
+{
+    private static final ZoneId ZONE = ZoneId.of("America/Los_Angeles");
+    
+    private static final String CONTENT = "BEGIN:VCALENDAR" + System.lineSeparator() +
+            "VERSION:2.0" + System.lineSeparator() +
+            "PRODID:-//JFxtras//iCalendarFx-2.0//EN" + System.lineSeparator() +
+            "BEGIN:VTIMEZONE" + System.lineSeparator() +
+            "TZID:W. Europe Standard Time" + System.lineSeparator() +
+            "BEGIN:STANDARD" + System.lineSeparator() +
+            "DTSTART:16011028T030000" + System.lineSeparator() +
+            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=10" + System.lineSeparator() +
+            "TZOFFSETFROM:+0200" + System.lineSeparator() +
+            "TZOFFSETTO:+0100" + System.lineSeparator() +
+            "END:STANDARD" + System.lineSeparator() +
+            "BEGIN:DAYLIGHT" + System.lineSeparator() +
+            "DTSTART:16010325T020000" + System.lineSeparator() +
+            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=3" + System.lineSeparator() +
+            "TZOFFSETFROM:+0100" + System.lineSeparator() +
+            "TZOFFSETTO:+0200" + System.lineSeparator() +
+            "END:DAYLIGHT" + System.lineSeparator() +
+            "END:VTIMEZONE" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:single@jfxtras.org" + System.lineSeparator() +
+            "DTSTART:20160105T100000" + System.lineSeparator() +
+            "DTEND:20160105T110000" + System.lineSeparator() +
+            "SUMMARY:Single" + System.lineSeparator() +
+            "BEGIN:VALARM" + System.lineSeparator() +
+            "ACTION:DISPLAY" + System.lineSeparator() +
+            "DESCRIPTION:Reminder" + System.lineSeparator() +
+            "TRIGGER:-PT15M" + System.lineSeparator() +
+            "DURATION:PT5M" + System.lineSeparator() +
+            "REPEAT:2" + System.lineSeparator() +
+            "END:VALARM" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:daily@jfxtras.org" + System.lineSeparator() +
+            "DTSTART;TZID=W. Europe Standard Time:20160101T090000" + System.lineSeparator() +
+            "DURATION:PT1H" + System.lineSeparator() +
+            "RRULE:FREQ=DAILY" + System.lineSeparator() +
+            "SUMMARY:Daily" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:daily@jfxtras.org" + System.lineSeparator() +
+            "RECURRENCE-ID;TZID=W. Europe Standard Time:20160103T090000" + System.lineSeparator() +
+            "DTSTART;TZID=W. Europe Standard Time:20160103T120000" + System.lineSeparator() +
+            "DURATION:PT1H" + System.lineSeparator() +
+            "SUMMARY:Daily moved" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:weekly@jfxtras.org" + System.lineSeparator() +
+            "DTSTART;VALUE=DATE:20151201" + System.lineSeparator() +
+            "RRULE:FREQ=WEEKLY;COUNT=3" + System.lineSeparator() +
+            "SUMMARY:Weekly" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "BEGIN:VTODO" + System.lineSeparator() +
+            "UID:todo@jfxtras.org" + System.lineSeparator() +
+            "DUE:20160110T170000" + System.lineSeparator() +
+            "SUMMARY:Todo" + System.lineSeparator() +
+            "END:VTODO" + System.lineSeparator() +
+            "END:VCALENDAR";
+    
+    private static Path writeIcsFile() throws IOException
+    {
+        Path icsFile = Files.createTempFile("calendar", ".ics");
+        icsFile.toFile().deleteOnExit();
+        Files.write(icsFile, CONTENT.getBytes(StandardCharsets.UTF_8));
+        return icsFile;
+    }
+    
+    private static Path newStoreFile() throws IOException
+    {
+        Path storeFile = Files.createTempFile("calendar", ".store");
+        storeFile.toFile().deleteOnExit();
+        return storeFile;
+    }
+    
+    private static List<String> summaries(List<VComponent> components)
+    {
+        return components.stream()
+                .map(c -> ((VEvent) c).getSummary().getValue())
+                .collect(Collectors.toList());
+    }
+    
+    private static void assertQueries(CalendarStore store)
+    {
+        assertEquals(5, store.size());
+        assertEquals(ZONE, store.getZone());
+        
+        List<VComponent> january5 = store.query(LocalDate.of(2016, 1, 5), LocalDate.of(2016, 1, 6));
+        assertEquals(Arrays.asList("Daily", "Single"), summaries(january5));
+        
+        List<VComponent> november = store.query(LocalDate.of(2015, 11, 1), LocalDate.of(2015, 12, 1));
+        assertTrue(november.isEmpty());
+        
+        List<VComponent> december = store.query(LocalDate.of(2015, 12, 10), LocalDate.of(2015, 12, 20));
+        assertEquals(Arrays.asList("Weekly"), summaries(december));
+        
+        // after the last of the 3 weekly occurrences, only the infinite daily event is left
+        List<VComponent> june = store.query(ZonedDateTime.of(LocalDateTime.of(2016, 6, 1, 0, 0), ZONE),
+                ZonedDateTime.of(LocalDateTime.of(2016, 6, 2, 0, 0), ZONE));
+        assertEquals(Arrays.asList("Daily"), summaries(june));
+        
+        List<VComponent> todos = store.query(LocalDateTime.of(2016, 1, 10, 0, 0), LocalDateTime.of(2016, 1, 11, 0, 0));
+        assertEquals(2, todos.size());
+        assertEquals("todo@jfxtras.org", ((VPersonal<?>) todos.get(1)).getUniqueIdentifier().getValue());
+    }
+    
+    @Test
+    public void canWriteAndQueryCalendar() throws IOException
+    {
+        Path storeFile = newStoreFile();
+        CalendarStore.write(VCalendar.parse(CONTENT), storeFile, ZONE);
+        try (CalendarStore store = CalendarStore.open(storeFile))
+        {
+            assertQueries(store);
+            VEvent vEvent = (VEvent) store.get("single@jfxtras.org").get(0);
+            assertEquals(VCalendar.parse(CONTENT).getVEvents().get(0), vEvent);
+        }
+    }
+    
+    @Test
+    public void canStreamIcsFile() throws IOException
+    {
+        Path storeFile = newStoreFile();
+        CalendarStore.write(writeIcsFile(), storeFile, ZONE);
+        try (CalendarStore store = CalendarStore.open(storeFile))
+        {
+            assertQueries(store);
+            List<VComponent> daily = store.get("daily@jfxtras.org");
+            assertEquals(Arrays.asList("Daily", "Daily moved"), summaries(daily));
+            VEvent moved = (VEvent) daily.get(1);
+            assertEquals(ZonedDateTime.of(LocalDateTime.of(2016, 1, 3, 12, 0), ZoneId.of("Europe/Berlin")).toInstant(),
+                    ZonedDateTime.from(moved.getDateTimeStart().getValue()).toInstant());
+            assertTrue(store.get("missing@jfxtras.org").isEmpty());
+        }
+    }
+    
+    @Test
+    public void canKeepStoreAfterFailedWrite() throws IOException
+    {
+        Path storeFile = newStoreFile();
+        CalendarStore.write(writeIcsFile(), storeFile, ZONE);
+        Path icsFile = Files.createTempFile("calendar", ".ics");
+        icsFile.toFile().deleteOnExit();
+        String brokenContent = CONTENT.replace("DTSTART:20160105T100000", "DTSTART;TZID=Nowhere/Unknown:20160105T100000");
+        Files.write(icsFile, brokenContent.getBytes(StandardCharsets.UTF_8));
+        try
+        {
+            CalendarStore.write(icsFile, storeFile, ZONE);
+            fail("Expected the unknown TZID to fail the write");
+        } catch (DateTimeException e)
+        {
+            // expected
+        }
+        try (CalendarStore store = CalendarStore.open(storeFile))
+        {
+            assertQueries(store);
+        }
+        try (Stream<Path> files = Files.list(storeFile.toAbsolutePath().getParent()))
+        {
+            String prefix = storeFile.getFileName().toString();
+            assertFalse(files.anyMatch(f -> f.getFileName().toString().startsWith(prefix) && f.toString().endsWith(".tmp")));
+        }
+    }
+    
+    @Test
+    public void canQueryAfterLongComponent() throws IOException
+    {
+        VCalendar vCalendar = new VCalendar();
+        vCalendar.addChild(new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 0, 0))
+                .withDateTimeEnd(LocalDateTime.of(2016, 12, 31, 0, 0))
+                .withSummary("Year"));
+        for (int day=0; day<100; day++)
+        {
+            vCalendar.addChild(new VEvent()
+                    .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0).plusDays(day))
+                    .withDateTimeEnd(LocalDateTime.of(2016, 1, 1, 11, 0).plusDays(day))
+                    .withSummary("Day " + day));
+        }
+        Path storeFile = newStoreFile();
+        CalendarStore.write(vCalendar, storeFile, ZONE);
+        try (CalendarStore store = CalendarStore.open(storeFile))
+        {
+            assertEquals(Arrays.asList("Year", "Day 50"), summaries(store.query(LocalDate.of(2016, 2, 20), LocalDate.of(2016, 2, 21))));
+            assertEquals(Arrays.asList("Year"), summaries(store.query(LocalDate.of(2016, 6, 1), LocalDate.of(2016, 6, 2))));
+            assertTrue(store.query(LocalDate.of(2017, 1, 1), LocalDate.of(2017, 1, 2)).isEmpty());
+        }
+    }
+    
+    @Test
+    public void canReadCalendarProperties() throws IOException
+    {
+        Path storeFile = newStoreFile();
+        CalendarStore.write(writeIcsFile(), storeFile, ZONE);
+        try (CalendarStore store = CalendarStore.open(storeFile))
+        {
+            VCalendar vCalendar = store.getCalendar();
+            assertEquals("2.0", vCalendar.getVersion().getValue());
+            assertEquals(1, vCalendar.getVTimeZones().size());
+            assertNull(vCalendar.getVEvents());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ChangeLog;
+import jfxtras.icalendarfx.ChangeLog.Change;
+import jfxtras.icalendarfx.ChangeLog.ChangeType;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
+
+public class DirtyTrackingTest
+{
+    private static final String CONTENT = "BEGIN:VCALENDAR" + System.lineSeparator() +
+            "VERSION:2.0" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:1@jfxtras.org" + System.lineSeparator() +
+            "DTSTART:20160101T100000" + System.lineSeparator() +
+            "SUMMARY:First" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "BEGIN:VEVENT" + System.lineSeparator() +
+            "UID:2@jfxtras.org" + System.lineSeparator() +
+            "DTSTART:20160102T100000" + System.lineSeparator() +
+            "SUMMARY:Second" + System.lineSeparator() +
+            "RRULE:FREQ=WEEKLY;BYDAY=SA" + System.lineSeparator() +
+            "EXDATE:20160109T100000" + System.lineSeparator() +
+            "END:VEVENT" + System.lineSeparator() +
+            "END:VCALENDAR";
+    
+    @Test
+    public void canReuseUnchangedContent()
+    {
+        VCalendar vCalendar = VCalendar.parse(CONTENT);
+        assertTrue(vCalendar.isDirty());
+        String content = vCalendar.toCachedString();
+        assertEquals(CONTENT, content);
+        assertFalse(vCalendar.isDirty());
+        vCalendar.getVEvents().forEach(v -> assertFalse(v.isDirty()));
+        assertSame(content, vCalendar.toCachedString());
+        VEvent vEvent = vCalendar.getVEvents().get(0);
+        assertSame(vEvent.toCachedString(), vEvent.toCachedString());
+    }
+    
+    @Test
+    public void canRenderChangedComponent()
+    {
+        VCalendar vCalendar = VCalendar.parse(CONTENT);
+        vCalendar.toCachedString();
+        VEvent first = vCalendar.getVEvents().get(0);
+        VEvent second = vCalendar.getVEvents().get(1);
+        String secondContent = second.toCachedString();
+        
+        first.setSummary("Changed");
+        assertTrue(first.isDirty());
+        assertTrue(vCalendar.isDirty());
+        assertFalse(second.isDirty());
+        
+        String expectedContent = CONTENT.replace("SUMMARY:First", "SUMMARY:Changed");
+        assertEquals(expectedContent, vCalendar.toCachedString());
+        assertEquals(expectedContent, new VCalendar(vCalendar).toCachedString());
+        assertSame(secondContent, second.toCachedString());
+    }
+
+    @Test
+    public void canRenderInPlaceChanges()
+    {
+        VCalendar vCalendar = VCalendar.parse(CONTENT);
+        vCalendar.toCachedString();
+        VEvent vEvent = vCalendar.getVEvents().get(1);
+        
+        ByDay byDay = (ByDay) vEvent.getRecurrenceRule().getValue().lookupByRule(ByDay.class);
+        byDay.addDayOfWeek(DayOfWeek.SUNDAY);
+        assertTrue(vCalendar.isDirty());
+        String expectedContent = CONTENT.replace("BYDAY=SA", "BYDAY=SA,SU");
+        assertEquals(expectedContent, vCalendar.toCachedString());
+        
+        // value changed in place, the cached content needs markDirty
+        vEvent.getExceptionDates().get(0).getValue().add(LocalDateTime.of(2016, 1, 16, 10, 0));
+        String expectedContent2 = expectedContent.replace("EXDATE:20160109T100000", "EXDATE:20160109T100000,20160116T100000");
+        assertEquals(expectedContent, vCalendar.toCachedString());
+        vEvent.getExceptionDates().get(0).markDirty();
+        assertEquals(expectedContent2, vCalendar.toCachedString());
+    }
+    
+    @Test
+    public void canRenderInPlaceChangesWithoutCache()
+    {
+        VCalendar vCalendar = VCalendar.parse(CONTENT);
+        vCalendar.toCachedString();
+        VEvent vEvent = vCalendar.getVEvents().get(1);
+        
+        // toString isn't cached, so it shows a value changed in place without markDirty
+        vEvent.getExceptionDates().get(0).getValue().add(LocalDateTime.of(2016, 1, 16, 10, 0));
+        String expectedContent = CONTENT.replace("EXDATE:20160109T100000", "EXDATE:20160109T100000,20160116T100000");
+        assertEquals(expectedContent, vCalendar.toString());
+        assertEquals(expectedContent.substring(expectedContent.lastIndexOf("BEGIN:VEVENT")).replace(System.lineSeparator() + "END:VCALENDAR", ""),
+                vEvent.toString());
+    }
+    
+    @Test
+    public void canLogChanges()
+    {
+        VCalendar vCalendar = VCalendar.parse(CONTENT);
+        ChangeLog changeLog = new ChangeLog();
+        vCalendar.setChangeLog(changeLog);
+        VEvent first = vCalendar.getVEvents().get(0);
+        
+        first.setSummary("Changed");
+        first.setSummary("Changed again"); // not logged again
+        VEvent added = new VEvent()
+                .withUniqueIdentifier("3@jfxtras.org")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 3, 10, 0));
+        vCalendar.addChild(added);
+        vCalendar.removeChild(vCalendar.getVEvents().get(1));
+        
+        List<Change> changes = changeLog.changesSince(0);
+        assertEquals(3, changes.size());
+        assertEquals(ChangeType.CHANGED, changes.get(0).getType());
+        assertSame(first, changes.get(0).getComponent());
+        assertEquals(ChangeType.ADDED, changes.get(1).getType());
+        assertSame(added, changes.get(1).getComponent());
+        assertEquals(ChangeType.REMOVED, changes.get(2).getType());
+        assertEquals("2@jfxtras.org", ((VEvent) changes.get(2).getComponent()).getUniqueIdentifier().getValue());
+        assertEquals(3, changeLog.lastSequence());
+        
+        changeLog.discardThrough(2);
+        assertEquals(1, changeLog.changesSince(0).size());
+        first.setSummary("Changed once more"); // logged, last entry is a different component
+        assertEquals(4, changeLog.changesSince(3).get(0).getSequence());
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.content.ICalendarHandler;
+import jfxtras.icalendarfx.content.ICalendarReader;
+import jfxtras.icalendarfx.content.UnfoldingStringIterator;
+
+public class ICalendarReaderTest
+{
+    @Test
+    public void canPushContent()
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "VERSION:2.0" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART;TZID=America/Los_Angeles:20160207T123000" + System.lineSeparator() +
+                "ATTENDEE;CN=\"Doe: John\";ROLE=REQ-PARTICIPANT:mailto:jdoe@example.com" + System.lineSeparator() +
+                "BEGIN:VALARM" + System.lineSeparator() +
+                "ACTION:DISPLAY" + System.lineSeparator() +
+                "END:VALARM" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        List<String> events = new ArrayList<>();
+        ICalendarHandler handler = new ICalendarHandler()
+        {
+            @Override
+            public boolean startComponent(String name)
+            {
+                events.add("start " + name);
+                return true;
+            }
+            @Override
+            public void property(String name, String parameters, String value)
+            {
+                events.add(name + "|" + parameters + "|" + value);
+            }
+            @Override
+            public void endComponent(String name)
+            {
+                events.add("end " + name);
+            }
+        };
+        Iterator<String> lines = new UnfoldingStringIterator(Arrays.asList(content.split(System.lineSeparator())).iterator());
+        ICalendarReader.read(lines, handler);
+        List<String> expectedEvents = Arrays.asList(
+                "start VCALENDAR",
+                "VERSION|null|2.0",
+                "start VEVENT",
+                "DTSTART|TZID=America/Los_Angeles|20160207T123000",
+                "ATTENDEE|CN=\"Doe: John\";ROLE=REQ-PARTICIPANT|mailto:jdoe@example.com",
+                "start VALARM",
+                "ACTION|null|DISPLAY",
+                "end VALARM",
+                "end VEVENT",
+                "end VCALENDAR");
+        assertEquals(expectedEvents, events);
+    }
+
+    @Test
+    public void canReadFile() throws IOException
+    {
+        URL url = getClass().getResource("mathBirthdays.ics");
+        Path icsFilePath = Paths.get(url.getFile());
+        List<String> uids = new ArrayList<>();
+        ICalendarReader.read(icsFilePath, new ICalendarHandler()
+        {
+            @Override
+            public void property(String name, String parameters, String value)
+            {
+                if (name.equals("UID")) uids.add(value);
+            }
+        });
+        VCalendar vCalendar = VCalendar.parse(icsFilePath);
+        assertEquals(vCalendar.getVEvents().size(), uids.size());
+        assertEquals(vCalendar.getVEvents().get(0).getUniqueIdentifier().getValue(), uids.get(0));
+    }
+
+    @Test
+    public void canSkipComponents()
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:1" + System.lineSeparator() +
+                "BEGIN:VALARM" + System.lineSeparator() +
+                "ACTION:DISPLAY" + System.lineSeparator() +
+                "END:VALARM" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "BEGIN:VTODO" + System.lineSeparator() +
+                "UID:2" + System.lineSeparator() +
+                "END:VTODO" + System.lineSeparator() +
+                "END:VCALENDAR";
+        List<String> events = new ArrayList<>();
+        ICalendarHandler handler = new ICalendarHandler()
+        {
+            @Override
+            public boolean startComponent(String name)
+            {
+                return ! name.equals("VEVENT");
+            }
+            @Override
+            public void property(String name, String parameters, String value)
+            {
+                events.add(name + ":" + value);
+            }
+            @Override
+            public void endComponent(String name)
+            {
+                events.add("end " + name);
+            }
+        };
+        Iterator<String> lines = Arrays.asList(content.split(System.lineSeparator())).iterator();
+        ICalendarReader.read(lines, handler);
+        assertEquals(Arrays.asList("UID:2", "end VTODO", "end VCALENDAR"), events);
+    }
+}
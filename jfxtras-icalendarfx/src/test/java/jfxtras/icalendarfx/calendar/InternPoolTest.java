@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ParseOptions;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.VProperty;
+import jfxtras.icalendarfx.utilities.InternPool;
+
+public class InternPoolTest
+{
+    private static String makeContent(int eventCount)
+    {
+        StringBuilder builder = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+        for (int i=0; i<eventCount; i++)
+        {
+            builder.append("BEGIN:VEVENT\r\n")
+                .append("UID:" + i + "@jfxtras.org\r\n")
+                .append("DTSTAMP:20160101T000000Z\r\n")
+                .append("DTSTART;TZID=America/New_York:2016010" + (1 + i%9) + "T100000\r\n")
+                .append("SUMMARY:Meeting " + i + "\r\n")
+                .append("ORGANIZER;CN=John Doe:mailto:john" + (i%5) + "@example.com\r\n")
+                .append("ATTENDEE;CN=Jane Roe;ROLE=REQ-PARTICIPANT;PARTSTAT=ACCEPTED:mailto:jane@example.com\r\n")
+                .append("CATEGORIES:Work,Meeting\r\n")
+                .append("END:VEVENT\r\n");
+        }
+        return builder.append("END:VCALENDAR\r\n").toString();
+    }
+    
+    private static VCalendar parse(String content, ParseOptions options) throws IOException
+    {
+        return VCalendar.parse(Channels.newChannel(new ByteArrayInputStream(content.getBytes())), options);
+    }
+    
+    /* Number of distinct value instances held by the events' properties and parameters */
+    private static int countValueInstances(VCalendar vCalendar)
+    {
+        Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (VEvent vEvent : vCalendar.getVEvents())
+        {
+            vEvent.childrenUnmodifiable().forEach(c ->
+            {
+                Object value = ((VProperty<?>) c).getValue();
+                if (value instanceof List)
+                {
+                    values.addAll((List<?>) value);
+                } else
+                {
+                    values.add(value);
+                }
+            });
+            values.add(vEvent.getDateTimeStart().getTimeZoneIdentifier().getValue());
+            values.add(vEvent.getOrganizer().getCommonName().getValue());
+            values.add(vEvent.getAttendees().get(0).getCommonName().getValue());
+        }
+        return values.size();
+    }
+    
+    @Test
+    public void canShareParsedValues() throws IOException
+    {
+        String content = makeContent(100);
+        VCalendar vCalendar = parse(content, new ParseOptions().withInternPool(new InternPool()));
+        VCalendar expectedVCalendar = parse(content, new ParseOptions());
+        assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+        
+        VEvent vEvent0 = vCalendar.getVEvents().get(0);
+        VEvent vEvent5 = vCalendar.getVEvents().get(5);
+        assertSame(vEvent0.getOrganizer().getValue(), vEvent5.getOrganizer().getValue());
+        assertSame(vEvent0.getOrganizer().getCommonName().getValue(), vEvent5.getOrganizer().getCommonName().getValue());
+        assertSame(vEvent0.getDateTimeStamp().getValue(), vEvent5.getDateTimeStamp().getValue());
+        assertSame(vEvent0.getCategories().get(0).getValue().get(1), vEvent5.getCategories().get(0).getValue().get(1));
+        VEvent expectedVEvent0 = expectedVCalendar.getVEvents().get(0);
+        VEvent expectedVEvent5 = expectedVCalendar.getVEvents().get(5);
+        assertNotSame(expectedVEvent0.getOrganizer().getValue(), expectedVEvent5.getOrganizer().getValue());
+    }
+    
+    /* Footprint measured as the number of distinct value objects, which doesn't depend on the garbage collector */
+    @Test
+    public void canReduceFootprint() throws IOException
+    {
+        String content = makeContent(1000);
+        int plainCount = countValueInstances(parse(content, new ParseOptions()));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            int internedCount = countValueInstances(parse(content, new ParseOptions().withInternPool(new InternPool())));
+            int parallelInternedCount = countValueInstances(parse(content,
+                    ParseOptions.parallel(pool).withInternPool(new InternPool())));
+            assertEquals(internedCount, parallelInternedCount);
+            assertTrue(plainCount + " " + internedCount, internedCount * 3 < plainCount);
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void canCopyOnWrite() throws IOException
+    {
+        VCalendar vCalendar = parse(makeContent(10), new ParseOptions().withInternPool(new InternPool()));
+        VEvent vEvent0 = vCalendar.getVEvents().get(0);
+        VEvent vEvent5 = vCalendar.getVEvents().get(5);
+        vEvent0.getOrganizer().getCommonName().setValue("Jim Doe");
+        vEvent0.getCategories().get(0).getValue().set(1, "Lunch");
+        vEvent0.getDateTimeStart().getTimeZoneIdentifier().setValue("Europe/Paris");
+        assertEquals("ORGANIZER;CN=Jim Doe:mailto:john0@example.com", vEvent0.getOrganizer().toString());
+        assertEquals("ORGANIZER;CN=John Doe:mailto:john0@example.com", vEvent5.getOrganizer().toString());
+        assertEquals("CATEGORIES:Work,Meeting", vEvent5.getCategories().get(0).toString());
+        assertEquals("DTSTART;TZID=America/New_York:20160106T100000", vEvent5.getDateTimeStart().toString());
+    }
+    
+    @Test
+    public void canLimitPoolSize() throws IOException
+    {
+        String content = makeContent(50);
+        InternPool internPool = new InternPool(10);
+        VCalendar vCalendar = parse(content, new ParseOptions().withInternPool(internPool));
+        assertEquals(10, internPool.size());
+        assertEquals(parse(content, new ParseOptions()).toString(), vCalendar.toString());
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ParseOptions;
+import jfxtras.icalendarfx.VCalendar;
+
+public class ParallelParseTest
+{
+    @Test
+    public void canParseInParallel() throws IOException
+    {
+        URL url = getClass().getResource("mathBirthdays.ics");
+        Path icsFilePath = Paths.get(url.getFile());
+        VCalendar expectedVCalendar = VCalendar.parse(icsFilePath);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            VCalendar vCalendar = VCalendar.parse(icsFilePath, ParseOptions.parallel(pool));
+            assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+            assertEquals(expectedVCalendar.childrenUnmodifiable().size(), vCalendar.childrenUnmodifiable().size());
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void canKeepOrderOfComponentsAndProperties() throws IOException
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "VERSION:2.0" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:1" + System.lineSeparator() +
+                "BEGIN:VALARM" + System.lineSeparator() +
+                "ACTION:DISPLAY" + System.lineSeparator() +
+                "DESCRIPTION:Test alarm" + System.lineSeparator() +
+                "TRIGGER;RELATED=START:-PT30M" + System.lineSeparator() +
+                "END:VALARM" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "BEGIN:VTODO" + System.lineSeparator() +
+                "UID:2" + System.lineSeparator() +
+                "END:VTODO" + System.lineSeparator() +
+                "PRODID:-//JFxtras//JFXtras iCalendar 1.0//EN" + System.lineSeparator() +
+                "BEGIN:VJOURNAL" + System.lineSeparator() +
+                "UID:3" + System.lineSeparator() +
+                "END:VJOURNAL" + System.lineSeparator() +
+                "END:VCALENDAR";
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            VCalendar vCalendar = VCalendar.parse(
+                    java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(content.getBytes())),
+                    ParseOptions.parallel(pool).withMaxPendingComponents(1));
+            assertEquals(content, vCalendar.toString());
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test // the workers parse date-times referring to the VTIMEZONEs before them
+    public void canParseCustomTimeZoneInParallel() throws IOException
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:My Custom Zone" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:16010101T030000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0200" + System.lineSeparator() +
+                "TZOFFSETTO:+0100" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=10" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "BEGIN:DAYLIGHT" + System.lineSeparator() +
+                "DTSTART:16010101T020000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0100" + System.lineSeparator() +
+                "TZOFFSETTO:+0200" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=3" + System.lineSeparator() +
+                "END:DAYLIGHT" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:1" + System.lineSeparator() +
+                "DTSTART;TZID=My Custom Zone:20160705T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:2" + System.lineSeparator() +
+                "DTSTART;TZID=My Custom Zone:20161230T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            VCalendar vCalendar = VCalendar.parse(
+                    java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(content.getBytes())),
+                    ParseOptions.parallel(pool));
+            assertEquals(content, vCalendar.toString());
+            assertEquals(VCalendar.parse(content).toString(), vCalendar.toString());
+            ZonedDateTime dateTimeStart = (ZonedDateTime) vCalendar.getVEvents().get(1).getDateTimeStart().getValue();
+            assertEquals(Instant.parse("2016-12-30T09:00:00Z"), dateTimeStart.toInstant());
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test // the failure of the first component cancels the others and is thrown as in the sequential parse
+    public void canCancelPendingComponentsOnFailure() throws Exception
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:1" + System.lineSeparator() +
+                "DTSTART;TZID=Nowhere/Unknown:20160705T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:2" + System.lineSeparator() +
+                "DTSTART:20160706T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:3" + System.lineSeparator() +
+                "DTSTART:20160707T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        List<RunnableFuture<?>> futures = new ArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        // one worker, held up before the second component so the ones after the failure are still pending
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>())
+        {
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable)
+            {
+                RunnableFuture<T> future = super.newTaskFor(callable);
+                futures.add(future);
+                return future;
+            }
+
+            @Override
+            protected void beforeExecute(Thread t, Runnable r)
+            {
+                if (r != futures.get(0))
+                {
+                    try
+                    {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        try
+        {
+            VCalendar.parse(
+                    java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(content.getBytes())),
+                    ParseOptions.parallel(executor));
+            fail("Expected the unknown TZID to fail the parse");
+        } catch (DateTimeException e)
+        {
+            assertEquals(3, futures.size());
+            assertTrue(futures.get(1).isCancelled());
+            assertTrue(futures.get(2).isCancelled());
+        } finally
+        {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
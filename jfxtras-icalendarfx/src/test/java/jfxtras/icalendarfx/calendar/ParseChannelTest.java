@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.content.UnfoldingChannelIterator;
+
+public class ParseChannelTest
+{
+    @Test
+    public void canParseFromChannel() throws IOException
+    {
+        URL url = getClass().getResource("mathBirthdays.ics");
+        Path icsFilePath = Paths.get(url.getFile());
+        VCalendar expectedVCalendar = VCalendar.parse(Files.newBufferedReader(icsFilePath));
+        VCalendar vCalendar = VCalendar.parse(icsFilePath);
+        assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+        assertEquals(expectedVCalendar.getVEvents().size(), vCalendar.getVEvents().size());
+    }
+
+    @Test
+    public void canParseCRLFContent() throws IOException
+    {
+        String content = "BEGIN:VCALENDAR\r\n" +
+                "VERSION:2.0\r\n" +
+                "BEGIN:VEVENT\r\n" +
+                "SUMMARY:a folded\r\n" +
+                "  summary\r\n" +
+                "UID:20150110T080000-0@jfxtras.org\r\n" +
+                "END:VEVENT\r\n" +
+                "END:VCALENDAR\r\n";
+        VCalendar vCalendar = VCalendar.parse(Channels.newChannel(
+                new java.io.ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(1, vCalendar.getVEvents().size());
+        assertEquals("a folded summary", vCalendar.getVEvents().get(0).getSummary().getValue());
+    }
+
+    @Test
+    public void canUnfoldSplitMultiByteCharacter()
+    {
+        byte[] e = "é".getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[] { 'X', '-', 'A', ':', 'a', e[0], '\r', '\n', ' ', e[1], 'z', '\n', '\n', 'X', '-', 'B', ':', 'b' };
+        UnfoldingChannelIterator iterator = new UnfoldingChannelIterator(ByteBuffer.wrap(content));
+        List<String> lines = new ArrayList<>();
+        iterator.forEachRemaining(lines::add);
+        assertEquals(Arrays.asList("X-A:aéz", "X-B:b"), lines);
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VEvent;
+
+public class UidIndexTest
+{
+    private static VEvent makeParent(String uid)
+    {
+        return new VEvent()
+                .withUniqueIdentifier(uid)
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 10, 0))
+                .withDuration(Duration.ofHours(1))
+                .withRecurrenceRule("FREQ=DAILY");
+    }
+
+    private static VEvent makeChild(String uid, int day)
+    {
+        return new VEvent()
+                .withUniqueIdentifier(uid)
+                .withRecurrenceId(LocalDateTime.of(2016, 1, 4, 10, 0).plusDays(day))
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 14, 0).plusDays(day))
+                .withDuration(Duration.ofHours(1));
+    }
+
+    @Test
+    public void canFindRelatedComponents()
+    {
+        VEvent parent = makeParent("a");
+        VEvent child1 = makeChild("a", 1);
+        VEvent child2 = makeChild("a", 3);
+        VEvent other = makeParent("b");
+        VCalendar vCalendar = new VCalendar().withVEvents(Arrays.asList(child1, parent, other, child2));
+        assertEquals(Arrays.asList(child1, child2), parent.recurrenceChildren());
+        assertEquals(parent, child2.recurrenceParent());
+        assertTrue(other.recurrenceChildren().isEmpty());
+        assertEquals(child2, vCalendar.uidIndex().recurrenceChild(parent, LocalDateTime.of(2016, 1, 7, 10, 0)));
+        assertNull(vCalendar.uidIndex().recurrenceChild(parent, LocalDateTime.of(2016, 1, 6, 10, 0)));
+        assertEquals(3, vCalendar.uidIndex().related(makeParent("a")).size());
+    }
+
+    @Test
+    public void canStayInSync()
+    {
+        VEvent parent = makeParent("a");
+        VEvent child = makeChild("a", 1);
+        VCalendar vCalendar = new VCalendar().withVEvents(Arrays.asList(parent));
+        assertTrue(parent.recurrenceChildren().isEmpty());
+
+        vCalendar.addChild(child);
+        assertEquals(Arrays.asList(child), parent.recurrenceChildren());
+
+        child.setUniqueIdentifier("b");
+        assertTrue(parent.recurrenceChildren().isEmpty());
+        assertNull(child.recurrenceParent());
+        child.setUniqueIdentifier("a");
+        assertEquals(parent, child.recurrenceParent());
+
+        child.setRecurrenceId(LocalDateTime.of(2016, 1, 9, 10, 0));
+        assertEquals(child, vCalendar.uidIndex().recurrenceChild(parent, LocalDateTime.of(2016, 1, 9, 10, 0)));
+
+        vCalendar.removeChild(child);
+        assertTrue(parent.recurrenceChildren().isEmpty());
+        assertEquals(1, vCalendar.uidIndex().size());
+    }
+
+    /* 20,000 events, of which 2,000 are RECURRENCE-ID children.  Scanning the calendar for each lookup
+     * makes this quadratic. */
+    @Test
+    public void canFindRecurrenceChildrenInLargeCalendar()
+    {
+        List<VEvent> vEvents = new ArrayList<>();
+        List<VEvent> parents = new ArrayList<>();
+        List<VEvent> children = new ArrayList<>();
+        for (int i=0; i<18000; i++)
+        {
+            VEvent parent = makeParent("event" + i);
+            parents.add(parent);
+            vEvents.add(parent);
+        }
+        for (int i=0; i<2000; i++)
+        {
+            VEvent child = makeChild("event" + (i % 200), i / 200);
+            children.add(child);
+            vEvents.add(child);
+        }
+        new VCalendar().withVEvents(vEvents);
+
+        int childCount = 0;
+        for (VEvent parent : parents)
+        {
+            List<VDisplayable<?>> recurrenceChildren = parent.recurrenceChildren();
+            childCount += recurrenceChildren.size();
+        }
+        assertEquals(children.size(), childCount);
+        for (VEvent child : children)
+        {
+            VDisplayable<?> parent = child.recurrenceParent();
+            assertEquals(child.getUniqueIdentifier(), parent.getUniqueIdentifier());
+        }
+        assertEquals(10, parents.get(0).recurrenceChildren().size());
+    }
+
+    @Test
+    public void canLookUpFromOtherThreads() throws Exception
+    {
+        VEvent parent = makeParent("a");
+        VCalendar vCalendar = new VCalendar().withVEvents(Arrays.asList(parent));
+        vCalendar.uidIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean isDone = new AtomicBoolean();
+        try
+        {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i=0; i<2; i++)
+            {
+                readers.add(executor.submit(() ->
+                {
+                    while (! isDone.get())
+                    {
+                        parent.recurrenceChildren().forEach(c -> assertEquals(parent, c.recurrenceParent()));
+                    }
+                }));
+            }
+            for (int day=0; day<1000; day++)
+            {
+                vCalendar.addChild(makeChild("a", day));
+            }
+            isDone.set(true);
+            for (Future<?> reader : readers)
+            {
+                reader.get(); // rethrows a failed lookup
+            }
+        } finally
+        {
+            isDone.set(true);
+            executor.shutdown();
+        }
+        assertEquals(1000, parent.recurrenceChildren().size());
+        assertEquals(1001, vCalendar.uidIndex().size());
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VCalendarIndex;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.time.TimeTransparency.TimeTransparencyType;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.Pair;
+
+public class VCalendarIndexTest
+{
+    private static VCalendar makeCalendar()
+    {
+        return new VCalendar()
+                .withVEvents(new VEvent()
+                        .withUniqueIdentifier("daily")
+                        .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 10, 0))
+                        .withDuration(Duration.ofHours(1))
+                        .withRecurrenceRule("FREQ=DAILY;INTERVAL=2"))
+                .withVEvents(new VEvent()
+                        .withUniqueIdentifier("weekly")
+                        .withDateTimeStart(LocalDateTime.of(2016, 1, 5, 9, 0))
+                        .withDuration(Duration.ofHours(3))
+                        .withRecurrenceRule("FREQ=WEEKLY;BYDAY=TU,TH"))
+                .withVEvents(new VEvent()
+                        .withUniqueIdentifier("once")
+                        .withDateTimeStart(LocalDateTime.of(2016, 2, 1, 8, 0))
+                        .withDateTimeEnd(LocalDateTime.of(2016, 2, 3, 8, 0)));
+    }
+
+    /* Occurrences from brute force streaming of every event */
+    private static List<Temporal> expectedStarts(VCalendar vCalendar, LocalDateTime start, LocalDateTime end)
+    {
+        return vCalendar.getVEvents().stream()
+                .flatMap(v ->
+                {
+                    TemporalAmount duration = v.getActualDuration();
+                    return v.streamRecurrences(start, end)
+                            .filter(t -> DateTimeUtilities.isAfter(t.plus(duration), start));
+                })
+                .sorted(DateTimeUtilities.TEMPORAL_COMPARATOR)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void canQueryRanges()
+    {
+        VCalendar vCalendar = makeCalendar();
+        VCalendarIndex index = new VCalendarIndex(vCalendar, ZoneId.of("Europe/London"));
+        Random random = new Random(2016);
+        for (int i=0; i<200; i++)
+        {
+            LocalDateTime start = LocalDateTime.of(2016, 1, 1, 0, 0).plusMinutes(random.nextInt(200000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(20000));
+            List<Temporal> madeStarts = index.query(start, end).stream()
+                    .map(o -> o.getStart())
+                    .collect(Collectors.toList());
+            assertEquals(start + " " + end, expectedStarts(vCalendar, start, end), madeStarts);
+        }
+    }
+
+    @Test
+    public void canStayInSync()
+    {
+        VCalendar vCalendar = makeCalendar();
+        VCalendarIndex index = vCalendar.index();
+        LocalDateTime start = LocalDateTime.of(2016, 1, 4, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2016, 1, 5, 0, 0);
+        assertEquals(1, index.query(start, end).size());
+
+        VEvent newVEvent = new VEvent()
+                .withUniqueIdentifier("new")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 14, 0))
+                .withDuration(Duration.ofHours(1));
+        vCalendar.addChild(newVEvent);
+        assertEquals(2, index.query(start, end).size());
+
+        VEvent recurrenceChild = new VEvent()
+                .withUniqueIdentifier("daily")
+                .withRecurrenceId(LocalDateTime.of(2016, 1, 4, 10, 0))
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 16, 0))
+                .withDuration(Duration.ofHours(1));
+        vCalendar.addChild(recurrenceChild);
+        List<Temporal> starts = index.query(start, end).stream().map(o -> o.getStart()).collect(Collectors.toList());
+        assertEquals(Arrays.asList(LocalDateTime.of(2016, 1, 4, 14, 0), LocalDateTime.of(2016, 1, 4, 16, 0)), starts);
+        assertEquals(LocalDateTime.of(2016, 1, 4, 10, 0), index.query(start, end).get(1).getRecurrenceId());
+
+        vCalendar.removeChild(recurrenceChild);
+        vCalendar.removeChild(newVEvent);
+        starts = index.query(start, end).stream().map(o -> o.getStart()).collect(Collectors.toList());
+        assertEquals(Arrays.asList(LocalDateTime.of(2016, 1, 4, 10, 0)), starts);
+
+        VEvent daily = vCalendar.getVEvents().get(0);
+        daily.setDateTimeStart(LocalDateTime.of(2016, 1, 5, 10, 0));
+        index.refresh(daily);
+        assertEquals(0, index.query(start, end).size());
+    }
+
+    @Test
+    public void canFindConflicts()
+    {
+        VCalendar vCalendar = makeCalendar();
+        vCalendar.addChild(new VEvent()
+                .withUniqueIdentifier("transparent")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 10, 30))
+                .withDuration(Duration.ofHours(1))
+                .withTimeTransparency(TimeTransparencyType.TRANSPARENT));
+        VEvent newVEvent = new VEvent()
+                .withUniqueIdentifier("new")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 4, 10, 30))
+                .withDuration(Duration.ofMinutes(15))
+                .withRecurrenceRule("FREQ=DAILY;COUNT=3");
+        List<VCalendarIndex.Occurrence> conflicts = vCalendar.index().conflicts(newVEvent);
+        assertEquals(Arrays.asList(LocalDateTime.of(2016, 1, 4, 10, 0), LocalDateTime.of(2016, 1, 5, 9, 0), LocalDateTime.of(2016, 1, 6, 10, 0)),
+                conflicts.stream().map(o -> o.getStart()).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("daily", "weekly", "daily"),
+                conflicts.stream().map(o -> o.getUniqueIdentifier()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void canMoveHorizon()
+    {
+        VEvent hourly = new VEvent()
+                .withUniqueIdentifier("hourly")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 0, 0))
+                .withDuration(Duration.ofMinutes(30))
+                .withRecurrenceRule("FREQ=HOURLY");
+        VCalendarIndex index = new VCalendarIndex(Arrays.asList(hourly), ZoneOffset.UTC);
+        assertEquals(24, index.query(LocalDateTime.of(2016, 1, 2, 0, 0), LocalDateTime.of(2016, 1, 3, 0, 0)).size());
+        assertEquals(24, index.query(LocalDateTime.of(2026, 1, 2, 0, 0), LocalDateTime.of(2026, 1, 3, 0, 0)).size());
+        assertEquals(24, index.size()); // only the second day
+        
+        // overlapping range keeps occurrences inside it
+        List<VCalendarIndex.Occurrence> occurrences = index.query(LocalDateTime.of(2026, 1, 2, 12, 0), LocalDateTime.of(2026, 1, 3, 12, 0));
+        assertEquals(24, occurrences.size());
+        assertEquals(LocalDateTime.of(2026, 1, 2, 12, 0), occurrences.get(0).getStart());
+        assertEquals(24, index.size());
+    }
+
+    @Test
+    public void canFindFarApartConflicts()
+    {
+        VEvent hourly = new VEvent()
+                .withUniqueIdentifier("hourly")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 0, 0))
+                .withDuration(Duration.ofMinutes(30))
+                .withRecurrenceRule("FREQ=HOURLY");
+        VCalendarIndex index = new VCalendarIndex(Arrays.asList(hourly), ZoneOffset.UTC);
+        assertEquals(24, index.query(LocalDateTime.of(2016, 1, 2, 0, 0), LocalDateTime.of(2016, 1, 3, 0, 0)).size());
+        VEvent newVEvent = new VEvent()
+                .withUniqueIdentifier("new")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 15))
+                .withDuration(Duration.ofMinutes(30))
+                .withRecurrenceRule("FREQ=YEARLY");
+        List<VCalendarIndex.Occurrence> conflicts = index.conflicts(newVEvent);
+        assertEquals(VCalendarIndex.CONFLICT_CHECK_QUANTITY, conflicts.size());
+        assertEquals(LocalDateTime.of(2016, 1, 1, 10, 0), conflicts.get(0).getStart());
+        assertEquals(LocalDateTime.of(2415, 1, 1, 10, 0), conflicts.get(conflicts.size()-1).getStart());
+        assertEquals(24, index.size()); // the horizon of the last query is kept
+    }
+
+    @Test
+    public void canQueryEachRecurrence()
+    {
+        VEvent hourly = new VEvent()
+                .withUniqueIdentifier("hourly")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 0, 0))
+                .withDuration(Duration.ofMinutes(30))
+                .withRecurrenceRule("FREQ=HOURLY;INTERVAL=5");
+        VEvent long3Days = new VEvent()
+                .withUniqueIdentifier("long")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 3, 0, 0))
+                .withDuration(Duration.ofDays(3));
+        VCalendarIndex index = new VCalendarIndex(Arrays.asList(hourly, long3Days), ZoneOffset.UTC);
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (int day=0; day<10; day++) starts.add(LocalDateTime.of(2016, 1, 1, 10, 0).plusDays(day)); // one span
+        for (int year=1; year<4; year++) starts.add(LocalDateTime.of(2016, 1, 1, 10, 0).plusYears(year)); // a span each
+        
+        List<List<VCalendarIndex.Occurrence>> occurrences = index.queryEach(starts, Duration.ofHours(2));
+        assertEquals(starts.size(), occurrences.size());
+        for (int i=0; i<starts.size(); i++)
+        {
+            List<VCalendarIndex.Occurrence> expected = new VCalendarIndex(Arrays.asList(hourly, long3Days), ZoneOffset.UTC)
+                    .query(starts.get(i), starts.get(i).plusHours(2));
+            assertEquals(expected.stream().map(o -> o.getStart()).collect(Collectors.toList()),
+                    occurrences.get(i).stream().map(o -> o.getStart()).collect(Collectors.toList()));
+        }
+        assertEquals(0, index.size()); // nothing materialized in the index itself
+    }
+
+    @Test
+    public void canMakeFreeBusy()
+    {
+        VCalendar vCalendar = makeCalendar();
+        vCalendar.addChild(new VEvent()
+                .withUniqueIdentifier("overlapping")
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 6, 10, 30))
+                .withDuration(Duration.ofHours(1)));
+        VCalendarIndex index = new VCalendarIndex(vCalendar, ZoneOffset.UTC);
+        List<Pair<ZonedDateTime, TemporalAmount>> freeBusy = index.freeBusy(LocalDateTime.of(2016, 1, 5, 10, 0), LocalDateTime.of(2016, 1, 7, 0, 0));
+        List<Pair<ZonedDateTime, TemporalAmount>> expectedFreeBusy = Arrays.asList(
+                new Pair<>(ZonedDateTime.of(LocalDateTime.of(2016, 1, 5, 10, 0), ZoneOffset.UTC), Duration.ofHours(2)),
+                new Pair<>(ZonedDateTime.of(LocalDateTime.of(2016, 1, 6, 10, 0), ZoneOffset.UTC), Duration.ofMinutes(90)));
+        assertEquals(expectedFreeBusy, freeBusy);
+    }
+
+    @Test
+    public void canIndexManyOccurrences()
+    {
+        List<VEvent> vEvents = new ArrayList<>();
+        for (int i=0; i<200; i++)
+        {
+            vEvents.add(new VEvent()
+                    .withUniqueIdentifier("event" + i)
+                    .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 0, 0).plusMinutes(37 * i))
+                    .withDuration(Duration.ofMinutes(30 + i))
+                    .withRecurrenceRule("FREQ=HOURLY;INTERVAL=" + (i % 7 + 1)));
+        }
+        VCalendarIndex index = new VCalendarIndex(vEvents, ZoneId.of("UTC"));
+        LocalDateTime start = LocalDateTime.of(2016, 1, 20, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2016, 1, 21, 0, 0);
+        List<VCalendarIndex.Occurrence> occurrences = index.query(start, end);
+        long expected = vEvents.stream()
+                .flatMap(v -> v.streamRecurrences(start, end).filter(t -> DateTimeUtilities.isAfter(t.plus(v.getActualDuration()), start)))
+                .count();
+        assertEquals(expected, occurrences.size());
+        List<VCalendarIndex.Occurrence> sorted = new ArrayList<>(occurrences);
+        sorted.sort(Comparator.comparing(o -> (LocalDateTime) o.getStart()));
+        assertEquals(sorted, occurrences);
+    }
+}
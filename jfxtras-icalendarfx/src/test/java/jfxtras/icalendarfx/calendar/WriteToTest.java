@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.content.ContentLineWriter;
+
+public class WriteToTest
+{
+    @Test
+    public void canWriteSameContentAsToString() throws IOException
+    {
+        URL url = getClass().getResource("Yahoo_Sample_Calendar.ics");
+        Path icsFilePath = Paths.get(url.getFile());
+        VCalendar vCalendar = VCalendar.parse(icsFilePath);
+        StringBuilder builder = new StringBuilder();
+        vCalendar.writeTo(builder);
+        String content = builder.toString();
+        assertTrue(content.endsWith("END:VCALENDAR\r\n"));
+        for (String line : content.split("\r\n"))
+        {
+            assertTrue(line, line.getBytes(StandardCharsets.UTF_8).length <= ContentLineWriter.MAX_OCTETS);
+            assertTrue(line, line.indexOf('\n') < 0);
+        }
+        VCalendar writtenVCalendar = VCalendar.parse(Channels.newChannel(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(vCalendar.toString(), writtenVCalendar.toString());
+    }
+
+    @Test
+    public void canFoldAtOctets() throws IOException
+    {
+        VEvent vEvent = new VEvent()
+                .withSummary("Café meeting – " + String.join("", Collections.nCopies(40, "ü")) + " 😀 end");
+        StringBuilder builder = new StringBuilder();
+        vEvent.getSummary().writeTo(builder);
+        String[] lines = builder.toString().split("\r\n");
+        assertTrue(lines.length > 1);
+        for (String line : lines)
+        {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= ContentLineWriter.MAX_OCTETS);
+            assertTrue(! Character.isLowSurrogate(line.charAt(0)));
+        }
+        String unfolded = builder.toString().replace("\r\n ", "");
+        assertEquals(vEvent.getSummary().toString().replaceAll(System.lineSeparator() + " ", "") + "\r\n", unfolded);
+    }
+
+    @Test
+    public void canWriteToChannel() throws IOException
+    {
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(new VEvent()
+                        .withSummary("été")
+                        .withUniqueIdentifier("20150110T080000-0@jfxtras.org"));
+        StringBuilder builder = new StringBuilder();
+        vCalendar.writeTo(builder);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        vCalendar.writeTo(Channels.newChannel(out));
+        assertEquals(builder.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
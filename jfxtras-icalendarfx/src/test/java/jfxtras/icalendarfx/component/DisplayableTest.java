@@ -36,11 +36,14 @@ import java.time.ZonedDateTime;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VDisplayable;
 import jfxtras.icalendarfx.components.VEvent;
@@ -255,6 +258,77 @@ public class DisplayableTest
     }
     
     // Google test
+    @Test // exclusions are cached, but must follow EXDATE and RECURRENCE-ID changes
+    public void canUpdateExclusions()
+    {
+        VEvent parent = new VEvent()
+                .withUniqueIdentifier("a")
+                .withDateTimeStart(LocalDateTime.of(2016, 2, 7, 12, 30))
+                .withRecurrenceRule(RecurrenceRuleValue.parse("FREQ=DAILY"))
+                .withExceptionDates(LocalDateTime.of(2016, 2, 8, 12, 30));
+        VEvent child = new VEvent()
+                .withUniqueIdentifier("a")
+                .withRecurrenceId(LocalDateTime.of(2016, 2, 9, 12, 30))
+                .withDateTimeStart(LocalDateTime.of(2016, 2, 9, 15, 30));
+        VCalendar vCalendar = new VCalendar().withVEvents(parent);
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 7, 12, 30),
+                LocalDateTime.of(2016, 2, 9, 12, 30),
+                LocalDateTime.of(2016, 2, 10, 12, 30)),
+                parent.streamRecurrences().limit(3).collect(Collectors.toList()));
+
+        vCalendar.addChild(child);
+        parent.getExceptionDates().get(0).getValue().add(LocalDateTime.of(2016, 2, 10, 12, 30)); // in place
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 7, 12, 30),
+                LocalDateTime.of(2016, 2, 11, 12, 30)),
+                parent.streamRecurrences().limit(2).collect(Collectors.toList()));
+
+        vCalendar.removeChild(child);
+        parent.setExceptionDates(null);
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 7, 12, 30),
+                LocalDateTime.of(2016, 2, 8, 12, 30),
+                LocalDateTime.of(2016, 2, 9, 12, 30)),
+                parent.streamRecurrences().limit(3).collect(Collectors.toList()));
+    }
+
+    @Test // same-size EXDATE edits and in place RECURRENCE-ID edits must not hit a stale exclusion cache
+    public void canUpdateExclusionsInPlace()
+    {
+        VEvent parent = new VEvent()
+                .withUniqueIdentifier("a")
+                .withDateTimeStart(LocalDateTime.of(2016, 2, 7, 12, 30))
+                .withRecurrenceRule(RecurrenceRuleValue.parse("FREQ=DAILY"))
+                .withExceptionDates(LocalDateTime.of(2016, 2, 8, 12, 30));
+        VEvent child = new VEvent()
+                .withUniqueIdentifier("a")
+                .withRecurrenceId(LocalDateTime.of(2016, 2, 9, 12, 30))
+                .withDateTimeStart(LocalDateTime.of(2016, 2, 9, 15, 30));
+        new VCalendar().withVEvents(parent, child);
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 7, 12, 30),
+                LocalDateTime.of(2016, 2, 10, 12, 30)),
+                parent.streamRecurrences().limit(2).collect(Collectors.toList()));
+
+        Set<Temporal> exceptions = parent.getExceptionDates().get(0).getValue();
+        exceptions.remove(LocalDateTime.of(2016, 2, 8, 12, 30));
+        exceptions.add(LocalDateTime.of(2016, 2, 7, 12, 30)); // same size
+        parent.getExceptionDates().get(0).markDirty();
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 8, 12, 30),
+                LocalDateTime.of(2016, 2, 10, 12, 30)),
+                parent.streamRecurrences().limit(2).collect(Collectors.toList()));
+
+        parent.getExceptionDates().get(0).setValue(new HashSet<>(Arrays.asList(LocalDateTime.of(2016, 2, 8, 12, 30))));
+        child.getRecurrenceId().setValue(LocalDateTime.of(2016, 2, 10, 12, 30));
+        assertEquals(Arrays.asList(
+                LocalDateTime.of(2016, 2, 7, 12, 30),
+                LocalDateTime.of(2016, 2, 9, 12, 30),
+                LocalDateTime.of(2016, 2, 11, 12, 30)),
+                parent.streamRecurrences().limit(3).collect(Collectors.toList()));
+    }
+
     @Test
     public void canStreamGoogleWithExDates()
     {
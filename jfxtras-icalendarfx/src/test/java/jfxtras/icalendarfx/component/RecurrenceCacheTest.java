@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VRepeatable;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceCache;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
+
+public class RecurrenceCacheTest
+{
+    @Test
+    public void canFindClosestStart()
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                .withRecurrenceRule("FREQ=DAILY");
+        assertEquals(LocalDateTime.of(2016, 1, 1, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)));
+        assertEquals(1, e.recurrenceCache().getMissCount());
+
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        assertEquals(4, ((RecurrenceRuleCache) e.recurrenceCache()).size());
+        assertEquals(LocalDateTime.of(2016, 3, 24, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)));
+        assertEquals(LocalDateTime.of(2016, 1, 21, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 1, 21, 10, 0)));
+        assertEquals(2, e.recurrenceCache().getHitCount());
+        assertEquals(LocalDateTime.of(2016, 1, 21, 10, 0), e.recurrenceCache().previousValue(LocalDateTime.of(2016, 1, 22, 10, 0)));
+    }
+
+    @Test
+    public void canInvalidateOnChange()
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                .withRecurrenceRule("FREQ=DAILY");
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        e.getRecurrenceRule().getValue().setInterval(2);
+        assertEquals(LocalDateTime.of(2016, 1, 1, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)));
+        assertEquals(0, ((RecurrenceRuleCache) e.recurrenceCache()).size());
+
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        e.setDateTimeStart(LocalDateTime.of(2016, 1, 2, 10, 0));
+        assertEquals(LocalDateTime.of(2016, 1, 2, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)));
+
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        e.withRecurrenceDates(LocalDateTime.of(2016, 1, 3, 12, 0));
+        assertEquals(LocalDateTime.of(2016, 1, 2, 10, 0), e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)));
+    }
+
+    @Test
+    public void canCountPreviousValueLookups()
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                .withRecurrenceRule("FREQ=DAILY");
+        assertEquals(LocalDateTime.of(2016, 1, 21, 10, 0), e.previousStreamValue(LocalDateTime.of(2016, 1, 22, 10, 0)));
+        assertEquals(0, e.recurrenceCache().getHitCount());
+        assertEquals(1, e.recurrenceCache().getMissCount());
+
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        assertEquals(LocalDateTime.of(2016, 3, 1, 10, 0), e.previousStreamValue(LocalDateTime.of(2016, 3, 2, 10, 0)));
+        assertEquals(1, e.recurrenceCache().getHitCount());
+        assertEquals(1, e.recurrenceCache().getMissCount());
+    }
+
+    @Test
+    public void canInvalidateOnRecurrenceDateChange()
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                .withRecurrenceRule("FREQ=DAILY")
+                .withRecurrenceDates(LocalDateTime.of(2016, 1, 3, 12, 0));
+        e.streamRecurrences().limit(100).collect(Collectors.toList()); // set cache
+        assertEquals(4, ((RecurrenceRuleCache) e.recurrenceCache()).size());
+        e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0)); // unchanged key keeps checkpoints
+        assertEquals(4, ((RecurrenceRuleCache) e.recurrenceCache()).size());
+
+        e.getRecurrenceDates().get(0).setValue(new HashSet<>(Arrays.asList(LocalDateTime.of(2016, 1, 4, 12, 0))));
+        e.recurrenceCache().getClosestStart(LocalDateTime.of(2016, 6, 1, 10, 0));
+        assertEquals(0, ((RecurrenceRuleCache) e.recurrenceCache()).size());
+    }
+
+    @Test
+    public void canEvictLeastRecentlyUsed()
+    {
+        int maxCheckpoints = RecurrenceRuleCache.getMaxCheckpoints();
+        try
+        {
+            VEvent e1 = new VEvent()
+                    .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                    .withRecurrenceRule("FREQ=DAILY");
+            VEvent e2 = new VEvent()
+                    .withDateTimeStart(LocalDateTime.of(2016, 1, 1, 10, 0))
+                    .withRecurrenceRule("FREQ=WEEKLY");
+            e1.streamRecurrences().limit(200).collect(Collectors.toList());
+            RecurrenceRuleCache.setMaxCheckpoints(12); // evicts caches of other tests
+            assertEquals(9, ((RecurrenceRuleCache) e1.recurrenceCache()).size());
+            e2.streamRecurrences().limit(200).collect(Collectors.toList()); // exceeds budget
+            assertEquals(0, ((RecurrenceRuleCache) e1.recurrenceCache()).size());
+            assertEquals(9, ((RecurrenceRuleCache) e2.recurrenceCache()).size());
+        } finally
+        {
+            RecurrenceRuleCache.setMaxCheckpoints(maxCheckpoints);
+        }
+    }
+
+    @Test
+    public void canPlugInCache()
+    {
+        Function<VRepeatable<?>, RecurrenceCache> factory = RecurrenceRuleCache.getFactory();
+        try
+        {
+            RecurrenceCache[] made = new RecurrenceCache[1];
+            RecurrenceRuleCache.setFactory(c ->
+            {
+                made[0] = new RecurrenceRuleCache(c);
+                return made[0];
+            });
+            VEvent e = new VEvent();
+            assertSame(made[0], e.recurrenceCache());
+        } finally
+        {
+            RecurrenceRuleCache.setFactory(factory);
+        }
+    }
+}
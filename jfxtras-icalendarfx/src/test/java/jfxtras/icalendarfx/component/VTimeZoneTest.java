@@ -27,12 +27,28 @@
 package jfxtras.icalendarfx.component;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRules;
 
 import org.junit.Test;
 
 import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.StandardTime;
 import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
 import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 
 public class VTimeZoneTest
 {
@@ -124,4 +140,143 @@ public class VTimeZoneTest
         assertEquals(expectedContent, component.toString());
         assertEquals(builtComponent.toString(), component.toString());
     }
+    
+    @Test
+    public void canCompileZoneRules()
+    {
+        VTimeZone component = ICalendarTestAbstract.getTimeZone1();
+        ZoneRules zoneRules = component.toZoneRules();
+        ZoneRules expectedZoneRules = ZoneId.of("America/New_York").getRules();
+        Instant end = Instant.parse("2040-01-01T00:00:00Z");
+        for (Instant instant = Instant.parse("1968-01-01T00:00:00Z"); instant.isBefore(end); instant = instant.plus(6, ChronoUnit.HOURS))
+        {
+            assertEquals(instant.toString(), expectedZoneRules.getOffset(instant), zoneRules.getOffset(instant));
+        }
+        assertSame(zoneRules, ICalendarTestAbstract.getTimeZone1().toZoneRules());
+        assertEquals(ZoneId.of("America/New_York"), component.toZoneId());
+    }
+    
+    @Test
+    public void canResolveInlineTimeZone()
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:W. Europe Standard Time" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:16010101T030000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0200" + System.lineSeparator() +
+                "TZOFFSETTO:+0100" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=10" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "BEGIN:DAYLIGHT" + System.lineSeparator() +
+                "DTSTART:16010101T020000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0100" + System.lineSeparator() +
+                "TZOFFSETTO:+0200" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=3" + System.lineSeparator() +
+                "END:DAYLIGHT" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:20160705T100000-0@jfxtras.org" + System.lineSeparator() +
+                "DTSTAMP:20160101T000000Z" + System.lineSeparator() +
+                "DTSTART;TZID=W. Europe Standard Time:20160705T100000" + System.lineSeparator() +
+                "DTEND;TZID=W. Europe Standard Time:20161230T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        VCalendar vCalendar = VCalendar.parse(content);
+        VTimeZone vTimeZone = vCalendar.getVTimeZones().get(0);
+        ZoneRules zoneRules = vTimeZone.toZoneRules();
+        assertEquals(2, zoneRules.getTransitionRules().size());
+        assertEquals(ZoneOffset.ofHours(2), zoneRules.getOffset(LocalDateTime.of(2016, 7, 5, 10, 0)));
+        assertEquals(ZoneOffset.ofHours(1), zoneRules.getOffset(LocalDateTime.of(2016, 10, 30, 3, 0)));
+
+        VEvent vEvent = vCalendar.getVEvents().get(0);
+        ZonedDateTime dateTimeStart = (ZonedDateTime) vEvent.getDateTimeStart().getValue();
+        ZonedDateTime dateTimeEnd = (ZonedDateTime) vEvent.getDateTimeEnd().getValue();
+        assertEquals(vTimeZone.toZoneId(), dateTimeStart.getZone());
+        assertEquals(Instant.parse("2016-07-05T08:00:00Z"), dateTimeStart.toInstant());
+        assertEquals(Instant.parse("2016-12-30T09:00:00Z"), dateTimeEnd.toInstant());
+        assertEquals(content, vCalendar.toString()); // TZID isn't replaced by the resolved region
+    }
+    
+    @Test
+    public void canResolveUnmatchedTimeZone()
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:My Custom Zone" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:19700101T000000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0137" + System.lineSeparator() +
+                "TZOFFSETTO:+0137" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "UID:20160705T100000-0@jfxtras.org" + System.lineSeparator() +
+                "DTSTAMP:20160101T000000Z" + System.lineSeparator() +
+                "DTSTART;TZID=My Custom Zone:20160705T100000" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        VCalendar vCalendar = VCalendar.parse(content);
+        ZoneId zoneId = vCalendar.getVTimeZones().get(0).toZoneId();
+        assertTrue(zoneId.getId().startsWith("VTIMEZONE/My_Custom_Zone/"));
+        assertEquals(ZoneOffset.ofHoursMinutes(1, 37), zoneId.getRules().getOffset(Instant.parse("2016-07-05T00:00:00Z")));
+        ZonedDateTime dateTimeStart = (ZonedDateTime) vCalendar.getVEvents().get(0).getDateTimeStart().getValue();
+        assertEquals(zoneId, dateTimeStart.getZone());
+        assertEquals(Instant.parse("2016-07-05T08:23:00Z"), dateTimeStart.toInstant());
+        assertEquals(content, vCalendar.toString());
+    }
+    
+    @Test // past the limit of registered zones, unmatched rules fall back to their standard offset
+    public void canLimitCompiledTimeZones()
+    {
+        int maxCompiledZones = VTimeZone.getMaxCompiledZones();
+        try
+        {
+            VTimeZone.setMaxCompiledZones(0);
+            VTimeZone vTimeZone = VTimeZone.parse("BEGIN:VTIMEZONE" + System.lineSeparator() +
+                    "TZID:Limited Custom Zone" + System.lineSeparator() +
+                    "BEGIN:STANDARD" + System.lineSeparator() +
+                    "DTSTART:19700101T000000" + System.lineSeparator() +
+                    "TZOFFSETFROM:+0251" + System.lineSeparator() +
+                    "TZOFFSETTO:+0251" + System.lineSeparator() +
+                    "END:STANDARD" + System.lineSeparator() +
+                    "END:VTIMEZONE");
+            assertEquals(ZoneOffset.ofHoursMinutes(2, 51), vTimeZone.toZoneId());
+            assertFalse(ZoneId.getAvailableZoneIds().stream().anyMatch(id -> id.startsWith("VTIMEZONE/Limited_Custom_Zone/")));
+        } finally
+        {
+            VTimeZone.setMaxCompiledZones(maxCompiledZones);
+        }
+    }
+    
+    @Test (expected = DateTimeException.class) // inline TZIDs only resolve while parsing their calendar
+    public void canKeepInlineTimeZoneInItsCalendar()
+    {
+        VCalendar.parse("BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:Other Custom Zone" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:19700101T000000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0100" + System.lineSeparator() +
+                "TZOFFSETTO:+0100" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "END:VCALENDAR");
+        DateTimeUtilities.zoneIdFromString("Other Custom Zone");
+    }
+    
+    @Test
+    public void canCacheZoneRulesUntilChanged()
+    {
+        VTimeZone vTimeZone = new VTimeZone()
+                .withTimeZoneIdentifier("My Custom Zone")
+                .withStandardOrDaylight(new StandardTime()
+                        .withDateTimeStart("19700101T000000")
+                        .withTimeZoneOffsetFrom("+0137")
+                        .withTimeZoneOffsetTo("+0137"));
+        ZoneRules zoneRules = vTimeZone.toZoneRules();
+        assertSame(zoneRules, vTimeZone.toZoneRules());
+        vTimeZone.getStandardOrDaylight().get(0).setTimeZoneOffsetTo("+0138");
+        assertEquals(ZoneOffset.ofHoursMinutes(1, 38), vTimeZone.toZoneRules().getOffset(Instant.parse("2016-07-05T00:00:00Z")));
+    }
 }
@@ -27,12 +27,16 @@
 package jfxtras.icalendarfx.parameter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -73,6 +77,61 @@ public class ParseDateTest
         Temporal t = DateTimeUtilities.temporalFromString(value);
         assertEquals(LocalDate.of(2016, 3, 7), t);
     }    
+
+    @Test
+    public void canParseDate5()
+    {
+        String value = "[America/New_York]20160306T080000Z";
+        Temporal t = DateTimeUtilities.temporalFromString(value);
+        assertEquals(ZonedDateTime.of(LocalDateTime.of(2016, 3, 6, 3, 0), ZoneId.of("America/New_York")), t);
+    }
+
+    @Test
+    public void canParseDate6()
+    {
+        String value = "DTSTART;VALUE=DATE-TIME;TZID=\"america/los_angeles\":20160228T070000";
+        Temporal t = DateTimeUtilities.temporalFromString(value);
+        assertEquals(ZonedDateTime.of(LocalDateTime.of(2016, 2, 28, 7, 0), ZoneId.of("America/Los_Angeles")), t);
+    }
+
+    @Test
+    public void canCatchInvalidDates()
+    {
+        for (String value : Arrays.asList("2016022", "20160228T0700", "20160228X070000", "2016O228", "20160230",
+                "20160228T250000", "TZID=America/Los_Angeles:20160228", "TZID=Not/AZone:20160228T070000"))
+        {
+            try
+            {
+                DateTimeUtilities.temporalFromString(value);
+                fail("no exception for " + value);
+            } catch (DateTimeException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    /* compare with parsing by the DateTimeFormatters */
+    @Test
+    public void canParseSameAsFormatters()
+    {
+        Random random = new Random(13);
+        for (int i=0; i<2000; i++)
+        {
+            LocalDateTime localDateTime = LocalDateTime.of(1900 + random.nextInt(300), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            String dateTime = DateTimeUtilities.LOCAL_DATE_TIME_FORMATTER.format(localDateTime);
+            assertEquals(LocalDateTime.parse(dateTime, DateTimeUtilities.LOCAL_DATE_TIME_FORMATTER),
+                    DateTimeUtilities.temporalFromString(dateTime));
+            assertEquals(ZonedDateTime.parse(dateTime + "Z", DateTimeUtilities.ZONED_DATE_TIME_UTC_FORMATTER),
+                    DateTimeUtilities.temporalFromString(dateTime + "Z"));
+            assertEquals(ZonedDateTime.parse("[Europe/Berlin]" + dateTime, DateTimeUtilities.ZONED_DATE_TIME_FORMATTER),
+                    DateTimeUtilities.temporalFromString("DTEND;TZID=Europe/Berlin:" + dateTime));
+            String date = dateTime.substring(0, 8);
+            assertEquals(LocalDate.parse(date, DateTimeUtilities.LOCAL_DATE_FORMATTER),
+                    DateTimeUtilities.temporalFromString(date));
+        }
+    }
    
 
 }
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.parameter.rrule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceIterator;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+
+public class RecurrenceIteratorTest
+{
+    @Test
+    public void canIterateWithByRules()
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH;COUNT=5");
+        Temporal dateTimeStart = LocalDateTime.of(2016, 1, 5, 10, 0);
+        List<Temporal> expectedRecurrences = Arrays.asList(
+                LocalDateTime.of(2016, 1, 5, 10, 0)
+              , LocalDateTime.of(2016, 1, 7, 10, 0)
+              , LocalDateTime.of(2016, 1, 19, 10, 0)
+              , LocalDateTime.of(2016, 1, 21, 10, 0)
+              , LocalDateTime.of(2016, 2, 2, 10, 0)
+                );
+        List<Temporal> madeRecurrences = new ArrayList<>();
+        RecurrenceIterator iterator = rRule.iterator(dateTimeStart);
+        iterator.forEachRemaining(madeRecurrences::add);
+        assertEquals(expectedRecurrences, madeRecurrences);
+        assertEquals(expectedRecurrences, rRule.streamRecurrences(dateTimeStart).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void canIterateWithUntil()
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=DAILY;INTERVAL=3;UNTIL=20160110T000000Z");
+        Temporal dateTimeStart = ZonedDateTime.of(LocalDateTime.of(2016, 1, 1, 10, 0), ZoneId.of("Europe/London"));
+        List<Temporal> expectedRecurrences = Arrays.asList(
+                ZonedDateTime.of(LocalDateTime.of(2016, 1, 1, 10, 0), ZoneId.of("Europe/London"))
+              , ZonedDateTime.of(LocalDateTime.of(2016, 1, 4, 10, 0), ZoneId.of("Europe/London"))
+              , ZonedDateTime.of(LocalDateTime.of(2016, 1, 7, 10, 0), ZoneId.of("Europe/London"))
+                );
+        assertEquals(expectedRecurrences, rRule.streamRecurrences(dateTimeStart).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void canAdvanceTo()
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=MONTHLY;BYMONTHDAY=1,15;COUNT=10");
+        Temporal dateTimeStart = LocalDate.of(2016, 1, 1);
+        RecurrenceIterator iterator = rRule.iterator(dateTimeStart).advanceTo(LocalDate.of(2016, 3, 10));
+        assertEquals(LocalDate.of(2016, 3, 15), iterator.next());
+        // skipped recurrences count towards COUNT
+        List<Temporal> madeRecurrences = new ArrayList<>();
+        iterator.forEachRemaining(madeRecurrences::add);
+        assertEquals(LocalDate.of(2016, 5, 15), madeRecurrences.get(madeRecurrences.size()-1));
+        assertFalse(iterator.hasNext());
+    }
+
+    /* Seeking must give the same recurrences as stepping through all the earlier ones */
+    @Test
+    public void canSeekSameAsIterate()
+    {
+        List<String> rules = Arrays.asList(
+                "FREQ=MINUTELY;INTERVAL=7",
+                "FREQ=HOURLY;INTERVAL=5;COUNT=3000",
+                "FREQ=DAILY;INTERVAL=3",
+                "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+                "FREQ=MONTHLY;BYDAY=-1FR",
+                "FREQ=MONTHLY;INTERVAL=2;BYMONTHDAY=30,31;COUNT=40",
+                "FREQ=YEARLY;BYMONTH=3,11;BYDAY=1SU;BYHOUR=9,17",
+                "FREQ=YEARLY;BYWEEKNO=1,53;BYDAY=MO");
+        Temporal dateTimeStart = ZonedDateTime.of(LocalDateTime.of(2015, 1, 5, 9, 0), ZoneId.of("America/Los_Angeles"));
+        List<Temporal> targets = Arrays.asList(
+                ZonedDateTime.of(LocalDateTime.of(2015, 1, 5, 9, 0), ZoneId.of("America/Los_Angeles")),
+                ZonedDateTime.of(LocalDateTime.of(2015, 3, 8, 2, 30), ZoneId.of("America/Los_Angeles")),
+                ZonedDateTime.of(LocalDateTime.of(2016, 1, 1, 0, 0), ZoneId.of("America/Los_Angeles")),
+                ZonedDateTime.of(LocalDateTime.of(2018, 11, 4, 1, 30), ZoneId.of("America/Los_Angeles")));
+        for (String rule : rules)
+        {
+            RecurrenceRuleValue rRule = RecurrenceRuleValue.parse(rule);
+            for (Temporal target : targets)
+            {
+                Iterator<Temporal> linear = rRule.iterator(dateTimeStart);
+                Temporal expected = null;
+                while (linear.hasNext())
+                {
+                    Temporal t = linear.next();
+                    if (! DateTimeUtilities.isBefore(t, target))
+                    {
+                        expected = t;
+                        break;
+                    }
+                }
+                RecurrenceIterator seeking = rRule.iterator(dateTimeStart).advanceTo(target);
+                Temporal seeked = seeking.hasNext() ? seeking.next() : null;
+                assertEquals(rule + " " + target, expected, seeked);
+                if (expected != null)
+                {
+                    assertEquals(rule + " " + target, linear.hasNext() ? linear.next() : null, seeking.hasNext() ? seeking.next() : null);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void canSeekCounted()
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=MINUTELY;INTERVAL=15;COUNT=100");
+        Temporal dateTimeStart = LocalDateTime.of(2016, 1, 1, 0, 0);
+        RecurrenceIterator iterator = rRule.iterator(dateTimeStart).advanceTo(LocalDateTime.of(2016, 1, 2, 0, 0));
+        assertEquals(LocalDateTime.of(2016, 1, 2, 0, 0), iterator.next());
+        assertEquals(3, rRule.streamRecurrences(dateTimeStart, LocalDateTime.of(2016, 1, 2, 0, 15)).count());
+        assertFalse(rRule.iterator(dateTimeStart).advanceTo(LocalDateTime.of(2017, 1, 1, 0, 0)).hasNext());
+    }
+
+    /* Periods are computed from the start, so a short month doesn't move later recurrences */
+    @Test
+    public void canKeepMonthEnd()
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=MONTHLY");
+        Temporal dateTimeStart = LocalDate.of(2016, 1, 31);
+        List<Temporal> expectedRecurrences = Arrays.asList(
+                LocalDate.of(2016, 1, 31)
+              , LocalDate.of(2016, 2, 29)
+              , LocalDate.of(2016, 3, 31)
+                );
+        assertEquals(expectedRecurrences, rRule.streamRecurrences(dateTimeStart).limit(3).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void canIterateFromManyThreads() throws Exception
+    {
+        RecurrenceRuleValue rRule = RecurrenceRuleValue.parse("FREQ=YEARLY;BYMONTH=1,7;BYDAY=-1FR");
+        Temporal dateTimeStart = LocalDateTime.of(2016, 1, 29, 9, 0);
+        List<Temporal> expectedRecurrences = rRule.streamRecurrences(dateTimeStart).limit(200).collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Callable<List<Temporal>>> tasks = new ArrayList<>();
+            for (int i=0; i<8; i++)
+            {
+                tasks.add(() -> rRule.streamRecurrences(dateTimeStart).limit(200).collect(Collectors.toList()));
+            }
+            for (Future<List<Temporal>> result : executor.invokeAll(tasks))
+            {
+                assertEquals(expectedRecurrences, result.get());
+            }
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2011-2024, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL JFXTRAS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.trial;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jfxtras.icalendarfx.VCalendar;
+
+/**
+ * Benchmark of parsing a large ics file, comparing the channel parser of {@link VCalendar#parse(Path)} with the
+ * Reader parser of {@link VCalendar#parse(java.io.Reader)}.
+ * Run it as an application, optionally with the number of events as argument; the time and peak heap are printed to stdout.
+ * Run each parser in its own JVM (second argument "channel" or "reader") to keep the heap of one out of the other.
+ */
+public class ParseTrial
+{
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    
+    public static void main(String[] args) throws IOException
+    {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        String parser = (args.length > 1) ? args[1] : null;
+        Path icsFilePath = Files.createTempFile("ParseTrial", ".ics");
+        try
+        {
+            createCalendar(icsFilePath, size);
+            System.out.println(String.format("%d events, %.1f MB", size, Files.size(icsFilePath) / 1024.0 / 1024.0));
+            
+            // warm up both
+            parse(icsFilePath, false);
+            parse(icsFilePath, true);
+            
+            if (parser == null || parser.equals("channel")) measure(icsFilePath, false);
+            if (parser == null || parser.equals("reader")) measure(icsFilePath, true);
+        } finally
+        {
+            Files.delete(icsFilePath);
+        }
+    }
+    
+    /*
+     * parse once and print the elapsed time, the peak heap during the parse and the heap retained by the calendar
+     */
+    static void measure(Path icsFilePath, boolean reader) throws IOException
+    {
+        System.gc();
+        long baseHeap = usedHeap();
+        
+        // sample the used heap while parsing, the peak is approximate because of the sample interval
+        AtomicLong peakHeap = new AtomicLong(baseHeap);
+        Thread sampler = new Thread(() ->
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                peakHeap.accumulateAndGet(usedHeap(), Math::max);
+                try
+                {
+                    Thread.sleep(1);
+                } catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+        
+        long start = System.nanoTime();
+        VCalendar vCalendar = parse(icsFilePath, reader);
+        double elapsedMS = (System.nanoTime() - start) / 1000000.0;
+        sampler.interrupt();
+        try
+        {
+            sampler.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        
+        System.gc();
+        long retainedHeap = usedHeap() - baseHeap;
+        System.out.println(String.format("%-7s %6d events in %8.1f ms, peak heap %6.1f MB, retained %6.1f MB",
+                reader ? "reader" : "channel",
+                vCalendar.getVEvents().size(),
+                elapsedMS,
+                (peakHeap.get() - baseHeap) / 1024.0 / 1024.0,
+                retainedHeap / 1024.0 / 1024.0));
+    }
+    
+    static VCalendar parse(Path icsFilePath, boolean reader) throws IOException
+    {
+        if (reader)
+        {
+            return VCalendar.parse(Files.newBufferedReader(icsFilePath));
+        }
+        return VCalendar.parse(icsFilePath);
+    }
+    
+    static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    /*
+     * one hour events with a long, folded description, a tenth of them weekly recurring
+     */
+    static void createCalendar(Path icsFilePath, int size) throws IOException
+    {
+        Random random = new Random(size);
+        LocalDateTime firstStart = LocalDateTime.of(2016, 1, 1, 8, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(icsFilePath, StandardCharsets.UTF_8))
+        {
+            writer.write("BEGIN:VCALENDAR\r\n");
+            writer.write("VERSION:2.0\r\n");
+            writer.write("PRODID:-//JFxtras//ParseTrial//EN\r\n");
+            for (int i = 0; i < size; i++)
+            {
+                LocalDateTime start = firstStart.plusDays(random.nextInt(3650)).plusMinutes(15 * random.nextInt(40));
+                writer.write("BEGIN:VEVENT\r\n");
+                writer.write("UID:" + i + "@jfxtras.org\r\n");
+                writer.write("DTSTAMP:20160101T000000Z\r\n");
+                writer.write("DTSTART:" + FORMATTER.format(start) + "\r\n");
+                writer.write("DTEND:" + FORMATTER.format(start.plusHours(1)) + "\r\n");
+                writer.write("SUMMARY:Event " + i + "\r\n");
+                writer.write("DESCRIPTION:A description that is long enough to be folded over more than one\r\n");
+                writer.write("  content line, as most exported calendars do for notes of meetings\r\n");
+                if (i % 10 == 0)
+                {
+                    writer.write("RRULE:FREQ=WEEKLY;COUNT=10\r\n");
+                }
+                writer.write("END:VEVENT\r\n");
+            }
+            writer.write("END:VCALENDAR\r\n");
+        }
+    }
+}